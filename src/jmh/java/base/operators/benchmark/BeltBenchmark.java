@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import base.operators.Process;
+import base.operators.adaption.belt.ContextAdapter;
+import base.operators.adaption.belt.IOTable;
+import base.operators.belt.execution.Context;
+import base.operators.belt.table.BeltConverter;
+import base.operators.belt.table.Builders;
+import base.operators.belt.table.Table;
+import base.operators.belt.table.TableBuilder;
+import base.operators.belt.util.Order;
+import base.operators.belt.util.Sorting;
+import base.operators.benchmark.BenchmarkData.Shape;
+import base.operators.core.concurrency.ConcurrencyContext;
+import base.operators.example.ExampleSet;
+import base.operators.studio.concurrency.internal.BackgroundConcurrencyContext;
+
+
+/**
+ * Benchmarks for the conversion between example sets and belt tables and for the columnar belt
+ * operations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BeltBenchmark {
+
+	@Param({ "DENSE", "SPARSE", "NOMINAL", "WIDE", "TALL" })
+	public Shape shape;
+
+	@Param({ "100000" })
+	public int rows;
+
+	private ConcurrencyContext concurrencyContext;
+	private Context context;
+	private ExampleSet exampleSet;
+	private IOTable table;
+	private double[] column;
+
+	@Setup
+	public void setup() {
+		Process process = BenchmarkData.createProcess();
+		concurrencyContext = new BackgroundConcurrencyContext(process);
+		context = ContextAdapter.adapt(concurrencyContext);
+		exampleSet = BenchmarkData.createExampleSet(shape, rows);
+		table = BeltConverter.convert(exampleSet, concurrencyContext);
+		column = BenchmarkData.createColumn(0, shape.getRows(rows));
+	}
+
+	@Benchmark
+	public IOTable exampleSetToTable() {
+		return BeltConverter.convert(exampleSet, concurrencyContext);
+	}
+
+	@Benchmark
+	public ExampleSet tableToExampleSet() {
+		return BeltConverter.convert(table, concurrencyContext);
+	}
+
+	@Benchmark
+	public ExampleSet tableToExampleSetSequentially() {
+		return BeltConverter.convertSequentially(table);
+	}
+
+	@Benchmark
+	public Table buildTable() {
+		int size = shape.getRows(rows);
+		TableBuilder builder = Builders.newTableBuilder(size);
+		for (int i = 0; i < 10; i++) {
+			final double[] values = BenchmarkData.createColumn(i, size);
+			builder.addReal("real_" + i, row -> values[row]);
+		}
+		builder.addNominal("nominal", row -> "value" + (row % BenchmarkData.NUMBER_OF_GROUPS));
+		return builder.build(context);
+	}
+
+	@Benchmark
+	public int[] sortColumn() {
+		return Sorting.sort(column, Order.ASCENDING);
+	}
+}
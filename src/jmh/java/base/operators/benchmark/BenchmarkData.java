@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+import base.operators.Process;
+import base.operators.example.Attribute;
+import base.operators.example.Attributes;
+import base.operators.example.ExampleSet;
+import base.operators.example.table.AttributeFactory;
+import base.operators.example.utils.ExampleSetBuilder;
+import base.operators.example.utils.ExampleSetBuilder.DataManagement;
+import base.operators.example.utils.ExampleSets;
+import base.operators.operator.Operator;
+import base.operators.operator.OperatorCreationException;
+import base.operators.tools.OperatorService;
+import base.operators.tools.Ontology;
+
+
+/**
+ * Creates the synthetic example sets and the operator environment for the benchmarks. All values
+ * are derived from the row and column index by a hash function, so the data is identical in every
+ * run and independent of the order in which the columns are filled.
+ * <p>
+ * Every example set contains an integer id attribute with the id role, a nominal {@code group}
+ * attribute with {@value #NUMBER_OF_GROUPS} values and a binominal label which depends on the
+ * first numerical attribute. The remaining attributes are determined by the {@link Shape}.
+ */
+public final class BenchmarkData {
+
+	/** The shapes of the generated example sets. */
+	public enum Shape {
+
+		/** 20 numerical attributes. */
+		DENSE(20, 0, 1, false),
+
+		/** 20 numerical attributes, 95% of their values are zero. */
+		SPARSE(20, 0, 1, true),
+
+		/** 20 nominal attributes with 1000 values each and 4 numerical attributes. */
+		NOMINAL(4, 20, 1, false),
+
+		/** 500 numerical attributes and a tenth of the rows. */
+		WIDE(500, 0, 0.1, false),
+
+		/** 4 numerical attributes and ten times the rows. */
+		TALL(4, 0, 10, false);
+
+		private final int numericalAttributes;
+		private final int nominalAttributes;
+		private final double rowFactor;
+		private final boolean sparse;
+
+		Shape(int numericalAttributes, int nominalAttributes, double rowFactor, boolean sparse) {
+			this.numericalAttributes = numericalAttributes;
+			this.nominalAttributes = nominalAttributes;
+			this.rowFactor = rowFactor;
+			this.sparse = sparse;
+		}
+
+		/** Returns the number of rows of an example set of this shape for the given base size. */
+		public int getRows(int rows) {
+			return Math.max(1, (int) (rows * rowFactor));
+		}
+	}
+
+	/** The number of values of the nominal group attribute. */
+	public static final int NUMBER_OF_GROUPS = 100;
+
+	/** The number of values of the other nominal attributes. */
+	public static final int NUMBER_OF_NOMINAL_VALUES = 1000;
+
+	/** The name of the first numerical attribute. */
+	public static final String FIRST_NUMERICAL_ATTRIBUTE = "att_0";
+
+	public static final String GROUP_ATTRIBUTE = "group";
+
+	private static final double SPARSE_DENSITY = 0.05;
+
+	private static final int ID_COLUMN = -1;
+	private static final int GROUP_COLUMN = -2;
+	private static final int LABEL_COLUMN = -3;
+	private static final int JOIN_COLUMN = -4;
+
+	private BenchmarkData() {
+		throw new AssertionError("Utility class must not be instantiated");
+	}
+
+	/**
+	 * Creates an example set of the given shape.
+	 *
+	 * @param shape
+	 *            the attributes and the relative number of rows
+	 * @param rows
+	 *            the base number of rows, see {@link Shape#getRows(int)}
+	 */
+	public static ExampleSet createExampleSet(Shape shape, int rows) {
+		int size = shape.getRows(rows);
+		List<Attribute> attributes = new ArrayList<>();
+		Attribute id = AttributeFactory.createAttribute(Attributes.ID_NAME, Ontology.INTEGER);
+		Attribute group = createNominalAttribute(GROUP_ATTRIBUTE, Ontology.POLYNOMINAL, NUMBER_OF_GROUPS);
+		Attribute label = AttributeFactory.createAttribute(Attributes.LABEL_NAME, Ontology.BINOMINAL);
+		label.getMapping().mapString("no");
+		label.getMapping().mapString("yes");
+		attributes.add(id);
+		attributes.add(group);
+		attributes.add(label);
+
+		ExampleSetBuilder builder = ExampleSets.from(attributes).withBlankSize(size)
+				.withOptimizationHint(DataManagement.AUTO);
+		builder.withColumnFiller(id, row -> row);
+		builder.withColumnFiller(group, row -> (int) (uniform(GROUP_COLUMN, row) * NUMBER_OF_GROUPS));
+		builder.withColumnFiller(label, row -> uniform(LABEL_COLUMN, row) < 0.2 + 0.6 * uniform(0, row) ? 1 : 0);
+
+		for (int i = 0; i < shape.numericalAttributes; i++) {
+			Attribute attribute = AttributeFactory.createAttribute("att_" + i, Ontology.REAL);
+			attributes.add(attribute);
+			builder.withColumnFiller(attribute, numericalValues(i, shape.sparse));
+		}
+		for (int i = 0; i < shape.nominalAttributes; i++) {
+			Attribute attribute = createNominalAttribute("nom_" + i, Ontology.POLYNOMINAL, NUMBER_OF_NOMINAL_VALUES);
+			attributes.add(attribute);
+			final int column = shape.numericalAttributes + i;
+			builder.withColumnFiller(attribute, row -> (int) (uniform(column, row) * NUMBER_OF_NOMINAL_VALUES));
+		}
+
+		return builder.withRole(id, Attributes.ID_NAME).withRole(label, Attributes.LABEL_NAME).build();
+	}
+
+	/**
+	 * Creates an example set which can be joined with {@link #createExampleSet(Shape, int)} by the
+	 * id attribute. It contains every second id of the given number of rows in pseudo-random order
+	 * and five numerical attributes.
+	 */
+	public static ExampleSet createJoinPartner(int rows) {
+		int size = Math.max(1, rows / 2);
+		List<Attribute> attributes = new ArrayList<>();
+		Attribute id = AttributeFactory.createAttribute(Attributes.ID_NAME, Ontology.INTEGER);
+		attributes.add(id);
+		ExampleSetBuilder builder = ExampleSets.from(attributes).withBlankSize(size);
+		// a multiplicative permutation of the even ids
+		final long multiplier = size % 7 == 0 ? 11 : 7;
+		builder.withColumnFiller(id, row -> 2 * ((row * multiplier) % size));
+		for (int i = 0; i < 5; i++) {
+			Attribute attribute = AttributeFactory.createAttribute("right_" + i, Ontology.REAL);
+			attributes.add(attribute);
+			builder.withColumnFiller(attribute, numericalValues(JOIN_COLUMN - i, false));
+		}
+		return builder.withRole(id, Attributes.ID_NAME).build();
+	}
+
+	/**
+	 * Returns the values of the given numerical attribute of an example set of the given shape in
+	 * row order.
+	 */
+	public static double[] createColumn(int column, int rows) {
+		double[] values = new double[rows];
+		IntToDoubleFunction generator = numericalValues(column, false);
+		for (int row = 0; row < rows; row++) {
+			values[row] = generator.applyAsDouble(row);
+		}
+		return values;
+	}
+
+	/**
+	 * Creates a new process. Operators need to be part of a process to access their concurrency
+	 * context.
+	 */
+	public static Process createProcess() {
+		return new Process();
+	}
+
+	/** Creates an operator of the given class and adds it to the root of the process. */
+	public static <T extends Operator> T createOperator(Process process, Class<T> operatorClass)
+			throws OperatorCreationException {
+		T operator = OperatorService.createOperator(operatorClass);
+		process.getRootOperator().getSubprocess(0).addOperator(operator);
+		return operator;
+	}
+
+	private static Attribute createNominalAttribute(String name, int valueType, int numberOfValues) {
+		Attribute attribute = AttributeFactory.createAttribute(name, valueType);
+		for (int i = 0; i < numberOfValues; i++) {
+			attribute.getMapping().mapString("value" + i);
+		}
+		return attribute;
+	}
+
+	private static IntToDoubleFunction numericalValues(int column, boolean sparse) {
+		if (sparse) {
+			return row -> uniform(column, row) < SPARSE_DENSITY ? uniform(column + 0x5DEECE66DL, row) : 0;
+		}
+		return row -> uniform(column, row);
+	}
+
+	/** Returns a pseudo-random value in [0, 1) for the given column and row. */
+	private static double uniform(long column, int row) {
+		long z = column * 0x9E3779B97F4A7C15L + row;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+		return (z >>> 11) * 0x1.0p-53;
+	}
+}
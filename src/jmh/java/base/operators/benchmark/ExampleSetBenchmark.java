@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import base.operators.benchmark.BenchmarkData.Shape;
+import base.operators.example.Attribute;
+import base.operators.example.Attributes;
+import base.operators.example.Example;
+import base.operators.example.ExampleSet;
+
+
+/**
+ * Benchmarks for creating example sets and reading their values through the row-oriented
+ * {@link Example} view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ExampleSetBenchmark {
+
+	@Param({ "DENSE", "SPARSE", "NOMINAL", "WIDE", "TALL" })
+	public Shape shape;
+
+	@Param({ "100000" })
+	public int rows;
+
+	private ExampleSet exampleSet;
+
+	@Setup
+	public void setup() {
+		exampleSet = BenchmarkData.createExampleSet(shape, rows);
+	}
+
+	@Benchmark
+	public ExampleSet build() {
+		return BenchmarkData.createExampleSet(shape, rows);
+	}
+
+	@Benchmark
+	public double iterateRegular() {
+		Attribute[] attributes = exampleSet.getAttributes().createRegularAttributeArray();
+		double sum = 0;
+		for (Example example : exampleSet) {
+			for (Attribute attribute : attributes) {
+				sum += example.getValue(attribute);
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double iterateLabel() {
+		Attribute label = exampleSet.getAttributes().getSpecial(Attributes.LABEL_NAME);
+		double sum = 0;
+		for (Example example : exampleSet) {
+			sum += example.getValue(label);
+		}
+		return sum;
+	}
+}
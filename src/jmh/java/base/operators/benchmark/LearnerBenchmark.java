@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import base.operators.Process;
+import base.operators.benchmark.BenchmarkData.Shape;
+import base.operators.example.ExampleSet;
+import base.operators.operator.Model;
+import base.operators.operator.OperatorException;
+import base.operators.operator.learner.AbstractLearner;
+import base.operators.operator.learner.PredictionModel;
+import base.operators.operator.learner.bayes.NaiveBayes;
+import base.operators.operator.learner.lazy.KNNLearner;
+import base.operators.operator.learner.tree.ParallelDecisionTreeLearner;
+import base.operators.operator.learner.tree.ParallelRandomForestLearner;
+
+
+/**
+ * Benchmarks for training models and applying them to the training data. The learners are
+ * measured with their default parameters on smaller example sets than the data layer benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class LearnerBenchmark {
+
+	/** The learners under test. */
+	public enum Algorithm {
+
+		DECISION_TREE(ParallelDecisionTreeLearner.class),
+
+		RANDOM_FOREST(ParallelRandomForestLearner.class),
+
+		NAIVE_BAYES(NaiveBayes.class),
+
+		K_NN(KNNLearner.class);
+
+		private final Class<? extends AbstractLearner> learnerClass;
+
+		Algorithm(Class<? extends AbstractLearner> learnerClass) {
+			this.learnerClass = learnerClass;
+		}
+	}
+
+	@Param({ "DECISION_TREE", "RANDOM_FOREST", "NAIVE_BAYES", "K_NN" })
+	public Algorithm algorithm;
+
+	@Param({ "DENSE", "NOMINAL" })
+	public Shape shape;
+
+	@Param({ "10000" })
+	public int rows;
+
+	private AbstractLearner learner;
+	private Model model;
+	private ExampleSet exampleSet;
+
+	@Setup
+	public void setup() throws Exception {
+		exampleSet = BenchmarkData.createExampleSet(shape, rows);
+		Process process = BenchmarkData.createProcess();
+		learner = BenchmarkData.createOperator(process, algorithm.learnerClass);
+		model = learner.learn(exampleSet);
+	}
+
+	@Benchmark
+	public Model learn() throws OperatorException {
+		return learner.learn(exampleSet);
+	}
+
+	@Benchmark
+	public ExampleSet apply() throws OperatorException {
+		ExampleSet result = model.apply((ExampleSet) exampleSet.clone());
+		PredictionModel.removePredictedLabel(result);
+		return result;
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.benchmark;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import base.operators.Process;
+import base.operators.benchmark.BenchmarkData.Shape;
+import base.operators.example.Attributes;
+import base.operators.example.ExampleSet;
+import base.operators.example.set.SortedExampleSet;
+import base.operators.operator.OperatorException;
+import base.operators.operator.preprocessing.filter.Sorting;
+import base.operators.operator.preprocessing.join.ExampleSetJoin;
+import base.operators.operator.preprocessing.transformation.aggregation.AggregationFunction;
+import base.operators.operator.preprocessing.transformation.aggregation.AggregationOperator;
+import base.operators.parameter.ParameterTypeList;
+
+
+/**
+ * Benchmarks for the operators which dominate the run time of typical preprocessing pipelines.
+ * The operators are executed directly on the input data without running a process.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class OperatorBenchmark {
+
+	@Param({ "DENSE", "NOMINAL", "TALL" })
+	public Shape shape;
+
+	@Param({ "100000" })
+	public int rows;
+
+	private ExampleSet exampleSet;
+	private ExampleSet joinPartner;
+	private AggregationOperator aggregation;
+	private ExampleSetJoin join;
+	private ExampleSetJoin keyJoin;
+	private Sorting sorting;
+
+	@Setup
+	public void setup() throws Exception {
+		exampleSet = BenchmarkData.createExampleSet(shape, rows);
+		joinPartner = BenchmarkData.createJoinPartner(shape.getRows(rows));
+		Process process = BenchmarkData.createProcess();
+
+		aggregation = BenchmarkData.createOperator(process, AggregationOperator.class);
+		aggregation.setParameter(AggregationOperator.PARAMETER_GROUP_BY_ATTRIBUTES, BenchmarkData.GROUP_ATTRIBUTE);
+		aggregation.setParameter(AggregationOperator.PARAMETER_AGGREGATION_ATTRIBUTES,
+				ParameterTypeList.transformList2String(Arrays.asList(
+						new String[] { BenchmarkData.FIRST_NUMERICAL_ATTRIBUTE, AggregationFunction.FUNCTION_NAME_AVERAGE },
+						new String[] { BenchmarkData.FIRST_NUMERICAL_ATTRIBUTE, AggregationFunction.FUNCTION_NAME_SUM },
+						new String[] { BenchmarkData.FIRST_NUMERICAL_ATTRIBUTE, AggregationFunction.FUNCTION_NAME_COUNT })));
+
+		join = BenchmarkData.createOperator(process, ExampleSetJoin.class);
+		join.setParameter(ExampleSetJoin.PARAMETER_JOIN_TYPE,
+				ExampleSetJoin.JOIN_TYPES[ExampleSetJoin.JOIN_TYPE_INNER]);
+		join.setParameter(ExampleSetJoin.PARAMETER_USE_ID, "true");
+
+		// joins on the same column, but through the key attribute path backed by the hash join
+		keyJoin = BenchmarkData.createOperator(process, ExampleSetJoin.class);
+		keyJoin.setParameter(ExampleSetJoin.PARAMETER_JOIN_TYPE,
+				ExampleSetJoin.JOIN_TYPES[ExampleSetJoin.JOIN_TYPE_INNER]);
+		keyJoin.setParameter(ExampleSetJoin.PARAMETER_USE_ID, "false");
+		keyJoin.setParameter(ExampleSetJoin.PARAMETER_JOIN_ATTRIBUTES, ParameterTypeList.transformList2String(
+				Collections.singletonList(new String[] { Attributes.ID_NAME, Attributes.ID_NAME })));
+
+		sorting = BenchmarkData.createOperator(process, Sorting.class);
+		sorting.setParameter(Sorting.PARAMETER_ATTRIBUTE_NAME, BenchmarkData.FIRST_NUMERICAL_ATTRIBUTE);
+		sorting.setParameter(Sorting.PARAMETER_SORTING_DIRECTION,
+				SortedExampleSet.SORTING_DIRECTIONS[SortedExampleSet.INCREASING]);
+	}
+
+	@Benchmark
+	public ExampleSet aggregate() throws OperatorException {
+		return aggregation.apply(exampleSet);
+	}
+
+	@Benchmark
+	public ExampleSet innerJoin() throws OperatorException {
+		join.getLeftInput().receive(exampleSet);
+		join.getRightInput().receive(joinPartner);
+		join.doWork();
+		return join.getJoinOutput().getData(ExampleSet.class);
+	}
+
+	@Benchmark
+	public ExampleSet innerKeyJoin() throws OperatorException {
+		keyJoin.getLeftInput().receive(exampleSet);
+		keyJoin.getRightInput().receive(joinPartner);
+		keyJoin.doWork();
+		return keyJoin.getJoinOutput().getData(ExampleSet.class);
+	}
+
+	@Benchmark
+	public ExampleSet sort() throws OperatorException {
+		return sorting.apply(exampleSet);
+	}
+}
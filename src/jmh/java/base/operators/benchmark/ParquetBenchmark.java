@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import base.operators.benchmark.BenchmarkData.Shape;
+import base.operators.example.ExampleSet;
+import base.operators.utils.ParquetExampleSourceUtil;
+
+
+/**
+ * Benchmarks for storing example sets as parquet files in the local file system and reading them
+ * back, which is how intermediate results are exchanged between the nodes of a pipeline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParquetBenchmark {
+
+	@Param({ "DENSE", "SPARSE", "NOMINAL", "WIDE", "TALL" })
+	public Shape shape;
+
+	@Param({ "100000" })
+	public int rows;
+
+	private Path directory;
+	private String writePath;
+	private String readPath;
+	private ExampleSet exampleSet;
+
+	@Setup
+	public void setup() throws IOException {
+		exampleSet = BenchmarkData.createExampleSet(shape, rows);
+		directory = Files.createTempDirectory("parquet-benchmark");
+		writePath = directory.resolve("write").toString();
+		readPath = directory.resolve("read").toString();
+		ParquetExampleSourceUtil.writeToParquet(exampleSet, readPath, true);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Benchmark
+	public String write() throws IOException {
+		ParquetExampleSourceUtil.writeToParquet(exampleSet, writePath, true);
+		return writePath;
+	}
+
+	@Benchmark
+	public ExampleSet read() {
+		return ParquetExampleSourceUtil.readFromParquet(readPath, true, true);
+	}
+}
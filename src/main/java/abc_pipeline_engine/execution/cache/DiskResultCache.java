@@ -0,0 +1,208 @@
+package abc_pipeline_engine.execution.cache;
+
+import abc_pipeline_engine.utils.ExperimentConfigUtil;
+import base.operators.operator.IOObject;
+import base.operators.operator.execution.ResultCache;
+import base.operators.operator.tools.RMObjectInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基于本地磁盘的算子结果缓存
+ *
+ * {@link ResultCache} that stores the serialized outputs of operators as one file per key in a
+ * local directory. The least recently used entries are deleted once the total size exceeds the
+ * configured limit. The index is rebuilt from the directory on startup, so cached results survive
+ * restarts of the engine.
+ */
+public class DiskResultCache implements ResultCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(DiskResultCache.class);
+
+	public static final String PROPERTY_ENABLED = "resultCache.enabled";
+	public static final String PROPERTY_DIR = "resultCache.dir";
+	public static final String PROPERTY_MAX_SIZE = "resultCache.maxSizeMB";
+
+	private static final String SUFFIX = ".bin";
+	private static final String TMP_SUFFIX = ".tmp";
+	private static final long BYTES_PER_MB = 1024L * 1024L;
+
+	private static volatile DiskResultCache instance;
+
+	private final File directory;
+	private final long maxSize;
+
+	/** key -> file size in access order, guarded by this */
+	private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long totalSize;
+
+	public DiskResultCache(File directory, long maxSize) {
+		this.directory = directory;
+		this.maxSize = maxSize;
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IllegalArgumentException("Cannot create result cache directory " + directory);
+		}
+		loadIndex();
+	}
+
+	/**
+	 * @return the cache configured in experiment.properties, {@code null} if the cache is disabled
+	 */
+	public static DiskResultCache getInstance() {
+		if (!Boolean.parseBoolean(ExperimentConfigUtil.getString(PROPERTY_ENABLED))) {
+			return null;
+		}
+		if (instance == null) {
+			synchronized (DiskResultCache.class) {
+				if (instance == null) {
+					String dir = ExperimentConfigUtil.getString(PROPERTY_DIR);
+					if (dir.isEmpty()) {
+						dir = System.getProperty("java.io.tmpdir") + File.separator + "resultCache";
+					}
+					long maxSizeMB = 10240;
+					String maxSizeValue = ExperimentConfigUtil.getString(PROPERTY_MAX_SIZE);
+					if (!maxSizeValue.isEmpty()) {
+						try {
+							maxSizeMB = Long.parseLong(maxSizeValue);
+						} catch (NumberFormatException e) {
+							logger.error("Invalid value for " + PROPERTY_MAX_SIZE + ": " + maxSizeValue);
+						}
+					}
+					instance = new DiskResultCache(new File(dir), maxSizeMB * BYTES_PER_MB);
+				}
+			}
+		}
+		return instance;
+	}
+
+	@Override
+	public IOObject[] get(String key) {
+		synchronized (this) {
+			if (!entries.containsKey(key)) {
+				return null;
+			}
+			entries.get(key);
+		}
+		File file = getFile(key);
+		try (ObjectInputStream in = new RMObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			IOObject[] outputs = (IOObject[]) in.readObject();
+			file.setLastModified(System.currentTimeMillis());
+			return outputs;
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			// 文件损坏或类已变化，删除该缓存项
+			logger.warn("Cannot read cached result " + key + ": " + e.getMessage());
+			remove(key);
+			return null;
+		}
+	}
+
+	@Override
+	public void put(String key, IOObject[] outputs) {
+		synchronized (this) {
+			if (entries.containsKey(key)) {
+				return;
+			}
+		}
+		File tmpFile = new File(directory, key + "." + Thread.currentThread().getId() + TMP_SUFFIX);
+		try {
+			try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(
+					new FileOutputStream(tmpFile)))) {
+				out.writeObject(outputs);
+			}
+			long size = tmpFile.length();
+			if (size > maxSize) {
+				Files.deleteIfExists(tmpFile.toPath());
+				return;
+			}
+			try {
+				Files.move(tmpFile.toPath(), getFile(key).toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile.toPath(), getFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			synchronized (this) {
+				Long previous = entries.put(key, size);
+				totalSize += size - (previous == null ? 0 : previous);
+				evict();
+			}
+		} catch (NotSerializableException e) {
+			// 结果无法序列化，不缓存
+			logger.debug("Result " + key + " is not serializable: " + e.getMessage());
+			tmpFile.delete();
+		} catch (IOException e) {
+			logger.warn("Cannot cache result " + key + ": " + e.getMessage());
+			tmpFile.delete();
+		}
+	}
+
+	/**
+	 * Deletes all cached results.
+	 */
+	public synchronized void clear() {
+		for (String key : entries.keySet()) {
+			getFile(key).delete();
+		}
+		entries.clear();
+		totalSize = 0;
+	}
+
+	private synchronized void remove(String key) {
+		Long size = entries.remove(key);
+		if (size != null) {
+			totalSize -= size;
+		}
+		getFile(key).delete();
+	}
+
+	/** Deletes the least recently used entries until the size limit is met. Caller holds the lock. */
+	private void evict() {
+		Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+		while (totalSize > maxSize && iterator.hasNext()) {
+			Map.Entry<String, Long> eldest = iterator.next();
+			getFile(eldest.getKey()).delete();
+			totalSize -= eldest.getValue();
+			iterator.remove();
+		}
+	}
+
+	private synchronized void loadIndex() {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (File file : files) {
+			String name = file.getName();
+			if (name.endsWith(TMP_SUFFIX)) {
+				// 上次运行中断留下的临时文件
+				file.delete();
+			} else if (name.endsWith(SUFFIX)) {
+				long size = file.length();
+				entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+				totalSize += size;
+			}
+		}
+		evict();
+	}
+
+	private File getFile(String key) {
+		return new File(directory, key + SUFFIX);
+	}
+}
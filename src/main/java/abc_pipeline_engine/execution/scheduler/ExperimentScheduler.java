@@ -0,0 +1,334 @@
+package abc_pipeline_engine.execution.scheduler;
+
+import abc_pipeline_engine.experiment.common.ExperimentConstants;
+import abc_pipeline_engine.utils.ExperimentConfigUtil;
+import abc_pipeline_engine.utils.OsMemoryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission controlled scheduler for experiment runs.
+ *
+ * Submitted experiments are put into an admission queue and started once
+ * <ul>
+ * <li>fewer than {@code scheduler.maxConcurrent} experiments are running,</li>
+ * <li>the free memory (JVM heap headroom and, on Linux, free physical memory as reported by
+ * {@link OsMemoryUtil}) minus the estimated demand of the experiment stays above
+ * {@code scheduler.minFreeMemoryMB}. The first experiment is always admitted so the queue cannot
+ * stall.</li>
+ * </ul>
+ * Among the admissible experiments the one of the user with the fewest running experiments is
+ * chosen first (fair share), then the one with the highest priority, then the oldest one.
+ *
+ * All operations are keyed by the experiment id; {@link #submit(ExperimentTask)} and
+ * {@link #kill(String)} never block.
+ */
+public class ExperimentScheduler {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExperimentScheduler.class);
+
+	public static final String PROPERTY_MAX_CONCURRENT = "scheduler.maxConcurrent";
+	public static final String PROPERTY_MIN_FREE_MEMORY = "scheduler.minFreeMemoryMB";
+	public static final String PROPERTY_TASK_MEMORY = "scheduler.taskMemoryMB";
+	public static final String PROPERTY_RETRY_INTERVAL = "scheduler.admissionRetrySeconds";
+
+	private static final long KB_PER_MB = 1024;
+	private static final long BYTES_PER_MB = 1024 * 1024;
+
+	private static volatile ExperimentScheduler instance;
+
+	private final int maxConcurrent;
+	private final long minFreeMemoryMB;
+	private final long defaultTaskMemoryMB;
+	private final long retryIntervalSeconds;
+
+	private final OsMemoryUtil osMemoryUtil = new OsMemoryUtil();
+	private final ExecutorService workers;
+	private final ScheduledExecutorService admissionTimer;
+
+	/** guarded by this */
+	private final List<ExperimentTask> pending = new ArrayList<>();
+	/** guarded by this */
+	private final Map<String, ExperimentTask> running = new HashMap<>();
+	/** guarded by this */
+	private final Map<String, Integer> runningPerUser = new HashMap<>();
+	/** guarded by this */
+	private long sequence = 0;
+	/** guarded by this */
+	private boolean retryScheduled = false;
+
+	public ExperimentScheduler(int maxConcurrent, long minFreeMemoryMB, long defaultTaskMemoryMB,
+			long retryIntervalSeconds) {
+		this.maxConcurrent = Math.max(1, maxConcurrent);
+		this.minFreeMemoryMB = Math.max(0, minFreeMemoryMB);
+		this.defaultTaskMemoryMB = Math.max(0, defaultTaskMemoryMB);
+		this.retryIntervalSeconds = Math.max(1, retryIntervalSeconds);
+		this.workers = Executors.newFixedThreadPool(this.maxConcurrent, new NamedThreadFactory("ExperimentWorker"));
+		this.admissionTimer = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("ExperimentAdmission"));
+	}
+
+	/**
+	 * @return the shared scheduler configured from {@code experiment.properties}
+	 */
+	public static ExperimentScheduler getInstance() {
+		if (instance == null) {
+			synchronized (ExperimentScheduler.class) {
+				if (instance == null) {
+					int cores = Runtime.getRuntime().availableProcessors();
+					instance = new ExperimentScheduler(
+							getIntProperty(PROPERTY_MAX_CONCURRENT, Math.max(1, cores / 2)),
+							getIntProperty(PROPERTY_MIN_FREE_MEMORY, 1024),
+							getIntProperty(PROPERTY_TASK_MEMORY, 512),
+							getIntProperty(PROPERTY_RETRY_INTERVAL, 5));
+				}
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Queues the task for execution and returns immediately.
+	 *
+	 * @return the future completed with the final process status
+	 * @throws IllegalStateException
+	 *             if an experiment with the same id is already queued or running
+	 */
+	public CompletableFuture<String> submit(ExperimentTask task) {
+		synchronized (this) {
+			if (running.containsKey(task.getExpId()) || findPending(task.getExpId()) != null) {
+				throw new IllegalStateException("Experiment " + task.getExpId() + " is already scheduled");
+			}
+			task.sequence = sequence++;
+			pending.add(task);
+			logger.info("Queued " + task + ", " + pending.size() + " waiting, " + running.size() + " running");
+		}
+		dispatch();
+		return task.getFuture();
+	}
+
+	/**
+	 * Blocks until the experiment has finished.
+	 *
+	 * @return the final process status, or {@code null} if no experiment with this id is known
+	 */
+	public String await(String expId) throws InterruptedException {
+		CompletableFuture<String> future = getFuture(expId);
+		if (future == null) {
+			return null;
+		}
+		return await(expId, future);
+	}
+
+	/**
+	 * Blocks until the future returned by {@link #submit(ExperimentTask)} is completed. Unlike
+	 * {@link #await(String)} this also returns the status of experiments that have already
+	 * finished.
+	 *
+	 * @return the final process status
+	 */
+	public String await(String expId, CompletableFuture<String> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			logger.error("Experiment " + expId + " failed", e.getCause());
+			return ExperimentConstants.EXP_STAUTS_KILLED;
+		}
+	}
+
+	/**
+	 * Removes a queued experiment or asks a running experiment to stop. Does not wait for the
+	 * process to actually terminate, use {@link #await(String)} for that.
+	 *
+	 * @return {@code true} if an experiment with this id was queued or running
+	 */
+	public boolean kill(String expId) {
+		ExperimentTask task;
+		synchronized (this) {
+			task = findPending(expId);
+			if (task != null) {
+				pending.remove(task);
+			}
+		}
+		if (task != null) {
+			task.cancel();
+			logger.info("Removed " + task + " from the admission queue");
+			return true;
+		}
+		synchronized (this) {
+			task = running.get(expId);
+		}
+		if (task != null) {
+			task.kill();
+			logger.info("Requested stop of " + task);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return the future of a queued or running experiment, {@code null} if unknown
+	 */
+	public synchronized CompletableFuture<String> getFuture(String expId) {
+		ExperimentTask task = running.get(expId);
+		if (task == null) {
+			task = findPending(expId);
+		}
+		return task == null ? null : task.getFuture();
+	}
+
+	public synchronized boolean isRunning(String expId) {
+		return running.containsKey(expId);
+	}
+
+	public synchronized boolean isQueued(String expId) {
+		return findPending(expId) != null;
+	}
+
+	public synchronized int getRunningCount() {
+		return running.size();
+	}
+
+	public synchronized int getQueuedCount() {
+		return pending.size();
+	}
+
+	public int getMaxConcurrent() {
+		return maxConcurrent;
+	}
+
+	public long getDefaultTaskMemoryMB() {
+		return defaultTaskMemoryMB;
+	}
+
+	/**
+	 * Starts as many queued experiments as the concurrency limit and the memory situation allow.
+	 */
+	private void dispatch() {
+		List<ExperimentTask> toStart = new ArrayList<>();
+		synchronized (this) {
+			long freeMB = getFreeMemoryMB();
+			while (running.size() < maxConcurrent && !pending.isEmpty()) {
+				ExperimentTask next = selectNext(freeMB);
+				if (next == null) {
+					scheduleRetry();
+					break;
+				}
+				pending.remove(next);
+				running.put(next.getExpId(), next);
+				runningPerUser.merge(next.getUserId(), 1, Integer::sum);
+				freeMB -= next.getEstimatedMemoryMB();
+				toStart.add(next);
+			}
+		}
+		for (ExperimentTask task : toStart) {
+			logger.info("Starting " + task);
+			task.getFuture().whenComplete((status, error) -> finished(task));
+			workers.execute(task);
+		}
+	}
+
+	private synchronized void finished(ExperimentTask task) {
+		if (running.remove(task.getExpId()) != null) {
+			runningPerUser.computeIfPresent(task.getUserId(), (user, count) -> count > 1 ? count - 1 : null);
+		}
+		logger.info("Finished " + task + " with status " + task.getFuture().getNow(null));
+		admissionTimer.execute(this::dispatch);
+	}
+
+	/** guarded by this */
+	private ExperimentTask selectNext(long freeMB) {
+		ExperimentTask best = null;
+		int bestUserLoad = Integer.MAX_VALUE;
+		for (ExperimentTask task : pending) {
+			if (!running.isEmpty() && freeMB - task.getEstimatedMemoryMB() < minFreeMemoryMB) {
+				continue;
+			}
+			int userLoad = runningPerUser.getOrDefault(task.getUserId(), 0);
+			if (best == null || userLoad < bestUserLoad
+					|| userLoad == bestUserLoad && (task.getPriority() > best.getPriority()
+							|| task.getPriority() == best.getPriority() && task.sequence < best.sequence)) {
+				best = task;
+				bestUserLoad = userLoad;
+			}
+		}
+		return best;
+	}
+
+	/** guarded by this */
+	private void scheduleRetry() {
+		if (retryScheduled) {
+			return;
+		}
+		retryScheduled = true;
+		admissionTimer.schedule(() -> {
+			synchronized (ExperimentScheduler.this) {
+				retryScheduled = false;
+			}
+			dispatch();
+		}, retryIntervalSeconds, TimeUnit.SECONDS);
+	}
+
+	/** guarded by this */
+	private ExperimentTask findPending(String expId) {
+		for (ExperimentTask task : pending) {
+			if (task.getExpId().equals(expId)) {
+				return task;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the smaller of the JVM heap headroom and the free physical memory of the OS in MB
+	 */
+	private long getFreeMemoryMB() {
+		Runtime runtime = Runtime.getRuntime();
+		long heapHeadroomMB = (runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory())) / BYTES_PER_MB;
+		long osFreeMB = osMemoryUtil.getOsFreePhysicalMemorySize() / KB_PER_MB;
+		// 0 means the OS does not support the check
+		return osFreeMB > 0 ? Math.min(heapHeadroomMB, osFreeMB) : heapHeadroomMB;
+	}
+
+	private static int getIntProperty(String key, int defaultValue) {
+		String value = ExperimentConfigUtil.getString(key);
+		if (value.isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			logger.error("Invalid value for " + key + ": " + value);
+			return defaultValue;
+		}
+	}
+
+	private static class NamedThreadFactory implements ThreadFactory {
+
+		private final String prefix;
+		private final AtomicInteger counter = new AtomicInteger();
+
+		private NamedThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
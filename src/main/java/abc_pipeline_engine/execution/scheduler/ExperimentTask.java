@@ -0,0 +1,117 @@
+package abc_pipeline_engine.execution.scheduler;
+
+import abc_pipeline_engine.execution.utils.IdswProcessListener;
+import abc_pipeline_engine.experiment.common.ExperimentConstants;
+import base.operators.Process;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A single experiment run handed to the {@link ExperimentScheduler}. The task owns the
+ * {@link Process} and completes its {@link #getFuture() future} with the final process status once
+ * the process has finished, failed or was killed.
+ */
+public class ExperimentTask implements Runnable {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExperimentTask.class);
+
+	public static final int PRIORITY_LOW = 0;
+	public static final int PRIORITY_NORMAL = 5;
+	public static final int PRIORITY_HIGH = 10;
+
+	private final String expId;
+	private final String userId;
+	private final int priority;
+	private final long estimatedMemoryMB;
+	private final Process process;
+	private final IdswProcessListener listener;
+	private final CompletableFuture<String> future = new CompletableFuture<>();
+
+	/** submission order, assigned by the scheduler to break priority ties */
+	long sequence;
+
+	private volatile Thread worker;
+	private volatile boolean killed = false;
+
+	public ExperimentTask(String expId, String userId, int priority, long estimatedMemoryMB, Process process,
+			IdswProcessListener listener) {
+		this.expId = expId;
+		this.userId = userId == null ? "" : userId;
+		this.priority = priority;
+		this.estimatedMemoryMB = estimatedMemoryMB;
+		this.process = process;
+		this.listener = listener;
+	}
+
+	@Override
+	public void run() {
+		worker = Thread.currentThread();
+		try {
+			if (!killed) {
+				process.run();
+			}
+		} catch (Exception e) {
+			logger.error("Experiment " + expId + " failed", e);
+		} finally {
+			if (process.getProcessState() != Process.PROCESS_STATE_STOPPED) {
+				process.stop();
+			}
+			worker = null;
+			// clear a pending interrupt from kill() so it does not leak into the next task of this thread
+			Thread.interrupted();
+			future.complete(killed ? ExperimentConstants.EXP_STAUTS_KILLED : listener.processStatus);
+		}
+	}
+
+	/**
+	 * Requests the process to stop. Operators notice the request at their next
+	 * {@code checkForStop()}; a thread blocked in I/O or waiting is additionally interrupted.
+	 */
+	void kill() {
+		killed = true;
+		process.stop();
+		Thread current = worker;
+		if (current != null) {
+			current.interrupt();
+		}
+	}
+
+	/**
+	 * Completes the task without running it, used for tasks removed from the admission queue.
+	 */
+	void cancel() {
+		killed = true;
+		future.complete(ExperimentConstants.EXP_STAUTS_KILLED);
+	}
+
+	public String getExpId() {
+		return expId;
+	}
+
+	public String getUserId() {
+		return userId;
+	}
+
+	public int getPriority() {
+		return priority;
+	}
+
+	public long getEstimatedMemoryMB() {
+		return estimatedMemoryMB;
+	}
+
+	public Process getProcess() {
+		return process;
+	}
+
+	public CompletableFuture<String> getFuture() {
+		return future;
+	}
+
+	@Override
+	public String toString() {
+		return "ExperimentTask (" + expId + ", user=" + userId + ", priority=" + priority + ")";
+	}
+}
@@ -3,23 +3,17 @@ package abc_pipeline_engine.execution.utils;
 import abc_pipeline_engine.experiment.common.ExperimentConstants;
 import abc_pipeline_engine.experiment.dao.ExperimentMapper;
 import abc_pipeline_engine.experiment.data.Experiment;
-import abc_pipeline_engine.node.dao.NodeMapper;
-import abc_pipeline_engine.node.dao.PortMapper;
-import abc_pipeline_engine.node.data.Node;
-import abc_pipeline_engine.node.data.Port;
 import abc_pipeline_engine.utils.DateTimeUtil;
 import abc_pipeline_engine.utils.ExampleSetUtil;
 import abc_pipeline_engine.utils.forRP.ObjectHdfsSource;
 import base.operators.OperatorLogMapper;
+import base.operators.adaption.belt.IOTable;
 import base.operators.Process;
 import base.operators.ProcessStateListener;
 import base.operators.example.ExampleSet;
 import base.operators.operator.IOObject;
 import org.loushang.framework.util.SpringContextHolder;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * @author zls
  * create time:  2019.09.25.
@@ -30,8 +24,7 @@ public class IdswProcessListener implements ProcessStateListener {
 	public String processStatus = ExperimentConstants.EXP_STAUTS_KILLED;
 
 	private ExperimentMapper experimentMapper = SpringContextHolder.getBean(ExperimentMapper.class);
-    private NodeMapper nodeMapper = SpringContextHolder.getBean(NodeMapper.class);
-	private PortMapper portMapper = SpringContextHolder.getBean(PortMapper.class);
+    private NodeStatusReporter statusReporter = NodeStatusReporter.getInstance();
 	public String id = null ;
 
     public  IdswProcessListener(String id){
@@ -59,6 +52,8 @@ public class IdswProcessListener implements ProcessStateListener {
     		processStatus = ExperimentConstants.EXP_STAUTS_SUCCESS;
     	}
     	String expId = this.id;
+    	// 先写入节点状态，再更新实验状态
+    	statusReporter.flush();
     	
         if(process.isSuccessful()) {
             Experiment experiment = experimentMapper.getOne(expId);
@@ -96,27 +91,21 @@ public class IdswProcessListener implements ProcessStateListener {
                     }else {
                         System.out.println(operator.getName() + ":" + operator.getApplyCount());
                         if (operator.getProcess().getStoreType() == 0) {
-                            Node node = nodeMapper.getOne(operator.getId());
-                            node.setStatus(ExperimentConstants.OP_STAUTS_OK);
-                            node.setLog(((OperatorLogMapper) operator.myLog).logString);
-                            nodeMapper.update(node);
+                            statusReporter.reportNode(operator.getId(), ExperimentConstants.OP_STAUTS_OK,
+                                    ((OperatorLogMapper) operator.myLog).logString);
 
 
                             operator.outPaths.forEach((k, v) -> {
                                 try {
                                     // 更新port表
-                                    Map<String, Object> params = new HashMap<String, Object>();
-                                    params.put("portType", "output");
-                                    params.put("sequence", Integer.parseInt(k) + 1);
-                                    params.put("nodeId", operator.getId());
-                                    Port port = portMapper.queryByParam(params).get(0);
-                                    port.setViewPath(v);
-                                    portMapper.update(port);
+                                    statusReporter.reportOutputPort(operator.getId(), Integer.parseInt(k) + 1, v);
                                     // 写入数据
                                     IOObject object = operator.getOutputPorts().getPortByIndex(Integer.parseInt(k)).getAnyDataOrNull();
                                     if (object != null) {
                                         if (object instanceof ExampleSet) {
                                             ExampleSetUtil.writeExampleSetToHDFS((ExampleSet) object, v);
+                                        } else if (object instanceof IOTable) {
+                                            ExampleSetUtil.writeTableToHDFS((IOTable) object, v);
                                         } else {
                                             ObjectHdfsSource.writeToHDFS(object, v);
                                         }
@@ -132,6 +121,7 @@ public class IdswProcessListener implements ProcessStateListener {
                         }
                     }
 				});
+				statusReporter.flush();
 			}
 		});
     }
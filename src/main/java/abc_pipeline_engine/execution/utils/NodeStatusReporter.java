@@ -0,0 +1,206 @@
+package abc_pipeline_engine.execution.utils;
+
+import abc_pipeline_engine.node.dao.NodeMapper;
+import abc_pipeline_engine.node.dao.PortMapper;
+import abc_pipeline_engine.node.data.Node;
+import abc_pipeline_engine.node.data.Port;
+import abc_pipeline_engine.utils.ExperimentConfigUtil;
+import org.loushang.framework.util.SpringContextHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 异步批量更新节点状态和端口数据路径
+ *
+ * Collects node status and port view path updates and writes them to the database in batches
+ * from a background thread, so operators do not wait for database round trips.
+ * <ul>
+ * <li>Only the latest update per node and per port is kept; a later status replaces an earlier
+ * one that has not been written yet.</li>
+ * <li>At most {@code statusReporter.maxPending} distinct nodes and ports are pending. Reporting
+ * threads block once this limit is reached until the next batch has been taken.</li>
+ * <li>Pending updates are written every {@code statusReporter.flushIntervalMs} milliseconds or
+ * when {@link #flush()} is called.</li>
+ * </ul>
+ */
+public class NodeStatusReporter {
+
+	private static final Logger logger = LoggerFactory.getLogger(NodeStatusReporter.class);
+
+	public static final String PROPERTY_FLUSH_INTERVAL = "statusReporter.flushIntervalMs";
+	public static final String PROPERTY_MAX_PENDING = "statusReporter.maxPending";
+
+	private static volatile NodeStatusReporter instance;
+
+	private final NodeMapper nodeMapper;
+	private final PortMapper portMapper;
+	private final long flushIntervalMs;
+	private final int maxPending;
+
+	/** guards the pending updates */
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notFull = lock.newCondition();
+	private final Condition flushRequested = lock.newCondition();
+	private Map<String, Node> pendingNodes = new LinkedHashMap<>();
+	private Map<String, Port> pendingPorts = new LinkedHashMap<>();
+
+	/** serializes the database writes so batches are applied in order */
+	private final Object flushLock = new Object();
+
+	private NodeStatusReporter(NodeMapper nodeMapper, PortMapper portMapper, long flushIntervalMs, int maxPending) {
+		this.nodeMapper = nodeMapper;
+		this.portMapper = portMapper;
+		this.flushIntervalMs = flushIntervalMs;
+		this.maxPending = maxPending;
+		Thread flusher = new Thread(this::runFlusher, "node-status-reporter");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	public static NodeStatusReporter getInstance() {
+		if (instance == null) {
+			synchronized (NodeStatusReporter.class) {
+				if (instance == null) {
+					instance = new NodeStatusReporter(SpringContextHolder.getBean(NodeMapper.class),
+							SpringContextHolder.getBean(PortMapper.class),
+							getIntProperty(PROPERTY_FLUSH_INTERVAL, 500),
+							getIntProperty(PROPERTY_MAX_PENDING, 10000));
+				}
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Queues a status update of the node.
+	 *
+	 * @param nodeId
+	 * @param status
+	 * @param log the new log, {@code null} keeps the current log
+	 */
+	public void reportNode(String nodeId, String status, String log) {
+		lock.lock();
+		try {
+			Node previous = pendingNodes.get(nodeId);
+			if (previous == null) {
+				awaitCapacity();
+				// the batch may have been swapped while waiting
+				previous = pendingNodes.get(nodeId);
+			}
+			Node node = new Node();
+			node.setId(nodeId);
+			node.setStatus(status);
+			node.setLog(log != null || previous == null ? log : previous.getLog());
+			pendingNodes.put(nodeId, node);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Queues an update of the view path of an output port.
+	 *
+	 * @param nodeId
+	 * @param sequence the 1-based index of the port
+	 * @param viewPath
+	 */
+	public void reportOutputPort(String nodeId, int sequence, String viewPath) {
+		String key = nodeId + ":" + sequence;
+		lock.lock();
+		try {
+			if (!pendingPorts.containsKey(key)) {
+				awaitCapacity();
+			}
+			Port port = new Port();
+			port.setNodeId(nodeId);
+			port.setPortType("output");
+			port.setSequence(sequence);
+			port.setViewPath(viewPath);
+			pendingPorts.put(key, port);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Writes all pending updates and blocks until they are stored.
+	 */
+	public void flush() {
+		synchronized (flushLock) {
+			Map<String, Node> nodes;
+			Map<String, Port> ports;
+			lock.lock();
+			try {
+				nodes = pendingNodes;
+				ports = pendingPorts;
+				pendingNodes = new LinkedHashMap<>();
+				pendingPorts = new LinkedHashMap<>();
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+			if (!nodes.isEmpty()) {
+				try {
+					nodeMapper.updateStatusBatch(new ArrayList<>(nodes.values()));
+				} catch (Exception e) {
+					logger.error("Failed to update status of " + nodes.size() + " nodes", e);
+				}
+			}
+			if (!ports.isEmpty()) {
+				try {
+					portMapper.updateViewPathBatch(new ArrayList<>(ports.values()));
+				} catch (Exception e) {
+					logger.error("Failed to update " + ports.size() + " ports", e);
+				}
+			}
+		}
+	}
+
+	/** Caller holds the lock. An interrupted thread stops waiting and exceeds the limit. */
+	private void awaitCapacity() {
+		while (pendingNodes.size() + pendingPorts.size() >= maxPending) {
+			flushRequested.signal();
+			try {
+				notFull.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void runFlusher() {
+		while (true) {
+			lock.lock();
+			try {
+				// woken up early when a reporting thread waits for capacity
+				flushRequested.await(flushIntervalMs, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				return;
+			} finally {
+				lock.unlock();
+			}
+			flush();
+		}
+	}
+
+	private static int getIntProperty(String key, int defaultValue) {
+		String value = ExperimentConfigUtil.getString(key);
+		if (value.isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			logger.error("Invalid value for " + key + ": " + value);
+			return defaultValue;
+		}
+	}
+}
@@ -1,27 +1,19 @@
 package abc_pipeline_engine.execution.utils;
 
 import abc_pipeline_engine.experiment.common.ExperimentConstants;
-import abc_pipeline_engine.node.dao.NodeMapper;
-import abc_pipeline_engine.node.dao.PortMapper;
-import abc_pipeline_engine.node.data.Node;
-import abc_pipeline_engine.node.data.Port;
 import abc_pipeline_engine.utils.ExampleSetUtil;
 import abc_pipeline_engine.utils.forRP.ObjectHdfsSource;
 import base.operators.OperatorLogMapper;
+import base.operators.adaption.belt.IOTable;
 import base.operators.example.ExampleSet;
 import base.operators.operator.IOObject;
 import base.operators.operator.Operator;
 import base.operators.tools.Observable;
 import base.operators.tools.Observer;
-import org.loushang.framework.util.SpringContextHolder;
-
-import java.util.HashMap;
-import java.util.Map;
 
 public class OperatorObserver<A extends Operator> implements Observer<A> {
 	
-	private NodeMapper nodeMapper=SpringContextHolder.getBean(NodeMapper.class);
-	private PortMapper portMapper=SpringContextHolder.getBean(PortMapper.class);
+	private NodeStatusReporter statusReporter = NodeStatusReporter.getInstance();
 
     @Override
     public void update(Observable<A> observable, A arg){
@@ -32,10 +24,8 @@ public class OperatorObserver<A extends Operator> implements Observer<A> {
         	if(operator.getId()==null) {
         		return;
         	}
-        	Node node = nodeMapper.getOne(operator.getId());
-        	node.setStatus(ExperimentConstants.OP_STAUTS_ERROR);
-        	node.setLog(((OperatorLogMapper) operator.myLog).logString);
-        	nodeMapper.update(node);
+        	statusReporter.reportNode(operator.getId(), ExperimentConstants.OP_STAUTS_ERROR,
+        			((OperatorLogMapper) operator.myLog).logString);
         	
             return;
         }
@@ -45,11 +35,7 @@ public class OperatorObserver<A extends Operator> implements Observer<A> {
         	if(operator.getId()==null) {
         		return;
         	}
-        	Node node = nodeMapper.getOne(operator.getId());
-        	node.setStatus(ExperimentConstants.OP_STAUTS_RUNNING);
-        	nodeMapper.update(node);
-
-        	
+        	statusReporter.reportNode(operator.getId(), ExperimentConstants.OP_STAUTS_RUNNING, null);
             return;
         }
 
@@ -63,12 +49,11 @@ public class OperatorObserver<A extends Operator> implements Observer<A> {
             }
 
             System.out.println(operator.getName() + ":" + operator.getApplyCount());
-        	Node node = nodeMapper.getOne(operator.getId());
-        	node.setStatus(ExperimentConstants.OP_STAUTS_OK);
-        	node.setLog(((OperatorLogMapper) operator.myLog).logString);
-        	nodeMapper.update(node);
+        	statusReporter.reportNode(operator.getId(), ExperimentConstants.OP_STAUTS_OK,
+        			((OperatorLogMapper) operator.myLog).logString);
 
-            ProcessUtil.cachedThreadPool.execute(new Runnable() {
+            // 有界写入线程池，队列满时由算子线程自己写入
+            ProcessUtil.writerPool.execute(new Runnable() {
                 @Override
                 public void run() {
                 	// 写入中间数据
@@ -76,13 +61,7 @@ public class OperatorObserver<A extends Operator> implements Observer<A> {
                     if (operator.getProcess().getStoreType() == 0) {
                             operator.outPaths.forEach((k, v) -> {
                                 // 更新port表
-                                Map<String, Object> params = new HashMap<String,Object>();
-                                params.put("portType", "output");
-                                params.put("sequence", Integer.parseInt(k)+1);
-                                params.put("nodeId", operator.getId());
-                                Port port = portMapper.queryByParam(params).get(0);
-                                port.setViewPath(v);
-                                portMapper.update(port);
+                                statusReporter.reportOutputPort(operator.getId(), Integer.parseInt(k) + 1, v);
                                 // 写入数据
                                 IOObject object = operator.getOutputPorts().getPortByIndex(Integer.parseInt(k)).getAnyDataOrNull();
                                 if (object != null) {
@@ -95,6 +74,9 @@ public class OperatorObserver<A extends Operator> implements Observer<A> {
                                         }
 
                                     }
+                                    else if (object instanceof IOTable) {
+                                        ExampleSetUtil.writeTableToHDFS((IOTable) object, v);
+                                    }
                                     else {
                                         ObjectHdfsSource.writeToHDFS(object, v);
                                     }
@@ -1,135 +1,155 @@
 package abc_pipeline_engine.execution.utils;
 
+import abc_pipeline_engine.execution.cache.DiskResultCache;
+import abc_pipeline_engine.execution.scheduler.ExperimentScheduler;
+import abc_pipeline_engine.execution.scheduler.ExperimentTask;
 import abc_pipeline_engine.utils.ExperimentConfigUtil;
 import abc_pipeline_engine.utils.forRP.HDFSUtil;
 import base.operators.Process;
 import base.operators.operator.Operator;
 import base.operators.tools.Observer;
 import base.operators.utils.PluginUtil;
-import org.jboss.netty.util.internal.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class ProcessUtil {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProcessUtil.class);
+
 	public static ExecutorService cachedThreadPool = Executors.newCachedThreadPool();
-	
-	static Map<String, ProcessThread> map = new ConcurrentHashMap<>();
-	
+
+	/**
+	 * Writes intermediate results. The queue is bounded; once it is full the operator thread
+	 * writes its results itself, which throttles processes that produce results faster than they
+	 * can be stored.
+	 */
+	public static final ExecutorService writerPool = createWriterPool();
+
 	/**
+	 * Runs the process and blocks until it has finished.
+	 *
 	 * @param xmlPath
 	 * @param expId
 	 * @return processStatus
 	 */
 	public static String runProcess(String xmlPath, String expId) {
-		String processTmp = ExperimentConfigUtil.getString("process.local.xmlDir");
-		String libpath = ExperimentConfigUtil.getString("operators.libpath");
-		
-		// 下载依赖的jar包到本地
-//		userInfoService = SpringContextHolder.getBean(IUserInfoService.class);
-//		String userId = userInfoService.getLoginUserId();
-		// TODO: get userId from ABC_PIPELINE
-		String userId = "";
-		String jarLocalPath = processTmp + "/" + userId; 
-		PluginUtil.init(libpath,jarLocalPath);
-		
-        // 下载算子流程文件到本地
-		String xmlLocalPath = processTmp + "/" +expId;
-		HDFSUtil.copyToLocalFile(xmlPath, xmlLocalPath);
-        
-        //生成进程类
-		File processFile = new File(xmlLocalPath+"/process.xml");
-        Process processTest;
-        String processStatus = null;
 		try {
-			ProcessThread thread = new ProcessThread();
-			map.put(expId, thread);
-			processTest = new Process(processFile, true);
-			for(Operator operator : processTest.getAllOperators()){
-				for(int i=0; i<operator.getOutputPorts().getNumberOfPorts(); ++i){
-					operator.getOutputPorts().getPortByIndex(i).setConnectForDoWork();
-				}
-			}
-			Observer<Operator> observer = new OperatorObserver();
-			processTest.idswObservers.add(observer);
-			IdswProcessListener processListener = new IdswProcessListener(expId); 
-			processTest.addProcessStateListener(processListener);
-			thread.setProcess(processTest);
-			thread.start();
-			thread.join();
-			processStatus = processListener.processStatus;
+			CompletableFuture<String> future = submitProcess(xmlPath, expId, "", ExperimentTask.PRIORITY_NORMAL);
+			return ExperimentScheduler.getInstance().await(expId, future);
 		} catch (Exception e) {
-			System.out.println(e.getMessage());
-			e.printStackTrace();
-		}finally {
-			map.remove(expId);
-			return processStatus;
+			logger.error("Failed to run experiment " + expId, e);
+			return null;
 		}
-		
 	}
 
 	/**
+	 * Runs the process and blocks until it has finished.
+	 *
 	 * @param xmlString
 	 * @param expId
 	 * @return processStatus
 	 */
 	public static String runProcessString(String xmlString, String expId) {
+		try {
+			CompletableFuture<String> future = submitProcessString(xmlString, expId, "",
+					ExperimentTask.PRIORITY_NORMAL);
+			return ExperimentScheduler.getInstance().await(expId, future);
+		} catch (Exception e) {
+			logger.error("Failed to run experiment " + expId, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Queues the process stored at the given HDFS path in the {@link ExperimentScheduler} and
+	 * returns immediately.
+	 *
+	 * @return the future completed with the process status
+	 */
+	public static CompletableFuture<String> submitProcess(String xmlPath, String expId, String userId, int priority)
+			throws Exception {
 		String processTmp = ExperimentConfigUtil.getString("process.local.xmlDir");
+		initPlugins(processTmp, userId);
+
+		// 下载算子流程文件到本地
+		String xmlLocalPath = processTmp + "/" + expId;
+		HDFSUtil.copyToLocalFile(xmlPath, xmlLocalPath);
+
+		//生成进程类
+		File processFile = new File(xmlLocalPath + "/process.xml");
+		return submit(new Process(processFile, true), expId, userId, priority);
+	}
+
+	/**
+	 * Queues the given process xml in the {@link ExperimentScheduler} and returns immediately.
+	 *
+	 * @return the future completed with the process status
+	 */
+	public static CompletableFuture<String> submitProcessString(String xmlString, String expId, String userId,
+			int priority) throws Exception {
+		String processTmp = ExperimentConfigUtil.getString("process.local.xmlDir");
+		initPlugins(processTmp, userId);
+
+		//生成进程类
+		return submit(new Process(xmlString, true), expId, userId, priority);
+	}
+
+	/**
+	 * Blocks until the experiment has finished.
+	 *
+	 * @return the process status, {@code null} if the experiment is unknown
+	 */
+	public static String awaitProcess(String expId) throws InterruptedException {
+		return ExperimentScheduler.getInstance().await(expId);
+	}
+
+	public static void killProcess(String expId) {
+		if (!ExperimentScheduler.getInstance().kill(expId)) {
+			logger.warn("No queued or running experiment " + expId);
+		}
+	}
+
+	private static ExecutorService createWriterPool() {
+		int threads = Math.max(1, Integer.parseInt(ExperimentConfigUtil.getString("writer.threads", "4").trim()));
+		int queueSize = Math.max(1, Integer.parseInt(ExperimentConfigUtil.getString("writer.queueSize", "64").trim()));
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueSize), new ThreadPoolExecutor.CallerRunsPolicy());
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	private static void initPlugins(String processTmp, String userId) {
 		String libpath = ExperimentConfigUtil.getString("operators.libpath");
 
 		// 下载依赖的jar包到本地
-//		userInfoService = SpringContextHolder.getBean(IUserInfoService.class);
-//		String userId = userInfoService.getLoginUserId();
-		// TODO: get userId from ABC_PIPELINE
-		String userId = "";
 		String jarLocalPath = processTmp + "/" + userId;
 		PluginUtil.init(libpath, jarLocalPath);
+	}
 
-		//生成进程类
-		Process processTest;
-		String processStatus = null;
-		try {
-			ProcessThread thread = new ProcessThread();
-			map.put(expId, thread);
-			processTest = new Process(xmlString, true);
-			for (Operator operator : processTest.getAllOperators()) {
-				for (int i=0; i<operator.getOutputPorts().getNumberOfPorts(); ++i) {
-					operator.getOutputPorts().getPortByIndex(i).setConnectForDoWork();
-				}
+	private static CompletableFuture<String> submit(Process process, String expId, String userId, int priority) {
+		for (Operator operator : process.getAllOperators()) {
+			for (int i = 0; i < operator.getOutputPorts().getNumberOfPorts(); ++i) {
+				operator.getOutputPorts().getPortByIndex(i).setConnectForDoWork();
 			}
-			Observer<Operator> observer = new OperatorObserver();
-			processTest.idswObservers.add(observer);
-			IdswProcessListener processListener = new IdswProcessListener(expId);
-			processTest.addProcessStateListener(processListener);
-			thread.setProcess(processTest);
-			thread.start();
-			thread.join();
-			processStatus = processListener.processStatus;
-		} catch (Exception e) {
-			System.out.println(e.getMessage());
-			e.printStackTrace();
-		}finally {
-			map.remove(expId);
-			return processStatus;
 		}
+		Observer<Operator> observer = new OperatorObserver();
+		process.idswObservers.add(observer);
+		IdswProcessListener processListener = new IdswProcessListener(expId);
+		process.addProcessStateListener(processListener);
+		// 复用之前运行中参数和输入未变化的算子结果
+		process.setResultCache(DiskResultCache.getInstance());
 
-	}
-	
-	public static void killProcess( String expId) {
-		
-		try {
-			System.out.println("进入kKILL");
-			ProcessThread thread = map.get(expId);
-			System.out.println("222222222222"+thread.getId());
-			thread.stopProcess();
-			
-		}catch (Exception e) {
-			// TODO: handle exception
-			System.out.println("33333333"+expId);
-	//		e.printStackTrace();
-		}
+		ExperimentScheduler scheduler = ExperimentScheduler.getInstance();
+		return scheduler.submit(new ExperimentTask(expId, userId, priority, scheduler.getDefaultTaskMemoryMB(),
+				process, processListener));
 	}
 
 }
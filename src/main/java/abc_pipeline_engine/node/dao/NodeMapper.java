@@ -27,4 +27,9 @@ public interface NodeMapper {
 	public void updateLog(Node node);
 
 	public void updateGraph(Node node);
+
+	/**
+	 * 批量更新节点状态，只更新node_status和非空的node_log
+	 */
+	public void updateStatusBatch(List<Node> nodes);
 }
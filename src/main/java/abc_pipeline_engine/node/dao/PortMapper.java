@@ -21,5 +21,10 @@ public interface PortMapper {
 	public void removeByExperiment(String id);
 
 	public void removeByNode(Map<String, Object> param);
+
+	/**
+	 * 按node_id、port_type和sequence批量更新view_path
+	 */
+	public void updateViewPathBatch(List<Port> ports);
 	
 }
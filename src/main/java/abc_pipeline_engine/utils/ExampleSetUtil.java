@@ -2,17 +2,20 @@ package abc_pipeline_engine.utils;
 
 import abc_pipeline_engine.utils.forRP.HDFSUtil;
 import abc_pipeline_engine.utils.forRP.ParquetExampleSourceUtil;
+import base.operators.adaption.belt.IOTable;
+import base.operators.belt.table.BeltConverter;
 import base.operators.example.Attribute;
 import base.operators.example.Attributes;
 import base.operators.example.Example;
 import base.operators.example.ExampleSet;
-import base.operators.example.set.Partition;
 import base.operators.example.set.SplittedExampleSet;
 import base.operators.example.table.AttributeFactory;
 import base.operators.example.utils.ExampleSetBuilder;
 import base.operators.example.utils.ExampleSets;
 import base.operators.tools.Ontology;
 import base.operators.tools.StrictDecimalFormat;
+import base.operators.utils.ColumnarHdfsSource;
+import base.operators.utils.columnar.ColumnarExampleSetReader;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.csv.CSVFormat;
@@ -47,6 +50,9 @@ import java.util.stream.Collectors;
 
 public class ExampleSetUtil extends base.operators.utils.HDFSUtil {
 
+    /** 预览数据的行数 */
+    private static final int VIEW_ROW_COUNT = 100;
+
     /**
      * 通过ExampleSet获取HDFS的CSV的schema
      *
@@ -374,21 +380,18 @@ public class ExampleSetUtil extends base.operators.utils.HDFSUtil {
 
     public static List<Map<String, Object>> getViewColFromExampleSet(String viewPath) {
         List<Map<String, Object>> columnList = new LinkedList<>();
-        List<Map<String, Object>> metaDataMapList = new LinkedList<>();
+        List<Map<String, Object>> metaDataMapList;
         try {
-            FSDataInputStream inputStream = fs.open(new Path(viewPath + Path.SEPARATOR + "metadata"));
-            ObjectInputStream objectReader = new ObjectInputStream(inputStream);
-            Map<String, Object> viewAndMeta = (Map<String, Object>) objectReader.readObject();
-            metaDataMapList = (List<Map<String, Object>>) viewAndMeta.get("metaData");
-            for (Map<String, Object> metaData : metaDataMapList) {
-                Map<String, Object> tmpMetaData = new LinkedHashMap<String, Object>();
-                tmpMetaData.put("name", metaData.get("Attribute_Name"));
-                tmpMetaData.put("type", rmToTableColumnTypeMap.get(metaData.get("Attribute_Type")));
-                columnList.add(tmpMetaData);
-            }
+            metaDataMapList = readMetaData(viewPath);
         } catch (IOException | ClassNotFoundException e){
             return null;
         }
+        for (Map<String, Object> metaData : metaDataMapList) {
+            Map<String, Object> tmpMetaData = new LinkedHashMap<String, Object>();
+            tmpMetaData.put("name", metaData.get("Attribute_Name"));
+            tmpMetaData.put("type", rmToTableColumnTypeMap.get(metaData.get("Attribute_Type")));
+            columnList.add(tmpMetaData);
+        }
 
         return columnList;
     }
@@ -536,49 +539,27 @@ public class ExampleSetUtil extends base.operators.utils.HDFSUtil {
             initFileSystem();
         }
         try {
-            FSDataInputStream inputStream = fs.open(new Path(viewPath + Path.SEPARATOR + "metadata"));
-            ObjectInputStream objectReader = new ObjectInputStream(inputStream);
-            Map<String, Object> viewAndMeta = (Map<String, Object>) objectReader.readObject();
-
-            SplittedExampleSet viewExampleSet = (SplittedExampleSet) viewAndMeta.get("viewData");
             Map<String, Object> data = new HashMap<>();
-            List<Map<String, Object>> dataList = new ArrayList<>();
-            Attributes attributes = viewExampleSet.getAttributes();
-            int rowCount = viewExampleSet.parent.size();
-            int columnCount = attributes.allSize();
-            int actualRowCount = viewExampleSet.size();
-            data.put("rowCount", rowCount);
-            data.put("columnCount", columnCount);
-            for (int i = 0; i < actualRowCount; i++) {
-                Map<String, Object> map = new LinkedHashMap<String, Object>();
-                SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss zzzz");
-                Iterator<Attribute> attributeIterator = attributes.allAttributes();
-                while (attributeIterator.hasNext()) {
-                    Attribute attribute = attributeIterator.next();
-                    switch (Ontology.ATTRIBUTE_VALUE_TYPE.mapIndex(attribute.getValueType())){
-                        case "integer":
-                            map.put(attribute.getName(), viewExampleSet.getExample(i).getValueAsString(attribute, -1, true));
-                            break;
-                        case "real":
-                        case "numeric":
-                            map.put(attribute.getName(), String.format("%.3f", viewExampleSet.getExample(i).getValue(attribute)));
-                            break;
-                        case "date_time":
-                        case "date":
-                        case "time":
-                            map.put(attribute.getName(), formatter.format(viewExampleSet.getExample(i).get(attribute.getName())));
-                            break;
-                        default:
-                            map.put(attribute.getName(), viewExampleSet.getExample(i).getValueAsString(attribute));
-                            break;
-                    }
+            ExampleSet viewExampleSet;
+            if (ColumnarHdfsSource.exists(viewPath)) {
+                // 预览数据直接读取列式文件的前VIEW_ROW_COUNT行
+                try (ColumnarExampleSetReader reader = ColumnarHdfsSource.openReader(viewPath)) {
+                    data.put("rowCount", reader.getRowCount());
+                    viewExampleSet = reader.read(null, VIEW_ROW_COUNT);
                 }
-                dataList.add(map);
+                transformViewAndMeta.put("metaData", readMetaData(viewPath));
+            } else {
+                FSDataInputStream inputStream = fs.open(new Path(viewPath + Path.SEPARATOR + "metadata"));
+                ObjectInputStream objectReader = new ObjectInputStream(inputStream);
+                Map<String, Object> viewAndMeta = (Map<String, Object>) objectReader.readObject();
+                objectReader.close();
+                viewExampleSet = (SplittedExampleSet) viewAndMeta.get("viewData");
+                data.put("rowCount", ((SplittedExampleSet) viewExampleSet).parent.size());
+                transformViewAndMeta.put("metaData", viewAndMeta.get("metaData"));
             }
+            data.put("columnCount", viewExampleSet.getAttributes().allSize());
+            data.put("data_list", formViewData(viewExampleSet));
 
-            data.put("data_list", dataList);
-
-            transformViewAndMeta.put("metaData", viewAndMeta.get("metaData"));
             transformViewAndMeta.put("viewData", data);
 
         } catch (IOException | ClassNotFoundException e) {
@@ -587,6 +568,65 @@ public class ExampleSetUtil extends base.operators.utils.HDFSUtil {
         return transformViewAndMeta;
     }
 
+    /**
+     * 将预览数据转换为List<Map<String, Object>>
+     *
+     * @param viewExampleSet
+     * @return List<Map<String, Object>>
+     */
+    private static List<Map<String, Object>> formViewData(ExampleSet viewExampleSet) {
+        List<Map<String, Object>> dataList = new ArrayList<>();
+        Attributes attributes = viewExampleSet.getAttributes();
+        int actualRowCount = viewExampleSet.size();
+        for (int i = 0; i < actualRowCount; i++) {
+            Map<String, Object> map = new LinkedHashMap<String, Object>();
+            SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss zzzz");
+            Iterator<Attribute> attributeIterator = attributes.allAttributes();
+            while (attributeIterator.hasNext()) {
+                Attribute attribute = attributeIterator.next();
+                switch (Ontology.ATTRIBUTE_VALUE_TYPE.mapIndex(attribute.getValueType())){
+                    case "integer":
+                        map.put(attribute.getName(), viewExampleSet.getExample(i).getValueAsString(attribute, -1, true));
+                        break;
+                    case "real":
+                    case "numeric":
+                        map.put(attribute.getName(), String.format("%.3f", viewExampleSet.getExample(i).getValue(attribute)));
+                        break;
+                    case "date_time":
+                    case "date":
+                    case "time":
+                        map.put(attribute.getName(), formatter.format(viewExampleSet.getExample(i).get(attribute.getName())));
+                        break;
+                    default:
+                        map.put(attribute.getName(), viewExampleSet.getExample(i).getValueAsString(attribute));
+                        break;
+                }
+            }
+            dataList.add(map);
+        }
+        return dataList;
+    }
+
+    /**
+     * 读取中间结果的元数据，兼容旧的Java序列化格式
+     *
+     * @param viewPath
+     * @return List<Map<String, Object>>
+     */
+    private static List<Map<String, Object>> readMetaData(String viewPath) throws IOException, ClassNotFoundException {
+        Path metaPath = new Path(viewPath + Path.SEPARATOR + "metadata");
+        try (FSDataInputStream inputStream = fs.open(metaPath)) {
+            if (ColumnarHdfsSource.exists(viewPath)) {
+                ObjectMapper mapper = new ObjectMapper();
+                return mapper.readValue(inputStream, new TypeReference<LinkedList<LinkedHashMap<String, Object>>>() {
+                });
+            }
+            ObjectInputStream objectReader = new ObjectInputStream(inputStream);
+            Map<String, Object> viewAndMeta = (Map<String, Object>) objectReader.readObject();
+            return (List<Map<String, Object>>) viewAndMeta.get("metaData");
+        }
+    }
+
     /**
      * 获取CSV文件的前limitNum条数据
      *
@@ -702,79 +742,86 @@ public class ExampleSetUtil extends base.operators.utils.HDFSUtil {
         return data;
     }
 
+    /**
+     * 以列式格式写入中间结果，元数据以JSON格式写入metadata文件
+     *
+     * @param exampleSet ExampleSet
+     * @param basePath String
+     */
     public static void writeExampleSetToHDFS(ExampleSet exampleSet, String basePath) {
         try {
             fs.getStatus();
         } catch (Exception e) {
             initFileSystem();
         }
-        FSDataOutputStream outputStream = null;
-        ByteArrayOutputStream baos = null;
-        ObjectOutputStream oos = null;
         try {
-            Path path = new Path(basePath);
-            if (fs.exists(path)) {
-                fs.delete(path, true);
-            }
-            if (!fs.exists(path)) {
-                fs.mkdirs(path);
-            }
-            Path objectPath = new Path(basePath + Path.SEPARATOR + "data.parquet");
-            outputStream = fs.create(objectPath);
-            oos = new ObjectOutputStream(outputStream);
-            oos.writeObject(exampleSet);
-            oos.writeObject(null);
-            oos.flush();
-            oos.close();
-
-            int[] partition = new int[exampleSet.size()];
-            int endIndex = Math.min(100, exampleSet.size());
-            for (int i = 0; i < endIndex; i++) {
-                    partition[i] = 1;
-            }
-            SplittedExampleSet result = new SplittedExampleSet(exampleSet, new Partition(partition, 2));
-
-            result.selectSingleSubset(1);
+            ColumnarHdfsSource.writeToHDFS(exampleSet, basePath, true);
 
             List<Map<String, Object>> exampleSetMetaData = ParquetExampleSourceUtil.formMetaData(exampleSet);
-            Map<String, Object> viewAndMeta = new HashMap<>();
-            viewAndMeta.put("viewData", result);
-            viewAndMeta.put("metaData", exampleSetMetaData);
             Path metaPath = new Path(basePath + Path.SEPARATOR + "metadata");
-            outputStream = fs.create(metaPath);
-            oos = new ObjectOutputStream(outputStream);
-            oos.writeObject(viewAndMeta);
-            oos.writeObject(null);
-            oos.flush();
-            oos.close();
-
+            try (FSDataOutputStream outputStream = fs.create(metaPath)) {
+                ObjectMapper mapper = new ObjectMapper();
+                outputStream.write(mapper.writeValueAsBytes(exampleSetMetaData));
+            }
         } catch (IOException e) {
             e.printStackTrace();
-        } finally {
-            try {
-                oos.close();
-                outputStream.close();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
         }
     }
 
+    /**
+     * 以列式格式写入Belt Table中间结果
+     *
+     * @param table IOTable
+     * @param basePath String
+     */
+    public static void writeTableToHDFS(IOTable table, String basePath) {
+        writeExampleSetToHDFS(BeltConverter.convertSequentially(table), basePath);
+    }
+
+    /**
+     * 读取中间结果，兼容旧的Java序列化格式
+     *
+     * @param basePath String
+     * @return ExampleSet
+     */
     public static ExampleSet readExampleSetFromHDFS(String basePath) {
+        return readExampleSetFromHDFS(basePath, null);
+    }
+
+    /**
+     * 读取中间结果的部分列
+     *
+     * @param basePath String
+     * @param columnNames 需要读取的列，null表示全部列
+     * @return ExampleSet
+     */
+    public static ExampleSet readExampleSetFromHDFS(String basePath, Collection<String> columnNames) {
         try {
             fs.getStatus();
         } catch (Exception e) {
             initFileSystem();
         }
+        if (ColumnarHdfsSource.exists(basePath)) {
+            try {
+                return ColumnarHdfsSource.readFromHDFS(basePath, columnNames, -1);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
         InputStream inputStream = null;
         ObjectInputStream oi = null;
         Object object = null;
         try {
+            // 旧格式：ExampleSetUtil写入的data.parquet或ObjectHdfsSource写入的data
             Path path = new Path(basePath + Path.SEPARATOR + "data.parquet");
-            if (fs.exists(path)) {
+            if (!fs.exists(path)) {
+                path = new Path(basePath + Path.SEPARATOR + "data");
+            }
+            if (!fs.exists(path)) {
                 return null;
             }
-            inputStream = fs.open(new Path(basePath + Path.SEPARATOR + "data"));
+            inputStream = fs.open(path);
             oi = new ObjectInputStream(inputStream);
             object = oi.readObject();
         } catch (IOException | ClassNotFoundException e) {
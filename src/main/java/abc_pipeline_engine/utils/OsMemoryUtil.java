@@ -37,7 +37,7 @@ public class OsMemoryUtil {
      * @return the free physical memory size of the OS. 0 if there is an error or the OS doesn't
      * support this memory check.
      */
-    long getOsFreePhysicalMemorySize() {
+    public long getOsFreePhysicalMemorySize() {
         return getAggregatedFreeMemorySize(MEM_AVAILABLE_KEYS);
     }
 
@@ -29,6 +29,7 @@ import base.operators.io.process.XMLTools;
 import base.operators.operator.*;
 import base.operators.operator.execution.FlowData;
 import base.operators.operator.execution.ProcessFlowFilter;
+import base.operators.operator.execution.ResultCache;
 import base.operators.operator.ports.Port;
 import base.operators.parameter.UndefinedParameterError;
 import base.operators.report.ReportStream;
@@ -101,6 +102,25 @@ public class Process extends AbstractObservable<Process> implements Cloneable {
 		this.storeType = storeType;
 	}
 
+	/** Cache for the results of the operators, shared between runs of the same experiment */
+	private ResultCache resultCache;
+
+	/**
+	 * @return the cache used by the operators of this process or {@code null} if the results are
+	 *         not cached
+	 */
+	public ResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Sets the cache used to skip operators whose class, parameters and inputs did not change since
+	 * a previous run. {@code null} disables caching.
+	 */
+	public void setResultCache(ResultCache resultCache) {
+		this.resultCache = resultCache;
+	}
+
 	/** The root operator of the process. */
 	private ProcessRootOperator rootOperator = null;
 
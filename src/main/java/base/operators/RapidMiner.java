@@ -365,11 +365,27 @@ public class RapidMiner {
 	 */
 	public static final String PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS_BACKGROUND = "operators.general.number_of_threads_background";
 
+	/**
+	 * The maximum number of working threads that should be used for blocking I/O like HDFS or database access.
+	 */
+	public static final String PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS_IO = "operators.general.number_of_threads_io";
+
+	/**
+	 * The maximum number of working threads a single process may use at the same time. 0 means no limit.
+	 */
+	public static final String PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS_PER_PROCESS = "operators.general.number_of_threads_per_process";
+
 	/**
 	 * The maximum number of working threads that should be used by processes.
 	 */
 	public static final String PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_PROCESSES = "operators.general.number_of_processes";
 
+	/**
+	 * The name of the property indicating whether independent operators of a subprocess should be
+	 * executed in parallel.
+	 */
+	public static final String PROPERTY_RAPIDMINER_GENERAL_PARALLEL_UNIT_EXECUTION = "operators.general.parallel_unit_execution";
+
 	/**
 	 * The name of the property indicating whether beta features should be activated. Increase the version number if
 	 * the beta features should be set to disabled again for everyone. The settings.xml and Settings.properties
@@ -480,8 +496,11 @@ public class RapidMiner {
 				new ParameterTypeBoolean(CapabilityProvider.PROPERTY_RAPIDMINER_GENERAL_CAPABILITIES_WARN, "", false));
 		registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS, "", 0, Integer.MAX_VALUE, 0));
 		registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS_BACKGROUND, "", 0, Integer.MAX_VALUE, 0));
+		registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS_IO, "", 0, Integer.MAX_VALUE, 0));
+		registerParameter(new ParameterTypeInt(PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS_PER_PROCESS, "", 0, Integer.MAX_VALUE, 0));
 		registerParameter(
 				new ParameterTypeInt(PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_PROCESSES, "", 0, Integer.MAX_VALUE, 0));
+		registerParameter(new ParameterTypeBoolean(PROPERTY_RAPIDMINER_GENERAL_PARALLEL_UNIT_EXECUTION, "", false));
 		registerParameter(new ParameterTypeString(PROPERTY_RAPIDMINER_TOOLS_EDITOR, "", true));
 		registerParameter(new ParameterTypeCategory(PROPERTY_RAPIDMINER_TOOLS_MAIL_METHOD, "",
 				PROPERTY_RAPIDMINER_TOOLS_MAIL_METHOD_VALUES, PROPERTY_RAPIDMINER_TOOLS_MAIL_METHOD_SMTP));
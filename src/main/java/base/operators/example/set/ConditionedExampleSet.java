@@ -30,6 +30,7 @@ import base.operators.example.ExampleSet;
 import base.operators.tools.Tools;
 import base.operators.example.table.ExampleTable;
 import base.operators.operator.Annotations;
+import base.operators.operator.Operator;
 import base.operators.operator.OperatorProgress;
 import base.operators.operator.ProcessStoppedException;
 import base.operators.operator.tools.ExpressionEvaluationException;
@@ -114,6 +115,35 @@ public class ConditionedExampleSet extends AbstractExampleSet {
 		this.mapping = calculateMapping(condition, inverted, progress);
 	}
 
+	/**
+	 * Creates a new example set which uses only the examples for which the condition was evaluated
+	 * to be fulfilled, e.g. by {@link ExpressionFilter#conditionOk(ExampleSet, Operator, OperatorProgress)}.
+	 *
+	 * @param conditionOk
+	 *            for every example of the parent whether it fulfills the condition
+	 * @param inverted
+	 *            if {@code true} only the examples not fulfilling the condition are used
+	 */
+	public ConditionedExampleSet(ExampleSet parent, boolean[] conditionOk, boolean inverted) {
+		if (conditionOk.length != parent.size()) {
+			throw new IllegalArgumentException("conditionOk must contain one entry per example");
+		}
+		this.parent = (ExampleSet) parent.clone();
+		int count = 0;
+		for (boolean ok : conditionOk) {
+			if (ok != inverted) {
+				count++;
+			}
+		}
+		this.mapping = new int[count];
+		int m = 0;
+		for (int i = 0; i < conditionOk.length; i++) {
+			if (conditionOk[i] != inverted) {
+				mapping[m++] = i;
+			}
+		}
+	}
+
 	/** Clone constructor. */
 	public ConditionedExampleSet(ConditionedExampleSet exampleSet) {
 		this.parent = (ExampleSet) exampleSet.parent.clone();
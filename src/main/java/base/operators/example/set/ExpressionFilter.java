@@ -18,9 +18,13 @@
 */
 package base.operators.example.set;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import base.operators.example.Example;
 import base.operators.example.ExampleSet;
 import base.operators.operator.Operator;
+import base.operators.operator.OperatorProgress;
+import base.operators.operator.ProcessStoppedException;
 import base.operators.tools.I18N;
 import base.operators.tools.expression.ExampleResolver;
 import base.operators.tools.expression.Expression;
@@ -126,16 +130,69 @@ public class ExpressionFilter implements Condition {
 					return resultValue == 1d;
 				}
 			}
-			throw new ExpressionEvaluationException(
-					I18N.getMessageOrNull(I18N.getErrorBundle(), "expression_filter.expression_not_boolean", expression));
+			throw createNotBooleanException();
 		} catch (ExpressionException e1) {
 			// all parsing tries failed, show warning and return false
-			throw new ExpressionEvaluationException(
-					I18N.getMessageOrNull(I18N.getErrorBundle(), "expression_filter.parser_parsing_failed", expression));
+			throw createParsingFailedException();
 		} finally {
 			// avoid memory leak
 			resolver.unbind();
 		}
 	}
 
+	/**
+	 * Evaluates the condition for all examples of the given example set. Large example sets are
+	 * evaluated in parallel if the expression allows it.
+	 *
+	 * @param exampleSet
+	 *            an example set with the meta data this filter was created for
+	 * @param operator
+	 *            the operator used to check for stop and to evaluate in parallel
+	 * @param progress
+	 *            the {@link OperatorProgress} to report the progress to, can be {@code null}
+	 * @return for every example whether the condition is fulfilled
+	 * @throws ExpressionEvaluationException
+	 *             if the expression cannot be evaluated as condition
+	 * @throws ProcessStoppedException
+	 *             if the process was stopped
+	 */
+	public boolean[] conditionOk(ExampleSet exampleSet, Operator operator, OperatorProgress progress)
+			throws ExpressionEvaluationException, ProcessStoppedException {
+		boolean[] conditionOk = new boolean[exampleSet.size()];
+		AtomicBoolean notBoolean = new AtomicBoolean();
+		try {
+			ExpressionParserUtils.evaluateAll(exampleSet, result, resolver, operator, progress, row -> {
+				if (type == ExpressionType.BOOLEAN) {
+					Boolean resultValue = result.evaluateBoolean();
+					conditionOk[row] = resultValue != null && resultValue;
+				} else if (type == ExpressionType.DOUBLE) {
+					double resultValue = result.evaluateNumerical();
+					if (resultValue == 1d || resultValue == 0d) {
+						conditionOk[row] = resultValue == 1d;
+					} else {
+						notBoolean.set(true);
+					}
+				} else {
+					notBoolean.set(true);
+				}
+			});
+		} catch (ExpressionException e) {
+			throw createParsingFailedException();
+		}
+		if (notBoolean.get()) {
+			throw createNotBooleanException();
+		}
+		return conditionOk;
+	}
+
+	private ExpressionEvaluationException createNotBooleanException() {
+		return new ExpressionEvaluationException(
+				I18N.getMessageOrNull(I18N.getErrorBundle(), "expression_filter.expression_not_boolean", expression));
+	}
+
+	private ExpressionEvaluationException createParsingFailedException() {
+		return new ExpressionEvaluationException(
+				I18N.getMessageOrNull(I18N.getErrorBundle(), "expression_filter.parser_parsing_failed", expression));
+	}
+
 }
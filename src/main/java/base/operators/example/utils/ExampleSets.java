@@ -141,42 +141,51 @@ public final class ExampleSets {
 			throw new IllegalArgumentException("Example set must not be null");
 		}
 
-		// search for unsafe components
-		boolean foundUnsafeComponent;
-		
+		if (isThreadSafe(set)) {
+			return (ExampleSet) set.clone();
+		} else {
+			return MaterializeDataInMemory.materializeExampleSet(set);
+		}
+
+	}
+
+	/**
+	 * Checks whether the examples of the given set can be read by several threads at the same time, i.e. whether
+	 * {@link #createThreadSafeCopy(ExampleSet)} would return a shallow copy.
+	 *
+	 * @param set the example set to check
+	 * @return {@code true} if reading the example set concurrently is safe
+	 * @throws IllegalArgumentException if the input example set is {@code null}
+	 */
+	public static boolean isThreadSafe(ExampleSet set) {
+		if (set == null) {
+			throw new IllegalArgumentException("Example set must not be null");
+		}
+
 		// check example set implementation
-		boolean threadSafeView = set instanceof AbstractExampleSet && ((AbstractExampleSet) set).isThreadSafeView();
-		foundUnsafeComponent = !threadSafeView;
-		
+		if (!(set instanceof AbstractExampleSet) || !((AbstractExampleSet) set).isThreadSafeView()) {
+			return false;
+		}
+
 		// check example table implementation
-		if (!foundUnsafeComponent) {
-			ExampleTable table = set.getExampleTable();
-			foundUnsafeComponent = table.getClass() != ColumnarExampleTable.class;
+		if (set.getExampleTable().getClass() != ColumnarExampleTable.class) {
+			return false;
 		}
-		
+
 		// check attribute implementation
-		if (!foundUnsafeComponent) {
-			Attributes attributes = set.getAttributes();
-			foundUnsafeComponent = attributes.getClass() != SimpleAttributes.class;
+		if (set.getAttributes().getClass() != SimpleAttributes.class) {
+			return false;
 		}
-		
+
 		// check individual attributes and attribute transformations
-		if (!foundUnsafeComponent) {
-			Iterator<Attribute> attributes = set.getAttributes().allAttributes();
-			while (!foundUnsafeComponent && attributes.hasNext()) {
-				Attribute attribute = attributes.next();
-				if (!SAFE_ATTRIBUTES.contains(attribute.getClass()) || attribute.getLastTransformation() != null) {
-					foundUnsafeComponent = true;
-				}
+		Iterator<Attribute> attributes = set.getAttributes().allAttributes();
+		while (attributes.hasNext()) {
+			Attribute attribute = attributes.next();
+			if (!SAFE_ATTRIBUTES.contains(attribute.getClass()) || attribute.getLastTransformation() != null) {
+				return false;
 			}
 		}
-		
-		if (foundUnsafeComponent) {
-			return MaterializeDataInMemory.materializeExampleSet(set);
-		} else {
-			return (ExampleSet) set.clone();
-		}
-		
+		return true;
 	}
 
 }
@@ -397,4 +397,9 @@ public class DataMacroDefinitionOperator extends Operator {
 
 		return types;
 	}
+
+	@Override
+	public boolean hasSideEffects() {
+		return true;
+	}
 }
@@ -144,4 +144,9 @@ public class IORetrievalOperator extends Operator {
 
 		return types;
 	}
+
+	@Override
+	public boolean hasSideEffects() {
+		return true;
+	}
 }
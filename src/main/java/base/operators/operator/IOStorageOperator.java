@@ -204,4 +204,9 @@ public class IOStorageOperator extends Operator {
 
 		return types;
 	}
+
+	@Override
+	public boolean hasSideEffects() {
+		return true;
+	}
 }
@@ -284,4 +284,8 @@ public class MacroConstructionOperator extends Operator {
 		return extendedIncompatibleVersions;
 	}
 
+	@Override
+	public boolean hasSideEffects() {
+		return true;
+	}
 }
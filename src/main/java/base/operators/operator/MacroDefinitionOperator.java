@@ -105,4 +105,9 @@ public class MacroDefinitionOperator extends Operator {
 		types.add(type);
 		return types;
 	}
+
+	@Override
+	public boolean hasSideEffects() {
+		return true;
+	}
 }
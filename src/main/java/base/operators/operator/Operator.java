@@ -28,6 +28,8 @@ import base.operators.io.process.XMLTools;
 import base.operators.operator.ProcessSetupError.Severity;
 import base.operators.operator.annotation.ResourceConsumer;
 import base.operators.operator.annotation.ResourceConsumptionEstimator;
+import base.operators.operator.execution.OperatorFingerprint;
+import base.operators.operator.execution.ResultCache;
 import base.operators.operator.nio.model.AbstractDataResultSetReader;
 import base.operators.operator.ports.*;
 import base.operators.operator.ports.impl.InputPortsImpl;
@@ -1031,7 +1033,12 @@ public abstract class Operator extends AbstractObservable<Operator>
 			try {
 				isRunning = true;
 				fireUpdate();
-				doWork();
+				ResultCache resultCache = process != null ? process.getResultCache() : null;
+				if (resultCache == null) {
+					doWork();
+				} else {
+					executeCached(resultCache);
+				}
 				//fireUpdate();
 				getLogger().fine("Completed application " + applyCount.get() + " of operator " + getName());
 			} catch (ProcessStoppedRuntimeException | ExecutionAbortedException e) {
@@ -1119,6 +1126,94 @@ public abstract class Operator extends AbstractObservable<Operator>
 		}
 	}
 
+	/**
+	 * Delivers the outputs stored in the cache or executes {@link #doWork()} and stores its
+	 * outputs. Operators which are not {@link #isResultCacheable() cacheable} are always executed,
+	 * but if they have a {@link #getSourceFingerprint() source fingerprint} their outputs are still
+	 * marked so that the following operators need not hash them.
+	 */
+	private void executeCached(ResultCache resultCache) throws OperatorException {
+		boolean cacheable = isResultCacheable();
+		String source = getSourceFingerprint();
+		String key = null;
+		if (cacheable || source != null) {
+			try {
+				key = OperatorFingerprint.computeKey(this, source);
+			} catch (IOException e) {
+				getLogger().log(Level.FINE, "Cannot compute result cache key of " + getName(), e);
+			}
+		}
+		IOObject[] outputs = cacheable && key != null ? resultCache.get(key) : null;
+		List<OutputPort> outputPorts = getOutputPorts().getAllPorts();
+		if (outputs != null && outputs.length == outputPorts.size()) {
+			getLogger().fine("Using cached results for " + getName());
+			for (int i = 0; i < outputs.length; i++) {
+				if (outputs[i] != null) {
+					outputPorts.get(i).deliver(outputs[i]);
+				}
+			}
+		} else {
+			doWork();
+			if (cacheable && key != null) {
+				outputs = new IOObject[outputPorts.size()];
+				for (int i = 0; i < outputs.length; i++) {
+					outputs[i] = outputPorts.get(i).getAnyDataOrNull();
+				}
+				resultCache.put(key, outputs);
+			}
+		}
+		OperatorFingerprint.markOutputs(this, key);
+	}
+
+	/**
+	 * Returns whether the outputs of this operator only depend on its class, its parameters and
+	 * its inputs so that they can be taken from the {@link ResultCache} of the process. The default
+	 * is {@code false}; only operators which are known to be pure may return {@code true}. Operators
+	 * which read external data, have side effects or draw from the global random generator must
+	 * never be cached, see {@link #isRandomSeedFixed()}.
+	 */
+	protected boolean isResultCacheable() {
+		return false;
+	}
+
+	/**
+	 * Returns a fingerprint of the external data read by this operator, e.g. the path, size and
+	 * modification time of a file, or {@code null} if it is unknown. Together with the parameters
+	 * and inputs it must determine the outputs. It is used to mark the outputs without hashing
+	 * them, the operator itself is still executed unless it is {@link #isResultCacheable()
+	 * cacheable}.
+	 */
+	protected String getSourceFingerprint() throws OperatorException {
+		return null;
+	}
+
+	/**
+	 * Returns whether the random numbers drawn by this operator only depend on its parameters. This
+	 * is the case if it has no random seed parameters or uses a fixed local random seed. Operators
+	 * which use the global random generator regardless of their parameters must override this.
+	 */
+	protected boolean isRandomSeedFixed() {
+		try {
+			if (getParameters().getParameterType(RandomGenerator.PARAMETER_USE_LOCAL_RANDOM_SEED) != null) {
+				return getParameterAsBoolean(RandomGenerator.PARAMETER_USE_LOCAL_RANDOM_SEED);
+			}
+			return getParameters().getParameterType(RandomGenerator.PARAMETER_LOCAL_RANDOM_SEED) == null
+					|| getParameterAsInt(RandomGenerator.PARAMETER_LOCAL_RANDOM_SEED) >= 0;
+		} catch (UndefinedParameterError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns whether this operator changes state outside of its output ports which other operators
+	 * of the same subprocess may read, e.g. macros or objects stored in the process. The
+	 * {@link base.operators.operator.execution.ParallelUnitExecutor} executes such operators in
+	 * the order of their subprocess. The default is {@code false}.
+	 */
+	public boolean hasSideEffects() {
+		return false;
+	}
+
 	private void formatIO(Ports<? extends Port> ports, StringBuilder builder) {
 		for (Port port : ports.getAllPorts()) {
 			builder.append("\n  ");
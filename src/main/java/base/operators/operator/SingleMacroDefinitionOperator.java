@@ -123,4 +123,9 @@ public class SingleMacroDefinitionOperator extends Operator {
 		types.add(new ParameterTypeString(PARAMETER_VALUE, "The macro value defined by the user.", true, false));
 		return types;
 	}
+
+	@Override
+	public boolean hasSideEffects() {
+		return true;
+	}
 }
@@ -19,9 +19,13 @@
 package base.operators.operator.clustering.clusterer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import base.operators.core.concurrency.ConcurrencyContext;
 
 import base.operators.example.Attribute;
 import base.operators.example.Attributes;
@@ -35,6 +39,8 @@ import base.operators.operator.OperatorException;
 import base.operators.parameter.ParameterType;
 import base.operators.parameter.ParameterTypeDouble;
 import base.operators.parameter.ParameterTypeInt;
+import base.operators.studio.internal.Resources;
+import base.operators.tools.math.container.ArrayKDTree;
 
 
 /**
@@ -49,6 +55,9 @@ public class DBScan extends RMAbstractClusterer {
 
 	private static final String PARAMETER_MIN_POINTS = "min_points";
 
+	/** the minimal number of points whose neighbours are counted by one parallel task */
+	private static final int MIN_POINTS_PER_TASK = 256;
+
 	public DBScan(OperatorDescription description) {
 		super(description);
 	}
@@ -75,34 +84,48 @@ public class DBScan extends RMAbstractClusterer {
 			attributeNames.add(attribute.getName());
 		}
 
-		boolean[] visited = new boolean[exampleSet.size()];
-		boolean[] noised = new boolean[exampleSet.size()];
-		int[] clusterAssignments = new int[exampleSet.size()];
+		// copying the data into a dense matrix in the attribute order used by the measure
+		int size = exampleSet.size();
+		double[][] points = new double[size][];
+		int row = 0;
+		for (Example example : exampleSet) {
+			double[] values = new double[attributes.size()];
+			int column = 0;
+			for (Attribute attribute : attributes) {
+				values[column++] = example.getValue(attribute);
+			}
+			points[row++] = values;
+		}
+		NeighbourhoodIndex index = new NeighbourhoodIndex(points, measure, epsilon);
+
+		// determining the core points in parallel
+		boolean[] core = findCorePoints(index, minPoints);
+
+		boolean[] visited = new boolean[size];
+		boolean[] noised = new boolean[size];
+		int[] clusterAssignments = new int[size];
+		IntQueue centerNeighbourhood = new IntQueue();
 
-		int i = 0;
 		int clusterIndex = 1;
-		for (Example example : exampleSet) {
+		for (int i = 0; i < size; i++) {
 			if (!visited[i]) {
-				Queue<Integer> centerNeighbourhood = getNeighbourhood(example, exampleSet, measure, epsilon);
-				if (centerNeighbourhood.size() < minPoints) {
+				if (!core[i]) {
 					noised[i] = true;
 				} else {
 					// then its center point of a cluster. Assign example to new cluster
 					clusterAssignments[i] = clusterIndex;
+					centerNeighbourhood.clear();
+					centerNeighbourhood.addAll(index.getNeighbourhood(i));
 					// expanding cluster within density borders
-					while (centerNeighbourhood.size() > 0) {
-						int currentIndex = centerNeighbourhood.poll().intValue();
-						Example currentExample = exampleSet.getExample(currentIndex);
+					while (!centerNeighbourhood.isEmpty()) {
+						int currentIndex = centerNeighbourhood.poll();
 						// assigning example to current cluster
 						clusterAssignments[currentIndex] = clusterIndex;
 						visited[currentIndex] = true;
 
-						// appending own neighbourhood to queue
-						Queue<Integer> neighbourhood = getNeighbourhood(currentExample, exampleSet, measure, epsilon);
-						if (neighbourhood.size() >= minPoints) {
+						if (core[currentIndex]) {
 							// then this neighbor of center is also a center of the cluster
-							while (neighbourhood.size() > 0) {
-								int neighbourIndex = neighbourhood.poll().intValue();
+							for (int neighbourIndex : index.getNeighbourhood(currentIndex)) {
 								if (!visited[neighbourIndex]) {
 									if (!noised[neighbourIndex]) {
 										// if its not noised, then it might be center of cluster! So
@@ -119,7 +142,6 @@ public class DBScan extends RMAbstractClusterer {
 					clusterIndex++;
 				}
 			}
-			i++;
 			getProgress().step();
 		}
 
@@ -135,18 +157,133 @@ public class DBScan extends RMAbstractClusterer {
 		return model;
 	}
 
-	private LinkedList<Integer> getNeighbourhood(Example centerExample, ExampleSet exampleSet, DistanceMeasure measure,
-			double epsilon) {
-		LinkedList<Integer> neighbourhood = new LinkedList<Integer>();
-		int i = 0;
-		for (Example example : exampleSet) {
-			double distance = measure.calculateDistance(centerExample, example);
-			if (distance < epsilon) {
-				neighbourhood.add(i);
+	/**
+	 * Counts the neighbours of all points in parallel. A point is a core point if at least
+	 * {@code minPoints} points, including itself, are closer than epsilon.
+	 */
+	private boolean[] findCorePoints(final NeighbourhoodIndex index, final int minPoints) throws OperatorException {
+		final int size = index.size();
+		final boolean[] core = new boolean[size];
+		ConcurrencyContext context = Resources.getConcurrencyContext(this);
+		final int numberOfTasks = Math.max(1, Math.min(4 * context.getParallelism(), size / MIN_POINTS_PER_TASK));
+		List<Callable<Void>> tasks = new ArrayList<>(numberOfTasks);
+		for (int t = 0; t < numberOfTasks; t++) {
+			final int from = (int) ((long) size * t / numberOfTasks);
+			final int to = (int) ((long) size * (t + 1) / numberOfTasks);
+			tasks.add(new Callable<Void>() {
+
+				@Override
+				public Void call() {
+					for (int i = from; i < to; i++) {
+						core[i] = index.getNeighbourhood(i).length >= minPoints;
+					}
+					return null;
+				}
+			});
+		}
+		try {
+			context.call(tasks);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new OperatorException(cause.getMessage(), cause);
 			}
-			i++;
 		}
-		return neighbourhood;
+		return core;
+	}
+
+	/**
+	 * Answers the epsilon range queries of DBScan on a dense copy of the data. A {@link ArrayKDTree}
+	 * is used if it supports the distance measure, otherwise all points are compared. The
+	 * neighbourhoods contain the point itself and are sorted by index.
+	 */
+	private static final class NeighbourhoodIndex {
+
+		private final double[][] points;
+		private final DistanceMeasure measure;
+		private final double epsilon;
+		private final ArrayKDTree<Integer> tree;
+
+		private NeighbourhoodIndex(double[][] points, DistanceMeasure measure, double epsilon) {
+			this.points = points;
+			this.measure = measure;
+			this.epsilon = epsilon;
+			if (ArrayKDTree.isSupported(measure)) {
+				tree = new ArrayKDTree<>(measure);
+				for (int i = 0; i < points.length; i++) {
+					tree.add(points[i], i);
+				}
+			} else {
+				tree = null;
+			}
+		}
+
+		private int size() {
+			return points.length;
+		}
+
+		private int[] getNeighbourhood(int center) {
+			if (tree != null) {
+				return tree.getIndicesCloserThan(epsilon, points[center]);
+			}
+			int[] neighbourhood = new int[16];
+			int count = 0;
+			for (int i = 0; i < points.length; i++) {
+				if (measure.calculateDistance(points[center], points[i]) < epsilon) {
+					if (count == neighbourhood.length) {
+						neighbourhood = Arrays.copyOf(neighbourhood, 2 * count);
+					}
+					neighbourhood[count++] = i;
+				}
+			}
+			return Arrays.copyOf(neighbourhood, count);
+		}
+	}
+
+	/** A growing FIFO queue of primitive ints. */
+	private static final class IntQueue {
+
+		private int[] elements = new int[16];
+		private int head;
+		private int tail;
+
+		private void add(int element) {
+			if (tail == elements.length) {
+				if (head > elements.length / 2) {
+					// reuse the polled front
+					System.arraycopy(elements, head, elements, 0, tail - head);
+				} else {
+					elements = Arrays.copyOf(elements, 2 * elements.length);
+					System.arraycopy(elements, head, elements, 0, tail - head);
+				}
+				tail -= head;
+				head = 0;
+			}
+			elements[tail++] = element;
+		}
+
+		private void addAll(int[] newElements) {
+			for (int element : newElements) {
+				add(element);
+			}
+		}
+
+		private int poll() {
+			return elements[head++];
+		}
+
+		private boolean isEmpty() {
+			return head == tail;
+		}
+
+		private void clear() {
+			head = 0;
+			tail = 0;
+		}
 	}
 
 	@Override
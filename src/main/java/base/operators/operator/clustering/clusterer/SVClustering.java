@@ -41,6 +41,8 @@ import base.operators.parameter.ParameterTypeCategory;
 import base.operators.parameter.ParameterTypeDouble;
 import base.operators.parameter.ParameterTypeInt;
 import base.operators.parameter.conditions.EqualTypeCondition;
+import base.operators.studio.concurrency.internal.BackgroudOperatorConcurrencyContext;
+import base.operators.studio.internal.Resources;
 
 
 /**
@@ -153,13 +155,19 @@ public class SVClustering extends RMAbstractClusterer {
 		}
 		SVCExampleSet svmExamples = new SVCExampleSet(exampleSet, false);
 		kernel.init(svmExamples, cacheSize);
+		kernel.setConcurrencyContext(getProcess() != null ? Resources.getConcurrencyContext(this)
+				: new BackgroudOperatorConcurrencyContext(this));
 
 		// initialize progress
 		getProgress().setTotal(100);
 
 		// creating kernel using SVClusteringAlgorithm
 		SVClusteringAlgorithm clustering = new SVClusteringAlgorithm(this, kernel, svmExamples);
-		clustering.train();
+		try {
+			clustering.train();
+		} finally {
+			kernel.release_kernel_cache();
+		}
 		getProgress().setCompleted((int) INTERMEDIATE_PROGRESS);
 
 		// doing neighborhood search for density estimation
@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.operator.execution;
+
+import base.operators.Process;
+import base.operators.example.ExampleSet;
+import base.operators.operator.IOObject;
+import base.operators.operator.Operator;
+import base.operators.operator.OperatorChain;
+import base.operators.operator.nio.file.SimpleFileObject;
+import base.operators.operator.ports.InputPort;
+import base.operators.operator.ports.OutputPort;
+import base.operators.parameter.UndefinedParameterError;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.TreeSet;
+
+
+/**
+ * Computes the keys of the {@link ResultCache}. The key of an operator execution is a hash of the
+ * operator class, its parameters after macro replacement, the parameters of the process root
+ * operator (e.g. the random seed), the fingerprint of the external data it reads and the
+ * fingerprints of its inputs. For operator chains the classes, parameters and connections of all
+ * inner operators are included as well.
+ * <p>
+ * The outputs of an execution are marked with a fingerprint derived from the key, so the key of
+ * the following operators can be computed without looking at the data. Local files are identified
+ * by their path, size and modification time. Only inputs that were not produced by an operator
+ * with a key, e.g. the outputs of operators without a source fingerprint, are hashed by
+ * serializing them, and only up to {@link #MAX_HASHED_VALUES} data values.
+ */
+public final class OperatorFingerprint {
+
+	/** Key of the fingerprint in the user data of an {@link IOObject}. */
+	public static final String USER_DATA_KEY = "base.operators.operator.execution.OperatorFingerprint";
+
+	/**
+	 * Maximal number of values of an example set without fingerprint that is hashed. Hashing larger
+	 * example sets would take longer than most operators need to process them.
+	 */
+	public static final long MAX_HASHED_VALUES = 1_000_000L;
+
+	private static final String VERSION = "2";
+
+	private OperatorFingerprint() {
+		throw new AssertionError("Utility class");
+	}
+
+	/**
+	 * Computes the key of executing the operator with its current inputs.
+	 *
+	 * @param operator
+	 *            the operator, its inputs must already be available
+	 * @param sourceFingerprint
+	 *            the fingerprint of the external data read by the operator, may be {@code null}
+	 * @return the key or {@code null} if an input is too large to be hashed
+	 * @throws IOException
+	 *             if an input without fingerprint cannot be serialized
+	 */
+	public static String computeKey(Operator operator, String sourceFingerprint) throws IOException {
+		MessageDigest digest = createDigest();
+		update(digest, VERSION);
+		update(digest, sourceFingerprint == null ? "-" : sourceFingerprint);
+		appendOperator(digest, operator);
+		if (operator instanceof OperatorChain) {
+			for (Operator inner : ((OperatorChain) operator).getAllInnerOperators()) {
+				update(digest, inner.getName());
+				update(digest, String.valueOf(inner.isEnabled()));
+				appendOperator(digest, inner);
+				for (InputPort inputPort : inner.getInputPorts().getAllPorts()) {
+					OutputPort source = inputPort.getSource();
+					update(digest, source == null ? "-"
+							: source.getPorts().getOwner().getOperator().getName() + "." + source.getName());
+				}
+			}
+		}
+		Process process = operator.getProcess();
+		if (process != null && process.getRootOperator() != operator) {
+			appendParameters(digest, process.getRootOperator());
+		}
+		for (InputPort inputPort : operator.getInputPorts().getAllPorts()) {
+			IOObject data = inputPort.getAnyDataOrNull();
+			String fingerprint = data == null ? "-" : getFingerprint(data);
+			if (fingerprint == null) {
+				return null;
+			}
+			update(digest, fingerprint);
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Marks the data of all output ports with a fingerprint derived from the key. If the key is
+	 * {@code null} the fingerprints are removed so that the following operators hash the data.
+	 */
+	public static void markOutputs(Operator operator, String key) {
+		List<OutputPort> ports = operator.getOutputPorts().getAllPorts();
+		for (int i = 0; i < ports.size(); i++) {
+			IOObject data = ports.get(i).getAnyDataOrNull();
+			if (data != null) {
+				data.setUserData(USER_DATA_KEY, key == null ? null : hash(key + ":" + i));
+			}
+		}
+	}
+
+	/**
+	 * Returns the fingerprint of the object, the object is hashed if it was not produced by an
+	 * operator with a key. Returns {@code null} if the object is an example set with more than
+	 * {@link #MAX_HASHED_VALUES} values.
+	 */
+	public static String getFingerprint(IOObject data) throws IOException {
+		Object fingerprint = data.getUserData(USER_DATA_KEY);
+		if (fingerprint instanceof String) {
+			return (String) fingerprint;
+		}
+		if (data instanceof SimpleFileObject) {
+			return getFileFingerprint(((SimpleFileObject) data).getFile());
+		}
+		if (data instanceof ExampleSet) {
+			ExampleSet exampleSet = (ExampleSet) data;
+			if ((long) exampleSet.size() * exampleSet.getAttributes().allSize() > MAX_HASHED_VALUES) {
+				return null;
+			}
+		}
+		MessageDigest digest = createDigest();
+		try (ObjectOutputStream out = new ObjectOutputStream(new DigestOutputStream(new OutputStream() {
+
+			@Override
+			public void write(int b) {}
+
+			@Override
+			public void write(byte[] b, int off, int len) {}
+		}, digest))) {
+			out.writeObject(data);
+		}
+		String result = toHex(digest.digest());
+		data.setUserData(USER_DATA_KEY, result);
+		return result;
+	}
+
+	/**
+	 * Returns a fingerprint of the file consisting of its path, size and modification time or
+	 * {@code null} if the file does not exist.
+	 */
+	public static String getFileFingerprint(File file) {
+		if (file == null || !file.isFile()) {
+			return null;
+		}
+		return hash(file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified());
+	}
+
+	private static void appendOperator(MessageDigest digest, Operator operator) {
+		update(digest, operator.getClass().getName());
+		appendParameters(digest, operator);
+	}
+
+	private static void appendParameters(MessageDigest digest, Operator operator) {
+		for (String key : new TreeSet<>(operator.getParameters().getKeys())) {
+			String value;
+			try {
+				value = operator.getParameter(key);
+			} catch (UndefinedParameterError e) {
+				value = null;
+			}
+			update(digest, key);
+			update(digest, value == null ? "\0" : value);
+		}
+	}
+
+	private static String hash(String value) {
+		MessageDigest digest = createDigest();
+		update(digest, value);
+		return toHex(digest.digest());
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		// length prefix keeps the concatenation unambiguous
+		digest.update((byte) (bytes.length >>> 24));
+		digest.update((byte) (bytes.length >>> 16));
+		digest.update((byte) (bytes.length >>> 8));
+		digest.update((byte) bytes.length);
+		digest.update(bytes);
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder builder = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+			builder.append(Character.forDigit(b & 0xF, 16));
+		}
+		return builder.toString();
+	}
+}
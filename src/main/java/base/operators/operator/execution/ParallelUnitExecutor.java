@@ -0,0 +1,360 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ *
+ * Complete list of developers available at our web site:
+ *
+ * http://rapidminer.com
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.operator.execution;
+
+import base.operators.Process;
+import base.operators.core.concurrency.ConcurrencyContext;
+import base.operators.example.ExampleSet;
+import base.operators.example.table.ExampleTable;
+import base.operators.operator.ExecutionUnit;
+import base.operators.operator.IOObject;
+import base.operators.operator.IOObjectCollection;
+import base.operators.operator.Operator;
+import base.operators.operator.OperatorException;
+import base.operators.operator.ProcessStoppedException;
+import base.operators.operator.ports.InputPort;
+import base.operators.operator.ports.OutputPort;
+import base.operators.studio.internal.Resources;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * Executes an {@link ExecutionUnit} by running all operators whose predecessors have finished
+ * concurrently on the {@link ConcurrencyContext} of the process.
+ * <p>
+ * The dependencies are derived from the port connections. Operators which
+ * {@link Operator#hasSideEffects() have side effects} (e.g. macro definitions, Remember and Recall)
+ * or have no connected port act as barriers: they run after all operators that precede them in the
+ * execution order and before all operators that follow them.
+ * <p>
+ * Operators whose input example sets share an {@link ExampleTable} with the input of a running
+ * operator (e.g. the outputs of Multiply) wait until that operator has finished, since many
+ * operators add attributes to the table of their input.
+ * <p>
+ * The process flow events are fired from the calling thread with the same previous and next
+ * operators as the {@link SimpleUnitExecutor} would use. If an operator fails or the calling thread
+ * is interrupted, the operators which have not started yet are cancelled and the running ones are
+ * awaited before the error is thrown. If the unit is executed from within the
+ * fork join pool (e.g. the subprocess of an operator that itself runs in parallel), contains fewer
+ * than two operators or contains a cycle, it is executed sequentially.
+ *
+ * @see SimpleUnitExecutor
+ */
+public class ParallelUnitExecutor implements UnitExecutor {
+
+	/** Result of a finished operator, {@code error} is {@code null} on success. */
+	private static class Completion {
+
+		private final int index;
+		private final Throwable error;
+
+		private Completion(int index, Throwable error) {
+			this.index = index;
+			this.error = error;
+		}
+	}
+
+	private final SimpleUnitExecutor sequentialExecutor = new SimpleUnitExecutor();
+
+	@Override
+	public void execute(ExecutionUnit unit) throws OperatorException {
+		Process process = unit.getEnclosingOperator().getProcess();
+		List<Operator> operators = unit.getOperators();
+		if (process == null || operators.size() < 2 || Thread.currentThread() instanceof ForkJoinWorkerThread) {
+			sequentialExecutor.execute(unit);
+			return;
+		}
+		ConcurrencyContext context = Resources.getConcurrencyContext(unit.getEnclosingOperator());
+		int[][] successors = createSuccessors(operators);
+		if (context.getParallelism() < 2 || successors == null) {
+			sequentialExecutor.execute(unit);
+			return;
+		}
+
+		Logger logger = unit.getEnclosingOperator().getLogger();
+		if (logger.isLoggable(Level.FINE)) {
+			logger.fine("Executing subprocess " + unit.getEnclosingOperator().getName() + "." + unit.getName()
+					+ " in parallel. Execution order is: " + operators);
+		}
+
+		int size = operators.size();
+		int[] missingPredecessors = new int[size];
+		for (int[] next : successors) {
+			for (int successor : next) {
+				missingPredecessors[successor]++;
+			}
+		}
+		PriorityQueue<Integer> ready = new PriorityQueue<>();
+		for (int i = 0; i < size; i++) {
+			if (missingPredecessors[i] == 0) {
+				ready.add(i);
+			}
+		}
+
+		BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+		// the futures of the submitted operators, the flags are set once an operator either starts
+		// or is cancelled
+		List<Future<Void>> futures = new ArrayList<>(Collections.nCopies(size, null));
+		AtomicBoolean[] claimed = new AtomicBoolean[size];
+		Throwable failure = null;
+		boolean interrupted = false;
+		int running = 0;
+		// the input tables of the running operators
+		List<Set<ExampleTable>> runningTables = new ArrayList<>(Collections.nCopies(size, null));
+		Set<ExampleTable> busyTables = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<Integer> waiting = new ArrayList<>();
+		while (true) {
+			while (failure == null && !ready.isEmpty()) {
+				int index = ready.poll();
+				Operator operator = operators.get(index);
+				Set<ExampleTable> tables = gatherTables(operator);
+				if (!Collections.disjoint(busyTables, tables)) {
+					waiting.add(index);
+					continue;
+				}
+				busyTables.addAll(tables);
+				runningTables.set(index, tables);
+				// fire event that we are about to start the next operator
+				process.fireProcessFlowBeforeOperator(index > 0 ? operators.get(index - 1) : null, operator,
+						SimpleUnitExecutor.gatherInput(operator));
+				claimed[index] = new AtomicBoolean();
+				futures.set(index,
+						context.submit(Collections.singletonList(createTask(operator, index, claimed[index], completions)))
+								.get(0));
+				running++;
+			}
+			if (running == 0) {
+				break;
+			}
+
+			Completion completion;
+			try {
+				completion = completions.take();
+			} catch (InterruptedException e) {
+				// wait for the running operators anyway, but do not start new ones
+				interrupted = true;
+				if (failure == null) {
+					failure = new ProcessStoppedException(unit.getEnclosingOperator());
+				}
+				running -= cancelPending(futures, claimed);
+				continue;
+			}
+			running--;
+			futures.set(completion.index, null);
+			busyTables.removeAll(runningTables.set(completion.index, null));
+			ready.addAll(waiting);
+			waiting.clear();
+			if (completion.error != null) {
+				// let the running operators finish but do not start new ones
+				if (failure == null) {
+					failure = completion.error;
+				}
+				running -= cancelPending(futures, claimed);
+				continue;
+			}
+			if (failure == null) {
+				// fire event that we finished the operator
+				Operator operator = operators.get(completion.index);
+				process.fireProcessFlowAfterOperator(operator,
+						completion.index + 1 < size ? operators.get(completion.index + 1) : null,
+						SimpleUnitExecutor.gatherOutput(operator));
+				for (int successor : successors[completion.index]) {
+					if (--missingPredecessors[successor] == 0) {
+						ready.add(successor);
+					}
+				}
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (failure != null) {
+			if (failure instanceof OperatorException) {
+				throw (OperatorException) failure;
+			} else if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			} else if (failure instanceof Error) {
+				throw (Error) failure;
+			} else {
+				throw new OperatorException(failure.getMessage(), failure);
+			}
+		}
+	}
+
+	/**
+	 * Creates the task executing the operator. The task never throws but reports its outcome to the
+	 * completion queue. It does nothing if the flag has already been set by
+	 * {@link #cancelPending(List, AtomicBoolean[])}.
+	 */
+	private static Callable<Void> createTask(Operator operator, int index, AtomicBoolean claimed,
+			BlockingQueue<Completion> completions) {
+		return () -> {
+			if (!claimed.compareAndSet(false, true)) {
+				return null;
+			}
+			Throwable error = null;
+			try {
+				operator.execute();
+			} catch (Throwable t) {
+				error = t;
+			}
+			completions.add(new Completion(index, error));
+			return null;
+		};
+	}
+
+	/**
+	 * Cancels the submitted operators which have not started yet. They will never report to the
+	 * completion queue.
+	 *
+	 * @return the number of cancelled operators
+	 */
+	private static int cancelPending(List<Future<Void>> futures, AtomicBoolean[] claimed) {
+		int cancelled = 0;
+		for (int i = 0; i < futures.size(); i++) {
+			Future<Void> future = futures.get(i);
+			if (future != null && claimed[i].compareAndSet(false, true)) {
+				future.cancel(false);
+				futures.set(i, null);
+				cancelled++;
+			}
+		}
+		return cancelled;
+	}
+
+	/**
+	 * @return the tables of the example sets at the connected input ports of the operator
+	 */
+	private static Set<ExampleTable> gatherTables(Operator operator) {
+		Set<ExampleTable> tables = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (InputPort inputPort : operator.getInputPorts().getAllPorts()) {
+			if (inputPort.isConnected()) {
+				addTables(inputPort.getAnyDataOrNull(), tables);
+			}
+		}
+		return tables;
+	}
+
+	private static void addTables(IOObject data, Set<ExampleTable> tables) {
+		if (data instanceof ExampleSet) {
+			tables.add(((ExampleSet) data).getExampleTable());
+		} else if (data instanceof IOObjectCollection) {
+			for (IOObject object : ((IOObjectCollection<?>) data).getObjects()) {
+				addTables(object, tables);
+			}
+		}
+	}
+
+	/**
+	 * Builds the dependency graph of the operators from their port connections.
+	 *
+	 * @return the indices of the direct successors for every operator or {@code null} if a
+	 *         connection points backwards in the execution order
+	 */
+	private static int[][] createSuccessors(List<Operator> operators) {
+		int size = operators.size();
+		Map<Operator, Integer> indices = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			indices.put(operators.get(i), i);
+		}
+		List<Set<Integer>> successors = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			successors.add(new LinkedHashSet<>());
+		}
+
+		int lastBarrier = -1;
+		for (int i = 0; i < size; i++) {
+			Operator operator = operators.get(i);
+			if (isBarrier(operator)) {
+				for (int j = Math.max(lastBarrier, 0); j < i; j++) {
+					successors.get(j).add(i);
+				}
+				lastBarrier = i;
+			} else if (lastBarrier >= 0) {
+				successors.get(lastBarrier).add(i);
+			}
+			for (InputPort inputPort : operator.getInputPorts().getAllPorts()) {
+				OutputPort source = inputPort.getSource();
+				if (source == null) {
+					continue;
+				}
+				// inner sources of the enclosing operator are not contained in the map
+				Integer predecessor = indices.get(source.getPorts().getOwner().getOperator());
+				if (predecessor == null) {
+					continue;
+				}
+				if (predecessor >= i) {
+					return null;
+				}
+				successors.get(predecessor).add(i);
+			}
+		}
+
+		int[][] result = new int[size][];
+		for (int i = 0; i < size; i++) {
+			Set<Integer> next = successors.get(i);
+			result[i] = new int[next.size()];
+			int k = 0;
+			for (int successor : next) {
+				result[i][k++] = successor;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return {@code true} if the operator has side effects or neither connected input nor output
+	 *         ports
+	 */
+	private static boolean isBarrier(Operator operator) {
+		if (operator.hasSideEffects()) {
+			return true;
+		}
+		for (InputPort inputPort : operator.getInputPorts().getAllPorts()) {
+			if (inputPort.isConnected()) {
+				return false;
+			}
+		}
+		for (OutputPort outputPort : operator.getOutputPorts().getAllPorts()) {
+			if (outputPort.isConnected()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.operator.execution;
+
+import base.operators.operator.IOObject;
+
+
+/**
+ * Stores the outputs of operators so that a later run of the same operator with the same
+ * parameters and inputs can skip its execution. The keys are computed by
+ * {@link OperatorFingerprint#computeKey(base.operators.operator.Operator, String)}.
+ * <p>
+ * Implementations must be thread safe since operators may be executed concurrently.
+ *
+ * @see base.operators.Process#setResultCache(ResultCache)
+ */
+public interface ResultCache {
+
+	/**
+	 * Returns the stored outputs for the given key.
+	 *
+	 * @param key
+	 *            the key of the operator execution
+	 * @return the outputs indexed by output port, {@code null} entries for ports without data, or
+	 *         {@code null} if nothing is stored for the key
+	 */
+	public IOObject[] get(String key);
+
+	/**
+	 * Stores the outputs of an operator execution. The outputs must be copied or serialized before
+	 * this method returns because the following operators may modify them.
+	 *
+	 * @param key
+	 *            the key of the operator execution
+	 * @param outputs
+	 *            the outputs indexed by output port, {@code null} entries for ports without data
+	 */
+	public void put(String key, IOObject[] outputs);
+}
@@ -18,11 +18,14 @@
 */
 package base.operators.operator.execution;
 
+import base.operators.RapidMiner;
 import base.operators.operator.ExecutionUnit;
+import base.operators.tools.ParameterService;
 
 
 /**
- * Returns a shared instance of a {@link SimpleUnitExecutor}.
+ * Returns a shared instance of a {@link SimpleUnitExecutor}, or of a {@link ParallelUnitExecutor}
+ * if {@link RapidMiner#PROPERTY_RAPIDMINER_GENERAL_PARALLEL_UNIT_EXECUTION} is enabled.
  *
  * @author Simon Fischer
  *
@@ -31,8 +34,14 @@ public class SimpleUnitExecutionFactory extends UnitExecutionFactory {
 
 	private final SimpleUnitExecutor executor = new SimpleUnitExecutor();
 
+	private final ParallelUnitExecutor parallelExecutor = new ParallelUnitExecutor();
+
 	@Override
 	public UnitExecutor getExecutor(ExecutionUnit unit) {
+		if (Boolean.parseBoolean(
+				ParameterService.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_PARALLEL_UNIT_EXECUTION))) {
+			return parallelExecutor;
+		}
 		return executor;
 	}
 
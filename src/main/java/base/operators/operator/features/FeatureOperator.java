@@ -23,18 +23,25 @@ import base.operators.example.AttributeWeights;
 import base.operators.example.ExampleSet;
 import base.operators.example.set.AttributeWeightedExampleSet;
 import base.operators.operator.*;
+import base.operators.operator.concurrency.internal.ParallelOperatorChain;
 import base.operators.operator.performance.PerformanceVector;
 import base.operators.operator.ports.InputPort;
 import base.operators.operator.ports.OutputPort;
 import base.operators.operator.ports.PortPairExtender;
+import base.operators.operator.ports.PortPairExtender.PortPair;
+import base.operators.operator.tools.ConcurrencyTools;
 import base.operators.operator.ports.metadata.*;
 import base.operators.parameter.*;
 import base.operators.parameter.conditions.BooleanParameterCondition;
+import base.operators.studio.concurrency.internal.ConcurrencyExecutionService;
+import base.operators.studio.concurrency.internal.ConcurrencyExecutionServiceProvider;
 import base.operators.tools.RandomGenerator;
 import base.operators.tools.Tools;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 
 /**
@@ -47,7 +54,7 @@ import java.util.List;
  *
  * @author Simon Fischer, Ingo Mierswa <br>
  */
-public abstract class FeatureOperator extends OperatorChain {
+public abstract class FeatureOperator extends ParallelOperatorChain {
 
 	public static final String PARAMETER_NORMALIZE_WEIGHTS = "normalize_weights";
 
@@ -460,6 +467,63 @@ public abstract class FeatureOperator extends OperatorChain {
 		return subprocessPerformanceInput.getData(PerformanceVector.class);
 	}
 
+	/**
+	 * Evaluates the example set once for every given weight vector, see
+	 * {@link #executeEvaluationProcess(ExampleSet)}. If the parallel execution is enabled, the
+	 * evaluations run concurrently on copies of this operator which share one thread-safe copy of
+	 * the example set. The operator progress is stepped once per evaluation.
+	 *
+	 * @param exampleSet
+	 *            the example set to evaluate
+	 * @param weights
+	 *            the attribute weights to apply, see {@link #createCleanClone(ExampleSet, double[])}
+	 * @return the performances in the order of the weights
+	 */
+	public final List<PerformanceVector> executeEvaluationProcesses(ExampleSet exampleSet, List<double[]> weights)
+			throws OperatorException {
+		List<PerformanceVector> performances = new ArrayList<>(weights.size());
+		if (weights.size() <= 1 || !checkParallelizability()) {
+			for (double[] weightVector : weights) {
+				performances.add(executeEvaluationProcess(createCleanClone(exampleSet, weightVector)));
+				getProgress().step();
+			}
+			return performances;
+		}
+
+		final ExampleSet threadSafeSet = getDataCopy(exampleSet, true);
+		List<IOObject> throughData = new ArrayList<>();
+		for (PortPair pair : throughExtender.getManagedPairs()) {
+			throughData.add(pair.getInputPort().getAnyDataOrNull());
+		}
+		final List<IOObject> threadSafeThroughData = getDataCopy(throughData, true);
+		final OperatorProgress progress = getProgress();
+
+		ConcurrencyExecutionService service = ConcurrencyExecutionServiceProvider.INSTANCE.getService();
+		for (int i = 0; i < weights.size();) {
+			int batchSize = Math.min(weights.size() - i,
+					ConcurrencyExecutionService.getRecommendedConcurrencyBatchSize(this));
+			List<Callable<PerformanceVector>> taskSet = new ArrayList<>(batchSize);
+			for (int j = 1; j <= batchSize; i++, j++) {
+				final FeatureOperator copy = ConcurrencyTools.clone(this);
+				final double[] weightVector = weights.get(i);
+				taskSet.add(service.prepareOperatorTask(getProcess(), copy, i + 1, i + 1 == weights.size(), () -> {
+					List<PortPair> throughPairs = copy.throughExtender.getManagedPairs();
+					for (int k = 0; k < throughPairs.size() && k < threadSafeThroughData.size(); k++) {
+						throughPairs.get(k).getInputPort().receive(getDataCopy(threadSafeThroughData.get(k), false));
+					}
+					PerformanceVector performance = copy
+							.executeEvaluationProcess(createCleanClone(threadSafeSet, weightVector));
+					synchronized (progress) {
+						progress.step();
+					}
+					return performance;
+				}));
+			}
+			performances.addAll(service.executeOperatorTasks(this, taskSet));
+		}
+		return performances;
+	}
+
 	protected void runEvaluationProcess() throws OperatorException {
 		getSubprocess(0).execute();
 	}
@@ -18,47 +18,107 @@
 */
 package base.operators.operator.features;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
 import base.operators.example.ExampleSet;
 import base.operators.operator.OperatorException;
 import base.operators.operator.performance.PerformanceVector;
 
 
 /**
- * This is the basic population operator for feature set evaluation schemes.
+ * This is the basic population operator for feature set evaluation schemes. The performance of
+ * every evaluated feature set is cached, so individuals with the same weights as an earlier one are
+ * not evaluated again. All new feature sets of a population are evaluated together, concurrently if
+ * the parallel execution of the operator is enabled.
  *
  * @author Sebastian Land, Ingo Mierswa
  */
 public class SimplePopulationEvaluator implements PopulationEvaluator {
 
+	/** Wraps a copy of a weight vector to be used as key of the performance cache. */
+	private static final class WeightsKey {
+
+		private final double[] weights;
+		private final int hashCode;
+
+		private WeightsKey(double[] weights) {
+			this.weights = weights.clone();
+			this.hashCode = Arrays.hashCode(this.weights);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof WeightsKey && Arrays.equals(weights, ((WeightsKey) obj).weights);
+		}
+	}
+
 	private ExampleSet originalSet;
 	private FeatureOperator operator;
 
+	/** The performances of all feature sets evaluated so far. */
+	private final Map<WeightsKey, PerformanceVector> performanceCache = new HashMap<>();
+
 	public SimplePopulationEvaluator(FeatureOperator operator, ExampleSet originalSet) {
 		this.originalSet = originalSet;
 		this.operator = operator;
 	}
 
-	/**
-	 * Evaluates the given individual. The performance is set as user data of the individual and
-	 * also returned by this method.
-	 */
-	private final void evaluate(Individual individual) throws OperatorException {
-		if (individual.getPerformance() == null) {
-
-			double[] weights = individual.getWeights();
-			ExampleSet clone = FeatureOperator.createCleanClone(originalSet, weights);
-
-			PerformanceVector performanceVector = operator.executeEvaluationProcess(clone);
-			individual.setPerformance(performanceVector);
-		}
-	}
-
 	@Override
 	public void evaluate(Population population) throws OperatorException {
+		// collect the distinct feature sets which have not been evaluated yet
+		Map<WeightsKey, List<Individual>> pending = new LinkedHashMap<>();
 		for (int i = 0; i < population.getNumberOfIndividuals(); i++) {
-			evaluate(population.get(i));
+			Individual individual = population.get(i);
+			if (individual.getPerformance() != null) {
+				operator.getProgress().step();
+				continue;
+			}
+			WeightsKey key = new WeightsKey(individual.getWeights());
+			PerformanceVector cachedPerformance = performanceCache.get(key);
+			if (cachedPerformance != null) {
+				individual.setPerformance(cachedPerformance);
+				operator.getProgress().step();
+			} else {
+				List<Individual> individuals = pending.get(key);
+				if (individuals == null) {
+					individuals = new ArrayList<>(1);
+					pending.put(key, individuals);
+				} else {
+					operator.getProgress().step();
+				}
+				individuals.add(individual);
+			}
+		}
+
+		if (!pending.isEmpty()) {
+			List<double[]> weights = new ArrayList<>(pending.size());
+			for (WeightsKey key : pending.keySet()) {
+				weights.add(key.weights);
+			}
+			List<PerformanceVector> performances = operator.executeEvaluationProcesses(originalSet, weights);
+			Iterator<PerformanceVector> performanceIterator = performances.iterator();
+			for (Entry<WeightsKey, List<Individual>> entry : pending.entrySet()) {
+				PerformanceVector performance = performanceIterator.next();
+				performanceCache.put(entry.getKey(), performance);
+				for (Individual individual : entry.getValue()) {
+					individual.setPerformance(performance);
+				}
+			}
+		}
+		if (population.getNumberOfIndividuals() > 0) {
 			population.updateEvaluation();
-			operator.getProgress().step();
 		}
 	}
 
@@ -18,11 +18,21 @@
 */
 package base.operators.operator.features.construction;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 
 import base.operators.example.Attribute;
-import base.operators.operator.OperatorChain;
+import base.operators.example.utils.ExampleSets;
+import base.operators.operator.concurrency.internal.ParallelOperatorChain;
+import base.operators.operator.tools.ConcurrencyTools;
+import base.operators.studio.concurrency.internal.ConcurrencyExecutionService;
+import base.operators.studio.concurrency.internal.ConcurrencyExecutionServiceProvider;
 import base.operators.tools.RandomGenerator;
 import base.operators.tools.Tools;
 import base.operators.example.AttributeWeights;
@@ -53,7 +63,7 @@ import base.operators.parameter.ParameterTypeDouble;
  *
  * @author Ingo Mierswa <br>
  */
-public abstract class ExampleSetBasedFeatureOperator extends OperatorChain {
+public abstract class ExampleSetBasedFeatureOperator extends ParallelOperatorChain {
 
 	public static final String PARAMETER_MAXIMAL_FITNESS = "maximal_fitness";
 
@@ -68,6 +78,9 @@ public abstract class ExampleSetBasedFeatureOperator extends OperatorChain {
 
 	private int totalEvaluations = 0;
 
+	/** The performances of all feature sets evaluated in the current run, see {@link #getFeatureSetKey}. */
+	private final Map<String, PerformanceVector> performanceCache = new HashMap<>();
+
 	private RandomGenerator random;
 
 	private final InputPort exampleSetInput = getInputPorts().createPort("example set in", ExampleSet.class);
@@ -226,6 +239,7 @@ public abstract class ExampleSetBasedFeatureOperator extends OperatorChain {
 		this.random = RandomGenerator.getRandomGenerator(this);
 		this.evaluationCounter = 0;
 		this.totalEvaluations = 0;
+		this.performanceCache.clear();
 		this.maximalFitness = getParameterAsDouble(PARAMETER_MAXIMAL_FITNESS);
 
 		ExampleSet es = exampleSetInput.getData(ExampleSet.class);
@@ -316,33 +330,117 @@ public abstract class ExampleSetBasedFeatureOperator extends OperatorChain {
 	}
 
 	/**
-	 * Evaluates all individuals in the population by applying the inner operators.
+	 * Evaluates all individuals in the population by applying the inner operators. If the parallel
+	 * execution is enabled, the distinct feature sets without a known performance are evaluated
+	 * concurrently by copies of this operator.
 	 */
 	protected void evaluate(ExampleSetBasedPopulation population) throws OperatorException {
+		if (population.getNumberOfIndividuals() <= 1 || !checkParallelizability()) {
+			for (int i = 0; i < population.getNumberOfIndividuals(); i++) {
+				evaluate(population.get(i));
+			}
+			return;
+		}
+
+		Map<String, List<ExampleSetBasedIndividual>> pending = new LinkedHashMap<>();
 		for (int i = 0; i < population.getNumberOfIndividuals(); i++) {
-			evaluate(population.get(i));
+			ExampleSetBasedIndividual individual = population.get(i);
+			totalEvaluations++;
+			if (individual.getPerformance() != null) {
+				continue;
+			}
+			String key = getFeatureSetKey(individual.getExampleSet());
+			PerformanceVector cachedPerformance = performanceCache.get(key);
+			if (cachedPerformance != null) {
+				individual.setPerformance(cachedPerformance);
+			} else {
+				List<ExampleSetBasedIndividual> individuals = pending.get(key);
+				if (individuals == null) {
+					individuals = new ArrayList<>(1);
+					pending.put(key, individuals);
+				}
+				individuals.add(individual);
+			}
+		}
+		if (pending.isEmpty()) {
+			return;
+		}
+
+		// the generated attributes are only read from now on, the copies evaluate thread-safe views
+		List<ExampleSet> exampleSets = new ArrayList<>(pending.size());
+		for (List<ExampleSetBasedIndividual> individuals : pending.values()) {
+			exampleSets.add(ExampleSets.createThreadSafeCopy(individuals.get(0).getExampleSet().createCleanClone()));
+		}
+		evaluationCounter += exampleSets.size();
+
+		List<PerformanceVector> performances = new ArrayList<>(exampleSets.size());
+		ConcurrencyExecutionService service = ConcurrencyExecutionServiceProvider.INSTANCE.getService();
+		for (int i = 0; i < exampleSets.size();) {
+			int batchSize = Math.min(exampleSets.size() - i,
+					ConcurrencyExecutionService.getRecommendedConcurrencyBatchSize(this));
+			List<Callable<PerformanceVector>> taskSet = new ArrayList<>(batchSize);
+			for (int j = 1; j <= batchSize; i++, j++) {
+				final ExampleSetBasedFeatureOperator copy = ConcurrencyTools.clone(this);
+				final ExampleSet exampleSet = exampleSets.get(i);
+				taskSet.add(service.prepareOperatorTask(getProcess(), copy, i + 1, i + 1 == exampleSets.size(), () -> {
+					copy.innerExampleSetSource.deliver(exampleSet);
+					copy.getSubprocess(0).execute();
+					return copy.innerPerformanceSink.getData(PerformanceVector.class);
+				}));
+			}
+			performances.addAll(service.executeOperatorTasks(this, taskSet));
+		}
+
+		Iterator<PerformanceVector> performanceIterator = performances.iterator();
+		for (Entry<String, List<ExampleSetBasedIndividual>> entry : pending.entrySet()) {
+			PerformanceVector performance = performanceIterator.next();
+			performanceCache.put(entry.getKey(), performance);
+			for (ExampleSetBasedIndividual individual : entry.getValue()) {
+				individual.setPerformance(performance);
+			}
 		}
 	}
 
 	/**
 	 * Evaluates the given individual. The performance is set as user data of the individual and
-	 * also returned by this method.
+	 * also returned by this method. Feature sets which were already evaluated are not evaluated
+	 * again.
 	 */
 	protected PerformanceVector evaluate(ExampleSetBasedIndividual individual) throws OperatorException {
 		totalEvaluations++;
 		if (individual.getPerformance() != null) {
 			return individual.getPerformance();
-		} else {
+		}
+		String key = getFeatureSetKey(individual.getExampleSet());
+		PerformanceVector performanceVector = performanceCache.get(key);
+		if (performanceVector == null) {
 			evaluationCounter++;
 			AttributeWeightedExampleSet clone = individual.getExampleSet().createCleanClone();
 			innerExampleSetSource.deliver(clone);
 
 			getSubprocess(0).execute();
 
-			PerformanceVector performanceVector = innerPerformanceSink.getData(PerformanceVector.class);
-			individual.setPerformance(performanceVector);
-			return performanceVector;
+			performanceVector = innerPerformanceSink.getData(PerformanceVector.class);
+			performanceCache.put(key, performanceVector);
+		}
+		individual.setPerformance(performanceVector);
+		return performanceVector;
+	}
+
+	/**
+	 * Returns a key identifying the used attributes and their weights. Generated attributes are
+	 * identified by their construction, so equal feature sets of different individuals have the
+	 * same key.
+	 */
+	private static String getFeatureSetKey(AttributeWeightedExampleSet exampleSet) {
+		StringBuilder key = new StringBuilder();
+		for (Attribute attribute : exampleSet.getAttributes()) {
+			double weight = exampleSet.getWeight(attribute);
+			if (!Tools.isZero(weight)) {
+				key.append(attribute.getConstruction()).append('=').append(weight).append(';');
+			}
 		}
+		return key.toString();
 	}
 
 	/** This method checks if the maximum was reached for the main criterion. */
@@ -20,12 +20,14 @@ package base.operators.operator.io;
 
 import base.operators.example.ExampleSet;
 import base.operators.operator.*;
+import base.operators.operator.execution.OperatorFingerprint;
 import base.operators.operator.features.weighting.ForestBasedWeighting;
 import base.operators.operator.learner.PredictionModel;
 import base.operators.operator.learner.tree.ConfigurableRandomForestModel;
 import base.operators.operator.ports.OutputPort;
 import base.operators.operator.ports.metadata.*;
 import base.operators.parameter.ParameterType;
+import base.operators.parameter.ParameterTypeFile;
 import base.operators.parameter.UndefinedParameterError;
 import base.operators.tools.OperatorService;
 import base.operators.tools.io.Encoding;
@@ -156,6 +158,25 @@ public abstract class AbstractReader<T extends IOObject> extends Operator {
 		outputPort.deliver(result);
 	}
 
+	/**
+	 * Identifies the data by the path, size and modification time of all files specified by the
+	 * parameters. Returns {@code null} if no file is specified or one of them does not exist.
+	 */
+	@Override
+	protected String getSourceFingerprint() throws OperatorException {
+		StringBuilder builder = new StringBuilder();
+		for (ParameterType type : getParameters().getParameterTypes()) {
+			if (type instanceof ParameterTypeFile && isParameterSet(type.getKey())) {
+				String file = OperatorFingerprint.getFileFingerprint(getParameterAsFile(type.getKey()));
+				if (file == null) {
+					return null;
+				}
+				builder.append(file).append('\n');
+			}
+		}
+		return builder.length() > 0 ? builder.toString() : null;
+	}
+
 	protected void addAnnotations(T result) {
 		for (ReaderDescription rd : READER_DESCRIPTIONS.values()) {
 			if (rd.readerClass.equals(this.getClass())) {
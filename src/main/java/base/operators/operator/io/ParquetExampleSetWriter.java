@@ -7,7 +7,9 @@ import base.operators.operator.OperatorException;
 import base.operators.parameter.ParameterType;
 import base.operators.parameter.ParameterTypeBoolean;
 import base.operators.parameter.ParameterTypeCategory;
+import base.operators.parameter.ParameterTypeInt;
 import base.operators.parameter.ParameterTypeString;
+import base.operators.studio.concurrency.internal.IOOperatorConcurrencyContext;
 import base.operators.utils.ParquetExampleSourceUtil;
 
 import java.io.IOException;
@@ -18,6 +20,7 @@ import java.util.List;
 public class ParquetExampleSetWriter extends AbstractExampleSetWriter {
     public static final String PARAMETER_PARQUET_FILE = "parquet_file";
     public static final String PARAMETER_STORAGE_TYPE = "storage_type";
+    public static final String PARAMETER_ROW_GROUP_SIZE = "row_group_size";
 
     public ParquetExampleSetWriter(OperatorDescription description) {
         super(description);
@@ -29,7 +32,8 @@ public class ParquetExampleSetWriter extends AbstractExampleSetWriter {
         Boolean toLocal = false || !"HDFS".equals(getParameterAsString(PARAMETER_STORAGE_TYPE));
 
         try {
-            ParquetExampleSourceUtil.writeToParquet(exampleSet, parquetFileName, toLocal);
+            ParquetExampleSourceUtil.writeToParquet(exampleSet, parquetFileName, toLocal,
+                    getParameterAsInt(PARAMETER_ROW_GROUP_SIZE) * 1024 * 1024, new IOOperatorConcurrencyContext(this));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -42,6 +46,7 @@ public class ParquetExampleSetWriter extends AbstractExampleSetWriter {
         ParameterTypeString type = new ParameterTypeString(PARAMETER_PARQUET_FILE, "The path to the Parquet file", null, false);
         types.add(type);
         types.add(new ParameterTypeCategory(PARAMETER_STORAGE_TYPE, "Storage type for the data files", new String[]{"HDFS", "Local"}, 1, false));
+        types.add(new ParameterTypeInt(PARAMETER_ROW_GROUP_SIZE, "The size of a Parquet row group in MB", 1, 1024, 128, true));
         types.addAll(super.getParameterTypes());
         return types;
     }
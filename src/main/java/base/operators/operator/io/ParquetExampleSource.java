@@ -3,10 +3,14 @@ package base.operators.operator.io;
 import base.operators.example.ExampleSet;
 import base.operators.operator.OperatorDescription;
 import base.operators.operator.OperatorException;
+import base.operators.operator.execution.OperatorFingerprint;
 import base.operators.parameter.*;
+import base.operators.studio.concurrency.internal.IOOperatorConcurrencyContext;
 import base.operators.tools.parameter.internal.DataManagementParameterHelper;
 import base.operators.utils.ParquetExampleSourceUtil;
+import org.apache.parquet.filter2.compat.FilterCompat;
 
+import java.io.File;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -24,7 +28,26 @@ public class ParquetExampleSource extends AbstractExampleSource{
         String parquetFileName = getParameterAsString(PARAMETER_PARQUET_FILE);
         Boolean inferMetaData = getParameterAsBoolean(PARAMETER_INFER_METADATA);
         Boolean fromLocal = false || !"HDFS".equals(getParameterAsString(PARAMETER_STORAGE_TYPE));
-        return ParquetExampleSourceUtil.readFromParquet(parquetFileName, inferMetaData, fromLocal);
+        return ParquetExampleSourceUtil.readFromParquet(parquetFileName, inferMetaData, fromLocal, null,
+                FilterCompat.NOOP, new IOOperatorConcurrencyContext(this));
+    }
+
+    /**
+     * Identifies local Parquet data by its data file and, if it is read, its metadata file. Data on
+     * HDFS is not fingerprinted.
+     */
+    @Override
+    protected String getSourceFingerprint() throws OperatorException {
+        if ("HDFS".equals(getParameterAsString(PARAMETER_STORAGE_TYPE))) {
+            return null;
+        }
+        String basePath = getParameterAsString(PARAMETER_PARQUET_FILE);
+        String data = OperatorFingerprint.getFileFingerprint(new File(basePath, "data.parquet"));
+        if (data == null || !getParameterAsBoolean(PARAMETER_INFER_METADATA)) {
+            return data;
+        }
+        String metaData = OperatorFingerprint.getFileFingerprint(new File(basePath, "metadata"));
+        return metaData != null ? data + "\n" + metaData : null;
     }
 
     @Override
@@ -275,4 +275,13 @@ public abstract class AbstractLearner extends Operator implements Learner {
 		return this.exampleSetInput;
 	}
 
+	/**
+	 * Learners are cacheable unless they draw from the global random generator, see
+	 * {@link #isRandomSeedFixed()}.
+	 */
+	@Override
+	protected boolean isResultCacheable() {
+		return isRandomSeedFixed();
+	}
+
 }
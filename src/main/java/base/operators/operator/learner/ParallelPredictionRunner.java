@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.operator.learner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import base.operators.core.concurrency.ConcurrencyContext;
+import base.operators.example.Attribute;
+import base.operators.example.Attributes;
+import base.operators.example.Example;
+import base.operators.example.ExampleSet;
+import base.operators.example.utils.ExampleSets;
+import base.operators.operator.OperatorException;
+import base.operators.operator.OperatorProgress;
+import base.operators.studio.internal.Resources;
+
+
+/**
+ * Applies a {@link PredictionModel} to all examples of an example set. If the model
+ * {@link PredictionModel#supportsParallelPrediction() supports parallel prediction}, the examples
+ * are split into consecutive blocks which are predicted in parallel.
+ * <p>
+ * The columns of an example table must not be written concurrently. Therefore the predictors see
+ * examples whose writes to the output attributes, i.e. the predicted label and the confidences,
+ * are stored in a preallocated buffer per block. Reads of the output attributes return the
+ * buffered values, so models may read back the confidences they have set. The buffers are written
+ * to the example set by the calling thread afterwards, which gives the same result as the
+ * sequential prediction.
+ */
+public final class ParallelPredictionRunner {
+
+	/** Predicts single examples. */
+	@FunctionalInterface
+	public interface ExamplePredictor {
+
+		/**
+		 * Applies the model to the example and sets the predicted label and the confidences. If the
+		 * model supports parallel prediction, this method may be called by several threads at the
+		 * same time and must not modify anything but the output attributes of the example.
+		 *
+		 * @param example
+		 *            the example to predict
+		 * @param row
+		 *            the index of the example in the example set
+		 */
+		void predict(Example example, int row) throws OperatorException;
+	}
+
+	private static final int OPERATOR_PROGRESS_STEPS = 1000;
+
+	/** the minimal number of examples per parallel task */
+	private static final int MIN_BLOCK_SIZE = 1000;
+
+	private ParallelPredictionRunner() {}
+
+	/**
+	 * Returns the predicted label and the confidence attributes of the example set.
+	 */
+	public static Attribute[] getOutputAttributes(ExampleSet exampleSet, Attribute predictedLabel) {
+		List<Attribute> outputs = new ArrayList<>();
+		outputs.add(predictedLabel);
+		if (predictedLabel.isNominal()) {
+			for (String value : predictedLabel.getMapping().getValues()) {
+				Attribute confidence = exampleSet.getAttributes().getSpecial(Attributes.CONFIDENCE_NAME + "_" + value);
+				if (confidence != null) {
+					outputs.add(confidence);
+				}
+			}
+		}
+		return outputs.toArray(new Attribute[outputs.size()]);
+	}
+
+	/**
+	 * Applies the predictor to all examples with the predicted label and the confidences of the
+	 * example set as output attributes.
+	 *
+	 * @see #run(PredictionModel, ExampleSet, Attribute[], ExamplePredictor)
+	 */
+	public static void run(PredictionModel model, ExampleSet exampleSet, Attribute predictedLabel,
+			ExamplePredictor predictor) throws OperatorException {
+		run(model, exampleSet, getOutputAttributes(exampleSet, predictedLabel), predictor);
+	}
+
+	/**
+	 * Applies the predictor to all examples. The predictor is called in parallel if the model
+	 * supports it, the example set can be read concurrently and the model has an operator providing
+	 * a concurrency context.
+	 *
+	 * @param model
+	 *            the applied model, used for the progress and the concurrency context
+	 * @param exampleSet
+	 *            the example set to predict
+	 * @param outputs
+	 *            the attributes written by the predictor
+	 * @param predictor
+	 *            predicts single examples
+	 */
+	public static void run(PredictionModel model, final ExampleSet exampleSet, final Attribute[] outputs,
+			final ExamplePredictor predictor) throws OperatorException {
+		final OperatorProgress progress;
+		if (model.getShowProgress() && model.getOperator() != null && model.getOperator().getProgress() != null) {
+			progress = model.getOperator().getProgress();
+			progress.setTotal(exampleSet.size());
+		} else {
+			progress = null;
+		}
+		int size = exampleSet.size();
+
+		ConcurrencyContext context = null;
+		if (model.supportsParallelPrediction() && size >= 2 * MIN_BLOCK_SIZE && model.getOperator() != null
+				&& model.getOperator().getProcess() != null && ExampleSets.isThreadSafe(exampleSet)) {
+			context = Resources.getConcurrencyContext(model.getOperator());
+		}
+		int parallelism = context != null ? context.getParallelism() : 1;
+		if (parallelism <= 1) {
+			int row = 0;
+			for (Example example : exampleSet) {
+				predictor.predict(example, row++);
+				if (progress != null && row % OPERATOR_PROGRESS_STEPS == 0) {
+					progress.setCompleted(row);
+				}
+			}
+			return;
+		}
+
+		final int width = outputs.length;
+		final int[] columns = createColumnMapping(outputs);
+		// more blocks than threads to balance varying prediction costs
+		final int blockSize = Math.max(MIN_BLOCK_SIZE, size / (4 * parallelism) + 1);
+		List<Callable<double[]>> tasks = new ArrayList<>();
+		for (int blockStart = 0; blockStart < size; blockStart += blockSize) {
+			final int from = blockStart;
+			final int to = Math.min(size, blockStart + blockSize);
+			tasks.add(() -> {
+				double[] results = new double[(to - from) * width];
+				for (int i = from; i < to; i++) {
+					Example example = exampleSet.getExample(i);
+					int offset = (i - from) * width;
+					for (int j = 0; j < width; j++) {
+						results[offset + j] = example.getValue(outputs[j]);
+					}
+					predictor.predict(new BufferedExample(example, exampleSet, columns, results, offset), i);
+				}
+				if (progress != null) {
+					synchronized (progress) {
+						progress.step(to - from);
+					}
+				}
+				return results;
+			});
+		}
+		List<double[]> blockResults;
+		try {
+			blockResults = context.call(tasks);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else if (cause instanceof OperatorException) {
+				throw (OperatorException) cause;
+			} else {
+				throw new OperatorException(cause.getMessage(), cause);
+			}
+		}
+
+		Iterator<Example> reader = exampleSet.iterator();
+		for (double[] results : blockResults) {
+			for (int offset = 0; offset < results.length; offset += width) {
+				Example example = reader.next();
+				for (int j = 0; j < width; j++) {
+					example.setValue(outputs[j], results[offset + j]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the position in the outputs for each table index, -1 for other attributes
+	 */
+	private static int[] createColumnMapping(Attribute[] outputs) {
+		int maxIndex = -1;
+		for (Attribute output : outputs) {
+			maxIndex = Math.max(maxIndex, output.getTableIndex());
+		}
+		int[] columns = new int[maxIndex + 1];
+		Arrays.fill(columns, -1);
+		for (int j = 0; j < outputs.length; j++) {
+			if (outputs[j].getTableIndex() >= 0) {
+				columns[outputs[j].getTableIndex()] = j;
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * An example whose output attributes are stored in a buffer instead of the example table.
+	 */
+	private static final class BufferedExample extends Example {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Example example;
+		private final int[] columns;
+		private final double[] buffer;
+		private final int offset;
+
+		private BufferedExample(Example example, ExampleSet exampleSet, int[] columns, double[] buffer, int offset) {
+			super(example.getDataRow(), exampleSet);
+			this.example = example;
+			this.columns = columns;
+			this.buffer = buffer;
+			this.offset = offset;
+		}
+
+		@Override
+		public double getValue(Attribute a) {
+			int column = getColumn(a);
+			return column < 0 ? example.getValue(a) : buffer[offset + column];
+		}
+
+		@Override
+		public void setValue(Attribute a, double value) {
+			int column = getColumn(a);
+			if (column < 0) {
+				throw new UnsupportedOperationException("Parallel prediction must only write the predicted label and the confidences, but wrote "
+						+ a.getName());
+			}
+			buffer[offset + column] = value;
+		}
+
+		private int getColumn(Attribute a) {
+			int index = a.getTableIndex();
+			return index >= 0 && index < columns.length ? columns[index] : -1;
+		}
+	}
+}
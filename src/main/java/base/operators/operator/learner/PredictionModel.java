@@ -123,6 +123,16 @@ public abstract class PredictionModel extends AbstractModel {
 		return exampleSet;
 	}
 
+	/**
+	 * Returns whether {@link #performPrediction(ExampleSet, Attribute)} may predict several examples
+	 * at the same time, see {@link ParallelPredictionRunner}. Models returning {@code true} must not
+	 * modify their state during the prediction and must only write the predicted label and the
+	 * confidences of the examples. The default implementation returns {@code false}.
+	 */
+	public boolean supportsParallelPrediction() {
+		return false;
+	}
+
 	/** Returns the label attribute. */
 	public Attribute getLabel() {
 		return getTrainingHeader().getAttributes().getLabel();
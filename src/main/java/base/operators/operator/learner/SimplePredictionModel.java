@@ -18,14 +18,11 @@
 */
 package base.operators.operator.learner;
 
-import java.util.Iterator;
-
 import base.operators.example.Attribute;
 import base.operators.example.Example;
 import base.operators.example.ExampleSet;
 import base.operators.example.set.ExampleSetUtilities;
 import base.operators.operator.OperatorException;
-import base.operators.operator.OperatorProgress;
 
 
 /**
@@ -42,8 +39,6 @@ public abstract class SimplePredictionModel extends PredictionModel {
 	 */
 	private static final long serialVersionUID = 6275902545494306001L;
 
-	private static final int OPERATOR_PROGRESS_STEPS = 1000;
-
 	/**
 	 * @deprecated Since RapidMiner Studio 6.0.009. Please use the new Constructor
 	 *             {@link #SimplePredictionModel(ExampleSet, ExampleSetUtilities.SetsCompareOption, ExampleSetUtilities.TypesCompareOption)}
@@ -77,24 +72,14 @@ public abstract class SimplePredictionModel extends PredictionModel {
 	 */
 	public abstract double predict(Example example) throws OperatorException;
 
-	/** Iterates over all examples and applies the model to them. */
+	/**
+	 * Iterates over all examples and applies the model to them. The examples are predicted in
+	 * parallel if {@link #supportsParallelPrediction()} returns {@code true}.
+	 */
 	@Override
-	public ExampleSet performPrediction(ExampleSet exampleSet, Attribute predictedLabel) throws OperatorException {
-		Iterator<Example> r = exampleSet.iterator();
-		OperatorProgress progress = null;
-		if (getShowProgress() && getOperator() != null && getOperator().getProgress() != null) {
-			progress = getOperator().getProgress();
-			progress.setTotal(exampleSet.size());
-		}
-		int progressCounter = 0;
-
-		while (r.hasNext()) {
-			Example example = r.next();
-			example.setValue(predictedLabel, predict(example));
-			if (progress != null && ++progressCounter % OPERATOR_PROGRESS_STEPS == 0) {
-				progress.setCompleted(progressCounter);
-			}
-		}
+	public ExampleSet performPrediction(ExampleSet exampleSet, final Attribute predictedLabel) throws OperatorException {
+		ParallelPredictionRunner.run(this, exampleSet, predictedLabel,
+				(example, row) -> example.setValue(predictedLabel, predict(example)));
 		return exampleSet;
 	}
 }
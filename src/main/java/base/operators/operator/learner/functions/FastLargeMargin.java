@@ -18,6 +18,7 @@
 */
 package base.operators.operator.learner.functions;
 
+import base.operators.core.concurrency.ConcurrencyContext;
 import base.operators.example.Attribute;
 import base.operators.example.Example;
 import base.operators.example.ExampleSet;
@@ -35,6 +36,8 @@ import base.operators.parameter.ParameterTypeCategory;
 import base.operators.parameter.ParameterTypeDouble;
 import base.operators.parameter.ParameterTypeList;
 import base.operators.parameter.ParameterTypeString;
+import base.operators.studio.concurrency.internal.BackgroudOperatorConcurrencyContext;
+import base.operators.studio.internal.Resources;
 import de.bwaldvogel.liblinear.FeatureNode;
 import de.bwaldvogel.liblinear.Linear;
 import de.bwaldvogel.liblinear.Parameter;
@@ -250,7 +253,9 @@ public class FastLargeMargin extends AbstractLearner {
 		Linear.resetRandom();
 		Linear.disableDebugOutput();
 		Problem problem = getProblem(exampleSet);
-		de.bwaldvogel.liblinear.Model model = Linear.train(problem, params);
+		ConcurrencyContext context = getProcess() != null ? Resources.getConcurrencyContext(this)
+				: new BackgroudOperatorConcurrencyContext(this);
+		de.bwaldvogel.liblinear.Model model = Linear.train(problem, params, context);
 
 		return new FastMarginModel(exampleSet, model, getParameterAsBoolean(PARAMETER_USE_BIAS));
 	}
@@ -19,12 +19,11 @@
 package base.operators.operator.learner.functions;
 
 import base.operators.example.Attribute;
-import base.operators.example.Example;
 import base.operators.example.ExampleSet;
 import base.operators.example.set.ExampleSetUtilities;
 import base.operators.operator.OperatorException;
-import base.operators.operator.OperatorProgress;
 import base.operators.operator.error.AttributeNotFoundError;
+import base.operators.operator.learner.ParallelPredictionRunner;
 import base.operators.operator.learner.PredictionModel;
 import base.operators.tools.Tools;
 
@@ -38,8 +37,6 @@ public class LinearRegressionModel extends PredictionModel {
 
 	private static final long serialVersionUID = 8381268071090932037L;
 
-	private static final int OPERATOR_PROGRESS_STEPS = 5000;
-
 	private String[] attributeNames;
 
 	private boolean[] selectedAttributes;
@@ -79,6 +76,11 @@ public class LinearRegressionModel extends PredictionModel {
 		this.secondClassName = secondClassName;
 	}
 
+	@Override
+	public boolean supportsParallelPrediction() {
+		return true;
+	}
+
 	@Override
 	public ExampleSet performPrediction(ExampleSet exampleSet, Attribute predictedLabel) throws OperatorException {
 		ExampleSetUtilities.checkAttributesMatching(null, this.getTrainingHeader().getAttributes(),
@@ -92,15 +94,7 @@ public class LinearRegressionModel extends PredictionModel {
 			}
 		}
 
-		// initialize progress
-		OperatorProgress progress = null;
-		if (getShowProgress() && getOperator() != null && getOperator().getProgress() != null) {
-			progress = getOperator().getProgress();
-			progress.setTotal(exampleSet.size());
-		}
-		int progressCounter = 0;
-
-		for (Example example : exampleSet) {
+		ParallelPredictionRunner.run(this, exampleSet, predictedLabel, (example, row) -> {
 			double prediction = 0;
 			int index = 0;
 			int attributeCounter = 0;
@@ -134,11 +128,7 @@ public class LinearRegressionModel extends PredictionModel {
 			} else {
 				example.setValue(predictedLabel, prediction);
 			}
-
-			if (progress != null && ++progressCounter % OPERATOR_PROGRESS_STEPS == 0) {
-				progress.setCompleted(progressCounter);
-			}
-		}
+		});
 		return exampleSet;
 	}
 
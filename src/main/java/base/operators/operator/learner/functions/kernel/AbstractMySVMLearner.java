@@ -56,6 +56,8 @@ import base.operators.parameter.ParameterTypeCategory;
 import base.operators.parameter.ParameterTypeDouble;
 import base.operators.parameter.ParameterTypeInt;
 import base.operators.parameter.UndefinedParameterError;
+import base.operators.studio.concurrency.internal.BackgroudOperatorConcurrencyContext;
+import base.operators.studio.internal.Resources;
 
 
 /**
@@ -289,11 +291,17 @@ public abstract class AbstractMySVMLearner extends AbstractKernelBasedLearner {
 					getParameterAsDouble(PARAMETER_KERNEL_SHIFT));
 		}
 		kernel.init(svmExamples, cacheSize);
+		kernel.setConcurrencyContext(getProcess() != null ? Resources.getConcurrencyContext(this)
+				: new BackgroudOperatorConcurrencyContext(this));
 
 		// SVM
-		svm = createSVM(label, kernel, svmExamples, exampleSet);
-		svm.init(kernel, svmExamples);
-		svm.train();
+		try {
+			svm = createSVM(label, kernel, svmExamples, exampleSet);
+			svm.init(kernel, svmExamples);
+			svm.train();
+		} finally {
+			kernel.release_kernel_cache();
+		}
 
 		return createSVMModel(exampleSet, svmExamples, kernel, kernelType);
 	}
@@ -18,7 +18,6 @@
 */
 package base.operators.operator.learner.functions.kernel;
 
-import java.util.Iterator;
 import java.util.Map;
 
 import base.operators.example.Attribute;
@@ -26,8 +25,8 @@ import base.operators.example.Example;
 import base.operators.example.ExampleSet;
 import base.operators.example.set.ExampleSetUtilities;
 import base.operators.operator.OperatorException;
-import base.operators.operator.OperatorProgress;
 import base.operators.operator.learner.FormulaProvider;
+import base.operators.operator.learner.ParallelPredictionRunner;
 import base.operators.tools.Tools;
 import base.operators.operator.learner.functions.kernel.jmysvm.examples.SVMExample;
 import base.operators.operator.learner.functions.kernel.jmysvm.examples.SVMExamples;
@@ -46,8 +45,6 @@ public abstract class AbstractMySVMModel extends KernelModel implements FormulaP
 
 	private static final long serialVersionUID = 2812901947459843681L;
 
-	private static final int OPERATOR_PROGRESS_STEPS = 5000;
-
 	private SVMExamples model;
 
 	private Kernel kernel;
@@ -184,19 +181,22 @@ public abstract class AbstractMySVMModel extends KernelModel implements FormulaP
 	 */
 	public abstract void setPrediction(Example example, double prediction);
 
+	/**
+	 * The support vectors and the kernel are not modified during the prediction. Subclasses must
+	 * only write the predicted label and the confidences in {@link #setPrediction(Example, double)}.
+	 */
+	@Override
+	public boolean supportsParallelPrediction() {
+		return true;
+	}
+
 	@Override
 	public ExampleSet performPrediction(ExampleSet exampleSet, Attribute predictedLabelAttribute) throws OperatorException {
 		if (kernel instanceof KernelDot) {
 			if (weights != null) {
 				Map<Integer, MeanVariance> meanVariances = model.getMeanVariances();
-				OperatorProgress progress = null;
-				if (getShowProgress() && getOperator() != null && getOperator().getProgress() != null) {
-					progress = getOperator().getProgress();
-					progress.setTotal(exampleSet.size());
-				}
-				int progressCounter = 0;
 				Attribute[] regularAttributes = exampleSet.getAttributes().createRegularAttributeArray();
-				for (Example example : exampleSet) {
+				ParallelPredictionRunner.run(this, exampleSet, predictedLabelAttribute, (example, row) -> {
 					double prediction = getBias();
 					int a = 0;
 					for (Attribute attribute : regularAttributes) {
@@ -213,11 +213,7 @@ public abstract class AbstractMySVMModel extends KernelModel implements FormulaP
 						a++;
 					}
 					setPrediction(example, prediction);
-
-					if (progress != null && ++progressCounter % OPERATOR_PROGRESS_STEPS == 0) {
-						progress.setCompleted(progressCounter);
-					}
-				}
+				});
 				return exampleSet;
 			}
 		}
@@ -228,14 +224,10 @@ public abstract class AbstractMySVMModel extends KernelModel implements FormulaP
 
 		SVMInterface svm = createSVM();
 		svm.init(kernel, model);
-		svm.predict(toPredict);
 
-		// set predictions from toPredict
-		Iterator<Example> reader = exampleSet.iterator();
-		int k = 0;
-		while (reader.hasNext()) {
-			setPrediction(reader.next(), toPredict.get_y(k++));
-		}
+		// predicting single examples is the same as svm.predict(toPredict) but can run in parallel
+		ParallelPredictionRunner.run(this, exampleSet, predictedLabelAttribute,
+				(example, row) -> setPrediction(example, svm.predict(toPredict.get_example(row))));
 		return exampleSet;
 	}
 
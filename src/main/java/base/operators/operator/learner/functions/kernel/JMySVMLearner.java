@@ -176,4 +176,10 @@ public class JMySVMLearner extends AbstractMySVMLearner {
 		return OperatorResourceConsumptionHandler.getResourceConsumptionEstimator(getExampleSetInputPort(),
 				JMySVMLearner.class, null);
 	}
+
+	/** The {@link RandomGenerator#getGlobalRandomGenerator() global random generator} is always used. */
+	@Override
+	protected boolean isRandomSeedFixed() {
+		return false;
+	}
 }
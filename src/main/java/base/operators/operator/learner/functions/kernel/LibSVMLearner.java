@@ -18,6 +18,7 @@
 */
 package base.operators.operator.learner.functions.kernel;
 
+import base.operators.core.concurrency.ConcurrencyContext;
 import base.operators.operator.OperatorCapability;
 import base.operators.tools.OperatorResourceConsumptionHandler;
 import base.operators.example.Attribute;
@@ -47,6 +48,8 @@ import base.operators.parameter.ParameterTypeList;
 import base.operators.parameter.ParameterTypeString;
 import base.operators.parameter.UndefinedParameterError;
 import base.operators.parameter.conditions.EqualTypeCondition;
+import base.operators.studio.concurrency.internal.BackgroudOperatorConcurrencyContext;
+import base.operators.studio.internal.Resources;
 
 import java.util.Collections;
 import java.util.Iterator;
@@ -397,7 +400,9 @@ public class LibSVMLearner extends AbstractKernelBasedLearner {
 		}
 		log("Training LibSVM.");
 
-		svm_model model = Svm.svm_train(problem, params, this);
+		ConcurrencyContext context = getProcess() != null ? Resources.getConcurrencyContext(this)
+				: new BackgroudOperatorConcurrencyContext(this);
+		svm_model model = Svm.svm_train(problem, params, this, context);
 
 		return new LibSVMModel(exampleSet, model, exampleSet.getAttributes().size(),
 				getParameterAsBoolean(PARAMETER_CONFIDENCE_FOR_MULTICLASS));
@@ -474,4 +479,10 @@ public class LibSVMLearner extends AbstractKernelBasedLearner {
 		return OperatorResourceConsumptionHandler.getResourceConsumptionEstimator(getExampleSetInputPort(),
 				LibSVMLearner.class, null);
 	}
+
+	/** The libsvm solver always draws from the global random generator. */
+	@Override
+	protected boolean isRandomSeedFixed() {
+		return false;
+	}
 }
@@ -28,10 +28,10 @@ import base.operators.example.ExampleSet;
 import base.operators.example.FastExample2SparseTransform;
 import base.operators.example.set.ExampleSetUtilities;
 import base.operators.example.table.AttributeFactory;
+import base.operators.operator.OperatorException;
 import base.operators.operator.OperatorProgress;
-import base.operators.operator.ProcessStoppedException;
-import base.operators.operator.UserError;
 import base.operators.operator.learner.FormulaProvider;
+import base.operators.operator.learner.ParallelPredictionRunner;
 
 import libsvm.Svm;
 import libsvm.svm_model;
@@ -151,7 +151,7 @@ public class LibSVMModel extends KernelModel implements FormulaProvider {
 
 	@Override
 	public ExampleSet performPrediction(ExampleSet exampleSet, Attribute predictedLabel)
-			throws UserError, ProcessStoppedException {
+			throws OperatorException {
 		FastExample2SparseTransform ripper = new FastExample2SparseTransform(exampleSet);
 		Attribute label = getLabel();
 
@@ -226,7 +226,8 @@ public class LibSVMModel extends KernelModel implements FormulaProvider {
 				}
 			}
 
-			for (Example example : exampleSet) {
+			final Attribute[] confidences = confidenceAttributes;
+			ParallelPredictionRunner.run(this, exampleSet, predictedLabel, (example, row) -> {
 				if (label.isNominal()) {
 					// set prediction
 					svm_node[] currentNodes = LibSVMLearner.makeNodes(example, ripper);
@@ -254,7 +255,7 @@ public class LibSVMModel extends KernelModel implements FormulaProvider {
 						Svm.multiclass_probability(nr_class, pairwise_prob, classProbs);
 
 						for (k = 0; k < nr_class; k++) {
-							example.setValue(confidenceAttributes[k], classProbs[k]);
+							example.setValue(confidences[k], classProbs[k]);
 						}
 
 						if (confidenceForMultiClass) { // use highest confidence
@@ -272,10 +273,10 @@ public class LibSVMModel extends KernelModel implements FormulaProvider {
 							double[] functionValues = new double[model.nr_class];
 							Svm.svm_predict_values(model, currentNodes, functionValues);
 							double prediction = functionValues[0];
-							if (confidenceAttributes != null && confidenceAttributes.length > 0) {
-								example.setValue(confidenceAttributes[0], 1.0d / (1.0d + java.lang.Math.exp(-prediction)));
-								if (confidenceAttributes.length > 1) {
-									example.setValue(confidenceAttributes[1],
+							if (confidences != null && confidences.length > 0) {
+								example.setValue(confidences[0], 1.0d / (1.0d + java.lang.Math.exp(-prediction)));
+								if (confidences.length > 1) {
+									example.setValue(confidences[1],
 											1.0d / (1.0d + java.lang.Math.exp(prediction)));
 								}
 							}
@@ -288,15 +289,20 @@ public class LibSVMModel extends KernelModel implements FormulaProvider {
 				} else {
 					example.setValue(predictedLabel, Svm.svm_predict(model, LibSVMLearner.makeNodes(example, ripper)));
 				}
-
-				if (progress != null && ++progressCounter % OPERATOR_PROGRESS_STEPS == 0) {
-					progress.setCompleted(progressCounter);
-				}
-			}
+			});
 		}
 		return exampleSet;
 	}
 
+	/**
+	 * The regular classification and regression models only read the libsvm model, so examples can
+	 * be predicted concurrently. One-class models normalize over all examples and stay sequential.
+	 */
+	@Override
+	public boolean supportsParallelPrediction() {
+		return model.param.svm_type != LibSVMLearner.SVM_TYPE_ONE_CLASS;
+	}
+
 	@Override
 	protected boolean supportsConfidences(Attribute label) {
 		return super.supportsConfidences(label) && model.param.svm_type != LibSVMLearner.SVM_TYPE_ONE_CLASS;
@@ -25,6 +25,8 @@ import base.operators.parameter.ParameterType;
 import base.operators.parameter.ParameterTypeBoolean;
 import base.operators.parameter.ParameterTypeDouble;
 import base.operators.parameter.ParameterTypeInt;
+import base.operators.studio.concurrency.internal.BackgroudOperatorConcurrencyContext;
+import base.operators.studio.internal.Resources;
 import base.operators.tools.OperatorResourceConsumptionHandler;
 import base.operators.tools.RandomGenerator;
 import base.operators.operator.Model;
@@ -135,11 +137,17 @@ public class LinearMySVMLearner extends AbstractKernelBasedLearner {
 		int cacheSize = getParameterAsInt(PARAMETER_KERNEL_CACHE);
 		Kernel kernel = new KernelDot();
 		kernel.init(svmExamples, cacheSize);
+		kernel.setConcurrencyContext(getProcess() != null ? Resources.getConcurrencyContext(this)
+				: new BackgroudOperatorConcurrencyContext(this));
 
 		// SVM
-		SVMInterface svm = createSVM(label, kernel, svmExamples, exampleSet);
-		svm.init(kernel, svmExamples);
-		svm.train();
+		try {
+			SVMInterface svm = createSVM(label, kernel, svmExamples, exampleSet);
+			svm.init(kernel, svmExamples);
+			svm.train();
+		} finally {
+			kernel.release_kernel_cache();
+		}
 
 		LinearMySVMModel model = new LinearMySVMModel(exampleSet, svmExamples, kernel, KERNEL_DOT);
 		this.svmExamples = null;
@@ -210,4 +218,10 @@ public class LinearMySVMLearner extends AbstractKernelBasedLearner {
 		return OperatorResourceConsumptionHandler.getResourceConsumptionEstimator(getExampleSetInputPort(),
 				LinearMySVMLearner.class, null);
 	}
+
+	/** The {@link RandomGenerator#getGlobalRandomGenerator() global random generator} is always used. */
+	@Override
+	protected boolean isRandomSeedFixed() {
+		return false;
+	}
 }
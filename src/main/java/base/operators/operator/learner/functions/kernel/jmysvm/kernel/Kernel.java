@@ -18,11 +18,16 @@
 */
 package base.operators.operator.learner.functions.kernel.jmysvm.kernel;
 
+import base.operators.core.concurrency.ConcurrencyContext;
 import base.operators.operator.learner.functions.kernel.jmysvm.examples.SVMExample;
 import base.operators.operator.learner.functions.kernel.jmysvm.examples.SVMExamples;
 import base.operators.operator.learner.functions.kernel.jmysvm.util.Cache;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 
 /**
@@ -34,6 +39,27 @@ public abstract class Kernel implements Serializable {
 
 	private static final long serialVersionUID = 6086202515099260920L;
 
+	/**
+	 * Maximal memory in bytes of the caches of all kernels which are used for training at the
+	 * same time
+	 */
+	private static final long MAX_TOTAL_CACHE_BYTES = Runtime.getRuntime().maxMemory() / 4;
+
+	/**
+	 * Memory in bytes currently reserved by the caches of all kernels, guarded by Kernel.class
+	 */
+	private static long totalCacheBytes = 0;
+
+	/**
+	 * Number of kernels with a reserved cache, guarded by Kernel.class
+	 */
+	private static int activeKernels = 0;
+
+	/**
+	 * Minimal number of kernel values calculated by one task of a kernel row
+	 */
+	private static final int MIN_ROW_BLOCK_SIZE = 1024;
+
 	/**
 	 * Container for the examples, parameters etc.
 	 */
@@ -59,6 +85,21 @@ public abstract class Kernel implements Serializable {
 	 */
 	protected int cache_MB;
 
+	/**
+	 * Memory in bytes reserved for the kernel cache
+	 */
+	protected transient long cache_bytes;
+
+	/**
+	 * Whether this kernel is counted in the active kernels sharing the cache budget
+	 */
+	protected transient boolean cache_active;
+
+	/**
+	 * Context for the parallel calculation of kernel rows, can be null
+	 */
+	protected transient ConcurrencyContext context;
+
 	/**
 	 * number of examples after shrinking
 	 */
@@ -105,6 +146,14 @@ public abstract class Kernel implements Serializable {
 		int xpos = x_index.length - 1;
 		int ypos = y_index.length - 1;
 
+		if (xpos == ypos && (xpos < 0 || x_index[xpos] == xpos && y_index[ypos] == ypos)) {
+			// both vectors contain all dimensions up to the last index, no index matching necessary
+			for (; xpos >= 0; xpos--) {
+				result += x_att[xpos] * y_att[xpos];
+			}
+			return result;
+		}
+
 		while ((xpos >= 0) && (ypos >= 0)) {
 			if (x_index[xpos] == y_index[ypos]) {
 				result += x_att[xpos] * y_att[ypos];
@@ -131,6 +180,15 @@ public abstract class Kernel implements Serializable {
 		int xpos = x_index.length - 1;
 		int ypos = y_index.length - 1;
 
+		if (xpos == ypos && (xpos < 0 || x_index[xpos] == xpos && y_index[ypos] == ypos)) {
+			// both vectors contain all dimensions up to the last index, no index matching necessary
+			for (; xpos >= 0; xpos--) {
+				tmp = x_att[xpos] - y_att[xpos];
+				result += tmp * tmp;
+			}
+			return result;
+		}
+
 		while ((xpos >= 0) && (ypos >= 0)) {
 			if (x_index[xpos] == y_index[ypos]) {
 				tmp = x_att[xpos] - y_att[ypos];
@@ -186,17 +244,27 @@ public abstract class Kernel implements Serializable {
 	};
 
 	/**
-	 * Inits the kernel cache.
+	 * Inits the kernel cache. The memory of the cache is reserved from a budget shared by all
+	 * kernels until {@link #release_kernel_cache()} is called, so the cache may be smaller than
+	 * requested if other kernels are trained at the same time.
 	 * 
 	 * @param size
 	 *            of the cache in MB
 	 */
 	public void init_kernel_cache(int size) {
 		cache_MB = size;
+		synchronized (Kernel.class) {
+			if (!cache_active) {
+				cache_active = true;
+				activeKernels++;
+			}
+		}
+		reserve_cache_bytes();
 		// array of train_size doubles
-		kernel_cache_size = size * 1048576 / 4 / examples_total;
-		if (kernel_cache_size < 1) {
-			kernel_cache_size = 1;
+		kernel_cache_size = get_cache_rows(examples_total);
+		// at least two rows, callers may use two rows at the same time
+		if (kernel_cache_size < 2) {
+			kernel_cache_size = 2;
 		}
 		;
 		if (kernel_cache_size > the_examples.count_examples()) {
@@ -206,18 +274,74 @@ public abstract class Kernel implements Serializable {
 		kernel_cache = new Cache(kernel_cache_size, examples_total);
 	};
 
+	/**
+	 * Returns the memory of the kernel cache to the budget shared by all kernels and empties the
+	 * cache. Should be called once the training is finished.
+	 */
+	public void release_kernel_cache() {
+		synchronized (Kernel.class) {
+			totalCacheBytes -= cache_bytes;
+			cache_bytes = 0;
+			if (cache_active) {
+				cache_active = false;
+				activeKernels--;
+			}
+		}
+		kernel_cache_size = 2;
+		if (kernel_cache != null) {
+			kernel_cache.init(kernel_cache_size);
+		}
+	}
+
+	/**
+	 * Reserves the memory for the requested cache size. Every active kernel is guaranteed an equal
+	 * share of the budget, memory not used by the other kernels may be taken in addition. Kernels
+	 * holding more than their share give it back the next time they reserve, so the budget may be
+	 * exceeded until then.
+	 */
+	private void reserve_cache_bytes() {
+		synchronized (Kernel.class) {
+			totalCacheBytes -= cache_bytes;
+			long share = MAX_TOTAL_CACHE_BYTES / Math.max(1, activeKernels);
+			long free = MAX_TOTAL_CACHE_BYTES - totalCacheBytes;
+			cache_bytes = Math.max(0, Math.min(cache_MB * 1048576L, Math.max(share, free)));
+			totalCacheBytes += cache_bytes;
+		}
+	}
+
+	/**
+	 * Number of rows with the given number of doubles that fit into the reserved memory.
+	 */
+	private int get_cache_rows(int row_length) {
+		return (int) Math.min(Integer.MAX_VALUE, cache_bytes / 8 / row_length);
+	}
+
 	public int getCacheSize() {
 		return cache_MB;
 	}
 
+	/**
+	 * Sets the context used to calculate the values of large kernel rows in parallel.
+	 * 
+	 * @param context
+	 *            the context, can be null for sequential calculation
+	 */
+	public void setConcurrencyContext(ConcurrencyContext context) {
+		this.context = context;
+	}
+
 	/**
 	 * Sets the number of examples to new value
 	 */
 	public void set_examples_size(int new_examples_total) {
+		// adapt to the kernels started or released in the mean time
+		if (cache_active) {
+			reserve_cache_bytes();
+		}
 		// number of rows that fit into cache:
-		int new_kernel_cache_size = cache_MB * 1048576 / 4 / new_examples_total;
-		if (new_kernel_cache_size < 1) {
-			new_kernel_cache_size = 1;
+		int new_kernel_cache_size = get_cache_rows(new_examples_total);
+		if (new_kernel_cache_size < 2) {
+			new_kernel_cache_size = 2;
 		}
 		;
 		if (new_kernel_cache_size > new_examples_total) {
@@ -232,6 +356,9 @@ public abstract class Kernel implements Serializable {
 			kernel_cache.shrink(new_kernel_cache_size, new_examples_total);
 		} else if (new_examples_total > examples_total) {
 			kernel_cache.init(new_kernel_cache_size);
+		} else if (new_kernel_cache_size != kernel_cache_size) {
+			// same rows, but the reserved memory changed
+			kernel_cache.shrink(new_kernel_cache_size, new_examples_total);
 		}
 		;
 		kernel_cache_size = new_kernel_cache_size;
@@ -259,6 +386,49 @@ public abstract class Kernel implements Serializable {
 	};
 
 	public double[] calculate_K_row(double[] result, int i) {
+		int blocks = 1;
+		if (context != null) {
+			blocks = Math.min(context.getParallelism(), examples_total / MIN_ROW_BLOCK_SIZE);
+		}
+		if (blocks <= 1) {
+			calculate_K_row(result, i, 0, examples_total);
+			return result;
+		}
+
+		final double[] row = result;
+		final int x = i;
+		List<Callable<Void>> tasks = new ArrayList<>(blocks);
+		for (int b = 0; b < blocks; b++) {
+			final int from = (int) ((long) examples_total * b / blocks);
+			final int to = (int) ((long) examples_total * (b + 1) / blocks);
+			tasks.add(new Callable<Void>() {
+
+				@Override
+				public Void call() {
+					calculate_K_row(row, x, from, to);
+					return null;
+				}
+			});
+		}
+		try {
+			context.call(tasks);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new RuntimeException(cause.getMessage(), cause);
+			}
+		}
+		return result;
+	};
+
+	/**
+	 * Calculates the kernel values K(i,k) for from <= k < to
+	 */
+	private void calculate_K_row(double[] result, int i, int from, int to) {
 		int[] x_index;
 		double[] x_att;
 		int[] y_index;
@@ -266,14 +436,12 @@ public abstract class Kernel implements Serializable {
 		x_index = the_examples.index[i];
 		x_att = the_examples.atts[i];
 
-		for (int k = 0; k < examples_total; k++) {
+		for (int k = from; k < to; k++) {
 			y_index = the_examples.index[k];
 			y_att = the_examples.atts[k];
 			result[k] = calculate_K(x_index, x_att, y_index, y_att);
 		}
-		;
-		return result;
-	};
+	}
 
 	/**
 	 * swap two training examples
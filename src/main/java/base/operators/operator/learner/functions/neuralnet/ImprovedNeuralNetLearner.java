@@ -107,6 +107,9 @@ public class ImprovedNeuralNetLearner extends AbstractLearner {
 	/** Indicates if the input data should be normalized between -1 and 1 before learning. */
 	public static final String PARAMETER_NORMALIZE = "normalize";
 
+	/** The number of examples whose averaged gradients are used for one weight update. */
+	public static final String PARAMETER_MINI_BATCH_SIZE = "mini_batch_size";
+
 	public ImprovedNeuralNetLearner(OperatorDescription description) {
 		super(description);
 	}
@@ -125,10 +128,11 @@ public class ImprovedNeuralNetLearner extends AbstractLearner {
 		boolean decay = getParameterAsBoolean(PARAMETER_DECAY);
 		boolean shuffle = getParameterAsBoolean(PARAMETER_SHUFFLE);
 		boolean normalize = getParameterAsBoolean(PARAMETER_NORMALIZE);
+		int batchSize = getParameterAsInt(PARAMETER_MINI_BATCH_SIZE);
 		RandomGenerator randomGenerator = RandomGenerator.getRandomGenerator(this);
 
 		model.train(exampleSet, hiddenLayers, maxCycles, maxError, learningRate, momentum, decay, shuffle, normalize,
-				randomGenerator, this);
+				batchSize, randomGenerator, this);
 		return model;
 	}
 
@@ -204,6 +208,10 @@ public class ImprovedNeuralNetLearner extends AbstractLearner {
 				"The optimization is stopped if the training error gets below this epsilon value.", 0.0d,
 				Double.POSITIVE_INFINITY, 0.0001d));
 
+		types.add(new ParameterTypeInt(PARAMETER_MINI_BATCH_SIZE,
+				"The number of examples used for one weight update. The examples of a batch are processed in parallel. 1 updates the weights after every example.",
+				1, Integer.MAX_VALUE, 1));
+
 		types.addAll(RandomGenerator.getRandomGeneratorParameters(this));
 
 		return types;
@@ -22,17 +22,25 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
+import base.operators.core.concurrency.ConcurrencyContext;
 import base.operators.example.Attribute;
 import base.operators.example.Example;
 import base.operators.example.ExampleSet;
 import base.operators.example.Statistics;
 import base.operators.example.set.ExampleSetUtilities;
+import base.operators.example.utils.ExampleSets;
 import base.operators.operator.Operator;
 import base.operators.operator.OperatorException;
 import base.operators.operator.OperatorProgress;
 import base.operators.operator.ProcessStoppedException;
+import base.operators.operator.UserError;
+import base.operators.operator.learner.ParallelPredictionRunner;
 import base.operators.operator.learner.PredictionModel;
+import base.operators.studio.concurrency.internal.BackgroudOperatorConcurrencyContext;
+import base.operators.studio.internal.Resources;
 import base.operators.tools.RandomGenerator;
 import base.operators.tools.Tools;
 
@@ -48,6 +56,9 @@ public class ImprovedNeuralNetModel extends PredictionModel {
 
 	private static final int OPERATOR_PROGRESS_STEPS = 1000;
 
+	/** The number of examples of a mini-batch handled by one parallel task. */
+	private static final int EXAMPLES_PER_TASK = 32;
+
 	private static final ActivationFunction SIGMOID_FUNCTION = new SigmoidFunction();
 
 	private static final ActivationFunction LINEAR_FUNCTION = new LinearFunction();
@@ -60,6 +71,9 @@ public class ImprovedNeuralNetModel extends PredictionModel {
 
 	private OutputNode[] outputNodes = new OutputNode[0];
 
+	/** The layers of the nodes, created when needed. */
+	private transient LayeredNetwork network;
+
 	protected ImprovedNeuralNetModel(ExampleSet trainingExampleSet) {
 		super(trainingExampleSet, ExampleSetUtilities.SetsCompareOption.ALLOW_SUPERSET,
 				ExampleSetUtilities.TypesCompareOption.ALLOW_SAME_PARENTS);
@@ -86,6 +100,35 @@ public class ImprovedNeuralNetModel extends PredictionModel {
 	public void train(ExampleSet exampleSet, List<String[]> hiddenLayers, int maxCycles, double maxError,
                       double learningRate, double momentum, boolean decay, boolean shuffle, boolean normalize,
                       RandomGenerator randomGenerator, Operator operator) throws OperatorException {
+		train(exampleSet, hiddenLayers, maxCycles, maxError, learningRate, momentum, decay, shuffle, normalize, 1,
+				randomGenerator, operator);
+	}
+
+	/**
+	 * Trains the model with mini-batches. The gradients of the examples of a batch are averaged
+	 * before the weights are updated. The examples of a batch are processed in parallel if the
+	 * operator provides a concurrency context. A batch size of 1 updates the weights after every
+	 * example.
+	 *
+	 * @param exampleSet
+	 * @param hiddenLayers
+	 * @param maxCycles
+	 * @param maxError
+	 * @param learningRate
+	 * @param momentum
+	 * @param decay
+	 * @param shuffle
+	 * @param normalize
+	 * @param batchSize
+	 *            the number of examples per weight update
+	 * @param randomGenerator
+	 * @param operator
+	 *            can be <code>null</code>, used to checkForStop and for the concurrency context
+	 * @throws OperatorException
+	 */
+	public void train(ExampleSet exampleSet, List<String[]> hiddenLayers, int maxCycles, double maxError,
+			double learningRate, double momentum, boolean decay, boolean shuffle, boolean normalize, int batchSize,
+			RandomGenerator randomGenerator, Operator operator) throws OperatorException {
 		Attribute label = exampleSet.getAttributes().getLabel();
 
 		int numberOfClasses = getNumberOfClasses(label);
@@ -107,6 +150,18 @@ public class ImprovedNeuralNetModel extends PredictionModel {
 
 		initHiddenLayers(exampleSet, label, hiddenLayers, randomGenerator);
 
+		network = LayeredNetwork.compile(inputNodes, innerNodes, outputNodes);
+		if (network == null) {
+			throw new UserError(operator, 912, operator.getName(),
+					"the nodes could not be arranged into fully connected layers, every hidden layer needs at least one node.");
+		}
+		Attribute[] attributes = network.bind(exampleSet);
+		if (attributes == null) {
+			throw new UserError(operator, 912, operator.getName(),
+					"the example set does not contain all input attributes of the network.");
+		}
+		ConcurrencyContext context = batchSize > 1 ? getConcurrencyContext(operator, exampleSet) : null;
+
 		// calculate total weight
 		Attribute weightAttribute = exampleSet.getAttributes().getWeight();
 		double totalWeight = 0;
@@ -135,35 +190,49 @@ public class ImprovedNeuralNetModel extends PredictionModel {
 		}
 
 		// optimization loop
+		LayeredNetwork net = network;
+		double[][] values = net.createValues();
+		double[][] errors = net.createValues();
 		for (int cycle = 0; cycle < maxCycles; cycle++) {
 			checkForStop(operator);
 			double error = 0;
 			int maxSize = exampleSet.size();
-			for (int index = 0; index < maxSize; index++) {
-				checkForStop(operator);
-				int exampleIndex = index;
-				if (exampleIndices != null) {
-					exampleIndex = exampleIndices[index];
+			if (batchSize > 1) {
+				double tempRate = learningRate;
+				if (decay) {
+					tempRate /= cycle + 1;
 				}
+				for (int index = 0; index < maxSize; index += batchSize) {
+					checkForStop(operator);
+					error += trainBatch(net, exampleSet, attributes, exampleIndices, index,
+							Math.min(maxSize, index + batchSize), numberOfClasses, tempRate, momentum, context);
+				}
+			} else {
+				for (int index = 0; index < maxSize; index++) {
+					checkForStop(operator);
+					int exampleIndex = index;
+					if (exampleIndices != null) {
+						exampleIndex = exampleIndices[index];
+					}
 
-				Example example = exampleSet.getExample(exampleIndex);
+					Example example = exampleSet.getExample(exampleIndex);
 
-				resetNetwork();
+					net.read(example, attributes, values);
+					net.forward(values);
 
-				calculateValue(example);
+					double weight = 1.0;
+					if (weightAttribute != null) {
+						weight = example.getValue(weightAttribute);
+					}
 
-				double weight = 1.0;
-				if (weightAttribute != null) {
-					weight = example.getValue(weightAttribute);
-				}
+					double tempRate = learningRate * weight;
+					if (decay) {
+						tempRate /= cycle + 1;
+					}
 
-				double tempRate = learningRate * weight;
-				if (decay) {
-					tempRate /= cycle + 1;
+					error += net.backward(values, errors, example.getValue(label)) / numberOfClasses * weight;
+					net.update(values, errors, tempRate, momentum);
 				}
-
-				error += calculateError(example) / numberOfClasses * weight;
-				update(example, tempRate, momentum);
 			}
 
 			error /= totalWeight;
@@ -180,13 +249,201 @@ public class ImprovedNeuralNetModel extends PredictionModel {
 				}
 				learningRate /= 2;
 				train(exampleSet, hiddenLayers, maxCycles, maxError, learningRate, momentum, decay, shuffle, normalize,
-						randomGenerator, operator);
+						batchSize, randomGenerator, operator);
+				// continue with the newly created network
+				net = network;
+			}
+		}
+		net.storeWeights();
+	}
+
+	/**
+	 * Updates the weights with the averaged gradients of the examples from index {@code from}
+	 * (inclusive) to {@code to} (exclusive). The gradients are summed up in blocks of
+	 * {@link #EXAMPLES_PER_TASK} examples which are processed in parallel if a context is given.
+	 * The blocks are added in their order, so the result does not depend on the parallelism.
+	 *
+	 * @return the sum of the weighted errors of the examples
+	 */
+	private double trainBatch(final LayeredNetwork net, final ExampleSet exampleSet, final Attribute[] attributes,
+			final int[] exampleIndices, int from, int to, final int numberOfClasses, double learningRate,
+			double momentum, ConcurrencyContext context) throws OperatorException {
+		final Attribute label = exampleSet.getAttributes().getLabel();
+		final Attribute weightAttribute = exampleSet.getAttributes().getWeight();
+		List<Callable<BatchGradients>> tasks = new ArrayList<>();
+		for (int start = from; start < to; start += EXAMPLES_PER_TASK) {
+			final int taskFrom = start;
+			final int taskTo = Math.min(to, start + EXAMPLES_PER_TASK);
+			tasks.add(new Callable<BatchGradients>() {
+
+				@Override
+				public BatchGradients call() {
+					double[][] values = net.createValues();
+					double[][] errors = net.createValues();
+					BatchGradients result = new BatchGradients(net.createGradients());
+					for (int index = taskFrom; index < taskTo; index++) {
+						int exampleIndex = exampleIndices != null ? exampleIndices[index] : index;
+						Example example = exampleSet.getExample(exampleIndex);
+						net.read(example, attributes, values);
+						net.forward(values);
+						double weight = weightAttribute != null ? example.getValue(weightAttribute) : 1.0;
+						result.error += net.backward(values, errors, example.getValue(label)) / numberOfClasses
+								* weight;
+						net.accumulate(values, errors, weight, result.gradients);
+					}
+					return result;
+				}
+			});
+		}
+
+		List<BatchGradients> results;
+		if (context != null && tasks.size() > 1) {
+			try {
+				results = context.call(tasks);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				} else {
+					throw new OperatorException(cause.getMessage(), cause);
+				}
+			}
+		} else {
+			results = new ArrayList<>(tasks.size());
+			for (Callable<BatchGradients> task : tasks) {
+				try {
+					results.add(task.call());
+				} catch (RuntimeException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new OperatorException(e.getMessage(), e);
+				}
+			}
+		}
+
+		double[][] gradients = results.get(0).gradients;
+		double error = results.get(0).error;
+		for (int r = 1; r < results.size(); r++) {
+			double[][] blockGradients = results.get(r).gradients;
+			for (int l = 0; l < gradients.length; l++) {
+				for (int p = 0; p < gradients[l].length; p++) {
+					gradients[l][p] += blockGradients[l][p];
+				}
 			}
+			error += results.get(r).error;
 		}
+		net.update(gradients, learningRate / (to - from), momentum);
+		return error;
+	}
+
+	/** The summed gradients and errors of a block of examples. */
+	private static class BatchGradients {
+
+		private final double[][] gradients;
+
+		private double error;
+
+		private BatchGradients(double[][] gradients) {
+			this.gradients = gradients;
+		}
+	}
+
+	/**
+	 * Returns the context for the parallel processing of mini-batches or {@code null} if the
+	 * example set cannot be read concurrently.
+	 */
+	private static ConcurrencyContext getConcurrencyContext(Operator operator, ExampleSet exampleSet) {
+		if (operator == null || !ExampleSets.isThreadSafe(exampleSet)) {
+			return null;
+		}
+		if (operator.getProcess() != null) {
+			return Resources.getConcurrencyContext(operator);
+		} else {
+			return new BackgroudOperatorConcurrencyContext(operator);
+		}
+	}
+
+	/**
+	 * Returns the layers of the nodes or {@code null} if the nodes are not connected layer by
+	 * layer.
+	 */
+	private LayeredNetwork getNetwork() {
+		if (network == null) {
+			network = LayeredNetwork.compile(inputNodes, innerNodes, outputNodes);
+		}
+		return network;
 	}
 
 	@Override
-	public ExampleSet performPrediction(ExampleSet exampleSet, Attribute predictedLabel) throws OperatorException {
+	public ExampleSet performPrediction(ExampleSet exampleSet, final Attribute predictedLabel)
+			throws OperatorException {
+		final LayeredNetwork net = getNetwork();
+		final Attribute[] attributes = net != null ? net.bind(exampleSet) : null;
+		if (attributes == null) {
+			return performNodePrediction(exampleSet, predictedLabel);
+		}
+
+		if (predictedLabel.isNominal()) {
+			final int numberOfClasses = getNumberOfClasses(getLabel());
+			final String[] classNames = new String[numberOfClasses];
+			final double[] predictions = new double[numberOfClasses];
+			for (int c = 0; c < numberOfClasses; c++) {
+				classNames[c] = getLabel().getMapping().mapIndex(c);
+				predictions[c] = predictedLabel.getMapping().mapString(classNames[c]);
+			}
+			ParallelPredictionRunner.run(this, exampleSet, predictedLabel, (example, row) -> {
+				double[][] values = net.createValues();
+				net.read(example, attributes, values);
+				net.forward(values);
+
+				double[] classProbabilities = new double[numberOfClasses];
+				for (int c = 0; c < numberOfClasses; c++) {
+					classProbabilities[c] = net.getOutput(values, c);
+				}
+
+				double total = 0.0;
+				for (int c = 0; c < numberOfClasses; c++) {
+					total += classProbabilities[c];
+				}
+
+				double maxConfidence = Double.NEGATIVE_INFINITY;
+				int maxIndex = 0;
+				for (int c = 0; c < numberOfClasses; c++) {
+					classProbabilities[c] /= total;
+					if (classProbabilities[c] > maxConfidence) {
+						maxIndex = c;
+						maxConfidence = classProbabilities[c];
+					}
+				}
+
+				example.setValue(predictedLabel, predictions[maxIndex]);
+				for (int c = 0; c < numberOfClasses; c++) {
+					example.setConfidence(classNames[c], classProbabilities[c]);
+				}
+			});
+		} else {
+			ParallelPredictionRunner.run(this, exampleSet, predictedLabel, (example, row) -> {
+				double[][] values = net.createValues();
+				net.read(example, attributes, values);
+				net.forward(values);
+				example.setValue(predictedLabel, net.getOutput(values, 0));
+			});
+		}
+		return exampleSet;
+	}
+
+	/** The network is not modified during the prediction. */
+	@Override
+	public boolean supportsParallelPrediction() {
+		return true;
+	}
+
+	/**
+	 * Predicts with the nodes if they are not connected layer by layer.
+	 */
+	private ExampleSet performNodePrediction(ExampleSet exampleSet, Attribute predictedLabel) {
 		OperatorProgress progress = null;
 		if (getShowProgress() && getOperator() != null && getOperator().getProgress() != null) {
 			progress = getOperator().getProgress();
@@ -272,30 +529,6 @@ public class ImprovedNeuralNetModel extends PredictionModel {
 		}
 	}
 
-	private void update(Example example, double learningRate, double momentum) {
-		for (OutputNode outputNode : outputNodes) {
-			outputNode.update(example, learningRate, momentum);
-		}
-	}
-
-	private void calculateValue(Example example) {
-		for (OutputNode outputNode : outputNodes) {
-			outputNode.calculateValue(true, example);
-		}
-	}
-
-	private double calculateError(Example example) {
-		for (InputNode inputNode : inputNodes) {
-			inputNode.calculateError(true, example);
-		}
-		double totalError = 0.0d;
-		for (OutputNode outputNode : outputNodes) {
-			double error = outputNode.calculateError(false, example);
-			totalError += error * error;
-		}
-		return totalError;
-	}
-
 	private int getDefaultLayerSize(ExampleSet exampleSet, Attribute label) {
 		return (int) Math.round((exampleSet.getAttributes().size() + getNumberOfClasses(label)) / 2.0d) + 1;
 	}
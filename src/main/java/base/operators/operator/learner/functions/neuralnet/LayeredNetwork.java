@@ -0,0 +1,408 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.operator.learner.functions.neuralnet;
+
+import java.util.Arrays;
+
+import base.operators.example.Attribute;
+import base.operators.example.Example;
+import base.operators.example.ExampleSet;
+
+
+/**
+ * The nodes of an {@link ImprovedNeuralNetModel} as one weight matrix per layer. Each layer is
+ * fully connected to the previous one and stores the weights of a node in one row, the bias first
+ * and then the weights of the inputs in the order of the previous layer.
+ * <p>
+ * The calculations are the same as the ones of the nodes and are done in the same order, so the
+ * outputs and the online weight updates are identical to the ones of the node graph. Only the
+ * weight arrays of the network are modified, {@link #storeWeights()} copies them back to the nodes.
+ */
+final class LayeredNetwork {
+
+	private final InputNode[] inputNodes;
+
+	/** the hidden layers and the output layer */
+	private final InnerNode[][] layers;
+
+	/** the number of values of the input layer and the other layers */
+	private final int[] sizes;
+
+	private final double[][] weights;
+
+	private final double[][] weightChanges;
+
+	private final boolean nominal;
+
+	private final boolean linearOutput;
+
+	private final double labelRange;
+
+	private final double labelBase;
+
+	private LayeredNetwork(InputNode[] inputNodes, InnerNode[][] layers, OutputNode outputNode) {
+		this.inputNodes = inputNodes;
+		this.layers = layers;
+		this.sizes = new int[layers.length + 1];
+		this.weights = new double[layers.length][];
+		this.weightChanges = new double[layers.length][];
+		sizes[0] = inputNodes.length;
+		for (int l = 0; l < layers.length; l++) {
+			sizes[l + 1] = layers[l].length;
+			int width = sizes[l] + 1;
+			weights[l] = new double[layers[l].length * width];
+			weightChanges[l] = new double[layers[l].length * width];
+			for (int j = 0; j < layers[l].length; j++) {
+				System.arraycopy(layers[l][j].getWeights(), 0, weights[l], j * width, width);
+				System.arraycopy(layers[l][j].getWeightChanges(), 0, weightChanges[l], j * width, width);
+			}
+		}
+		this.nominal = outputNode.getLabel().isNominal();
+		this.linearOutput = layers[layers.length - 1][0].getActivationFunction().getClass() == LinearFunction.class;
+		this.labelRange = outputNode.getLabelRange();
+		this.labelBase = outputNode.getLabelBase();
+	}
+
+	/**
+	 * Creates the layers of the given nodes.
+	 *
+	 * @return the network or {@code null} if the nodes are not connected layer by layer as created
+	 *         by {@link ImprovedNeuralNetModel} or use other activation functions
+	 */
+	static LayeredNetwork compile(InputNode[] inputNodes, InnerNode[] innerNodes, OutputNode[] outputNodes) {
+		if (inputNodes.length == 0 || outputNodes.length == 0) {
+			return null;
+		}
+
+		// hidden layers by index, followed by the output layer
+		int numberOfHiddenLayers = 0;
+		int numberOfOutputs = 0;
+		for (InnerNode node : innerNodes) {
+			if (node.getLayerIndex() == Node.OUTPUT) {
+				numberOfOutputs++;
+			} else if (node.getLayerIndex() >= 0) {
+				numberOfHiddenLayers = Math.max(numberOfHiddenLayers, node.getLayerIndex() + 1);
+			} else {
+				return null;
+			}
+		}
+		if (numberOfOutputs != outputNodes.length) {
+			return null;
+		}
+		int[] hiddenSizes = new int[numberOfHiddenLayers];
+		for (InnerNode node : innerNodes) {
+			if (node.getLayerIndex() >= 0) {
+				hiddenSizes[node.getLayerIndex()]++;
+			}
+		}
+		int numberOfLayers = 0;
+		for (int size : hiddenSizes) {
+			if (size > 0) {
+				numberOfLayers++;
+			}
+		}
+		InnerNode[][] layers = new InnerNode[numberOfLayers + 1][];
+		int[] layerOfIndex = new int[numberOfHiddenLayers];
+		int l = 0;
+		for (int h = 0; h < numberOfHiddenLayers; h++) {
+			if (hiddenSizes[h] > 0) {
+				layerOfIndex[h] = l;
+				layers[l++] = new InnerNode[hiddenSizes[h]];
+			}
+		}
+		layers[numberOfLayers] = new InnerNode[numberOfOutputs];
+		int[] filled = new int[layers.length];
+		for (InnerNode node : innerNodes) {
+			int layer = node.getLayerIndex() == Node.OUTPUT ? numberOfLayers : layerOfIndex[node.getLayerIndex()];
+			layers[layer][filled[layer]++] = node;
+		}
+
+		// every node must be connected to all nodes of the previous and the next layer in order
+		Node[] previous = inputNodes;
+		for (l = 0; l < layers.length; l++) {
+			boolean output = l == layers.length - 1;
+			for (InnerNode node : layers[l]) {
+				Class<?> function = node.getActivationFunction().getClass();
+				if (function != SigmoidFunction.class && !(output && function == LinearFunction.class)
+						|| !Arrays.equals(node.getInputNodes(), previous)
+						|| node.getWeights().length != previous.length + 1
+						|| node.getWeightChanges().length != previous.length + 1) {
+					return null;
+				}
+				if (!output && !Arrays.equals(node.getOutputNodes(), layers[l + 1])) {
+					return null;
+				}
+			}
+			previous = layers[l];
+		}
+		InnerNode[] outputLayer = layers[numberOfLayers];
+		for (int o = 0; o < outputNodes.length; o++) {
+			OutputNode outputNode = outputNodes[o];
+			if (outputLayer[o].getActivationFunction().getClass() != outputLayer[0].getActivationFunction().getClass()
+					|| outputLayer[o].getOutputNodes().length != 1 || outputLayer[o].getOutputNodes()[0] != outputNode
+					|| outputNode.getInputNodes().length != 1
+					|| outputNode.getLabel().isNominal() && outputNode.getClassIndex() != o) {
+				return null;
+			}
+		}
+		return new LayeredNetwork(inputNodes, layers, outputNodes[0]);
+	}
+
+	/**
+	 * Returns the attributes of the example set read by the input nodes or {@code null} if one of
+	 * them is missing.
+	 */
+	Attribute[] bind(ExampleSet exampleSet) {
+		Attribute[] attributes = new Attribute[inputNodes.length];
+		for (int i = 0; i < inputNodes.length; i++) {
+			attributes[i] = exampleSet.getAttributes().get(inputNodes[i].getAttribute().getName());
+			if (attributes[i] == null) {
+				return null;
+			}
+		}
+		return attributes;
+	}
+
+	/** Creates the arrays for the values or errors of all layers including the input layer. */
+	double[][] createValues() {
+		double[][] values = new double[sizes.length][];
+		for (int l = 0; l < sizes.length; l++) {
+			values[l] = new double[sizes[l]];
+		}
+		return values;
+	}
+
+	/** Creates arrays with the size of the weights of all layers. */
+	double[][] createGradients() {
+		double[][] gradients = new double[weights.length][];
+		for (int l = 0; l < weights.length; l++) {
+			gradients[l] = new double[weights[l].length];
+		}
+		return gradients;
+	}
+
+	/**
+	 * Reads and scales the input values of the example into the first layer of values.
+	 */
+	void read(Example example, Attribute[] attributes, double[][] values) {
+		double[] inputs = values[0];
+		for (int i = 0; i < inputs.length; i++) {
+			InputNode node = inputNodes[i];
+			double value = example.getValue(attributes[i]);
+			if (Double.isNaN(value)) {
+				inputs[i] = 0;
+			} else if (node.isNormalize()) {
+				if (node.getAttributeRange() != 0) {
+					inputs[i] = (value - node.getAttributeBase()) / node.getAttributeRange();
+				} else {
+					inputs[i] = value - node.getAttributeBase();
+				}
+			} else {
+				inputs[i] = value;
+			}
+		}
+	}
+
+	/**
+	 * Calculates the values of all layers from the input values.
+	 */
+	void forward(double[][] values) {
+		for (int l = 0; l < weights.length; l++) {
+			double[] inputs = values[l];
+			double[] outputs = values[l + 1];
+			double[] layerWeights = weights[l];
+			int width = inputs.length + 1;
+			boolean linear = linearOutput && l == weights.length - 1;
+			for (int j = 0; j < outputs.length; j++) {
+				int offset = j * width;
+				double weightedSum = layerWeights[offset]; // bias
+				for (int i = 0; i < inputs.length; i++) {
+					weightedSum += inputs[i] * layerWeights[offset + i + 1];
+				}
+				if (linear) {
+					outputs[j] = weightedSum;
+				} else if (weightedSum < -45.0d) {
+					outputs[j] = 0;
+				} else if (weightedSum > 45.0d) {
+					outputs[j] = 1;
+				} else {
+					outputs[j] = 1 / (1 + Math.exp(-1 * weightedSum));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the value of the output node with the given index.
+	 */
+	double getOutput(double[][] values, int index) {
+		double value = 0;
+		value += values[values.length - 1][index];
+		if (!nominal) {
+			value = value * labelRange + labelBase;
+		}
+		return value;
+	}
+
+	/**
+	 * Calculates the errors of all nodes for the given label value from the values calculated by
+	 * {@link #forward(double[][])}.
+	 *
+	 * @return the sum of the squared errors of the output nodes
+	 */
+	double backward(double[][] values, double[][] errors, double labelValue) {
+		int last = weights.length - 1;
+		double[] outputValues = values[last + 1];
+		double[] outputErrors = errors[last + 1];
+		double totalError = 0.0d;
+		for (int o = 0; o < outputValues.length; o++) {
+			double output = getOutput(values, o);
+			double error;
+			if (Double.isNaN(output)) {
+				error = Double.NaN;
+			} else if (nominal) {
+				if ((int) labelValue == o) {
+					error = 1.0d - output;
+				} else {
+					error = 0.0d - output;
+				}
+			} else if (labelRange == 0.0d) {
+				error = 0.0d;
+			} else {
+				error = (labelValue - output) / labelRange;
+			}
+			totalError += error * error;
+
+			double errorSum = 0;
+			errorSum += error * 1;
+			double value = outputValues[o];
+			if (Double.isNaN(value)) {
+				outputErrors[o] = Double.NaN;
+			} else if (linearOutput) {
+				outputErrors[o] = errorSum;
+			} else {
+				outputErrors[o] = errorSum * value * (1 - value);
+			}
+		}
+
+		for (int l = last - 1; l >= 0; l--) {
+			double[] layerValues = values[l + 1];
+			double[] layerErrors = errors[l + 1];
+			double[] nextErrors = errors[l + 2];
+			double[] nextWeights = weights[l + 1];
+			int width = layerValues.length + 1;
+			for (int j = 0; j < layerValues.length; j++) {
+				double errorSum = 0;
+				for (int k = 0; k < nextErrors.length; k++) {
+					errorSum += nextErrors[k] * nextWeights[k * width + j + 1];
+				}
+				double value = layerValues[j];
+				layerErrors[j] = Double.isNaN(value) ? Double.NaN : errorSum * value * (1 - value);
+			}
+		}
+		return totalError;
+	}
+
+	/**
+	 * Updates the weights of all nodes with a valid error for one example.
+	 */
+	void update(double[][] values, double[][] errors, double learningRate, double momentum) {
+		for (int l = 0; l < weights.length; l++) {
+			double[] inputs = values[l];
+			double[] layerErrors = errors[l + 1];
+			double[] layerWeights = weights[l];
+			double[] layerChanges = weightChanges[l];
+			int width = inputs.length + 1;
+			for (int j = 0; j < layerErrors.length; j++) {
+				if (Double.isNaN(layerErrors[j])) {
+					continue;
+				}
+				int offset = j * width;
+				double delta = learningRate * layerErrors[j];
+
+				// threshold update
+				double thresholdChange = delta + momentum * layerChanges[offset];
+				layerWeights[offset] += thresholdChange;
+				layerChanges[offset] = thresholdChange;
+
+				// update node weights
+				for (int i = 0; i < inputs.length; i++) {
+					double currentChange = delta * inputs[i];
+					currentChange += momentum * layerChanges[offset + i + 1];
+					layerWeights[offset + i + 1] += currentChange;
+					layerChanges[offset + i + 1] = currentChange;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the weighted gradients of one example to the given gradients. Nodes without a valid
+	 * error are skipped.
+	 */
+	void accumulate(double[][] values, double[][] errors, double weight, double[][] gradients) {
+		for (int l = 0; l < weights.length; l++) {
+			double[] inputs = values[l];
+			double[] layerErrors = errors[l + 1];
+			double[] layerGradients = gradients[l];
+			int width = inputs.length + 1;
+			for (int j = 0; j < layerErrors.length; j++) {
+				if (Double.isNaN(layerErrors[j])) {
+					continue;
+				}
+				int offset = j * width;
+				double delta = weight * layerErrors[j];
+				layerGradients[offset] += delta;
+				for (int i = 0; i < inputs.length; i++) {
+					layerGradients[offset + i + 1] += delta * inputs[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates all weights with the given gradients.
+	 */
+	void update(double[][] gradients, double learningRate, double momentum) {
+		for (int l = 0; l < weights.length; l++) {
+			double[] layerGradients = gradients[l];
+			double[] layerWeights = weights[l];
+			double[] layerChanges = weightChanges[l];
+			for (int p = 0; p < layerWeights.length; p++) {
+				double currentChange = learningRate * layerGradients[p];
+				currentChange += momentum * layerChanges[p];
+				layerWeights[p] += currentChange;
+				layerChanges[p] = currentChange;
+			}
+		}
+	}
+
+	/**
+	 * Copies the weights and the last weight changes to the nodes.
+	 */
+	void storeWeights() {
+		for (int l = 0; l < layers.length; l++) {
+			int width = sizes[l] + 1;
+			for (int j = 0; j < layers[l].length; j++) {
+				layers[l][j].setWeights(Arrays.copyOfRange(weights[l], j * width, (j + 1) * width));
+				layers[l][j].setWeightChanges(Arrays.copyOfRange(weightChanges[l], j * width, (j + 1) * width));
+			}
+		}
+	}
+}
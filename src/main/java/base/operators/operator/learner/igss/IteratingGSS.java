@@ -819,4 +819,10 @@ public class IteratingGSS extends AbstractLearner {
 				false));
 		return types;
 	}
+
+	/** The {@link RandomGenerator#getGlobalRandomGenerator() global random generator} is always used. */
+	@Override
+	protected boolean isRandomSeedFixed() {
+		return false;
+	}
 }
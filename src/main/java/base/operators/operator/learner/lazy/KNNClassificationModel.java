@@ -20,6 +20,7 @@ package base.operators.operator.learner.lazy;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import base.operators.example.Attribute;
 import base.operators.example.Attributes;
@@ -27,7 +28,7 @@ import base.operators.example.Example;
 import base.operators.example.ExampleSet;
 import base.operators.example.set.ExampleSetUtilities;
 import base.operators.operator.OperatorException;
-import base.operators.operator.OperatorProgress;
+import base.operators.operator.learner.ParallelPredictionRunner;
 import base.operators.operator.learner.UpdateablePredictionModel;
 import base.operators.tools.Tools;
 import base.operators.tools.container.Tupel;
@@ -44,8 +45,6 @@ public class KNNClassificationModel extends UpdateablePredictionModel {
 
 	private static final long serialVersionUID = -6292869962412072573L;
 
-	private static final int OPERATOR_PROGRESS_STEPS = 1000;
-
 	private int k;
 
 	private int size;
@@ -73,90 +72,90 @@ public class KNNClassificationModel extends UpdateablePredictionModel {
 	}
 
 	@Override
-	public ExampleSet performPrediction(ExampleSet exampleSet, Attribute predictedLabel) throws OperatorException {
+	public boolean supportsParallelPrediction() {
+		return true;
+	}
+
+	@Override
+	public ExampleSet performPrediction(ExampleSet exampleSet, final Attribute predictedLabel) throws OperatorException {
 		// building attribute order from trainingset
-		ArrayList<Attribute> sampleAttributes = new ArrayList<Attribute>(sampleAttributeNames.size());
+		final ArrayList<Attribute> sampleAttributes = new ArrayList<Attribute>(sampleAttributeNames.size());
 		Attributes attributes = exampleSet.getAttributes();
 		for (String attributeName : sampleAttributeNames) {
 			sampleAttributes.add(attributes.get(attributeName));
 		}
 
-		OperatorProgress progress = null;
-		if (getShowProgress() && getOperator() != null && getOperator().getProgress() != null) {
-			progress = getOperator().getProgress();
-			progress.setTotal(exampleSet.size());
-		}
-		int progressCounter = 0;
-
-		double[] values = new double[sampleAttributes.size()];
-		for (Example example : exampleSet) {
-			// reading values
-			int i = 0;
-			for (Attribute attribute : sampleAttributes) {
-				values[i] = example.getValue(attribute);
-				i++;
+		final int numberOfClasses = predictedLabel.getMapping().size();
+		ParallelPredictionRunner.run(this, exampleSet, predictedLabel, (example, row) -> {
+			// the prediction followed by the confidences
+			double[] result = new double[1 + numberOfClasses];
+			predictExample(example, sampleAttributes, new double[sampleAttributes.size()], result, 0, numberOfClasses);
+			example.setValue(predictedLabel, result[0]);
+			for (int index = 0; index < numberOfClasses; index++) {
+				example.setConfidence(predictedLabel.getMapping().mapIndex(index), result[1 + index]);
 			}
+		});
+		return exampleSet;
+	}
 
-			// counting frequency of labels
-			double[] counter = new double[predictedLabel.getMapping().size()];
-			double totalDistance = 0;
-			if (!weightByDistance || k == 1) {
-				// finding next k neighbours
-				Collection<Integer> neighbourLabels = samples.getNearestValues(k, values);
-				// distance is 1 for complete neighbourhood
-				totalDistance = k;
-
-				// counting frequency of labels
-				for (int index : neighbourLabels) {
-					counter[index] += 1 / totalDistance;
-				}
-			} else {
-				// finding next k neighbours and their distances
-				Collection<Tupel<Double, Integer>> neighbours = samples.getNearestValueDistances(k, values);
-				for (Tupel<Double, Integer> tupel : neighbours) {
-					totalDistance += tupel.getFirst();
-				}
+	private void predictExample(Example example, List<Attribute> sampleAttributes, double[] values, double[] result,
+			int offset, int numberOfClasses) {
+		// reading values
+		int i = 0;
+		for (Attribute attribute : sampleAttributes) {
+			values[i] = example.getValue(attribute);
+			i++;
+		}
 
-				double totalSimilarity = 0.0d;
-				if (totalDistance == 0) {
-					totalDistance = 1;
-					totalSimilarity = k;
-				} else {
-					totalSimilarity = Math.max(k - 1, 1);
-				}
+		// counting frequency of labels
+		double[] counter = new double[numberOfClasses];
+		double totalDistance = 0;
+		if (!weightByDistance || k == 1) {
+			// finding next k neighbours
+			Collection<Integer> neighbourLabels = samples.getNearestValues(k, values);
+			// distance is 1 for complete neighbourhood
+			totalDistance = k;
 
-				// counting frequency of labels
-				for (Tupel<Double, Integer> tupel : neighbours) {
-					counter[tupel.getSecond()] += (1d - tupel.getFirst() / totalDistance) / totalSimilarity;
-				}
+			// counting frequency of labels
+			for (int index : neighbourLabels) {
+				counter[index] += 1 / totalDistance;
 			}
-			// finding most frequent class
-			int mostFrequentIndex = Integer.MIN_VALUE;
-			double mostFrequentFrequency = Double.NEGATIVE_INFINITY;
-			for (int index = 0; index < counter.length; index++) {
-				if (mostFrequentFrequency < counter[index]) {
-					mostFrequentFrequency = counter[index];
-					mostFrequentIndex = index;
-				}
+		} else {
+			// finding next k neighbours and their distances
+			Collection<Tupel<Double, Integer>> neighbours = samples.getNearestValueDistances(k, values);
+			for (Tupel<Double, Integer> tupel : neighbours) {
+				totalDistance += tupel.getFirst();
 			}
-			// setting prediction
-			if (mostFrequentIndex == Integer.MIN_VALUE) {
-				example.setValue(predictedLabel, Double.NaN);
+
+			double totalSimilarity = 0.0d;
+			if (totalDistance == 0) {
+				totalDistance = 1;
+				totalSimilarity = k;
 			} else {
-				example.setValue(predictedLabel, mostFrequentIndex);
+				totalSimilarity = Math.max(k - 1, 1);
 			}
 
-			// setting confidence
-			for (int index = 0; index < counter.length; index++) {
-				example.setConfidence(predictedLabel.getMapping().mapIndex(index), counter[index]);
+			// counting frequency of labels
+			for (Tupel<Double, Integer> tupel : neighbours) {
+				counter[tupel.getSecond()] += (1d - tupel.getFirst() / totalDistance) / totalSimilarity;
 			}
-
-			// trigger progress
-			if (progress != null && ++progressCounter % OPERATOR_PROGRESS_STEPS == 0) {
-				progress.setCompleted(progressCounter);
+		}
+		// finding most frequent class
+		int mostFrequentIndex = Integer.MIN_VALUE;
+		double mostFrequentFrequency = Double.NEGATIVE_INFINITY;
+		for (int index = 0; index < counter.length; index++) {
+			if (mostFrequentFrequency < counter[index]) {
+				mostFrequentFrequency = counter[index];
+				mostFrequentIndex = index;
 			}
 		}
-		return exampleSet;
+		// storing prediction and confidences
+		if (mostFrequentIndex == Integer.MIN_VALUE) {
+			result[offset] = Double.NaN;
+		} else {
+			result[offset] = mostFrequentIndex;
+		}
+		System.arraycopy(counter, 0, result, offset + 1, counter.length);
 	}
 
 	@Override
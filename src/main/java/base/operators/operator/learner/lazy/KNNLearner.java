@@ -32,10 +32,11 @@ import base.operators.operator.learner.PredictionModel;
 import base.operators.operator.ports.metadata.DistanceMeasurePrecondition;
 import base.operators.parameter.ParameterType;
 import base.operators.parameter.ParameterTypeBoolean;
+import base.operators.parameter.ParameterTypeCategory;
 import base.operators.parameter.ParameterTypeInt;
 import base.operators.tools.OperatorResourceConsumptionHandler;
 import base.operators.tools.math.container.GeometricDataCollection;
-import base.operators.tools.math.container.LinearList;
+import base.operators.tools.math.container.GeometricDataCollections;
 import base.operators.tools.math.similarity.DistanceMeasure;
 import base.operators.tools.math.similarity.DistanceMeasureHelper;
 import base.operators.tools.math.similarity.DistanceMeasures;
@@ -57,6 +58,9 @@ public class KNNLearner extends AbstractLearner {
 	/** The parameter name for &quot;Indicates if the votes should be weighted by similarity.&quot; */
 	public static final String PARAMETER_WEIGHTED_VOTE = "weighted_vote";
 
+	/** The parameter name for &quot;The data structure used to search the nearest neighbors.&quot; */
+	public static final String PARAMETER_SEARCH_STRUCTURE = "search_structure";
+
 	private DistanceMeasureHelper measureHelper = new DistanceMeasureHelper(this);
 
 	public KNNLearner(OperatorDescription description) {
@@ -71,7 +75,8 @@ public class KNNLearner extends AbstractLearner {
 		Attribute label = exampleSet.getAttributes().getLabel();
 		if (label.isNominal()) {
 			// classification
-			GeometricDataCollection<Integer> samples = new LinearList<Integer>(measure);
+			GeometricDataCollection<Integer> samples = GeometricDataCollections.create(measure,
+					exampleSet.getAttributes().size(), exampleSet.size(), getParameterAsInt(PARAMETER_SEARCH_STRUCTURE));
 
 			Attributes attributes = exampleSet.getAttributes();
 
@@ -91,7 +96,8 @@ public class KNNLearner extends AbstractLearner {
 					getParameterAsBoolean(PARAMETER_WEIGHTED_VOTE));
 		} else {
 			// regression
-			GeometricDataCollection<Double> samples = new LinearList<Double>(measure);
+			GeometricDataCollection<Double> samples = GeometricDataCollections.create(measure,
+					exampleSet.getAttributes().size(), exampleSet.size(), getParameterAsInt(PARAMETER_SEARCH_STRUCTURE));
 			Attributes attributes = exampleSet.getAttributes();
 
 			int valuesSize = attributes.size();
@@ -156,6 +162,10 @@ public class KNNLearner extends AbstractLearner {
 		types.add(new ParameterTypeBoolean(PARAMETER_WEIGHTED_VOTE,
 				"Indicates if the votes should be weighted by similarity.", true, false));
 
+		types.add(new ParameterTypeCategory(PARAMETER_SEARCH_STRUCTURE,
+				"The data structure used to search the nearest neighbors. A kd-tree is only used for the euclidean, manhattan and chebychev distance.",
+				GeometricDataCollections.SEARCH_STRUCTURES, GeometricDataCollections.SEARCH_STRUCTURE_AUTOMATIC, true));
+
 		types.addAll(DistanceMeasures.getParameterTypes(this));
 		return types;
 	}
@@ -20,6 +20,7 @@ package base.operators.operator.learner.lazy;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import base.operators.example.Attribute;
 import base.operators.example.Attributes;
@@ -27,7 +28,7 @@ import base.operators.example.Example;
 import base.operators.example.ExampleSet;
 import base.operators.example.set.ExampleSetUtilities;
 import base.operators.operator.OperatorException;
-import base.operators.operator.OperatorProgress;
+import base.operators.operator.learner.ParallelPredictionRunner;
 import base.operators.operator.learner.UpdateablePredictionModel;
 import base.operators.tools.Tools;
 import base.operators.tools.container.Tupel;
@@ -44,8 +45,6 @@ public class KNNRegressionModel extends UpdateablePredictionModel {
 
 	private static final long serialVersionUID = -6292869962412072573L;
 
-	private static final int OPERATOR_PROGRESS_STEPS = 1000;
-
 	private int k;
 
 	private int size;
@@ -73,73 +72,65 @@ public class KNNRegressionModel extends UpdateablePredictionModel {
 	}
 
 	@Override
-	public ExampleSet performPrediction(ExampleSet exampleSet, Attribute predictedLabel) throws OperatorException {
+	public boolean supportsParallelPrediction() {
+		return true;
+	}
+
+	@Override
+	public ExampleSet performPrediction(ExampleSet exampleSet, final Attribute predictedLabel) throws OperatorException {
 		// building attribute order from trainingset
-		ArrayList<Attribute> sampleAttributes = new ArrayList<Attribute>(sampleAttributeNames.size());
+		final ArrayList<Attribute> sampleAttributes = new ArrayList<Attribute>(sampleAttributeNames.size());
 		Attributes attributes = exampleSet.getAttributes();
 		for (String attributeName : sampleAttributeNames) {
 			sampleAttributes.add(attributes.get(attributeName));
 		}
 
-		// initialize progress
-		OperatorProgress progress = null;
-		if (getShowProgress() && getOperator() != null && getOperator().getProgress() != null) {
-			progress = getOperator().getProgress();
-			progress.setTotal(exampleSet.size());
+		ParallelPredictionRunner.run(this, exampleSet, predictedLabel, (example, row) -> example.setValue(predictedLabel,
+				predictExample(example, sampleAttributes, new double[sampleAttributes.size()])));
+		return exampleSet;
+	}
+
+	private double predictExample(Example example, List<Attribute> sampleAttributes, double[] values) {
+		// reading values
+		int i = 0;
+		for (Attribute attribute : sampleAttributes) {
+			values[i] = example.getValue(attribute);
+			i++;
 		}
-		int progressCounter = 0;
-
-		double[] values = new double[sampleAttributes.size()];
-		for (Example example : exampleSet) {
-			// reading values
-			int i = 0;
-			for (Attribute attribute : sampleAttributes) {
-				values[i] = example.getValue(attribute);
-				i++;
-			}
 
-			double result = 0;
-			if (!weightByDistance) {
-				// finding next k neighbours
-				Collection<Double> neighbourLabels = samples.getNearestValues(k, values);
+		double result = 0;
+		if (!weightByDistance) {
+			// finding next k neighbours
+			Collection<Double> neighbourLabels = samples.getNearestValues(k, values);
 
-				// building mean
-				for (double label : neighbourLabels) {
-					result += label;
-				}
-				result /= k;
-			} else {
-				// finding next k neighbours and their distances
-				Collection<Tupel<Double, Double>> neighbourTupels = samples.getNearestValueDistances(k, values);
-				// finding total distance
-				double totalDistance = 0;
-				for (Tupel<Double, Double> tupel : neighbourTupels) {
-					totalDistance += tupel.getFirst();
-				}
-
-				double totalSimilarity = 0.0d;
-				if (totalDistance == 0) {
-					totalDistance = 1;
-					totalSimilarity = k;
-				} else {
-					totalSimilarity = Math.max(k - 1, 1);
-				}
+			// building mean
+			for (double label : neighbourLabels) {
+				result += label;
+			}
+			result /= k;
+		} else {
+			// finding next k neighbours and their distances
+			Collection<Tupel<Double, Double>> neighbourTupels = samples.getNearestValueDistances(k, values);
+			// finding total distance
+			double totalDistance = 0;
+			for (Tupel<Double, Double> tupel : neighbourTupels) {
+				totalDistance += tupel.getFirst();
+			}
 
-				// building weighted mean
-				for (Tupel<Double, Double> tupel : neighbourTupels) {
-					result += tupel.getSecond() * (1d - tupel.getFirst() / totalDistance) / totalSimilarity;
-				}
+			double totalSimilarity = 0.0d;
+			if (totalDistance == 0) {
+				totalDistance = 1;
+				totalSimilarity = k;
+			} else {
+				totalSimilarity = Math.max(k - 1, 1);
 			}
-			// setting prediction
-			example.setValue(predictedLabel, result);
 
-			// trigger progress
-			if (progress != null && ++progressCounter % OPERATOR_PROGRESS_STEPS == 0) {
-				progress.setCompleted(progressCounter);
+			// building weighted mean
+			for (Tupel<Double, Double> tupel : neighbourTupels) {
+				result += tupel.getSecond() * (1d - tupel.getFirst() / totalDistance) / totalSimilarity;
 			}
 		}
-
-		return exampleSet;
+		return result;
 	}
 
 	@Override
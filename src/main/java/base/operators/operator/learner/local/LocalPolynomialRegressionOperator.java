@@ -31,7 +31,7 @@ import base.operators.parameter.ParameterTypeInt;
 import base.operators.parameter.conditions.BooleanParameterCondition;
 import base.operators.tools.OperatorService;
 import base.operators.tools.math.container.GeometricDataCollection;
-import base.operators.tools.math.container.LinearList;
+import base.operators.tools.math.container.GeometricDataCollections;
 import base.operators.tools.math.similarity.DistanceMeasure;
 import base.operators.tools.math.similarity.DistanceMeasures;
 import base.operators.tools.math.smoothing.SmoothingKernels;
@@ -89,7 +89,8 @@ public class LocalPolynomialRegressionOperator extends AbstractLearner {
 	public Model learn(ExampleSet exampleSet) throws OperatorException {
 		DistanceMeasure measure = DistanceMeasures.createMeasure(this);
 		measure.init(exampleSet, this);
-		GeometricDataCollection<RegressionData> data = new LinearList<RegressionData>(measure);
+		GeometricDataCollection<RegressionData> data = GeometricDataCollections.create(measure,
+				exampleSet.getAttributes().size(), exampleSet.size());
 
 		// check if weights should be used
 		boolean useWeights = getParameterAsBoolean(PARAMETER_USE_EXAMPLE_WEIGHTS);
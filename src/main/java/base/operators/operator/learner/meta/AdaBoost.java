@@ -183,6 +183,7 @@ public class AdaBoost extends AbstractMetaLearner {
 
 		// maximum number of iterations
 		final int iterations = this.getParameterAsInt(PARAMETER_ITERATIONS);
+		getProgress().setTotal(iterations);
 		for (int i = 0; (i < iterations && this.performance > 0); i++) {
 			this.currentIteration = i;
 
@@ -218,6 +219,7 @@ public class AdaBoost extends AbstractMetaLearner {
 				weight = Math.log((1.0d - errorRate) / errorRate);
 			}
 			ensembleWeights.add(weight);
+			getProgress().step();
 		}
 
 		// Build a Model object. Last parameter is "crispPredictions", nowadays
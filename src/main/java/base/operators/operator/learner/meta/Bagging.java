@@ -18,21 +18,31 @@
 */
 package base.operators.operator.learner.meta;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.Callable;
 
 import base.operators.example.ExampleSet;
 import base.operators.example.set.SplittedExampleSet;
+import base.operators.example.utils.ExampleSets;
 import base.operators.parameter.ParameterType;
 import base.operators.parameter.ParameterTypeBoolean;
 import base.operators.parameter.ParameterTypeDouble;
 import base.operators.parameter.ParameterTypeInt;
+import base.operators.parameter.UndefinedParameterError;
+import base.operators.studio.concurrency.internal.ConcurrencyExecutionService;
+import base.operators.studio.concurrency.internal.ConcurrencyExecutionServiceProvider;
 import base.operators.tools.RandomGenerator;
 import base.operators.operator.Model;
+import base.operators.operator.Operator;
 import base.operators.operator.OperatorCapability;
 import base.operators.operator.OperatorDescription;
 import base.operators.operator.OperatorException;
+import base.operators.operator.OperatorProgress;
+import base.operators.operator.UserError;
 import base.operators.operator.ValueDouble;
+import base.operators.operator.tools.ConcurrencyTools;
 
 
 /**
@@ -54,6 +64,9 @@ public class Bagging extends AbstractMetaLearner {
 	/** Name of the flag indicating internal bootstrapping. */
 	public static final String PARAMETER_AVERAGE_CONFIDENCES = "average_confidences";
 
+	/** Name of the flag enabling the parallel learning of the base models. */
+	public static final String PARAMETER_ENABLE_PARALLEL_EXECUTION = "enable_parallel_execution";
+
 	// field for visualizing performance
 	protected int currentIteration;
 
@@ -70,23 +83,34 @@ public class Bagging extends AbstractMetaLearner {
 	}
 
 	/**
-	 * Constructs a {@link Model} by repeatedly running a base learner on subsamples.
+	 * Constructs a {@link Model} by repeatedly running a base learner on subsamples. Every
+	 * iteration samples with its own seed drawn in advance, so the base models do not depend on
+	 * whether they are learned sequentially or in parallel.
 	 */
 	@Override
 	public Model learn(ExampleSet exampleSet) throws OperatorException {
 		final double splitRatio = this.getParameterAsDouble(PARAMETER_SAMPLE_RATIO);
 		final int numInterations = this.getParameterAsInt(PARAMETER_ITERATIONS);
-		boolean useLocalRandomSeed = getParameterAsBoolean(RandomGenerator.PARAMETER_USE_LOCAL_RANDOM_SEED);
-		int localRandomSeed = getParameterAsInt(RandomGenerator.PARAMETER_LOCAL_RANDOM_SEED);
-
-		Vector<Model> modelList = new Vector<Model>();
-		for (this.currentIteration = 0; this.currentIteration < numInterations; this.currentIteration++) {
-			SplittedExampleSet splitted = new SplittedExampleSet(exampleSet, splitRatio,
-					SplittedExampleSet.SHUFFLED_SAMPLING, useLocalRandomSeed, localRandomSeed);
-			splitted.selectSingleSubset(0);
-			modelList.add(applyInnerLearner(splitted));
-			inApplyLoop();
+
+		RandomGenerator random = RandomGenerator.getRandomGenerator(this);
+		int[] seeds = new int[numInterations];
+		for (int i = 0; i < numInterations; i++) {
+			seeds[i] = random.nextInt(Integer.MAX_VALUE);
+		}
+
+		getProgress().setTotal(numInterations);
+		List<Model> modelList;
+		if (numInterations > 1 && checkParallelizability()) {
+			modelList = learnParallel(exampleSet, splitRatio, seeds);
+		} else {
+			modelList = new Vector<Model>();
+			for (this.currentIteration = 0; this.currentIteration < numInterations; this.currentIteration++) {
+				modelList.add(applyInnerLearner(createSample(exampleSet, splitRatio, seeds[currentIteration])));
+				inApplyLoop();
+				getProgress().step();
+			}
 		}
+		getProgress().complete();
 
 		boolean numerical = exampleSet.getAttributes().getLabel().isNumerical();
 		if (this.getParameterAsBoolean(PARAMETER_AVERAGE_CONFIDENCES) || numerical) {
@@ -100,6 +124,67 @@ public class Bagging extends AbstractMetaLearner {
 		}
 	}
 
+	/**
+	 * Learns the base models concurrently by copies of this operator. The copies share one
+	 * thread-safe copy of the training set and sample views of it, the models are returned in the
+	 * order of the iterations.
+	 */
+	private List<Model> learnParallel(ExampleSet exampleSet, final double splitRatio, int[] seeds)
+			throws OperatorException {
+		final ExampleSet threadSafeSet = ExampleSets.createThreadSafeCopy(exampleSet);
+		final OperatorProgress progress = getProgress();
+		ConcurrencyExecutionService service = ConcurrencyExecutionServiceProvider.INSTANCE.getService();
+		List<Model> modelList = new ArrayList<Model>(seeds.length);
+		for (int i = 0; i < seeds.length;) {
+			int batchSize = Math.min(seeds.length - i,
+					ConcurrencyExecutionService.getRecommendedConcurrencyBatchSize(this));
+			List<Callable<Model>> taskSet = new ArrayList<Callable<Model>>(batchSize);
+			for (int j = 1; j <= batchSize; i++, j++) {
+				final Bagging copy = ConcurrencyTools.clone(this);
+				final int seed = seeds[i];
+				taskSet.add(service.prepareOperatorTask(getProcess(), copy, i + 1, i + 1 == seeds.length,
+						new Callable<Model>() {
+
+							@Override
+							public Model call() throws OperatorException {
+								Model model = copy.applyInnerLearner(createSample(threadSafeSet, splitRatio, seed));
+								synchronized (progress) {
+									progress.step();
+								}
+								return model;
+							}
+						}));
+			}
+			modelList.addAll(service.executeOperatorTasks(this, taskSet));
+			this.currentIteration = i;
+		}
+		return modelList;
+	}
+
+	/** Returns a view of a random subset of the example set without copying the data. */
+	private static ExampleSet createSample(ExampleSet exampleSet, double splitRatio, int seed) throws UserError {
+		SplittedExampleSet splitted = new SplittedExampleSet(exampleSet, splitRatio, SplittedExampleSet.SHUFFLED_SAMPLING,
+				true, seed);
+		splitted.selectSingleSubset(0);
+		return splitted;
+	}
+
+	/**
+	 * Checks whether the parallel execution is enabled and the subprocess contains no breakpoints.
+	 */
+	private boolean checkParallelizability() throws UndefinedParameterError {
+		if (Runtime.getRuntime().availableProcessors() - 1 <= 1
+				|| !getParameterAsBoolean(PARAMETER_ENABLE_PARALLEL_EXECUTION)) {
+			return false;
+		}
+		for (Operator operator : getSubprocess(0).getAllInnerOperators()) {
+			if (operator.isEnabled() && operator.hasBreakpoint()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public List<ParameterType> getParameterTypes() {
 		List<ParameterType> types = super.getParameterTypes();
@@ -116,6 +201,9 @@ public class Bagging extends AbstractMetaLearner {
 				"Specifies whether to average available prediction confidences or not.", true));
 
 		types.addAll(RandomGenerator.getRandomGeneratorParameters(this));
+		types.add(new ParameterTypeBoolean(PARAMETER_ENABLE_PARALLEL_EXECUTION,
+				"This parameter enables the parallel execution of this operator. Please disable the parallel execution if you run into memory problems.",
+				false, true));
 
 		return types;
 	}
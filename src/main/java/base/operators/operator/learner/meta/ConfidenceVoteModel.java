@@ -105,13 +105,52 @@ public class ConfidenceVoteModel extends SimplePredictionModel implements MetaMo
 		return names;
 	}
 
+	/** Supported if all base models support parallel prediction. */
+	@Override
+	public boolean supportsParallelPrediction() {
+		for (SimplePredictionModel model : models) {
+			if (!model.supportsParallelPrediction()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public double predict(Example example) throws OperatorException {
-		Map<String, Double> classConfidenceSums = new HashMap<>();
+		List<String> classNames = getLabel().getMapping().getValues();
+		double[][] confidences = new double[models.size()][];
+		int i = 0;
 		for (SimplePredictionModel model : models) {
 			model.predict(example);
-			for (String className : getLabel().getMapping().getValues()) {
-				Double classConfidence = example.getConfidence(className);
+			double[] modelConfidences = new double[classNames.size()];
+			for (int j = 0; j < modelConfidences.length; j++) {
+				modelConfidences[j] = example.getConfidence(classNames.get(j));
+			}
+			confidences[i++] = modelConfidences;
+		}
+		return vote(example, confidences);
+	}
+
+	/**
+	 * Combines the confidences of the models and sets the averaged confidences for the example.
+	 *
+	 * @param example
+	 *            the predicted example
+	 * @param confidences
+	 *            the confidences of each model for the values of the label mapping in the order of
+	 *            {@link base.operators.example.table.NominalMapping#getValues()}
+	 * @return the index of the class with the highest average confidence
+	 * @throws OperatorException
+	 *             if a model did not compute a confidence value
+	 */
+	public double vote(Example example, double[][] confidences) throws OperatorException {
+		List<String> classNames = getLabel().getMapping().getValues();
+		Map<String, Double> classConfidenceSums = new HashMap<>();
+		for (double[] modelConfidences : confidences) {
+			for (int j = 0; j < modelConfidences.length; j++) {
+				String className = classNames.get(j);
+				Double classConfidence = modelConfidences[j];
 				if (Double.isNaN(classConfidence)) {
 					throw new OperatorException("Child model failed to compute confidence value.");
 				}
@@ -126,7 +165,7 @@ public class ConfidenceVoteModel extends SimplePredictionModel implements MetaMo
 
 		// normalize confidence sums
 		for (Entry<String, Double> entry : classConfidenceSums.entrySet()) {
-			entry.setValue(entry.getValue() / models.size());
+			entry.setValue(entry.getValue() / confidences.length);
 		}
 
 		List<String> bestClasses = new ArrayList<>(classConfidenceSums.size());
@@ -18,7 +18,6 @@
 */
 package base.operators.operator.learner.meta;
 
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -68,13 +67,41 @@ public class SimpleVoteModel extends SimplePredictionModel implements MetaModel
 		}
 	}
 
+	/** Supported if all base models support parallel prediction. */
+	@Override
+	public boolean supportsParallelPrediction() {
+		for (SimplePredictionModel model : baseModels) {
+			if (!model.supportsParallelPrediction()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public double predict(Example example) throws OperatorException {
+		double[] predictions = new double[baseModels.size()];
+		int i = 0;
+		for (SimplePredictionModel model : baseModels) {
+			predictions[i++] = model.predict(example);
+		}
+		return vote(example, predictions);
+	}
+
+	/**
+	 * Combines the predictions of the base models. For nominal labels the confidences of the
+	 * example are set to the fraction of votes for each class.
+	 *
+	 * @param example
+	 *            the predicted example
+	 * @param predictions
+	 *            the predictions of the base models in their order
+	 * @return the majority class or the average prediction
+	 */
+	public double vote(Example example, double[] predictions) {
 		if (labelIsNominal) {
 			Map<Double, AtomicInteger> classVotes = new TreeMap<>();
-			Iterator<? extends SimplePredictionModel> iterator = baseModels.iterator();
-			while (iterator.hasNext()) {
-				double prediction = iterator.next().predict(example);
+			for (double prediction : predictions) {
 				AtomicInteger counter = classVotes.get(prediction);
 				if (counter == null) {
 					classVotes.put(prediction, new AtomicInteger(1));
@@ -110,11 +137,10 @@ public class SimpleVoteModel extends SimplePredictionModel implements MetaModel
 			return bestClasses.get(bestClassIndex);
 		} else {
 			double sum = 0.0d;
-			Iterator<? extends SimplePredictionModel> iterator = baseModels.iterator();
-			while (iterator.hasNext()) {
-				sum += iterator.next().predict(example);
+			for (double prediction : predictions) {
+				sum += prediction;
 			}
-			return sum / baseModels.size();
+			return sum / predictions.length;
 		}
 	}
 
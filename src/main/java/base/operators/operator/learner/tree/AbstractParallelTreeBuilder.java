@@ -24,10 +24,12 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
+import base.operators.core.concurrency.ConcurrencyContext;
 import base.operators.example.Attribute;
 import base.operators.example.ExampleSet;
 import base.operators.operator.Operator;
 import base.operators.operator.OperatorException;
+import base.operators.studio.concurrency.internal.BackgroudOperatorConcurrencyContext;
 import base.operators.studio.internal.Resources;
 import base.operators.operator.learner.tree.criterions.ColumnCriterion;
 
@@ -40,10 +42,9 @@ import base.operators.operator.learner.tree.criterions.ColumnCriterion;
  *
  * This class should be extended to specify if and how the calculations should be parallelized. By
  * implementing the method {@link #startTree} using {@link #splitNode} one can decide if and in
- * which direction the process of splitting the nodes should be parallelized. By implementing the
- * abstract method {@link #doStartSelectionInParallel()} one can decide if and when the start
- * selection of the examples should be done in parallel. (Note that this only has an effect if there
- * are numerical attributes.)
+ * which direction the process of splitting the nodes should be parallelized. Whether the
+ * {@link ColumnExampleTable} is created and sorted in parallel is decided by the parallelAllowed
+ * flag of the constructor.
  *
  * @author Ingo Mierswa, Gisa Schaefer
  */
@@ -77,6 +78,9 @@ public abstract class AbstractParallelTreeBuilder {
 
 	final protected boolean parallelAllowed;
 
+	/** the context of the operator, {@code null} if there is no operator */
+	final protected ConcurrencyContext context;
+
 	/**
 	 * Initializes the fields.
 	 *
@@ -110,6 +114,23 @@ public abstract class AbstractParallelTreeBuilder {
 		this.pruner = pruner;
 		this.preprocessing = preprocessing;
 		this.parallelAllowed = parallelAllowed;
+		this.context = operator != null ? getConcurrencyContext(operator) : null;
+	}
+
+	/**
+	 * Returns the concurrency context for the operator. Operators that are executed without a
+	 * process use a context on the shared background pool.
+	 *
+	 * @param operator
+	 *            a non-null operator
+	 * @return the context
+	 */
+	static ConcurrencyContext getConcurrencyContext(Operator operator) {
+		if (operator.getProcess() != null) {
+			return Resources.getConcurrencyContext(operator);
+		} else {
+			return new BackgroudOperatorConcurrencyContext(operator);
+		}
 	}
 
 	/**
@@ -166,28 +187,16 @@ public abstract class AbstractParallelTreeBuilder {
 	}
 
 	/**
-	 * Creates for every numerical attribute a sorted start selection, possibly in parallel.
+	 * Creates for every numerical attribute a sorted start selection from the presorted columns of
+	 * the {@link ColumnExampleTable}.
 	 *
 	 * @return
 	 * @throws OperatorException
 	 */
 	protected Map<Integer, int[]> createExampleStartSelection() throws OperatorException {
-		Map<Integer, int[]> allSelectedExamples;
-		if (doStartSelectionInParallel() && operator != null) {
-			allSelectedExamples = selectionCreator.getStartSelectionParallel(operator);
-		} else {
-			allSelectedExamples = selectionCreator.getStartSelection();
-		}
-		return allSelectedExamples;
+		return selectionCreator.getStartSelection();
 	}
 
-	/**
-	 * Decides whether the start selection should be created in parallel.
-	 *
-	 * @return
-	 */
-	abstract boolean doStartSelectionInParallel();
-
 	/**
 	 * Starts the tree building process for the given parameters.
 	 *
@@ -212,9 +221,9 @@ public abstract class AbstractParallelTreeBuilder {
 	 */
 	protected Collection<NodeData> splitNode(NodeData nodeData, boolean attributeParallel) throws OperatorException {
 		// check if operator was stopped
-//		if (operator != null) {
-//			Resources.getConcurrencyContext(operator).checkStatus();
-//		}
+		if (context != null) {
+			context.checkStatus();
+		}
 
 		Map<Integer, int[]> allSelectedExamples = nodeData.getAllSelectedExamples();
 		int[] originalSelectedAttributes = nodeData.getSelectedAttributes();
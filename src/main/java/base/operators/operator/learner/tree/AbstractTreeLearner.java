@@ -108,13 +108,7 @@ public abstract class AbstractTreeLearner extends AbstractLearner {
 	@Override
 	public Model learn(ExampleSet eSet) throws OperatorException {
 		ExampleSet exampleSet = (ExampleSet) eSet.clone();
-
-		// check if the label attribute contains any missing values
-		Attribute labelAtt = exampleSet.getAttributes().getLabel();
-		exampleSet.recalculateAttributeStatistics(labelAtt);
-		if (exampleSet.getStatistics(labelAtt, Statistics.UNKNOWN) > 0) {
-			throw new UserError(this, 162, labelAtt.getName());
-		}
+		checkMissingLabels(exampleSet);
 
 		// create tree builder
 		TreeBuilder builder = getTreeBuilder(exampleSet);
@@ -126,6 +120,18 @@ public abstract class AbstractTreeLearner extends AbstractLearner {
 		return new TreeModel(exampleSet, root);
 	}
 
+	/**
+	 * Throws a {@link UserError} if the label attribute contains any missing values. Recalculates the
+	 * label statistics of the given example set.
+	 */
+	protected void checkMissingLabels(ExampleSet exampleSet) throws UserError {
+		Attribute labelAtt = exampleSet.getAttributes().getLabel();
+		exampleSet.recalculateAttributeStatistics(labelAtt);
+		if (exampleSet.getStatistics(labelAtt, Statistics.UNKNOWN) > 0) {
+			throw new UserError(this, 162, labelAtt.getName());
+		}
+	}
+
 	protected abstract TreeBuilder getTreeBuilder(ExampleSet exampleSet) throws OperatorException;
 
 	protected Criterion createCriterion(double minimalGain) throws OperatorException {
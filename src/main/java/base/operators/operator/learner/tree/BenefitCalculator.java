@@ -21,7 +21,6 @@ package base.operators.operator.learner.tree;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Vector;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 
@@ -29,7 +28,6 @@ import base.operators.operator.Operator;
 import base.operators.operator.OperatorException;
 import base.operators.operator.learner.tree.criterions.ColumnCriterion;
 import base.operators.operator.learner.tree.criterions.Criterion;
-import base.operators.studio.internal.Resources;
 import base.operators.core.concurrency.ConcurrencyContext;
 
 
@@ -78,7 +76,8 @@ public class BenefitCalculator {
 
 	/**
 	 * Calculates the benefits for all selected attributes on the given selected examples in
-	 * parallel.
+	 * parallel. The benefits are returned in the order of the attributes, as by
+	 * {@link #calculateAllBenefits(Map, int[])}, so that ties are resolved the same way.
 	 *
 	 * @param allSelectedExamples
 	 * @param selectedAttributes
@@ -87,9 +86,9 @@ public class BenefitCalculator {
 	 */
 	public List<ParallelBenefit> calculateAllBenefitsParallel(final Map<Integer, int[]> allSelectedExamples,
 			final int[] selectedAttributes) throws OperatorException {
-		ConcurrencyContext context = Resources.getConcurrencyContext(operator);
+		ConcurrencyContext context = AbstractParallelTreeBuilder.getConcurrencyContext(operator);
 
-		final Vector<ParallelBenefit> benefits = new Vector<>();
+		final ParallelBenefit[] attributeBenefits = new ParallelBenefit[selectedAttributes.length];
 		final int numberOfParallel = Math.min(context.getParallelism(), selectedAttributes.length);
 		List<Callable<Void>> tasks = new ArrayList<>(numberOfParallel);
 
@@ -101,11 +100,7 @@ public class BenefitCalculator {
 				public Void call() {
 					for (int j = counter; j < selectedAttributes.length; j += numberOfParallel) {
 
-						int attribute = selectedAttributes[j];
-						ParallelBenefit currentBenefit = calculateBenefit(allSelectedExamples, attribute);
-						if (currentBenefit != null) {
-							benefits.add(currentBenefit);
-						}
+						attributeBenefits[j] = calculateBenefit(allSelectedExamples, selectedAttributes[j]);
 
 					}
 					return null;
@@ -127,6 +122,13 @@ public class BenefitCalculator {
 			}
 
 		}
+
+		List<ParallelBenefit> benefits = new ArrayList<>(attributeBenefits.length);
+		for (ParallelBenefit benefit : attributeBenefits) {
+			if (benefit != null) {
+				benefits.add(benefit);
+			}
+		}
 		return benefits;
 	}
 
@@ -31,8 +31,6 @@ import base.operators.example.table.NominalMapping;
 import base.operators.operator.Operator;
 import base.operators.operator.OperatorException;
 import base.operators.operator.UserError;
-import base.operators.studio.concurrency.internal.BackgroudOperatorConcurrencyContext;
-import base.operators.studio.internal.Resources;
 import base.operators.core.concurrency.ConcurrencyContext;
 
 
@@ -53,6 +51,9 @@ import base.operators.core.concurrency.ConcurrencyContext;
  * from their {@link NominalMapping} or, if they are missing values, as the size of the mapping. The
  * label must not have missing values.
  *
+ * For every numerical attribute the example indices sorted by the attribute values are computed
+ * once when the table is created and shared by all users of the table.
+ *
  * @author Gisa Schaefer
  *
  */
@@ -67,6 +68,9 @@ public class ColumnExampleTable {
 	 */
 	private static final int THRESHOLD_PRODUCT_PARALLEL = 3_000_000;
 
+	/** the numerical columns are sorted in parallel if there are more examples than this number */
+	private static final int MINIMAL_EXAMPLES_FOR_SORTING_PARALLEL = 10000;
+
 	/** If a nominal attribute has more than this number of different values, it is ignored. */
 	private static final int MAXIMAL_NOMINAL_VALUES = 127;
 
@@ -109,15 +113,22 @@ public class ColumnExampleTable {
 	 */
 	private double[][] numericalColumnTable;
 
+	/**
+	 * sortedNumericalIndices[c] contains the indices of all rows ordered ascending by the values of
+	 * the numerical attribute number c, with ties in the order of the rows and missing values last
+	 */
+	private int[][] sortedNumericalIndices;
+
 	/**
 	 * The nominal column table is initialized with the values of the regular nominal attributes,
 	 * the numerical column table with the ones of the regular numeric attributes. The values of the
 	 * label attribute are stored in the label column and if a weight attribute exists, its values
 	 * are stored in the weight column. Nominal values are stored by their number in the
 	 * {@link NominalMapping} as byte if they are not missing, otherwise as the size of the mapping.
+	 * Afterwards the rows are sorted by each numerical attribute.
 	 *
 	 * @param parallelAllowed
-	 *            if the table creation can be done in parallel
+	 *            if the table creation and sorting can be done in parallel
 	 * @throws OperatorException
 	 *             if the label has missing values
 	 *
@@ -163,12 +174,22 @@ public class ColumnExampleTable {
 			weightColumn = new double[numberOfExamples];
 		}
 
-		if (betterParallel(parallelAllowed, operator)) {
-			populateParallel(exampleSet, operator);
+		ConcurrencyContext context = null;
+		if (parallelAllowed && operator != null) {
+			context = AbstractParallelTreeBuilder.getConcurrencyContext(operator);
+		}
+		if (betterParallel(context)) {
+			populateParallel(exampleSet, context);
 		} else {
 			populate(exampleSet, operator);
 		}
 
+		if (context != null && context.getParallelism() > 1 && numberOfRegularNumericalAttributes > 1
+				&& numberOfExamples > MINIMAL_EXAMPLES_FOR_SORTING_PARALLEL) {
+			sortNumericalColumnsParallel(context);
+		} else {
+			sortNumericalColumns(operator);
+		}
 	}
 
 	/**
@@ -176,13 +197,15 @@ public class ColumnExampleTable {
 	 *
 	 * @param exampleSet
 	 * @param operator
+	 * @throws OperatorException
+	 *             if the process was stopped
 	 */
-	private void populate(ExampleSet exampleSet, Operator operator) {
+	private void populate(ExampleSet exampleSet, Operator operator) throws OperatorException {
 		int row = 0;
 		for (Example example : exampleSet) {
-//			if (row % CHECK_FOR_STOP_INTERVAL == 0 && operator != null) {
-//				Resources.getConcurrencyContext(operator).checkStatus();
-//			}
+			if (row % CHECK_FOR_STOP_INTERVAL == 0 && operator != null) {
+				operator.checkForStop();
+			}
 			fillInRow(example, row);
 			row++;
 		}
@@ -193,17 +216,12 @@ public class ColumnExampleTable {
 	 * Creates the tables from the {@link ExampleSet} in parallel.
 	 *
 	 * @param exampleSet
-	 * @param operator
-	 *            a non-null operator
+	 * @param context
+	 *            the context of the operator
 	 * @throws OperatorException
 	 */
-	private void populateParallel(final ExampleSet exampleSet, Operator operator) throws OperatorException {
-//		final ConcurrencyContext context = Resources.getConcurrencyContext(operator);
-//		int numberOfThreads = context.getParallelism();
-		BackgroudOperatorConcurrencyContext context = new BackgroudOperatorConcurrencyContext(operator);
-		Resources.ContextUserData data = new Resources.ContextUserData(context);
-		operator.setUserData(Resources.CONTEXT_KEY, data);
-		int numberOfThreads = Runtime.getRuntime().availableProcessors() -1;
+	private void populateParallel(final ExampleSet exampleSet, final ConcurrencyContext context) throws OperatorException {
+		int numberOfThreads = context.getParallelism();
 		int blocksize = numberOfExamples / numberOfThreads;
 		int rest = numberOfExamples % numberOfThreads;
 
@@ -225,9 +243,9 @@ public class ColumnExampleTable {
 				public Void call() {
 					Example example;
 					for (int row = startRow; row < endRow; row++) {
-//						if ((row - startRow) % CHECK_FOR_STOP_INTERVAL == 0) {
-//							context.checkStatus();
-//						}
+						if ((row - startRow) % CHECK_FOR_STOP_INTERVAL == 0) {
+							context.checkStatus();
+						}
 						example = exampleSet.getExample(row);
 						fillInRow(example, row);
 					}
@@ -237,8 +255,57 @@ public class ColumnExampleTable {
 			});
 		}
 
+		call(context, todo);
+	}
+
+	/**
+	 * Sorts the rows by the values of each numerical attribute.
+	 *
+	 * @param operator
+	 *            the operator to check for stop, can be {@code null}
+	 * @throws OperatorException
+	 *             if the process was stopped
+	 */
+	private void sortNumericalColumns(Operator operator) throws OperatorException {
+		sortedNumericalIndices = new int[numberOfRegularNumericalAttributes][];
+		for (int column = 0; column < numberOfRegularNumericalAttributes; column++) {
+			if (operator != null) {
+				operator.checkForStop();
+			}
+			sortedNumericalIndices[column] = sortIndices(numericalColumnTable[column]);
+		}
+	}
+
+	/**
+	 * Sorts the rows by the values of each numerical attribute, one attribute per task.
+	 *
+	 * @param context
+	 *            the context of the operator
+	 * @throws OperatorException
+	 */
+	private void sortNumericalColumnsParallel(final ConcurrencyContext context) throws OperatorException {
+		List<Callable<int[]>> tasks = new ArrayList<>(numberOfRegularNumericalAttributes);
+		for (final double[] column : numericalColumnTable) {
+			tasks.add(new Callable<int[]>() {
+
+				@Override
+				public int[] call() {
+					context.checkStatus();
+					return sortIndices(column);
+				}
+
+			});
+		}
+		List<int[]> results = call(context, tasks);
+		sortedNumericalIndices = results.toArray(new int[numberOfRegularNumericalAttributes][]);
+	}
+
+	/**
+	 * Calls the tasks with the context and passes on the causes of execution exceptions.
+	 */
+	private static <T> List<T> call(ConcurrencyContext context, List<Callable<T>> tasks) throws OperatorException {
 		try {
-			context.call(todo);
+			return context.call(tasks);
 		} catch (ExecutionException e) {
 			Throwable cause = e.getCause();
 			if (cause instanceof RuntimeException) {
@@ -251,6 +318,55 @@ public class ColumnExampleTable {
 		}
 	}
 
+	/**
+	 * Returns the indices of the column sorted ascending by their values in the order of
+	 * {@link Double#compare(double, double)}. The sort is stable, so rows with equal values keep
+	 * their order. The values are mapped to longs with the same order, which are merge sorted
+	 * together with the indices without boxing.
+	 *
+	 * @param column
+	 *            the values to sort by
+	 * @return the sorted row indices
+	 */
+	static int[] sortIndices(double[] column) {
+		int length = column.length;
+		long[] keys = new long[length];
+		for (int i = 0; i < length; i++) {
+			long bits = Double.doubleToLongBits(column[i]);
+			// flip the value bits of negative numbers so that the signed comparison of the longs
+			// matches the comparison of the doubles
+			keys[i] = bits ^ (bits >> 63 & Long.MAX_VALUE);
+		}
+		int[] indices = new int[length];
+		for (int i = 0; i < length; i++) {
+			indices[i] = i;
+		}
+		int[] buffer = new int[length];
+		for (int width = 1; width < length; width <<= 1) {
+			for (int left = 0; left < length; left += width << 1) {
+				int middle = Math.min(left + width, length);
+				int right = Math.min(left + (width << 1), length);
+				int i = left;
+				int j = middle;
+				int k = left;
+				while (i < middle && j < right) {
+					// take from the left run on ties to keep the sort stable
+					buffer[k++] = keys[indices[j]] < keys[indices[i]] ? indices[j++] : indices[i++];
+				}
+				while (i < middle) {
+					buffer[k++] = indices[i++];
+				}
+				while (j < right) {
+					buffer[k++] = indices[j++];
+				}
+			}
+			int[] swap = indices;
+			indices = buffer;
+			buffer = swap;
+		}
+		return indices;
+	}
+
 	/**
 	 * Fills the example in specified row of all attribute columns.
 	 *
@@ -287,15 +403,13 @@ public class ColumnExampleTable {
 	/**
 	 * Calculates if it is better to fill the table in parallel.
 	 *
-	 * @param parallelAllowed
-	 * @param operator
+	 * @param context
+	 *            the context of the operator or {@code null} if parallel creation is not allowed
 	 * @return
 	 */
-	private boolean betterParallel(boolean parallelAllowed, Operator operator) {
-		return parallelAllowed
-				&& operator != null
-//				&& Resources.getConcurrencyContext(operator).getParallelism() > 1
-				&& Runtime.getRuntime().availableProcessors() -1 > 1
+	private boolean betterParallel(ConcurrencyContext context) {
+		return context != null
+				&& context.getParallelism() > 1
 				&& ((long) numberOfRegularNominalAttributes + numberOfRegularNumericalAttributes) * numberOfExamples > THRESHOLD_PRODUCT_PARALLEL;
 	}
 
@@ -360,6 +474,16 @@ public class ColumnExampleTable {
 		return numericalColumnTable[attributeNumber - numberOfRegularNominalAttributes];
 	}
 
+	/**
+	 * @param attributeNumber
+	 *            a number that represents a numerical attribute
+	 * @return the indices of all rows sorted ascending by the values of the represented numerical
+	 *         attribute with missing values last. The array is shared and must not be modified.
+	 */
+	public int[] getSortedNumericalIndices(int attributeNumber) {
+		return sortedNumericalIndices[attributeNumber - numberOfRegularNominalAttributes];
+	}
+
 	/**
 	 * @param attributeNumber
 	 * @return <code>true</code> if the attributeNumber represents a nominal attribute
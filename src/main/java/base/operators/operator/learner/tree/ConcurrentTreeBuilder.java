@@ -19,8 +19,10 @@
 package base.operators.operator.learner.tree;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -29,13 +31,13 @@ import java.util.concurrent.ExecutionException;
 import base.operators.operator.Operator;
 import base.operators.operator.OperatorException;
 import base.operators.operator.learner.tree.criterions.ColumnCriterion;
-import base.operators.studio.concurrency.internal.BackgroudOperatorConcurrencyContext;
-import base.operators.studio.internal.Resources;
 
 
 /**
- * Build a tree from an example set in parallel. The benefit calculation for the attributes is
- * parallelized until the nodes are too small. The remaining nodes are split in parallel.
+ * Build a tree from an example set in parallel. The tree is grown level by level. The nodes of a
+ * level are split in parallel and, as long as a level has less nodes than threads are available,
+ * the benefit calculation for the attributes of each node is parallelized as well. Nodes that are
+ * too small for this are collected and their subtrees are grown in parallel at the end.
  *
  * @author Gisa Schaefer
  */
@@ -43,8 +45,6 @@ public class ConcurrentTreeBuilder extends AbstractParallelTreeBuilder {
 
 	private static final int MINIMAL_EXAMPLES_FOR_GROWING_PARALLEL = 5000;
 
-	private static final int MINIMAL_EXAMPLES_FOR_SORTING_PARALLEL = 10000;
-
 	/**
 	 * Pipes the arguments to the super constructor and sets an additional parameter allowing
 	 * parallel table creation.
@@ -60,24 +60,43 @@ public class ConcurrentTreeBuilder extends AbstractParallelTreeBuilder {
 	@Override
 	void startTree(Tree root, Map<Integer, int[]> allSelectedExamples, int[] selectedAttributes, int depth)
 			throws OperatorException {
+		int parallelism = context != null ? context.getParallelism() : 1;
+
+		// grow the large nodes level by level
+		List<NodeData> level = Collections.singletonList(new NodeData(root, allSelectedExamples, selectedAttributes,
+				depth));
+		List<NodeData> tooSmallList = new ArrayList<>();
+		while (!level.isEmpty()) {
+			List<NodeData> largeNodes = new ArrayList<>(level.size());
+			for (NodeData node : level) {
+				if (nodeIsTooSmall(node)) {
+					tooSmallList.add(node);
+				} else {
+					largeNodes.add(node);
+				}
+			}
+
+			// parallelize by attributes as long as there are not enough nodes for all threads
+			final boolean attributeParallel = largeNodes.size() < parallelism;
+			List<Callable<Collection<NodeData>>> todo = new ArrayList<>(largeNodes.size());
+			for (final NodeData node : largeNodes) {
+				todo.add(new Callable<Collection<NodeData>>() {
 
-		// start the tree building attribute parallel
-		NodeData rootNode = new NodeData(root, allSelectedExamples, selectedAttributes, depth);
-		Deque<NodeData> queue = new ArrayDeque<>();
-		queue.push(rootNode);
-		List<NodeData> tooSmallList = new LinkedList<>();
-
-		while (!queue.isEmpty()) {
-			NodeData nextNode = queue.pop();
-			if (nodeIsTooSmall(nextNode)) {
-				tooSmallList.add(nextNode);
-			} else {
-				queue.addAll(splitNode(nextNode, true));
+					@Override
+					public Collection<NodeData> call() throws OperatorException {
+						return splitNode(node, attributeParallel);
+					}
+
+				});
+			}
+			level = new ArrayList<>();
+			for (Collection<NodeData> children : call(todo)) {
+				level.addAll(children);
 			}
 		}
 
 		// only small nodes are left, split them in parallel
-		List<Callable<Void>> todo = new LinkedList<>();
+		List<Callable<Void>> todo = new ArrayList<>(tooSmallList.size());
 		for (final NodeData node : tooSmallList) {
 			Callable<Void> task = new Callable<Void>() {
 
@@ -94,12 +113,19 @@ public class ConcurrentTreeBuilder extends AbstractParallelTreeBuilder {
 			};
 			todo.add(task);
 		}
-		if (operator != null && Runtime.getRuntime().availableProcessors() -1 >1) {
+		call(todo);
+	}
+
+	/**
+	 * Calls the tasks in parallel if there is more than one task and more than one thread,
+	 * otherwise sequentially.
+	 *
+	 * @return the results in the order of the tasks
+	 */
+	private <T> List<T> call(List<Callable<T>> tasks) throws OperatorException {
+		if (tasks.size() > 1 && context != null && context.getParallelism() > 1) {
 			try {
-//				Resources.getConcurrencyContext(operator).call(todo);
-				BackgroudOperatorConcurrencyContext context = new BackgroudOperatorConcurrencyContext(operator);
-				Resources.ContextUserData data = new Resources.ContextUserData(context);
-				context.call(todo);
+				return context.call(tasks);
 			} catch (ExecutionException e) {
 				Throwable cause = e.getCause();
 				if (cause instanceof OperatorException) {
@@ -113,20 +139,18 @@ public class ConcurrentTreeBuilder extends AbstractParallelTreeBuilder {
 				}
 			}
 		} else {
-			for (Callable<Void> task : todo) {
+			List<T> results = new ArrayList<>(tasks.size());
+			for (Callable<T> task : tasks) {
 				try {
-					task.call();
+					results.add(task.call());
+				} catch (OperatorException | RuntimeException e) {
+					throw e;
 				} catch (Exception e) {
-					if (e instanceof OperatorException) {
-						throw (OperatorException) e;
-					} else if (e instanceof RuntimeException) {
-						throw (RuntimeException) e;
-					}
-					// nothing else possible
+					throw new OperatorException(e.getMessage(), e);
 				}
 			}
+			return results;
 		}
-
 	}
 
 	/**
@@ -140,10 +164,4 @@ public class ConcurrentTreeBuilder extends AbstractParallelTreeBuilder {
 				|| SelectionCreator.getArbitraryValue(nodeData.getAllSelectedExamples()).length < MINIMAL_EXAMPLES_FOR_GROWING_PARALLEL;
 	}
 
-	@Override
-	boolean doStartSelectionInParallel() {
-		return columnTable.getNumberOfExamples() > MINIMAL_EXAMPLES_FOR_SORTING_PARALLEL
-				&& columnTable.getNumberOfRegularNumericalAttributes() > 1;
-	}
-
 }
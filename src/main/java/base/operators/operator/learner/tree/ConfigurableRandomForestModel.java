@@ -20,6 +20,7 @@ package base.operators.operator.learner.tree;
 
 import java.util.List;
 
+import base.operators.example.Attribute;
 import base.operators.example.Example;
 import base.operators.example.ExampleSet;
 import base.operators.example.set.ExampleSetUtilities;
@@ -60,6 +61,9 @@ public class ConfigurableRandomForestModel extends SimplePredictionModel impleme
 	/** The wrapped voting meta model. */
 	private final SimplePredictionModel model;
 
+	/** The flattened trees, created on first use. */
+	private transient FlatForest flatForest;
+
 	public ConfigurableRandomForestModel(ExampleSet exampleSet, List<? extends TreePredictionModel> models,
                                          VotingStrategy strategy) {
 		super(exampleSet, ExampleSetUtilities.SetsCompareOption.EQUAL,
@@ -88,6 +92,23 @@ public class ConfigurableRandomForestModel extends SimplePredictionModel impleme
 		return "Random Forest Model";
 	}
 
+	@Override
+	public boolean supportsParallelPrediction() {
+		return model.supportsParallelPrediction();
+	}
+
+	@Override
+	public ExampleSet performPrediction(ExampleSet exampleSet, Attribute predictedLabel) throws OperatorException {
+		if (flatForest == null) {
+			flatForest = FlatForest.compile(getModels());
+		}
+		FlatForest forest = flatForest;
+		if (forest != null && forest.predict(this, model, exampleSet, predictedLabel)) {
+			return exampleSet;
+		}
+		return super.performPrediction(exampleSet, predictedLabel);
+	}
+
 	@Override
 	public double predict(Example example) throws OperatorException {
 		return model.predict(example);
@@ -0,0 +1,466 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ *
+ * Complete list of developers available at our web site:
+ *
+ * http://rapidminer.com
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+ */
+package base.operators.operator.learner.tree;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import base.operators.example.Attribute;
+import base.operators.example.Attributes;
+import base.operators.example.Example;
+import base.operators.example.ExampleSet;
+import base.operators.example.table.NominalMapping;
+import base.operators.example.table.internal.ColumnarExampleTable;
+import base.operators.operator.Model;
+import base.operators.operator.OperatorException;
+import base.operators.operator.learner.ParallelPredictionRunner;
+import base.operators.operator.learner.PredictionModel;
+import base.operators.operator.learner.SimplePredictionModel;
+import base.operators.operator.learner.meta.ConfidenceVoteModel;
+import base.operators.operator.learner.meta.SimpleVoteModel;
+import base.operators.tools.Tools;
+
+
+/**
+ * Flattened form of the trees of {@link TreeModel}s or {@link RegressionTreeModel}s used for the
+ * prediction. Instead of walking the {@link Tree} objects, the nodes and edges of all trees are
+ * stored in parallel arrays: the edges of node {@code n} are the indices {@code edgeStart[n]} to
+ * {@code edgeStart[n + 1] - 1}, each with its condition type, attribute, value and child node.
+ * The prediction and confidences for examples ending in a node are computed once when the trees
+ * are flattened.
+ * <p>
+ * Before the prediction the flat form is bound to an example set, which resolves the attributes
+ * and turns the categories of {@link ContainsSplitCondition}s and
+ * {@link NotContainsSplitCondition}s into bit sets over the nominal mappings. The attribute
+ * values of an example are then read once for all trees. The edges are tested in the same order
+ * and with the same comparisons as the {@link SplitCondition}s, so the predictions are identical
+ * to the ones of the tree models.
+ * <p>
+ * The flat form is not serialized. Models build it on first use, so existing models are
+ * supported as well.
+ */
+final class FlatForest {
+
+	private static final byte LESS_EQUALS = 0;
+	private static final byte GREATER = 1;
+	private static final byte EQUALS = 2;
+	private static final byte MISSING = 3;
+	private static final byte CONTAINS = 4;
+	private static final byte NOT_CONTAINS = 5;
+
+	/** the names of the attributes tested by the edges */
+	private final String[] attributeNames;
+
+	/** the root node of each tree */
+	private final int[] roots;
+
+	/** the first edge of each node, has one additional entry for the end of the last node */
+	private final int[] edgeStart;
+
+	private final byte[] edgeType;
+	private final int[] edgeAttribute;
+	private final double[] edgeValue;
+	private final int[] edgeChild;
+
+	/** the categories of contains and not contains edges, {@code null} for other edges */
+	private final Set<?>[] edgeCategories;
+
+	/** the prediction for examples ending in each node */
+	private final double[] prediction;
+
+	/** the confidences for examples ending in each node, {@code null} for regression trees */
+	private final double[][] confidences;
+
+	/** the label values of the classification trees, {@code null} for regression trees */
+	private final List<String> classNames;
+
+	private FlatForest(List<? extends Model> models, int numberOfNodes, int numberOfEdges, boolean regression) {
+		roots = new int[models.size()];
+		edgeStart = new int[numberOfNodes + 1];
+		edgeType = new byte[numberOfEdges];
+		edgeAttribute = new int[numberOfEdges];
+		edgeValue = new double[numberOfEdges];
+		edgeChild = new int[numberOfEdges];
+		edgeCategories = new Set<?>[numberOfEdges];
+		prediction = new double[numberOfNodes];
+		confidences = regression ? null : new double[numberOfNodes][];
+		classNames = regression ? null : ((PredictionModel) models.get(0)).getLabel().getMapping().getValues();
+
+		Map<String, Integer> attributeIndices = new LinkedHashMap<>();
+		// next free node and edge index
+		int[] counters = new int[2];
+		for (int i = 0; i < roots.length; i++) {
+			TreePredictionModel model = (TreePredictionModel) models.get(i);
+			roots[i] = add(model, model.getRoot(), counters, attributeIndices);
+		}
+		edgeStart[numberOfNodes] = numberOfEdges;
+		attributeNames = attributeIndices.keySet().toArray(new String[attributeIndices.size()]);
+	}
+
+	/**
+	 * Flattens the trees of the given models.
+	 *
+	 * @param models
+	 *            the tree models
+	 * @return the flat form or {@code null} if a model is no {@link TreeModel} or
+	 *         {@link RegressionTreeModel}, the models mix classification and regression, the label
+	 *         values of classification trees differ or a split condition is not supported
+	 */
+	static FlatForest compile(List<? extends Model> models) {
+		if (models.isEmpty()) {
+			return null;
+		}
+		boolean regression = models.get(0).getClass() == RegressionTreeModel.class;
+		List<String> classNames = regression ? null
+				: ((PredictionModel) models.get(0)).getLabel().getMapping().getValues();
+		// number of nodes and edges
+		int[] counters = new int[2];
+		for (Model model : models) {
+			if (regression) {
+				if (model.getClass() != RegressionTreeModel.class) {
+					return null;
+				}
+			} else if (model.getClass() != TreeModel.class
+					|| !((TreeModel) model).getLabel().getMapping().getValues().equals(classNames)) {
+				return null;
+			}
+			if (!count(((TreePredictionModel) model).getRoot(), counters)) {
+				return null;
+			}
+		}
+		return new FlatForest(models, counters[0], counters[1], regression);
+	}
+
+	/**
+	 * Counts the nodes and edges of the tree and checks that all split conditions are supported.
+	 */
+	private static boolean count(Tree node, int[] counters) {
+		counters[0]++;
+		Iterator<Edge> childIterator = node.childIterator();
+		while (childIterator.hasNext()) {
+			Edge edge = childIterator.next();
+			counters[1]++;
+			if (getType(edge.getCondition()) < 0 || !count(edge.getChild(), counters)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static byte getType(SplitCondition condition) {
+		Class<?> type = condition.getClass();
+		if (type == LessEqualsSplitCondition.class) {
+			return LESS_EQUALS;
+		} else if (type == GreaterSplitCondition.class) {
+			return GREATER;
+		} else if (type == NominalSplitCondition.class) {
+			return EQUALS;
+		} else if (type == NumericalMissingSplitCondition.class) {
+			return MISSING;
+		} else if (type == ContainsSplitCondition.class) {
+			return CONTAINS;
+		} else if (type == NotContainsSplitCondition.class) {
+			return NOT_CONTAINS;
+		} else {
+			return -1;
+		}
+	}
+
+	/**
+	 * Adds the node and its subtree in depth-first order. The edges of a node are reserved before
+	 * its children are added, so the edges of each node are consecutive.
+	 *
+	 * @return the index of the node
+	 */
+	private int add(TreePredictionModel model, Tree node, int[] counters, Map<String, Integer> attributeIndices) {
+		int index = counters[0]++;
+		int edge = counters[1];
+		edgeStart[index] = edge;
+		counters[1] += node.getNumberOfChildren();
+
+		if (model instanceof TreeModel) {
+			prediction[index] = ((TreeModel) model).getPrediction(node);
+			confidences[index] = ((TreeModel) model).getConfidences(node);
+		} else {
+			prediction[index] = RegressionTreeModel.getChildAverage((RegressionTree) node);
+		}
+
+		Iterator<Edge> childIterator = node.childIterator();
+		while (childIterator.hasNext()) {
+			Edge child = childIterator.next();
+			SplitCondition condition = child.getCondition();
+			Integer attribute = attributeIndices.get(condition.getAttributeName());
+			if (attribute == null) {
+				attribute = attributeIndices.size();
+				attributeIndices.put(condition.getAttributeName(), attribute);
+			}
+			edgeAttribute[edge] = attribute;
+			edgeType[edge] = getType(condition);
+			switch (edgeType[edge]) {
+				case LESS_EQUALS:
+					edgeValue[edge] = ((LessEqualsSplitCondition) condition).getValue();
+					break;
+				case GREATER:
+					edgeValue[edge] = ((GreaterSplitCondition) condition).getValue();
+					break;
+				case EQUALS:
+					edgeValue[edge] = ((NominalSplitCondition) condition).getValue();
+					break;
+				case CONTAINS:
+					edgeCategories[edge] = ((ContainsSplitCondition) condition).getCategories();
+					break;
+				case NOT_CONTAINS:
+					edgeCategories[edge] = ((NotContainsSplitCondition) condition).getCategories();
+					break;
+				default:
+					break;
+			}
+			edgeChild[edge] = add(model, child.getChild(), counters, attributeIndices);
+			edge++;
+		}
+		return index;
+	}
+
+	/**
+	 * @return the number of flattened trees
+	 */
+	int getNumberOfTrees() {
+		return roots.length;
+	}
+
+	/**
+	 * @return the prediction for examples ending in the node
+	 */
+	double getPrediction(int node) {
+		return prediction[node];
+	}
+
+	/**
+	 * @return the confidences for examples ending in the node for each index of the label mapping,
+	 *         {@code null} for regression trees. The array must not be modified.
+	 */
+	double[] getConfidences(int node) {
+		return confidences == null ? null : confidences[node];
+	}
+
+	/**
+	 * Binds the flat form to the attributes of the example set.
+	 *
+	 * @return the bound form or {@code null} if a tested attribute is missing or contains and not
+	 *         contains conditions are used for attributes which are not nominal
+	 */
+	Binding bind(ExampleSet exampleSet) {
+		Attribute[] attributes = new Attribute[attributeNames.length];
+		for (int i = 0; i < attributes.length; i++) {
+			attributes[i] = exampleSet.getAttributes().get(attributeNames[i]);
+			if (attributes[i] == null) {
+				return null;
+			}
+		}
+		long[][] categorySets = new long[edgeType.length][];
+		int[] mappingSizes = new int[edgeType.length];
+		for (int edge = 0; edge < edgeType.length; edge++) {
+			if (edgeCategories[edge] != null) {
+				Attribute attribute = attributes[edgeAttribute[edge]];
+				if (!attribute.isNominal()) {
+					return null;
+				}
+				categorySets[edge] = createCategorySet(attribute.getMapping(), edgeCategories[edge]);
+				mappingSizes[edge] = attribute.getMapping().size();
+			}
+		}
+		return new Binding(attributes, categorySets, mappingSizes);
+	}
+
+	/**
+	 * Creates a bit set containing the indices of the mapping whose values are in the categories.
+	 * The bit after the last index of the mapping stands for the missing value "?", which is also
+	 * used by {@link Example#getValueAsString(Attribute)} for indices outside of the mapping.
+	 */
+	private static long[] createCategorySet(NominalMapping mapping, Set<?> categories) {
+		int size = mapping.size();
+		long[] set = new long[(size >> 6) + 1];
+		for (int i = 0; i < size; i++) {
+			if (categories.contains(mapping.mapIndex(i))) {
+				set[i >> 6] |= 1L << i;
+			}
+		}
+		if (categories.contains(Attribute.MISSING_NOMINAL_VALUE)) {
+			set[size >> 6] |= 1L << size;
+		}
+		return set;
+	}
+
+	/**
+	 * Predicts the example set with the given vote model over the flattened trees.
+	 *
+	 * @param model
+	 *            the applied model, used for the progress and the parallel execution
+	 * @param voteModel
+	 *            a {@link SimpleVoteModel} or {@link ConfidenceVoteModel} over the flattened trees
+	 * @param exampleSet
+	 *            the example set to predict
+	 * @param predictedLabel
+	 *            the predicted label attribute
+	 * @return {@code false} if the example set cannot be predicted with the flat form
+	 */
+	boolean predict(PredictionModel model, SimplePredictionModel voteModel, ExampleSet exampleSet,
+			Attribute predictedLabel) throws OperatorException {
+		Binding binding = bind(exampleSet);
+		if (binding == null) {
+			return false;
+		}
+		if (voteModel instanceof ConfidenceVoteModel) {
+			// the vote model reads the confidences set by the trees back from the example, which
+			// only returns the computed values if the table stores them with double precision
+			if (classNames == null || !classNames.equals(voteModel.getLabel().getMapping().getValues())
+					|| !(exampleSet.getExampleTable() instanceof ColumnarExampleTable)) {
+				return false;
+			}
+			ConfidenceVoteModel confidenceVoteModel = (ConfidenceVoteModel) voteModel;
+			ParallelPredictionRunner.run(model, exampleSet, predictedLabel, (example, row) -> {
+				double[] values = binding.read(example);
+				double[][] treeConfidences = new double[roots.length][];
+				for (int i = 0; i < roots.length; i++) {
+					treeConfidences[i] = confidences[binding.evaluate(i, values)];
+				}
+				example.setValue(predictedLabel, confidenceVoteModel.vote(example, treeConfidences));
+			});
+			return true;
+		} else if (voteModel instanceof SimpleVoteModel) {
+			SimpleVoteModel simpleVoteModel = (SimpleVoteModel) voteModel;
+			ParallelPredictionRunner.run(model, exampleSet, predictedLabel, (example, row) -> {
+				double[] values = binding.read(example);
+				double[] predictions = new double[roots.length];
+				for (int i = 0; i < roots.length; i++) {
+					predictions[i] = prediction[binding.evaluate(i, values)];
+				}
+				example.setValue(predictedLabel, simpleVoteModel.vote(example, predictions));
+			});
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the confidence attributes of the example set for the label values of the
+	 * classification trees.
+	 *
+	 * @return the attributes or {@code null} if one of them is missing
+	 */
+	Attribute[] getConfidenceAttributes(ExampleSet exampleSet) {
+		Attribute[] attributes = new Attribute[classNames.size()];
+		for (int i = 0; i < attributes.length; i++) {
+			attributes[i] = exampleSet.getAttributes().getSpecial(Attributes.CONFIDENCE_NAME + "_" + classNames.get(i));
+			if (attributes[i] == null) {
+				return null;
+			}
+		}
+		return attributes;
+	}
+
+	/**
+	 * The flat form bound to the attributes of an example set. Can be used by several threads at
+	 * the same time.
+	 */
+	final class Binding {
+
+		private final Attribute[] attributes;
+
+		/** the bit sets of contains and not contains edges, {@code null} for other edges */
+		private final long[][] categorySets;
+
+		/** the size of the nominal mapping for contains and not contains edges */
+		private final int[] mappingSizes;
+
+		private Binding(Attribute[] attributes, long[][] categorySets, int[] mappingSizes) {
+			this.attributes = attributes;
+			this.categorySets = categorySets;
+			this.mappingSizes = mappingSizes;
+		}
+
+		/**
+		 * Reads the values of all tested attributes of the example.
+		 */
+		double[] read(Example example) {
+			double[] values = new double[attributes.length];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = example.getValue(attributes[i]);
+			}
+			return values;
+		}
+
+		/**
+		 * Passes the values down the tree until a leaf or an inner node without matching edge is
+		 * reached.
+		 *
+		 * @param tree
+		 *            the index of the tree
+		 * @param values
+		 *            the values as returned by {@link #read(Example)}
+		 * @return the index of the reached node
+		 */
+		int evaluate(int tree, double[] values) {
+			int node = roots[tree];
+			while (true) {
+				int next = -1;
+				for (int edge = edgeStart[node], end = edgeStart[node + 1]; edge < end; edge++) {
+					if (test(edge, values[edgeAttribute[edge]])) {
+						next = edgeChild[edge];
+						break;
+					}
+				}
+				if (next < 0) {
+					return node;
+				}
+				node = next;
+			}
+		}
+
+		private boolean test(int edge, double value) {
+			switch (edgeType[edge]) {
+				case LESS_EQUALS:
+					return value <= edgeValue[edge];
+				case GREATER:
+					return value > edgeValue[edge];
+				case EQUALS:
+					return Tools.isEqual(value, edgeValue[edge]);
+				case MISSING:
+					return Double.isNaN(value);
+				case CONTAINS:
+					return contains(edge, value);
+				default:
+					return !contains(edge, value);
+			}
+		}
+
+		private boolean contains(int edge, double value) {
+			int size = mappingSizes[edge];
+			int index = Double.isNaN(value) ? size : (int) value;
+			if (index < 0 || index >= size) {
+				index = size;
+			}
+			return (categorySets[edge][index >> 6] & 1L << index) != 0;
+		}
+	}
+}
@@ -58,6 +58,13 @@ public class NominalSplitCondition extends AbstractSplitCondition {
 		return "=";
 	}
 
+	/**
+	 * @return the index of the value in the mapping of the attribute or NaN for missing values
+	 */
+	public double getValue() {
+		return value;
+	}
+
 	@Override
 	public String getValueString() {
 		return this.valueString;
@@ -18,8 +18,6 @@
  */
 package base.operators.operator.learner.tree;
 
-import java.util.Arrays;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,7 +26,6 @@ import java.util.Random;
 import base.operators.example.ExampleSet;
 import base.operators.operator.Operator;
 import base.operators.operator.OperatorException;
-import org.apache.commons.lang.ArrayUtils;
 
 import base.operators.operator.learner.tree.criterions.ColumnCriterion;
 
@@ -119,13 +116,21 @@ public class NonParallelBootstrappingTreeBuilder extends NonParallelTreeBuilder
 		if (columnTable.getNumberOfRegularNumericalAttributes() == 0) {
 			selection.put(0, createFullRandomArray(columnTable.getNumberOfExamples()));
 		} else {
-			Integer[] bigSelectionArray = createFullBigRandomArray(columnTable.getNumberOfExamples());
+			// count how often each row is drawn and repeat the rows accordingly in the presorted order
+			int[] rowCounts = new int[columnTable.getNumberOfExamples()];
+			for (int row : createFullRandomArray(columnTable.getNumberOfExamples())) {
+				rowCounts[row]++;
+			}
 			for (int j = columnTable.getNumberOfRegularNominalAttributes(); j < columnTable
 					.getTotalNumberOfRegularAttributes(); j++) {
-				final double[] attributeColumn = columnTable.getNumericalAttributeColumn(j);
-				Integer[] startSelection = Arrays.copyOf(bigSelectionArray, bigSelectionArray.length);
-				Arrays.sort(startSelection, Comparator.comparingDouble(a -> attributeColumn[a]));
-				selection.put(j, ArrayUtils.toPrimitive(startSelection));
+				int[] startSelection = new int[rowCounts.length];
+				int position = 0;
+				for (int row : columnTable.getSortedNumericalIndices(j)) {
+					for (int count = rowCounts[row]; count > 0; count--) {
+						startSelection[position++] = row;
+					}
+				}
+				selection.put(j, startSelection);
 			}
 		}
 		return selection;
@@ -143,16 +148,4 @@ public class NonParallelBootstrappingTreeBuilder extends NonParallelTreeBuilder
 		return fullSelection;
 	}
 
-	/**
-	 * Create an Integer array containing random numbers from [0..length-1]
-	 */
-	private Integer[] createFullBigRandomArray(int length) {
-		Random random = new Random(startSelectionSeed);
-		Integer[] fullSelection = new Integer[length];
-		for (int i = 0; i < length; i++) {
-			fullSelection[i] = random.nextInt(length);
-		}
-		return fullSelection;
-	}
-
 }
@@ -58,9 +58,4 @@ public class NonParallelTreeBuilder extends AbstractParallelTreeBuilder {
 
 	}
 
-	@Override
-	boolean doStartSelectionInParallel() {
-		return false;
-	}
-
 }
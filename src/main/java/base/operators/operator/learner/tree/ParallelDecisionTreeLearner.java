@@ -6,7 +6,6 @@ import base.operators.operator.OperatorCapability;
 import base.operators.operator.OperatorDescription;
 import base.operators.operator.OperatorException;
 import base.operators.parameter.ParameterType;
-import base.operators.studio.internal.Resources;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -52,8 +51,7 @@ public class ParallelDecisionTreeLearner extends AbstractParallelTreeLearner {
 
     @Override
     protected AbstractParallelTreeBuilder getTreeBuilder(ExampleSet exampleSet) throws OperatorException {
-//        if (Resources.getConcurrencyContext(this).getParallelism() > 1) {
-        if (Runtime.getRuntime().availableProcessors() -1 >1) {
+        if (AbstractParallelTreeBuilder.getConcurrencyContext(this).getParallelism() > 1) {
             return new ConcurrentTreeBuilder(this, createCriterion(), getTerminationCriteria(exampleSet), getPruner(),
                     getSplitPreprocessing(0), getParameterAsBoolean("apply_prepruning"),
                     getParameterAsInt("number_of_prepruning_alternatives"),
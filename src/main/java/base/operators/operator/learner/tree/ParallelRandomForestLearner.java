@@ -1,6 +1,7 @@
 package base.operators.operator.learner.tree;
 
 
+import base.operators.core.concurrency.ConcurrencyContext;
 import base.operators.example.Attribute;
 import base.operators.example.ExampleSet;
 import base.operators.operator.*;
@@ -9,9 +10,7 @@ import base.operators.parameter.*;
 import base.operators.parameter.conditions.AboveOperatorVersionCondition;
 import base.operators.parameter.conditions.BooleanParameterCondition;
 import base.operators.parameter.conditions.NonEqualStringCondition;
-import base.operators.studio.concurrency.internal.BackgroudOperatorConcurrencyContext;
 import base.operators.studio.concurrency.internal.StudioConcurrencyContext;
-import base.operators.studio.internal.Resources;
 import base.operators.tools.RandomGenerator;
 
 import java.util.ArrayList;
@@ -70,13 +69,12 @@ public class ParallelRandomForestLearner extends ParallelDecisionTreeLearner {
             tasks.add(new TreeCallable(weightlessSet, parentTable, random.nextInt()));
         }
 
-        if (Runtime.getRuntime().availableProcessors() -1 >1 && tasks.size() > 1 && executeInParallel) {
+        ConcurrencyContext context = executeInParallel && tasks.size() > 1
+                ? AbstractParallelTreeBuilder.getConcurrencyContext(this) : null;
+        if (context != null && context.getParallelism() > 1) {
 
             List<TreePredictionModel> results = null;
             try {
-                BackgroudOperatorConcurrencyContext context = new BackgroudOperatorConcurrencyContext(this);
-                Resources.ContextUserData data = new Resources.ContextUserData(context);
-                this.setUserData(Resources.CONTEXT_KEY, data);
                 results = context.call(tasks);
             } catch (ExecutionException e) {
                 Throwable cause = e.getCause();
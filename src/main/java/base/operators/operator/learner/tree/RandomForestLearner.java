@@ -18,21 +18,27 @@
 */
 package base.operators.operator.learner.tree;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
+import base.operators.core.concurrency.ConcurrencyContext;
 import base.operators.example.ExampleSet;
+import base.operators.example.Tools;
+import base.operators.example.set.MappedExampleSet;
+import base.operators.example.utils.ExampleSets;
 import base.operators.operator.learner.PredictionModel;
-import base.operators.operator.preprocessing.sampling.BootstrappingOperator;
 import base.operators.parameter.ParameterType;
 import base.operators.parameter.ParameterTypeInt;
-import base.operators.tools.OperatorService;
+import base.operators.studio.internal.Resources;
 import base.operators.tools.RandomGenerator;
 import base.operators.operator.Model;
 import base.operators.operator.OperatorCapability;
-import base.operators.operator.OperatorCreationException;
 import base.operators.operator.OperatorDescription;
 import base.operators.operator.OperatorException;
+import base.operators.operator.OperatorProgress;
 
 
 /**
@@ -58,39 +64,104 @@ public class RandomForestLearner extends RandomTreeLearner {
 		return ConfigurableRandomForestModel.class;
 	}
 
+	/**
+	 * Learns the trees on bootstrap samples of the example set. Every tree draws its sample and its
+	 * attribute subsets from its own random generator seeded in advance, so the forest does not
+	 * depend on the number of threads learning it.
+	 */
 	@Override
 	public Model learn(ExampleSet exampleSet) throws OperatorException {
-		ClassLoader loader = Thread.currentThread().getContextClassLoader();
-		BootstrappingOperator bootstrapping = null;
-		try {
-			OperatorDescription boostrapppingDes = new OperatorDescription("blending.examples.sampling", "sample_bootstrapping", BootstrappingOperator.class, loader, "table_selection_column_edit.png", null, null);
-			bootstrapping = (BootstrappingOperator) boostrapppingDes.createOperatorInstance();
-//			bootstrapping = OperatorService.createOperator(BootstrappingOperator.class);
-			bootstrapping.setParameter(BootstrappingOperator.PARAMETER_USE_WEIGHTS, "false");
-			bootstrapping.setParameter(BootstrappingOperator.PARAMETER_SAMPLE_RATIO, "1.0");
-			if (getParameterAsBoolean(RandomGenerator.PARAMETER_USE_LOCAL_RANDOM_SEED)) {
-				bootstrapping.setParameter(RandomGenerator.PARAMETER_USE_LOCAL_RANDOM_SEED, Boolean.toString(true));
-				bootstrapping.setParameter(RandomGenerator.PARAMETER_LOCAL_RANDOM_SEED,
-						getParameter(RandomGenerator.PARAMETER_LOCAL_RANDOM_SEED));
-			}
-		} catch (OperatorCreationException e) {
-			throw new OperatorException(getName() + ": cannot construct random tree learner: " + e.getMessage());
-		}
+		// cannot bootstrap without any examples
+		Tools.isNonEmpty(exampleSet);
+		checkMissingLabels((ExampleSet) exampleSet.clone());
 
-		// learn base models
-		List<TreeModel> baseModels = new LinkedList<TreeModel>();
 		int numberOfTrees = getParameterAsInt(PARAMETER_NUMBER_OF_TREES);
-
+		RandomGenerator random = RandomGenerator.getRandomGenerator(this);
+		int[] seeds = new int[numberOfTrees];
 		for (int i = 0; i < numberOfTrees; i++) {
-			TreeModel model = (TreeModel) super.learn(bootstrapping.apply(exampleSet));
-			model.setSource(getName());
-			baseModels.add(model);
+			seeds[i] = random.nextInt(Integer.MAX_VALUE);
+		}
+
+		ConcurrencyContext context = null;
+		if (numberOfTrees > 1 && getProcess() != null) {
+			context = Resources.getConcurrencyContext(this);
 		}
+		boolean executeInParallel = context != null && context.getParallelism() > 1;
+		ExampleSet trainingSet = executeInParallel ? ExampleSets.createThreadSafeCopy(exampleSet) : exampleSet;
+
+		getProgress().setTotal(numberOfTrees);
+		List<Callable<TreeModel>> tasks = new ArrayList<Callable<TreeModel>>(numberOfTrees);
+		for (int seed : seeds) {
+			tasks.add(new TreeCallable(trainingSet, seed));
+		}
+
+		// learn base models
+		List<TreeModel> baseModels;
+		if (executeInParallel) {
+			try {
+				baseModels = context.call(tasks);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				} else if (cause instanceof OperatorException) {
+					throw (OperatorException) cause;
+				} else {
+					throw new OperatorException(cause.getMessage(), cause);
+				}
+			}
+		} else {
+			baseModels = new ArrayList<TreeModel>(numberOfTrees);
+			for (Callable<TreeModel> task : tasks) {
+				try {
+					baseModels.add(task.call());
+				} catch (OperatorException | RuntimeException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new OperatorException(e.getMessage(), e);
+				}
+			}
+		}
+		getProgress().complete();
 
 		// create and return model
 		return new ConfigurableRandomForestModel(exampleSet, baseModels, ConfigurableRandomForestModel.VotingStrategy.MAJORITY_VOTE);
 	}
 
+	/**
+	 * Learns one tree on a bootstrap sample. The sample is a view defined by an index mapping into
+	 * the shared example set, the data is not copied.
+	 */
+	private class TreeCallable implements Callable<TreeModel> {
+
+		private final ExampleSet exampleSet;
+		private final int seed;
+
+		private TreeCallable(ExampleSet exampleSet, int seed) {
+			this.exampleSet = exampleSet;
+			this.seed = seed;
+		}
+
+		@Override
+		public TreeModel call() throws OperatorException {
+			RandomGenerator random = new RandomGenerator(seed);
+			int[] mapping = MappedExampleSet.createBootstrappingMapping(exampleSet, exampleSet.size(), random);
+			ExampleSet sample = new MappedExampleSet(exampleSet, mapping, true);
+
+			TreeBuilder builder = getTreeBuilder(sample, getSplitPreprocessing(random.nextInt(Integer.MAX_VALUE)));
+			TreeModel model = new TreeModel(sample, builder.learnTree(sample));
+			model.setSource(getName());
+
+			OperatorProgress progress = getProgress();
+			synchronized (progress) {
+				progress.step();
+			}
+			return model;
+		}
+	}
+
 	@Override
 	public boolean supportsCapability(OperatorCapability capability) {
 		if (capability == OperatorCapability.BINOMINAL_ATTRIBUTES) {
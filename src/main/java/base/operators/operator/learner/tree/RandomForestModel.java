@@ -20,7 +20,9 @@ package base.operators.operator.learner.tree;
 
 import java.util.List;
 
+import base.operators.example.Attribute;
 import base.operators.example.ExampleSet;
+import base.operators.operator.OperatorException;
 import base.operators.operator.learner.meta.SimpleVoteModel;
 
 
@@ -37,10 +39,25 @@ public class RandomForestModel extends SimpleVoteModel {
 
 	private static final long serialVersionUID = 1L;
 
+	/** the flattened trees, created on first use */
+	private transient FlatForest flatForest;
+
 	public RandomForestModel(ExampleSet exampleSet, List<TreeModel> baseModels) {
 		super(exampleSet, baseModels);
 	}
 
+	@Override
+	public ExampleSet performPrediction(ExampleSet exampleSet, Attribute predictedLabel) throws OperatorException {
+		if (flatForest == null) {
+			flatForest = FlatForest.compile(getModels());
+		}
+		FlatForest forest = flatForest;
+		if (forest != null && forest.predict(this, this, exampleSet, predictedLabel)) {
+			return exampleSet;
+		}
+		return super.performPrediction(exampleSet, predictedLabel);
+	}
+
 	@Override
 	public String getName() {
 		return "Random Forest Model";
@@ -67,6 +67,20 @@ public class RandomTreeLearner extends DecisionTreeLearner {
 		return preprocessing;
 	}
 
+	/**
+	 * Returns a random feature subset sampling using a new random generator with the given seed.
+	 */
+	public SplitPreprocessing getSplitPreprocessing(int seed) {
+		SplitPreprocessing preprocessing = null;
+		try {
+			preprocessing = new RandomSubsetPreprocessing(getParameterAsBoolean(PARAMETER_USE_HEURISTIC_SUBSET_RATION),
+					getParameterAsDouble(PARAMETER_SUBSET_RATIO), new RandomGenerator(seed));
+		} catch (UndefinedParameterError e) {
+			// cannot happen
+		}
+		return preprocessing;
+	}
+
 	@Override
 	public List<ParameterType> getParameterTypes() {
 		List<ParameterType> types = super.getParameterTypes();
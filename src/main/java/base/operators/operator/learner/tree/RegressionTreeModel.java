@@ -74,9 +74,9 @@ public class RegressionTreeModel extends TreePredictionModel {
 	}
 
 	/**
-	 * Recursively calculates the average of all the children.
+	 * Recursively calculates the average of all the children. For a leaf this is its value.
 	 */
-	private double getChildAverage(RegressionTree tree) {
+	static double getChildAverage(RegressionTree tree) {
 		if (tree.isLeaf()) {
 			return tree.getValue();
 		}
@@ -21,16 +21,10 @@ package base.operators.operator.learner.tree;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 
-import base.operators.operator.Operator;
-import base.operators.operator.OperatorException;
-import base.operators.studio.internal.Resources;
 import base.operators.tools.Tools;
 import org.apache.commons.lang.ArrayUtils;
 
@@ -52,7 +46,8 @@ public class SelectionCreator {
 
 	/**
 	 * Creates an example index start selection for each numerical attribute, or if there is none,
-	 * only one.
+	 * only one. The selections of the numerical attributes are the presorted indices of the
+	 * {@link ColumnExampleTable}, which are shared and must not be modified.
 	 *
 	 * @return a map containing for each numerical attribute an example index array such that the
 	 *         associated attribute values are in ascending order.
@@ -62,79 +57,9 @@ public class SelectionCreator {
 		if (columnTable.getNumberOfRegularNumericalAttributes() == 0) {
 			selection.put(0, createFullArray(columnTable.getNumberOfExamples()));
 		} else {
-			Integer[] bigSelectionArray = createFullBigArray(columnTable.getNumberOfExamples());
 			for (int j = columnTable.getNumberOfRegularNominalAttributes(); j < columnTable
 					.getTotalNumberOfRegularAttributes(); j++) {
-				final double[] attributeColumn = columnTable.getNumericalAttributeColumn(j);
-				Integer[] startSelection = Arrays.copyOf(bigSelectionArray, bigSelectionArray.length);
-				Arrays.sort(startSelection, new Comparator<Integer>() {
-
-					@Override
-					public int compare(Integer a, Integer b) {
-						return Double.compare(attributeColumn[a], attributeColumn[b]);
-					}
-				});
-				selection.put(j, ArrayUtils.toPrimitive(startSelection));
-			}
-		}
-		return selection;
-	}
-
-	/**
-	 * Creates in parallel an example index start selection for each numerical attribute, or if
-	 * there is none, only one.
-	 *
-	 * @param operator
-	 *            the operator for which the calculation is done
-	 * @return a map containing for each numerical attribute an example index array such that the
-	 *         associated attribute values are in ascending order.
-	 * @throws OperatorException
-	 */
-	public Map<Integer, int[]> getStartSelectionParallel(Operator operator) throws OperatorException {
-		Map<Integer, int[]> selection = new HashMap<>();
-		if (columnTable.getNumberOfRegularNumericalAttributes() == 0) {
-			selection.put(0, createFullArray(columnTable.getNumberOfExamples()));
-		} else {
-			List<Callable<int[]>> tasks = new ArrayList<Callable<int[]>>();
-			final Integer[] bigSelectionArray = createFullBigArray(columnTable.getNumberOfExamples());
-			for (int j = columnTable.getNumberOfRegularNominalAttributes(); j < columnTable
-					.getTotalNumberOfRegularAttributes(); j++) {
-				final double[] attributeColumn = columnTable.getNumericalAttributeColumn(j);
-				tasks.add(new Callable<int[]>() {
-
-					@Override
-					public int[] call() {
-						Integer[] startSelection = Arrays.copyOf(bigSelectionArray, bigSelectionArray.length);
-						Arrays.sort(startSelection, new Comparator<Integer>() {
-
-							@Override
-							public int compare(Integer a, Integer b) {
-								return Double.compare(attributeColumn[a], attributeColumn[b]);
-							}
-						});
-						return ArrayUtils.toPrimitive(startSelection);
-					}
-
-				});
-			}
-
-			List<int[]> results = null;
-			try {
-				results = Resources.getConcurrencyContext(operator).call(tasks);
-			} catch (ExecutionException e) {
-				Throwable cause = e.getCause();
-				if (cause instanceof RuntimeException) {
-					throw (RuntimeException) cause;
-				} else if (cause instanceof Error) {
-					throw (Error) cause;
-				} else {
-					throw new OperatorException(cause.getMessage(), cause);
-				}
-			}
-
-			for (int j = columnTable.getNumberOfRegularNominalAttributes(); j < columnTable
-					.getTotalNumberOfRegularAttributes(); j++) {
-				selection.put(j, results.get(j - columnTable.getNumberOfRegularNominalAttributes()));
+				selection.put(j, columnTable.getSortedNumericalIndices(j));
 			}
 		}
 		return selection;
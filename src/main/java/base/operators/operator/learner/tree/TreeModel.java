@@ -19,6 +19,7 @@
 package base.operators.operator.learner.tree;
 
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import base.operators.example.Example;
@@ -56,20 +57,7 @@ public class TreeModel extends TreePredictionModel {
 	}
 
 	private double predict(Example example, Tree node) {
-		if (node.isLeaf()) {
-			int[] counts = new int[getLabel().getMapping().size()];
-			int sum = 0;
-			for (Entry<String, Integer> entry : node.getCounterMap().entrySet()) {
-				int count = entry.getValue();
-				int index = getLabel().getMapping().getIndex(entry.getKey());
-				counts[index] = count;
-				sum += count;
-			}
-			for (int i = 0; i < counts.length; i++) {
-				example.setConfidence(getLabel().getMapping().mapIndex(i), (double) counts[i] / sum);
-			}
-			return getLabel().getMapping().getIndex(node.getLabel());
-		} else {
+		if (!node.isLeaf()) {
 			Iterator<Edge> childIterator = node.childIterator();
 			while (childIterator.hasNext()) {
 				Edge edge = childIterator.next();
@@ -78,34 +66,70 @@ public class TreeModel extends TreePredictionModel {
 					return predict(example, edge.getChild());
 				}
 			}
+		}
 
-			// nothing known from training --> use majority class in this node
-			String majorityClass = null;
-			int majorityCounter = -1;
-			int[] counts = new int[getLabel().getMapping().size()];
-			int sum = 0;
-			for (Entry<String, Integer> entry : node.getSubtreeCounterMap().entrySet()) {
-				String className = entry.getKey();
-				int count = entry.getValue().intValue();
-				int index = getLabel().getMapping().getIndex(className);
-				counts[index] = count;
-				sum += count;
-				if (count > majorityCounter) {
-					majorityCounter = count;
-					majorityClass = className;
-				}
-			}
+		double[] confidences = getConfidences(node);
+		for (int i = 0; i < confidences.length; i++) {
+			example.setConfidence(getLabel().getMapping().mapIndex(i), confidences[i]);
+		}
+		return getPrediction(node);
+	}
 
-			for (int i = 0; i < counts.length; i++) {
-				example.setConfidence(getLabel().getMapping().mapIndex(i), (double) counts[i] / sum);
-			}
+	/**
+	 * Returns the confidences for all examples ending in the given node. These are the class
+	 * frequencies of the leaf, or of all leaves below an inner node for examples not matching any of
+	 * its edges.
+	 *
+	 * @param node
+	 *            the leaf or inner node
+	 * @return the confidences for each index of the label mapping
+	 */
+	double[] getConfidences(Tree node) {
+		Map<String, Integer> counterMap = node.isLeaf() ? node.getCounterMap() : node.getSubtreeCounterMap();
+		int[] counts = new int[getLabel().getMapping().size()];
+		int sum = 0;
+		for (Entry<String, Integer> entry : counterMap.entrySet()) {
+			int count = entry.getValue();
+			int index = getLabel().getMapping().getIndex(entry.getKey());
+			counts[index] = count;
+			sum += count;
+		}
+		double[] confidences = new double[counts.length];
+		for (int i = 0; i < counts.length; i++) {
+			confidences[i] = (double) counts[i] / sum;
+		}
+		return confidences;
+	}
+
+	/**
+	 * Returns the prediction for all examples ending in the given node. This is the label of the
+	 * leaf, or the majority class of all leaves below an inner node for examples not matching any of
+	 * its edges.
+	 *
+	 * @param node
+	 *            the leaf or inner node
+	 * @return the index of the predicted class
+	 */
+	double getPrediction(Tree node) {
+		if (node.isLeaf()) {
+			return getLabel().getMapping().getIndex(node.getLabel());
+		}
 
-			if (majorityClass != null) {
-				return getLabel().getMapping().getIndex(majorityClass);
-			} else {
-				return 0;
+		// nothing known from training --> use majority class in this node
+		String majorityClass = null;
+		int majorityCounter = -1;
+		for (Entry<String, Integer> entry : node.getSubtreeCounterMap().entrySet()) {
+			int count = entry.getValue().intValue();
+			if (count > majorityCounter) {
+				majorityCounter = count;
+				majorityClass = entry.getKey();
 			}
 		}
+		if (majorityClass != null) {
+			return getLabel().getMapping().getIndex(majorityClass);
+		} else {
+			return 0;
+		}
 	}
 
 	@Override
@@ -18,8 +18,13 @@
  */
 package base.operators.operator.learner.tree;
 
+import java.util.Collections;
+
+import base.operators.example.Attribute;
 import base.operators.example.ExampleSet;
 import base.operators.example.set.ExampleSetUtilities;
+import base.operators.operator.OperatorException;
+import base.operators.operator.learner.ParallelPredictionRunner;
 import base.operators.operator.learner.SimplePredictionModel;
 
 
@@ -32,6 +37,9 @@ public abstract class TreePredictionModel extends SimplePredictionModel {
 
 	private static final long serialVersionUID = 1L;
 
+	/** the flattened tree, created on first use */
+	private transient FlatForest flatTree;
+
 	protected TreePredictionModel(ExampleSet exampleSet) {
 		super(exampleSet, ExampleSetUtilities.SetsCompareOption.ALLOW_SUPERSET,
 				ExampleSetUtilities.TypesCompareOption.ALLOW_SAME_PARENTS);
@@ -39,4 +47,47 @@ public abstract class TreePredictionModel extends SimplePredictionModel {
 
 	public abstract Tree getRoot();
 
+	/**
+	 * Predicts with the {@link FlatForest flattened} tree if possible and falls back to
+	 * {@link #predict(base.operators.example.Example)} otherwise.
+	 */
+	@Override
+	public ExampleSet performPrediction(ExampleSet exampleSet, Attribute predictedLabel) throws OperatorException {
+		if (flatTree == null) {
+			flatTree = FlatForest.compile(Collections.singletonList(this));
+		}
+		FlatForest tree = flatTree;
+		FlatForest.Binding binding = tree != null ? tree.bind(exampleSet) : null;
+		Attribute[] confidenceAttributes = null;
+		if (binding != null && getLabel().isNominal()) {
+			confidenceAttributes = tree.getConfidenceAttributes(exampleSet);
+			if (confidenceAttributes == null) {
+				binding = null;
+			}
+		}
+		if (binding == null) {
+			return super.performPrediction(exampleSet, predictedLabel);
+		}
+
+		final FlatForest.Binding boundTree = binding;
+		final Attribute[] confidences = confidenceAttributes;
+		ParallelPredictionRunner.run(this, exampleSet, predictedLabel, (example, row) -> {
+			int node = boundTree.evaluate(0, boundTree.read(example));
+			if (confidences != null) {
+				double[] nodeConfidences = tree.getConfidences(node);
+				for (int i = 0; i < confidences.length; i++) {
+					example.setValue(confidences[i], nodeConfidences[i]);
+				}
+			}
+			example.setValue(predictedLabel, tree.getPrediction(node));
+		});
+		return exampleSet;
+	}
+
+	/** Trees are not modified during the prediction. */
+	@Override
+	public boolean supportsParallelPrediction() {
+		return true;
+	}
+
 }
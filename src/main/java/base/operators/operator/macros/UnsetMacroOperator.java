@@ -78,4 +78,9 @@ public class UnsetMacroOperator extends Operator {
 				new ParameterTypeString(PARAMETER_MACRO, "The name of a macro which should be unset and removed"), false));
 		return types;
 	}
+
+	@Override
+	public boolean hasSideEffects() {
+		return true;
+	}
 }
@@ -18,12 +18,16 @@
 */
 package base.operators.operator.meta;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import base.operators.operator.OperatorException;
 import base.operators.operator.performance.PerformanceVector;
 import base.operators.tools.LoggingHandler;
 import base.operators.tools.RandomGenerator;
 import base.operators.tools.math.optimization.ec.es.ESOptimization;
 import base.operators.tools.math.optimization.ec.es.Individual;
+import base.operators.tools.math.optimization.ec.es.Population;
 
 
 /**
@@ -58,6 +62,24 @@ public class ESParameterOptimization extends ESOptimization {
 		return operator.setParametersAndEvaluate(individual);
 	}
 
+	/**
+	 * Evaluates all individuals without fitness using the parent operator, which runs the
+	 * evaluations in parallel if enabled.
+	 */
+	@Override
+	protected void evaluateAll(Population population) throws OperatorException {
+		List<Individual> unevaluated = new ArrayList<>();
+		for (int i = population.getNumberOfIndividuals() - 1; i >= 0; i--) {
+			Individual current = population.get(i);
+			if (current.getFitness() == null) {
+				unevaluated.add(current);
+			}
+			increaseTotalEvaluationCounter();
+		}
+		operator.evaluateIndividuals(unevaluated,
+				(index, fitness) -> updateFitness(unevaluated.get(index), fitness, population));
+	}
+
 	@Override
 	public void nextIteration() throws OperatorException {
 		this.operator.inApplyLoop();
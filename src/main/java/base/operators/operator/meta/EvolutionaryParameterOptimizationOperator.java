@@ -18,6 +18,7 @@
 */
 package base.operators.operator.meta;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -230,18 +231,38 @@ public class EvolutionaryParameterOptimizationOperator extends ParameterOptimiza
 	}
 
 	public PerformanceVector setParametersAndEvaluate(Individual individual) throws OperatorException {
+		String[] values = getParameterValues(individual);
+		for (int j = 0; j < values.length; j++) {
+			operators[j].getParameters().setParameter(parameters[j], values[j]);
+			getLogger().fine(operators[j] + "." + parameters[j] + " = " + values[j]);
+		}
+		return getPerformanceVector();
+	}
+
+	/**
+	 * Evaluates the individuals, in parallel if enabled, and passes their performances to the
+	 * handler in the order of the list.
+	 */
+	void evaluateIndividuals(List<Individual> individuals, PerformanceHandler handler) throws OperatorException {
+		List<String[]> combinations = new ArrayList<>(individuals.size());
+		for (Individual individual : individuals) {
+			combinations.add(getParameterValues(individual));
+		}
+		evaluateParameterCombinations(operators, parameters, combinations, handler);
+	}
+
+	/** Returns the parameter values encoded by the individual. */
+	private String[] getParameterValues(Individual individual) {
 		double[] currentValues = individual.getValues();
+		String[] values = new String[currentValues.length];
 		for (int j = 0; j < currentValues.length; j++) {
-			String value;
 			if (types[j].equals(OptimizationValueType.VALUE_TYPE_DOUBLE)) {
-				value = currentValues[j] + "";
+				values[j] = currentValues[j] + "";
 			} else {
-				value = (int) Math.round(currentValues[j]) + "";
+				values[j] = (int) Math.round(currentValues[j]) + "";
 			}
-			operators[j].getParameters().setParameter(parameters[j], value);
-			getLogger().fine(operators[j] + "." + parameters[j] + " = " + value);
 		}
-		return getPerformanceVector();
+		return values;
 	}
 
 	@Override
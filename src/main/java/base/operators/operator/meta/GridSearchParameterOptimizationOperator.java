@@ -18,6 +18,7 @@
 */
 package base.operators.operator.meta;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -72,8 +73,6 @@ public class GridSearchParameterOptimizationOperator extends ParameterOptimizati
 
 	protected String[][] values;
 
-	protected int[] currentIndex;
-
 	protected int numberOfCombinations;
 
 	protected int numberOfParameters;
@@ -89,30 +88,6 @@ public class GridSearchParameterOptimizationOperator extends ParameterOptimizati
 		return ParameterConfigurator.VALUE_MODE_DISCRETE;
 	}
 
-	/**
-	 * Computes the performance for the current parameter values.
-	 *
-	 * @deprecated As of version 6.0.4, replaced by {@link #computeCurrentPerformance()}
-	 */
-	@Deprecated
-	protected PerformanceVector computeCurrentPerformeance() {
-		try {
-			return computeCurrentPerformance();
-		} catch (OperatorException e) {
-			return null;
-		}
-	}
-
-	/** Computes the performance for the current parameter values. */
-	protected PerformanceVector computeCurrentPerformance() throws OperatorException {
-		// set all parameter values
-		for (int j = 0; j < operators.length; j++) {
-			operators[j].getParameters().setParameter(parameters[j], values[j][currentIndex[j]]);
-			getLogger().fine(operators[j] + "." + parameters[j] + " = " + values[j][currentIndex[j]]);
-		}
-		return super.getPerformanceVector();
-	}
-
 	protected void getParametersToOptimize() throws OperatorException {
 		// check parameter values
 		List<ParameterValues> parameterValuesList = parseParameterValues(
@@ -133,7 +108,6 @@ public class GridSearchParameterOptimizationOperator extends ParameterOptimizati
 		operators = new Operator[parameterValuesList.size()];
 		parameters = new String[parameterValuesList.size()];
 		values = new String[parameterValuesList.size()][];
-		currentIndex = new int[parameterValuesList.size()];
 
 		// get parameter values and fill data structures
 		int i = 0;
@@ -146,6 +120,32 @@ public class GridSearchParameterOptimizationOperator extends ParameterOptimizati
 		}
 	}
 
+	/**
+	 * Returns all combinations of the parameter values. The value of the first parameter changes
+	 * fastest.
+	 */
+	protected List<String[]> getParameterCombinations() {
+		List<String[]> combinations = new ArrayList<>(Math.max(numberOfCombinations, 0));
+		int[] index = new int[values.length];
+		while (true) {
+			String[] combination = new String[values.length];
+			for (int j = 0; j < values.length; j++) {
+				combination[j] = values[j][index[j]];
+			}
+			combinations.add(combination);
+
+			// next parameter values
+			int k = 0;
+			while (k < index.length && !(++index[k] < values[k].length)) {
+				index[k] = 0;
+				k++;
+			}
+			if (k >= index.length) {
+				return combinations;
+			}
+		}
+	}
+
 	@Override
 	public double getCurrentBestPerformance() {
 		if (best != null) {
@@ -171,41 +171,19 @@ public class GridSearchParameterOptimizationOperator extends ParameterOptimizati
 			throw new UserError(this, 922);
 		}
 
-		int counter = 1;
 		best = null;
-		while (true) {
-			getLogger().fine("Using parameter set " + counter + " / " + numberOfCombinations + ":");
-			PerformanceVector performance = computeCurrentPerformance();
+		List<String[]> combinations = getParameterCombinations();
+		evaluateParameterCombinations(operators, parameters, combinations, (combination, performance) -> {
+			getLogger().fine("Evaluated parameter set " + (combination + 1) + " / " + numberOfCombinations);
 			// entering if-block if and only if performance != null, because without a performance
 			// we can not say that this is the optimal set
 			if (performance != null && (best == null || performance.compareTo(best.getPerformance()) > 0)) {
-				String[] bestValues = new String[parameters.length];
-				for (int j = 0; j < parameters.length; j++) {
-					bestValues[j] = values[j][currentIndex[j]];
-				}
-				best = new ParameterSet(operators, parameters, bestValues, performance);
+				best = new ParameterSet(operators, parameters, combinations.get(combination), performance);
 				passResultsThrough();
 			}
-
-			// next parameter values
-			int k = 0;
-			boolean ok = true;
-			while (!(++currentIndex[k] < values[k].length)) {
-				currentIndex[k] = 0;
-				k++;
-				if (k >= currentIndex.length) {
-					ok = false;
-					break;
-				}
-			}
-			if (!ok) {
-				break;
-			}
-
 			inApplyLoop();
-			counter++;
-			getProgress().setCompleted(counter);
-		}
+			getProgress().setCompleted(combination + 1);
+		});
 
 		deliver(best);
 		getProgress().complete();
@@ -20,9 +20,11 @@ package base.operators.operator.meta;
 
 import base.operators.RapidMiner;
 import base.operators.operator.*;
+import base.operators.operator.concurrency.internal.ParallelOperatorChain;
 import base.operators.operator.performance.PerformanceVector;
 import base.operators.operator.ports.InputPort;
 import base.operators.operator.ports.PortPairExtender;
+import base.operators.operator.ports.PortPairExtender.PortPair;
 import base.operators.operator.ports.metadata.MetaData;
 import base.operators.operator.ports.metadata.SimplePrecondition;
 import base.operators.operator.ports.metadata.SubprocessTransformRule;
@@ -32,11 +34,20 @@ import base.operators.parameter.value.ParameterValueGrid;
 import base.operators.parameter.value.ParameterValueList;
 import base.operators.parameter.value.ParameterValueRange;
 import base.operators.parameter.value.ParameterValues;
+import base.operators.operator.tools.ConcurrencyTools;
+import base.operators.studio.concurrency.internal.ConcurrencyExecutionService;
+import base.operators.studio.concurrency.internal.ConcurrencyExecutionServiceProvider;
 import base.operators.tools.ParameterService;
+import base.operators.tools.container.Pair;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 
 /**
@@ -45,7 +56,25 @@ import java.util.List;
  * 
  * @author Tobias Malbrecht
  */
-public abstract class ParameterIteratingOperatorChain extends OperatorChain implements ParameterConfigurator {
+public abstract class ParameterIteratingOperatorChain extends ParallelOperatorChain implements ParameterConfigurator {
+
+	/**
+	 * Receives the results of the subprocess execution for one parameter combination.
+	 *
+	 * @see ParameterIteratingOperatorChain#evaluateParameterCombinations(Operator[], String[], List,
+	 *      PerformanceHandler)
+	 */
+	@FunctionalInterface
+	protected interface PerformanceHandler {
+
+		/**
+		 * @param combination
+		 *            the index of the evaluated combination
+		 * @param performance
+		 *            the performance of the combination, can be {@code null}
+		 */
+		void handle(int combination, PerformanceVector performance) throws OperatorException;
+	}
 
 	/** Last version where errors in the inner process were not handled properly. */
 	public static final OperatorVersion CHANGE_6_0_3_ERROR_HANDLING = new OperatorVersion(6, 0, 3);
@@ -266,6 +295,103 @@ public abstract class ParameterIteratingOperatorChain extends OperatorChain impl
 		}
 	}
 
+	/**
+	 * Executes the subprocess once for every combination of parameter values. If the parallel
+	 * execution is enabled, the combinations are evaluated concurrently by copies of this operator.
+	 * The handler is called in the order of the combinations. Each time the inner sinks hold the
+	 * results of the respective execution, so {@link #passResultsThrough()} and
+	 * {@link #getInnerResults()} refer to this combination like in a sequential execution.
+	 *
+	 * @param operators
+	 *            the inner operators whose parameters are set
+	 * @param parameters
+	 *            the keys of the parameters to set, one for each operator
+	 * @param combinations
+	 *            the parameter values, one value for each operator per combination
+	 * @param handler
+	 *            receives the performance of every combination, see {@link #getPerformanceVector()}
+	 */
+	protected void evaluateParameterCombinations(Operator[] operators, String[] parameters, List<String[]> combinations,
+			PerformanceHandler handler) throws OperatorException {
+		int numberOfCombinations = combinations.size();
+		List<String> operatorNames = new ArrayList<>(operators.length);
+		for (Operator operator : operators) {
+			operatorNames.add(operator.getName());
+		}
+		boolean executeParallely = numberOfCombinations > 1 && checkParallelizability()
+				&& getAllInnerOperators().containsAll(Arrays.asList(operators));
+		if (!executeParallely) {
+			for (int i = 0; i < numberOfCombinations; i++) {
+				applyParameterValues(operators, parameters, combinations.get(i));
+				handler.handle(i, getPerformanceVector());
+			}
+			return;
+		}
+
+		List<IOObject> inputData = new ArrayList<>();
+		for (PortPair pair : inputExtender.getManagedPairs()) {
+			inputData.add(pair.getInputPort().getAnyDataOrNull());
+		}
+		List<IOObject> threadSafeInputData = getDataCopy(inputData, true);
+
+		ConcurrencyExecutionService service = ConcurrencyExecutionServiceProvider.INSTANCE.getService();
+		for (int i = 0; i < numberOfCombinations;) {
+			int batchStart = i;
+			int batchSize = Math.min(numberOfCombinations - i,
+					ConcurrencyExecutionService.getRecommendedConcurrencyBatchSize(this));
+			List<Callable<Pair<PerformanceVector, List<IOObject>>>> taskSet = new ArrayList<>(batchSize);
+			for (int j = 1; j <= batchSize; i++, j++) {
+				final ParameterIteratingOperatorChain copy = ConcurrencyTools.clone(this);
+				final String[] values = combinations.get(i);
+				// the random seed of every copy is drawn in the order of the combinations
+				taskSet.add(service.prepareOperatorTask(getProcess(), copy, i + 1, i + 1 == numberOfCombinations, () -> {
+					copy.checkForStop();
+					copy.applyParameterValues(copy.getInnerOperatorsByName(operatorNames), parameters, values);
+					List<PortPair> inputPairs = copy.inputExtender.getManagedPairs();
+					for (int k = 0; k < inputPairs.size() && k < threadSafeInputData.size(); k++) {
+						inputPairs.get(k).getInputPort().receive(getDataCopy(threadSafeInputData.get(k), false));
+					}
+					PerformanceVector performance = copy.getPerformanceVector();
+					List<IOObject> innerResults = new ArrayList<>();
+					for (PortPair pair : copy.innerSinkExtender.getManagedPairs()) {
+						innerResults.add(pair.getInputPort().getAnyDataOrNull());
+					}
+					return new Pair<>(performance, innerResults);
+				}));
+			}
+			List<Pair<PerformanceVector, List<IOObject>>> results = service.executeOperatorTasks(this, taskSet);
+			for (int j = 0; j < results.size(); j++) {
+				List<IOObject> innerResults = results.get(j).getSecond();
+				List<PortPair> sinkPairs = innerSinkExtender.getManagedPairs();
+				for (int k = 0; k < sinkPairs.size(); k++) {
+					sinkPairs.get(k).getInputPort().receive(k < innerResults.size() ? innerResults.get(k) : null);
+				}
+				handler.handle(batchStart + j, results.get(j).getFirst());
+			}
+		}
+	}
+
+	/** Sets the given parameter values of the operators. */
+	private void applyParameterValues(Operator[] operators, String[] parameters, String[] values) {
+		for (int j = 0; j < operators.length; j++) {
+			operators[j].getParameters().setParameter(parameters[j], values[j]);
+			getLogger().fine(operators[j] + "." + parameters[j] + " = " + values[j]);
+		}
+	}
+
+	/** Returns the inner operators with the given names. */
+	private Operator[] getInnerOperatorsByName(List<String> names) {
+		Map<String, Operator> innerOperators = new HashMap<>();
+		for (Operator operator : getAllInnerOperators()) {
+			innerOperators.put(operator.getName(), operator);
+		}
+		Operator[] operators = new Operator[names.size()];
+		for (int i = 0; i < operators.length; i++) {
+			operators[i] = innerOperators.get(names.get(i));
+		}
+		return operators;
+	}
+
 	/**
 	 * Returns the results at the inner sink port extender. Does not include a possible performance
 	 * vector at the respective input. {@link #executeSubprocess()} or
@@ -18,6 +18,7 @@
 */
 package base.operators.operator.meta;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Level;
@@ -144,10 +145,10 @@ public class ParameterIteration extends ParameterIteratingOperatorChain {
 		getProgress().setCheckForStop(false);
 
 		// initialize data structures
-		Operator[] operators = new Operator[parameterList.size()];
-		String[] parameters = new String[parameterList.size()];
-		String[][] values = new String[parameterList.size()][];
-		int[] currentIndex = new int[parameterList.size()];
+		Operator[] operators = new Operator[parameterValuesList.size()];
+		String[] parameters = new String[parameterValuesList.size()];
+		String[][] values = new String[parameterValuesList.size()][];
+		int[] currentIndex = new int[parameterValuesList.size()];
 
 		// get parameter values and fill data structures
 		int index = 0;
@@ -175,20 +176,14 @@ public class ParameterIteration extends ParameterIteratingOperatorChain {
 			throw new UserError(this, 958);
 		}
 
-		// iterate parameter combinations
-		this.iteration = 0;
+		// collect parameter combinations
+		List<String[]> combinations = new ArrayList<>();
 		while (true) {
 			String[] currentValues = new String[parameters.length];
-			// set all parameter values
 			for (int j = 0; j < operators.length; j++) {
 				currentValues[j] = values[j][currentIndex[j]].trim();
-				// operators[j].setParameter(parameters[j], values[j][currentIndex[j]].trim());
 			}
-			ParameterSet set = new ParameterSet(operators, parameters, currentValues, null);
-
-			evaluateParameterSet(set);
-
-			this.iteration++;
+			combinations.add(currentValues);
 
 			boolean ok = true;
 			if (!isSynchronized) {
@@ -208,20 +203,36 @@ public class ParameterIteration extends ParameterIteratingOperatorChain {
 				}
 				if (!(currentIndex[0] < values[0].length)) {
 					ok = false;
-					break;
 				}
 			}
 
 			if (!ok) {
 				break;
 			}
+		}
 
+		// iterate parameter combinations
+		this.iteration = 0;
+		evaluateParameterCombinations(operators, parameters, combinations, (combination, performance) -> {
+			this.performance = performance;
+			((CollectingPortPairExtender) getInnerSinkExtender()).collect();
+			if (performance == null) {
+				getLogger().info(
+						"Inner operators of " + getName()
+								+ " do not provide performance vectors. Performance cannot be plotted.");
+			}
+			this.iteration++;
 			inApplyLoop();
 			getProgress().step();
-		}
+		});
 		getProgress().complete();
 	}
 
+	/**
+	 * @deprecated since the parameter combinations are evaluated by
+	 *             {@link #evaluateParameterCombinations(Operator[], String[], List, PerformanceHandler)}
+	 */
+	@Deprecated
 	protected void evaluateParameterSet(ParameterSet set) throws OperatorException {
 		if (getLogger().isLoggable(Level.FINE)) {
 			getLogger().fine("Evaluating parameter set: " + set.toString());
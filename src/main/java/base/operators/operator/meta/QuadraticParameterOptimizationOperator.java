@@ -117,50 +117,20 @@ public class QuadraticParameterOptimizationOperator extends GridSearchParameterO
 
 		// init operator progress (+ 1 for work after loop)
 		getProgress().setTotal(allParameters.length + 1);
-		while (true) {
-			getLogger().fine("Using parameter set");
-			// set all parameter values
-			for (int j = 0; j < operators.length; j++) {
-				operators[j].getParameters().setParameter(parameters[j], values[j][currentIndex[j]]);
-				getLogger().fine(operators[j] + "." + parameters[j] + " = " + values[j][currentIndex[j]]);
-			}
-
-			PerformanceVector performance = getPerformanceVector();
-
-			String[] currentValues = new String[parameters.length];
-			for (int j = 0; j < parameters.length; j++) {
-				currentValues[j] = values[j][currentIndex[j]];
-			}
-			allParameters[paramIndex] = new ParameterSet(operators, parameters, currentValues, performance);
-
+		List<String[]> combinations = getParameterCombinations();
+		evaluateParameterCombinations(operators, parameters, combinations, (combination, performance) -> {
+			allParameters[combination] = new ParameterSet(operators, parameters, combinations.get(combination),
+					performance);
 			if (best == null || performance.compareTo(best.getPerformance()) > 0) {
-				best = allParameters[paramIndex];
-				// bestIndex = currentIndex;
+				best = allParameters[combination];
+				int index = combination;
 				for (int j = 0; j < numberOfParameters; j++) {
-					bestIndex[j] = currentIndex[j];
+					bestIndex[j] = index % values[j].length;
+					index /= values[j].length;
 				}
 			}
-
 			getProgress().step();
-
-			// next parameter values
-			int k = 0;
-			boolean ok = true;
-			while (!(++currentIndex[k] < values[k].length)) {
-				currentIndex[k] = 0;
-				k++;
-				if (k >= currentIndex.length) {
-					ok = false;
-					break;
-				}
-			}
-			if (!ok) {
-				break;
-			}
-
-			paramIndex++;
-
-		}
+		});
 
 		// start quadratic optimization
 		int nrParameters = 0;
@@ -202,6 +172,7 @@ public class QuadraticParameterOptimizationOperator extends GridSearchParameterO
 			Matrix designMatrix = new Matrix(threetok, nrParameters + nrParameters * (nrParameters + 1) / 2 + 1);
 			Matrix y = new Matrix(threetok, 1);
 
+			int[] currentIndex = new int[numberOfParameters];
 			paramIndex = 0;
 			for (int i = numberOfParameters - 1; i >= 0; i--) {
 				if (values[i].length > 2) {
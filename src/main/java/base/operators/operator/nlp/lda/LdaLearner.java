@@ -1,5 +1,6 @@
 package base.operators.operator.nlp.lda;
 
+import base.operators.core.concurrency.ConcurrencyContext;
 import base.operators.example.Attribute;
 import base.operators.example.Attributes;
 import base.operators.example.Example;
@@ -12,6 +13,8 @@ import base.operators.example.table.MemoryExampleTable;
 import base.operators.operator.Operator;
 import base.operators.operator.OperatorDescription;
 import base.operators.operator.OperatorException;
+import base.operators.operator.error.AttributeNotFoundError;
+import base.operators.operator.nlp.lda.core.LDAInferencer;
 import base.operators.operator.nlp.lda.core.LDAOption;
 import base.operators.operator.nlp.lda.core.LDATrain;
 import base.operators.operator.nlp.lda.core.Model;
@@ -19,22 +22,29 @@ import base.operators.operator.ports.InputPort;
 import base.operators.operator.ports.OutputPort;
 import base.operators.operator.ports.metadata.AttributeSetPrecondition;
 import base.operators.parameter.*;
+import base.operators.studio.concurrency.internal.BackgroudOperatorConcurrencyContext;
+import base.operators.studio.internal.Resources;
 import base.operators.tools.Ontology;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 
 //z是主题, w是词, d是文档
 
 public class LdaLearner extends Operator {
 
     private InputPort exampleSetInput = getInputPorts().createPort("example set");
+    private InputPort unseenDocumentsInput = getInputPorts().createPort("unseen documents");
     private OutputPort exampleSetOutput1 = getOutputPorts().createPort("the number of times each word appears in the topic");
     private OutputPort exampleSetOutput2 = getOutputPorts().createPort("probability of each word under each topic");
     private OutputPort exampleSetOutput3 = getOutputPorts().createPort("probability of each word corresponding to each topic");
     private OutputPort exampleSetOutput4 = getOutputPorts().createPort("topic distribution points corresponding to documents");
     private OutputPort exampleSetOutput5 = getOutputPorts().createPort("overall Thematic Distribution");
+    private OutputPort exampleSetOutput6 = getOutputPorts().createPort("topic distribution points corresponding to unseen documents");
 
     public static final String DOC_ID_ATTRIBUTE_NAME = "doc_id_attribute_name";
     public static final String DOC_ATTRIBUTE_NAME = "doc_attribute_name";
@@ -84,7 +94,7 @@ public class LdaLearner extends Operator {
      * @param niters ：迭代次数
      * @return void
      */
-    public void train(List<String>id, List<String> text, int K, double alpha, double beta, int niters) {
+    public void train(List<String>id, List<String> text, int K, double alpha, double beta, int niters) throws OperatorException {
         LDAOption option = new LDAOption();
 
         //option.dir = "./"+File.separator+"model3";
@@ -94,14 +104,17 @@ public class LdaLearner extends Operator {
         option.beta = beta;
         option.train = true;  //训练
 
+        ConcurrencyContext context = getProcess() != null ? Resources.getConcurrencyContext(this)
+                : new BackgroudOperatorConcurrencyContext(this);
         LDATrain train = new LDATrain();
         if (train.init(option, text))
         {
-            train.train();
+            train.train(context);
         }
 
         final Model model = train.trainModel;
         process(id, model);
+        processUnseen(option, model, context);
     }
     private void process(final List<String>id, final Model model){
         process1(model);
@@ -239,6 +252,64 @@ public class LdaLearner extends Operator {
         //to be done
 
     }
+    //新文档|主题输出表, 文档逐块流式推断, 不构建整个LDADataset
+    private void processUnseen(final LDAOption option, final Model model, ConcurrencyContext context) throws OperatorException {
+        ExampleSet unseenExampleSet = unseenDocumentsInput.getDataOrNull(ExampleSet.class);
+        if (unseenExampleSet == null) {
+            return;
+        }
+        String id_name = getParameterAsString(DOC_ID_ATTRIBUTE_NAME);
+        String doc_name = getParameterAsString(DOC_ATTRIBUTE_NAME);
+        final Attribute raw_doc_id_attribute = unseenExampleSet.getAttributes().get(id_name);
+        final Attribute raw_doc_attribute = unseenExampleSet.getAttributes().get(doc_name);
+        if (raw_doc_id_attribute == null) {
+            throw new AttributeNotFoundError(this, DOC_ID_ATTRIBUTE_NAME, id_name);
+        }
+        if (raw_doc_attribute == null) {
+            throw new AttributeNotFoundError(this, DOC_ATTRIBUTE_NAME, doc_name);
+        }
+
+        final List<Attribute> attributeList = new ArrayList<>();
+        for (int i = 0; i < model.K; i++) {
+            Attribute topic_attribute = AttributeFactory.createAttribute("topic_" + i, Ontology.NUMERICAL);
+            attributeList.add(topic_attribute);
+        }
+        final Attribute doc_id_attribute = AttributeFactory.createAttribute(id_name, raw_doc_id_attribute.getValueType());
+        attributeList.add(doc_id_attribute);
+        final MemoryExampleTable exampleTable = new MemoryExampleTable(attributeList);
+
+        // the ids of the documents read but not yet inferred
+        final Queue<Double> ids = new ArrayDeque<>();
+        final Iterator<Example> examples = unseenExampleSet.iterator();
+        Iterator<String> texts = new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return examples.hasNext();
+            }
+
+            @Override
+            public String next() {
+                Example example = examples.next();
+                ids.add(doc_id_attribute.isNominal()
+                        ? doc_id_attribute.getMapping().mapString(example.getValueAsString(raw_doc_id_attribute))
+                        : example.getValue(raw_doc_id_attribute));
+                return example.getValueAsString(raw_doc_attribute);
+            }
+        };
+
+        LDAInferencer inferencer = new LDAInferencer();
+        inferencer.init(option, model);
+        final DataRowFactory factory = new DataRowFactory(0, '.');
+        inferencer.inference(texts, context, theta -> {
+            DataRow dataRow = factory.create(attributeList.size());
+            dataRow.set(doc_id_attribute, ids.remove());
+            for (int k = 0; k < theta.length; ++k) {
+                dataRow.set(attributeList.get(k), theta[k]);
+            }
+            exampleTable.addDataRow(dataRow);
+        });
+        exampleSetOutput6.deliver(new SimpleExampleSet(exampleTable));
+    }
     //输出桩5 主题|文档输出表
     private void process5(final List<String>id, final Model model){
 
@@ -0,0 +1,70 @@
+package base.operators.operator.nlp.lda.core;
+
+import java.util.Random;
+
+/**
+ * Alias table (Vose) for sampling from a fixed discrete distribution in constant time.
+ */
+class AliasTable {
+
+	private final double[] probabilities;
+	private final int[] aliases;
+
+	// sum of the unnormalized weights
+	private final double mass;
+
+	AliasTable(double[] weights){
+		int size = weights.length;
+		probabilities = new double[size];
+		aliases = new int[size];
+
+		double sum = 0;
+		for (double weight : weights){
+			sum += weight;
+		}
+		mass = sum;
+
+		// scaled weights, the table is split into entries below and above the average
+		double[] scaled = new double[size];
+		int[] small = new int[size];
+		int[] large = new int[size];
+		int smallSize = 0;
+		int largeSize = 0;
+		for (int i = 0; i < size; i++){
+			scaled[i] = sum > 0 ? weights[i] * size / sum : 1;
+			if (scaled[i] < 1)
+				small[smallSize++] = i;
+			else
+				large[largeSize++] = i;
+		}
+
+		while (smallSize > 0 && largeSize > 0){
+			int less = small[--smallSize];
+			int more = large[--largeSize];
+			probabilities[less] = scaled[less];
+			aliases[less] = more;
+			scaled[more] = scaled[more] + scaled[less] - 1;
+			if (scaled[more] < 1)
+				small[smallSize++] = more;
+			else
+				large[largeSize++] = more;
+		}
+
+		// remaining entries are 1 up to rounding errors
+		while (largeSize > 0){
+			probabilities[large[--largeSize]] = 1;
+		}
+		while (smallSize > 0){
+			probabilities[small[--smallSize]] = 1;
+		}
+	}
+
+	int sample(Random random){
+		int i = random.nextInt(probabilities.length);
+		return random.nextDouble() < probabilities[i] ? i : aliases[i];
+	}
+
+	double getMass(){
+		return mass;
+	}
+}
@@ -1,13 +1,28 @@
 package base.operators.operator.nlp.lda.core;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import base.operators.core.concurrency.ConcurrencyContext;
 
 
 public class LDAInferencer implements Serializable{	
 
 	private static final long serialVersionUID = 466563090503055129L;
 	
+	// number of documents held in memory by the streaming inference
+	private static final int DOCUMENTS_PER_BLOCK = 8192;
+	
+	// number of documents inferred by one task
+	private static final int DOCUMENTS_PER_TASK = 256;
+	
 	// Train model
 	public Model trainModel;
 	public Dictionary globalDict;
@@ -16,6 +31,11 @@ public class LDAInferencer implements Serializable{
 	private Model newModel;
 	public int niters = 100;
 	
+	// alias tables over the topics of phi[.][w] for each word, created when needed
+	private transient volatile AliasTable[] wordAliases;
+	
+	private final Random random = new Random();
+	
 	//-----------------------------------------------------
 	// Init method
 	//-----------------------------------------------------
@@ -28,6 +48,21 @@ public class LDAInferencer implements Serializable{
 			return false;		
 		
 		globalDict = trainModel.data.localDict;
+		wordAliases = null;
+		computeTrnTheta();
+		computeTrnPhi();
+		
+		return true;
+	}
+	
+	//init with a model trained in memory
+	public boolean init(LDAOption option, Model trainModel){
+		this.option = option;
+		niters = option.niters;
+		this.trainModel = trainModel;
+		
+		globalDict = trainModel.data.localDict;
+		wordAliases = null;
 		computeTrnTheta();
 		computeTrnPhi();
 		
@@ -81,6 +116,195 @@ public class LDAInferencer implements Serializable{
 
 	
 	
+	/**
+	 * Streaming inference: the documents are read block by block and inferred independently of
+	 * each other with the topic-word distributions of the trained model kept fixed. The tasks of
+	 * a block run in parallel if a context is given. Only one block of documents is held in
+	 * memory, the topic distributions are passed to the consumer in document order.
+	 * @param texts documents, words separated by spaces
+	 * @param context may be null for sequential inference
+	 * @param consumer receives theta of each document, size K
+	 */
+	public void inference(Iterator<String> texts, ConcurrencyContext context, Consumer<double[]> consumer){
+		List<String> block = new ArrayList<String>(DOCUMENTS_PER_BLOCK);
+		while (texts.hasNext()){
+			block.add(texts.next());
+			if (block.size() == DOCUMENTS_PER_BLOCK || !texts.hasNext()){
+				List<Callable<double[][]>> tasks = new ArrayList<Callable<double[][]>>();
+				for (int from = 0; from < block.size(); from += DOCUMENTS_PER_TASK){
+					final List<String> documents = block.subList(from, Math.min(block.size(), from + DOCUMENTS_PER_TASK));
+					final long seed = random.nextLong();
+					tasks.add(new Callable<double[][]>() {
+						@Override
+						public double[][] call() {
+							Random taskRandom = new Random(seed);
+							double[][] thetas = new double[documents.size()][];
+							for (int i = 0; i < thetas.length; i++){
+								thetas[i] = inferTheta(documents.get(i), taskRandom);
+							}
+							return thetas;
+						}
+					});
+				}
+				for (double[][] thetas : call(tasks, context)){
+					for (double[] theta : thetas){
+						consumer.accept(theta);
+					}
+				}
+				block.clear();
+			}
+		}
+	}
+	
+	/**
+	 * Infers the topic distribution of one document with the topic-word distributions of the
+	 * trained model kept fixed. Words which are not in the dictionary of the model are ignored.
+	 * 
+	 * The unnormalized probability of topic k is phi[k][w] * alpha + phi[k][w] * nd[k]. The first
+	 * part is sampled from an alias table of the word, the second one only runs over the topics of
+	 * the document, so the cost per word does not grow with the number of topics.
+	 * @return theta of the document, size K
+	 */
+	public double[] inferTheta(String text, Random random){
+		int K = trainModel.K;
+		double alpha = trainModel.alpha;
+		double[][] phi = trainModel.phi;
+		
+		String [] tokens = text.split("[ \\t\\n]");
+		int[] words = new int[tokens.length];
+		int N = 0;
+		for (String token : tokens){
+			Integer id = globalDict.getID(token);
+			if (id != null){
+				words[N++] = id;
+			}
+		}
+		
+		int[] z = new int[N];
+		int[] nd = new int[K];
+		// nonzero topics of the document and their positions in docTopics
+		int[] docTopics = new int[K];
+		int[] docTopicIndex = new int[K];
+		Arrays.fill(docTopicIndex, -1);
+		int docTopicSize = 0;
+		for (int n = 0; n < N; n++){
+			int topic = random.nextInt(K);
+			z[n] = topic;
+			nd[topic] += 1;
+			if (docTopicIndex[topic] < 0){
+				docTopicIndex[topic] = docTopicSize;
+				docTopics[docTopicSize++] = topic;
+			}
+		}
+		
+		double[] q = new double[K];
+		for (int iter = 0; iter < niters; iter++){
+			for (int n = 0; n < N; n++){
+				int w = words[n];
+				int old = z[n];
+				nd[old] -= 1;
+				
+				double docMass = 0;
+				for (int i = 0; i < docTopicSize; i++){
+					int k = docTopics[i];
+					q[i] = nd[k] * phi[k][w];
+					docMass += q[i];
+				}
+				AliasTable alias = getWordAlias(w);
+				double smoothingMass = alpha * alias.getMass();
+				
+				int topic;
+				double u = random.nextDouble() * (docMass + smoothingMass);
+				if (u < docMass){
+					topic = docTopics[docTopicSize - 1];
+					for (int i = 0; i < docTopicSize; i++){
+						u -= q[i];
+						if (u < 0){
+							topic = docTopics[i];
+							break;
+						}
+					}
+				}
+				else {
+					topic = alias.sample(random);
+				}
+				
+				if (nd[old] == 0 && topic != old){
+					int index = docTopicIndex[old];
+					int last = docTopics[--docTopicSize];
+					docTopics[index] = last;
+					docTopicIndex[last] = index;
+					docTopicIndex[old] = -1;
+				}
+				if (docTopicIndex[topic] < 0){
+					docTopicIndex[topic] = docTopicSize;
+					docTopics[docTopicSize++] = topic;
+				}
+				nd[topic] += 1;
+				z[n] = topic;
+			}
+		}
+		
+		double[] theta = new double[K];
+		for (int k = 0; k < K; k++){
+			theta[k] = (nd[k] + alpha) / (N + K * alpha);
+		}
+		return theta;
+	}
+	
+	private AliasTable getWordAlias(int w){
+		AliasTable[] aliases = wordAliases;
+		if (aliases == null){
+			synchronized (this){
+				if (wordAliases == null){
+					wordAliases = new AliasTable[trainModel.V];
+				}
+				aliases = wordAliases;
+			}
+		}
+		// concurrent creation of the same table is harmless
+		AliasTable alias = aliases[w];
+		if (alias == null){
+			double[] weights = new double[trainModel.K];
+			for (int k = 0; k < weights.length; k++){
+				weights[k] = trainModel.phi[k][w];
+			}
+			alias = new AliasTable(weights);
+			aliases[w] = alias;
+		}
+		return alias;
+	}
+	
+	private static <T> List<T> call(List<Callable<T>> tasks, ConcurrencyContext context){
+		if (context == null || tasks.size() < 2){
+			List<T> results = new ArrayList<T>(tasks.size());
+			for (Callable<T> task : tasks){
+				try {
+					results.add(task.call());
+				} catch (RuntimeException e){
+					throw e;
+				} catch (Exception e){
+					throw new RuntimeException(e);
+				}
+			}
+			return results;
+		}
+		try {
+			return context.call(tasks);
+		} catch (ExecutionException e){
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException){
+				throw (RuntimeException) cause;
+			}
+			else if (cause instanceof Error){
+				throw (Error) cause;
+			}
+			else {
+				throw new RuntimeException(cause);
+			}
+		}
+	}
+	
 	/**
 	 * do sampling for inference
 	 * m: document number
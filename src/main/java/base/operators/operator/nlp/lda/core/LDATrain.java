@@ -1,13 +1,42 @@
 package base.operators.operator.nlp.lda.core;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import base.operators.core.concurrency.ConcurrencyContext;
 
 public class LDATrain {
 	
+	// number of tokens sampled by one task
+	private static final int TOKENS_PER_TASK = 16384;
+	
+	// number of words prepared by one task
+	private static final int WORDS_PER_TASK = 4096;
+	
 	// output model
 	public Model trainModel;
 	LDAOption option;
 	
+	// topic assignments of the current and of the previous iteration, size M x doc.size()
+	private int [][] topics;
+	private int [][] previousTopics;
+	
+	// topics with a nonzero count for each word at the start of the iteration and their counts
+	private int [][] wordTopics;
+	private int [][] wordTopicCounts;
+	private int [] wordTopicSizes;
+	
+	// 1 / (nwsum[k] + V * beta) at the start of the iteration, size K
+	private double [] denominators;
+	// sum of alpha * beta / (nwsum[k] + V * beta) over all topics
+	private double smoothingMass;
+	
+	private final Random random = new Random();
+	
 	//train init
 	public boolean init(LDAOption option, List<String> text){
 		this.option = option;
@@ -41,21 +70,39 @@ public class LDATrain {
 		}
 	
 	public void train(){
+		train(null);
+	}
+	
+	/**
+	 * Gibbs sampling over blocks of documents (approximate distributed LDA). All blocks sample
+	 * against the topic-word counts of the previous iteration, the changes are merged after each
+	 * iteration. The blocks run in parallel if a context is given, the result does not depend on
+	 * the number of threads.
+	 * @param context may be null for sequential sampling
+	 */
+	public void train(ConcurrencyContext context){
 		
 		System.out.println("Sampling " + trainModel.niters + " iteration!");
+		initSampling();
+		List<int[]> blocks = createBlocks();
 		int lastIter = trainModel.liter;
 		for (trainModel.liter = lastIter + 1; trainModel.liter < trainModel.niters + lastIter; trainModel.liter++){
 			System.out.println("Iteration " + trainModel.liter + " ...");
-			// for all z_i
-			for (int m = 0; m < trainModel.M; m++){				
-				for (int n = 0; n < trainModel.data.docs[m].length; n++){
-					// z_i = z[m][n]
-					// sample from p(z_i|z_-i, w)
-					
-					int topic = sampling(m, n);
-					trainModel.z[m].set(n, topic);
-				}// end for each word
-			}// end for each document
+			prepareIteration(context);
+			
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+			for (final int[] block : blocks){
+				final long seed = random.nextLong();
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						sampleBlock(block[0], block[1], new Random(seed));
+						return null;
+					}
+				});
+			}
+			call(tasks, context);
+			mergeCounts();
 			
 			if (option.savestep > 0){
 				if (trainModel.liter % option.savestep == 0){
@@ -67,6 +114,12 @@ public class LDATrain {
 			}
 		}// end iterations		
 		
+		for (int m = 0; m < trainModel.M; m++){
+			for (int n = 0; n < topics[m].length; n++){
+				trainModel.z[m].set(n, topics[m][n]);
+			}
+		}
+		
 		System.out.println("Gibbs sampling completed!\n");
 	//	System.out.println("Saving the final model!\n");
 		
@@ -76,53 +129,278 @@ public class LDATrain {
 	//	trainModel.liter--;
 	}
 	
+	private void initSampling(){
+		topics = new int[trainModel.M][];
+		previousTopics = new int[trainModel.M][];
+		for (int m = 0; m < trainModel.M; m++){
+			int N = trainModel.data.docs[m].length;
+			topics[m] = new int[N];
+			for (int n = 0; n < N; n++){
+				topics[m][n] = trainModel.z[m].get(n);
+			}
+			previousTopics[m] = topics[m].clone();
+		}
+		
+		wordTopics = new int[trainModel.V][];
+		wordTopicCounts = new int[trainModel.V][];
+		wordTopicSizes = new int[trainModel.V];
+		denominators = new double[trainModel.K];
+	}
+	
 	/**
-	 * Do sampling
-	 * @param m document number
-	 * @param n word number
-	 * @return topic id
+	 * Splits the documents into ranges [from, to) of about {@link #TOKENS_PER_TASK} tokens.
 	 */
-	public int sampling(int m, int n){
-		// remove z_i from the count variable
-		int topic = trainModel.z[m].get(n);
-		int w = trainModel.data.docs[m].words[n];
-		
-		trainModel.nw[w][topic] -= 1;
-		trainModel.nd[m][topic] -= 1;
-		trainModel.nwsum[topic] -= 1;
-		trainModel.ndsum[m] -= 1;
-		
+	private List<int[]> createBlocks(){
+		List<int[]> blocks = new ArrayList<int[]>();
+		int from = 0;
+		int tokens = 0;
+		for (int m = 0; m < trainModel.M; m++){
+			tokens += trainModel.data.docs[m].length;
+			if (tokens >= TOKENS_PER_TASK){
+				blocks.add(new int[] {from, m + 1});
+				from = m + 1;
+				tokens = 0;
+			}
+		}
+		if (from < trainModel.M){
+			blocks.add(new int[] {from, trainModel.M});
+		}
+		return blocks;
+	}
+	
+	/**
+	 * Collects the nonzero topic-word counts and the topic denominators for the next iteration.
+	 */
+	private void prepareIteration(ConcurrencyContext context){
 		double Vbeta = trainModel.V * trainModel.beta;
-		double Kalpha = trainModel.K * trainModel.alpha;
-		
-		
-		
-		//do multinominal sampling via cumulative method
+		smoothingMass = 0;
 		for (int k = 0; k < trainModel.K; k++){
-			trainModel.p[k] = (trainModel.nw[w][k] + trainModel.beta)/(trainModel.nwsum[k] + Vbeta) *
-					(trainModel.nd[m][k] + trainModel.alpha)/(trainModel.ndsum[m] + Kalpha);
+			denominators[k] = 1.0 / (trainModel.nwsum[k] + Vbeta);
+			smoothingMass += trainModel.alpha * trainModel.beta * denominators[k];
 		}
 		
-		// cumulate multinomial parameters
-		for (int k = 1; k < trainModel.K; k++){
-			trainModel.p[k] += trainModel.p[k - 1];
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (int from = 0; from < trainModel.V; from += WORDS_PER_TASK){
+			final int taskFrom = from;
+			final int taskTo = Math.min(trainModel.V, from + WORDS_PER_TASK);
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (int w = taskFrom; w < taskTo; w++){
+						prepareWord(w);
+					}
+					return null;
+				}
+			});
 		}
-		
-		// scaled sample because of unnormalized p[]
-		double u = Math.random() * trainModel.p[trainModel.K - 1];
-		
-		for (topic = 0; topic < trainModel.K; topic++){
-			if (trainModel.p[topic] > u) //sample topic w.r.t distribution p
-				break;
+		call(tasks, context);
+	}
+	
+	private void prepareWord(int w){
+		int[] counts = trainModel.nw[w];
+		int size = 0;
+		for (int k = 0; k < counts.length; k++){
+			if (counts[k] > 0)
+				size++;
+		}
+		if (wordTopics[w] == null || wordTopics[w].length < size){
+			wordTopics[w] = new int[size];
+			wordTopicCounts[w] = new int[size];
+		}
+		int i = 0;
+		for (int k = 0; k < counts.length; k++){
+			if (counts[k] > 0){
+				wordTopics[w][i] = k;
+				wordTopicCounts[w][i] = counts[k];
+				i++;
+			}
 		}
+		wordTopicSizes[w] = size;
+	}
+	
+	/**
+	 * Samples the topics of the documents from (inclusive) to (exclusive). Only the document-topic
+	 * counts of these documents are changed.
+	 * 
+	 * The unnormalized probability of topic k is split into three buckets (SparseLDA):
+	 * alpha * beta / D_k + nd_k * beta / D_k + nw_k * (nd_k + alpha) / D_k with D_k = nwsum_k + V * beta.
+	 * The first sum is the same for all tokens, the second one only runs over the topics of the
+	 * document and the third one only over the topics of the word. The previous topic of the token
+	 * is handled separately since the token itself is removed from its counts.
+	 */
+	private void sampleBlock(int from, int to, Random random){
+		int K = trainModel.K;
+		double alpha = trainModel.alpha;
+		double beta = trainModel.beta;
+		double Vbeta = trainModel.V * beta;
 		
-		// add newly estimated z_i to count variables
-		trainModel.nw[w][topic] += 1;
-		trainModel.nd[m][topic] += 1;
-		trainModel.nwsum[topic] += 1;
-		trainModel.ndsum[m] += 1;
+		// nonzero topics of the current document and their positions in docTopics
+		int[] docTopics = new int[K];
+		int[] docTopicIndex = new int[K];
+		Arrays.fill(docTopicIndex, -1);
+		double[] q = new double[K];
 		
- 		return topic;
+		for (int m = from; m < to; m++){
+			int[] nd = trainModel.nd[m];
+			int[] z = topics[m];
+			int[] words = trainModel.data.docs[m].words;
+			
+			int docTopicSize = 0;
+			double docMass = 0;
+			for (int n = 0; n < z.length; n++){
+				int k = z[n];
+				if (docTopicIndex[k] < 0){
+					docTopicIndex[k] = docTopicSize;
+					docTopics[docTopicSize++] = k;
+					docMass += nd[k] * beta * denominators[k];
+				}
+			}
+			
+			for (int n = 0; n < z.length; n++){
+				int w = words[n];
+				int old = z[n];
+				
+				// remove z_i from the document counts
+				nd[old] -= 1;
+				docMass -= beta * denominators[old];
+				
+				// topic-word bucket without the previous topic
+				int[] wt = wordTopics[w];
+				int[] wc = wordTopicCounts[w];
+				int wordTopicSize = wordTopicSizes[w];
+				int oldWordCount = 0;
+				double wordMass = 0;
+				for (int i = 0; i < wordTopicSize; i++){
+					int k = wt[i];
+					if (k == old){
+						oldWordCount = wc[i] - 1;
+						q[i] = 0;
+					}
+					else {
+						q[i] = wc[i] * (nd[k] + alpha) * denominators[k];
+						wordMass += q[i];
+					}
+				}
+				
+				// the previous topic with z_i removed from the topic-word counts
+				double oldMass = (oldWordCount + beta) * (nd[old] + alpha) / (trainModel.nwsum[old] - 1 + Vbeta);
+				double restDocMass = docMass - nd[old] * beta * denominators[old];
+				double restSmoothingMass = smoothingMass - alpha * beta * denominators[old];
+				
+				double u = random.nextDouble() * (oldMass + wordMass + restDocMass + restSmoothingMass);
+				int topic = old;
+				if (u >= oldMass){
+					u -= oldMass;
+					if (u < wordMass){
+						for (int i = 0; i < wordTopicSize; i++){
+							if (wt[i] != old){
+								topic = wt[i];
+								u -= q[i];
+								if (u < 0)
+									break;
+							}
+						}
+					}
+					else if (u - wordMass < restDocMass){
+						u -= wordMass;
+						for (int i = 0; i < docTopicSize; i++){
+							int k = docTopics[i];
+							if (k != old){
+								topic = k;
+								u -= nd[k] * beta * denominators[k];
+								if (u < 0)
+									break;
+							}
+						}
+					}
+					else {
+						u -= wordMass + restDocMass;
+						for (int k = 0; k < K; k++){
+							if (k != old){
+								topic = k;
+								u -= alpha * beta * denominators[k];
+								if (u < 0)
+									break;
+							}
+						}
+					}
+				}
+				
+				// update the nonzero topics of the document
+				if (nd[old] == 0 && topic != old){
+					int index = docTopicIndex[old];
+					int last = docTopics[--docTopicSize];
+					docTopics[index] = last;
+					docTopicIndex[last] = index;
+					docTopicIndex[old] = -1;
+				}
+				if (docTopicIndex[topic] < 0){
+					docTopicIndex[topic] = docTopicSize;
+					docTopics[docTopicSize++] = topic;
+				}
+				
+				// add newly estimated z_i to the document counts
+				nd[topic] += 1;
+				docMass += beta * denominators[topic];
+				z[n] = topic;
+			}// end for each word
+			
+			for (int i = 0; i < docTopicSize; i++){
+				docTopicIndex[docTopics[i]] = -1;
+			}
+		}// end for each document
+	}
+	
+	/**
+	 * Applies the changed topic assignments to the topic-word counts.
+	 */
+	private void mergeCounts(){
+		for (int m = 0; m < trainModel.M; m++){
+			int[] z = topics[m];
+			int[] previous = previousTopics[m];
+			int[] words = trainModel.data.docs[m].words;
+			for (int n = 0; n < z.length; n++){
+				if (z[n] != previous[n]){
+					trainModel.nw[words[n]][previous[n]] -= 1;
+					trainModel.nwsum[previous[n]] -= 1;
+					trainModel.nw[words[n]][z[n]] += 1;
+					trainModel.nwsum[z[n]] += 1;
+					previous[n] = z[n];
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Runs the tasks in the context or sequentially if no context is given.
+	 */
+	private static void call(List<Callable<Void>> tasks, ConcurrencyContext context){
+		if (context == null || tasks.size() < 2){
+			for (Callable<Void> task : tasks){
+				try {
+					task.call();
+				} catch (RuntimeException e){
+					throw e;
+				} catch (Exception e){
+					throw new RuntimeException(e);
+				}
+			}
+			return;
+		}
+		try {
+			context.call(tasks);
+		} catch (ExecutionException e){
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException){
+				throw (RuntimeException) cause;
+			}
+			else if (cause instanceof Error){
+				throw (Error) cause;
+			}
+			else {
+				throw new RuntimeException(cause);
+			}
+		}
 	}
 	
 	public void computeTheta(){
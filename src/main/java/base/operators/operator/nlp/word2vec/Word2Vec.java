@@ -10,9 +10,7 @@ import base.operators.example.table.AttributeFactory;
 import base.operators.example.table.ExampleTable;
 import base.operators.operator.*;
 import base.operators.operator.nlp.word2vec.core.Learn;
-import base.operators.operator.nlp.word2vec.core.domain.Neuron;
 import base.operators.operator.nlp.word2vec.core.domain.WordEntry;
-import base.operators.operator.nlp.word2vec.core.domain.WordNeuron;
 import base.operators.operator.ports.metadata.ExampleSetMetaData;
 import base.operators.operator.ports.metadata.ModelMetaData;
 import base.operators.tools.Ontology;
@@ -26,8 +24,16 @@ import java.util.Map.Entry;
 
 public class Word2Vec extends ResultObjectAdapter implements Model{
 
+	// computed from the class before the vector matrix was introduced
+	private static final long serialVersionUID = 6282771125402742874L;
+
 	private ExampleSet exampleSet;
-	private HashMap<String, float[]> wordMap = new HashMap<String, float[]>();
+	// vectors of models created before the vector matrix was introduced
+	private HashMap<String, float[]> wordMap;
+	// normalized vectors, row i belongs to vocabulary[i]
+	private String[] vocabulary;
+	private float[] vectors;
+	private HashMap<String, Integer> wordIndex;
 	private int words;
 	private int size;
 	private int topNSize;
@@ -47,26 +53,70 @@ public class Word2Vec extends ResultObjectAdapter implements Model{
 	 * @throws IOException
 	 */
 	public void loadLearnModel(Learn learn){
-		words = learn.wordMap.size();
+		vocabulary = learn.getVocabulary();
+		words = vocabulary.length;
 		size = learn.getLayerSize();
 
-		double[] syn0 = null;
-		float vector = 0;
-		for (Entry<String, Neuron> element : learn.wordMap.entrySet()) {
-			syn0 = ((WordNeuron) element.getValue()).syn0;
-			float[] value = new float[size];
+		float[] syn0 = learn.getVectors();
+		vectors = new float[words * size];
+		wordIndex = new HashMap<String, Integer>(2 * words);
+		for (int i = 0; i < words; i++) {
+			int offset = i * size;
 			double len = 0;
 			for (int j = 0; j < size; j++) {
-				vector = ((Double) syn0[j]).floatValue();
+				float vector = syn0[offset + j];
 				len += vector * vector;
-				value[j] = vector;
+				vectors[offset + j] = vector;
 			}
 			len = Math.sqrt(len);
-			for (int u = 0; u < size; u++) {
-				value[u] /= len;
+			for (int j = 0; j < size; j++) {
+				vectors[offset + j] /= len;
 			}
-			wordMap.put(element.getKey(), value);
+			wordIndex.put(vocabulary[i], i);
 		}
+		wordMap = null;
+	}
+
+	/**
+	 * Creates the vector matrix of models which only contain the word map.
+	 */
+	private synchronized void compact() {
+		if (vectors != null || wordMap == null) {
+			return;
+		}
+		String[] newVocabulary = new String[wordMap.size()];
+		float[] newVectors = new float[wordMap.size() * size];
+		HashMap<String, Integer> newWordIndex = new HashMap<String, Integer>(2 * wordMap.size());
+		int i = 0;
+		for (Entry<String, float[]> entry : wordMap.entrySet()) {
+			newVocabulary[i] = entry.getKey();
+			System.arraycopy(entry.getValue(), 0, newVectors, i * size, size);
+			newWordIndex.put(entry.getKey(), i);
+			i++;
+		}
+		vocabulary = newVocabulary;
+		wordIndex = newWordIndex;
+		vectors = newVectors;
+	}
+
+	/**
+	 * Converts the word map of models serialized before the vector matrix was introduced.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (vectors == null && wordMap != null) {
+			compact();
+			wordMap = null;
+		}
+	}
+
+	/**
+	 * @return the row of the word in the vector matrix or -1 for unknown words
+	 */
+	private int indexOf(String word) {
+		compact();
+		Integer index = wordIndex == null ? null : wordIndex.get(word);
+		return index == null ? -1 : index;
 	}
 
 	/**
@@ -103,12 +153,10 @@ public class Word2Vec extends ResultObjectAdapter implements Model{
 				targetAttribute = regularAttributes[ll];
 			}
 		}
-		for (int jj = 0; jj < exampleSet.size(); jj++) {
-			Example example = exampleSet.getExample(jj);
-			String word = example.getValueAsString(targetAttribute);
-			float[] vec = getWordVector(word);
+		for (Example example : exampleSet) {
+			int index = indexOf(example.getValueAsString(targetAttribute));
 			for (int k = 0; k < predictedLabel.length; k++) {
-				example.setValue(predictedLabel[k],vec[k]);
+				example.setValue(predictedLabel[k], index < 0 ? Double.NaN : vectors[index * size + k]);
 			}
 		}
 		// Create and return a Classification object
@@ -163,6 +211,9 @@ public class Word2Vec extends ResultObjectAdapter implements Model{
 	public void loadJavaModel(byte[] in) {
 		try {
 			if (in != null) {
+				vocabulary = null;
+				vectors = null;
+				wordIndex = null;
 				modelLoadToMem(in, this);
 				return;
 			}
@@ -232,20 +283,14 @@ public class Word2Vec extends ResultObjectAdapter implements Model{
 		for (int i = 0; i < size; i++) {
 			wordVector[i] = wv1[i] - wv0[i] + wv2[i];
 		}
-		float[] tempVector;
 		String name;
 		List<WordEntry> wordEntrys = new ArrayList<WordEntry>(topNSize);
-		for (Entry<String, float[]> entry : wordMap.entrySet()) {
-			name = entry.getKey();
+		for (int w = 0; w < vocabulary.length; w++) {
+			name = vocabulary[w];
 			if (name.equals(word0) || name.equals(word1) || name.equals(word2)) {
 				continue;
 			}
-			float dist = 0;
-			tempVector = entry.getValue();
-			for (int i = 0; i < wordVector.length; i++) {
-				dist += wordVector[i] * tempVector[i];
-			}
-			insertTopN(name, dist, wordEntrys);
+			insertTopN(name, dot(wordVector, w), wordEntrys);
 		}
 		return new TreeSet<WordEntry>(wordEntrys);
 	}
@@ -274,59 +319,37 @@ public class Word2Vec extends ResultObjectAdapter implements Model{
 
 	public Set<WordEntry> distance(String queryWord) {
 
-		float[] center = wordMap.get(queryWord);
+		float[] center = getWordVector(queryWord);
 		if (center == null) {
 			return Collections.emptySet();
 		}
-
-		int resultSize = wordMap.size() < topNSize ? wordMap.size() : topNSize;
-		TreeSet<WordEntry> result = new TreeSet<WordEntry>();
-
-		double min = Float.MIN_VALUE;
-		for (Entry<String, float[]> entry : wordMap.entrySet()) {
-			float[] vector = entry.getValue();
-			float dist = 0;
-			for (int i = 0; i < vector.length; i++) {
-				dist += center[i] * vector[i];
-			}
-
-			if (dist > min) {
-				result.add(new WordEntry(entry.getKey(), dist));
-				if (resultSize < result.size()) {
-					result.pollLast();
-				}
-				min = result.last().score;
-			}
-		}
-		result.pollFirst();
-
-		return result;
+		return nearest(center);
 	}
 
 	public Set<WordEntry> distance(List<String> words) {
 
 		float[] center = null;
 		for (String word : words) {
-			center = sum(center, wordMap.get(word));
+			center = sum(center, getWordVector(word));
 		}
 
 		if (center == null) {
 			return Collections.emptySet();
 		}
+		return nearest(center);
+	}
 
-		int resultSize = wordMap.size() < topNSize ? wordMap.size() : topNSize;
+	private Set<WordEntry> nearest(float[] center) {
+
+		int resultSize = vocabulary.length < topNSize ? vocabulary.length : topNSize;
 		TreeSet<WordEntry> result = new TreeSet<WordEntry>();
 
 		double min = Float.MIN_VALUE;
-		for (Entry<String, float[]> entry : wordMap.entrySet()) {
-			float[] vector = entry.getValue();
-			float dist = 0;
-			for (int i = 0; i < vector.length; i++) {
-				dist += center[i] * vector[i];
-			}
+		for (int w = 0; w < vocabulary.length; w++) {
+			float dist = dot(center, w);
 
 			if (dist > min) {
-				result.add(new WordEntry(entry.getKey(), dist));
+				result.add(new WordEntry(vocabulary[w], dist));
 				if (resultSize < result.size()) {
 					result.pollLast();
 				}
@@ -338,6 +361,15 @@ public class Word2Vec extends ResultObjectAdapter implements Model{
 		return result;
 	}
 
+	private float dot(float[] vector, int w) {
+		int offset = w * size;
+		float dist = 0;
+		for (int i = 0; i < size; i++) {
+			dist += vector[i] * vectors[offset + i];
+		}
+		return dist;
+	}
+
 	private float[] sum(float[] center, float[] fs) {
 		// TODO Auto-generated method stub
 
@@ -367,7 +399,8 @@ public class Word2Vec extends ResultObjectAdapter implements Model{
 	 * @return
 	 */
 	public float[] getWordVector(String word) {
-		return wordMap.get(word);
+		int index = indexOf(word);
+		return index < 0 ? null : Arrays.copyOfRange(vectors, index * size, (index + 1) * size);
 	}
 
 	public static float readFloat(InputStream is) throws IOException {
@@ -427,7 +460,14 @@ public class Word2Vec extends ResultObjectAdapter implements Model{
 	}
 
 	public HashMap<String, float[]> getWordMap() {
-		return wordMap;
+		if (wordMap != null) {
+			return wordMap;
+		}
+		HashMap<String, float[]> map = new HashMap<String, float[]>(2 * vocabulary.length);
+		for (int w = 0; w < vocabulary.length; w++) {
+			map.put(vocabulary[w], Arrays.copyOfRange(vectors, w * size, (w + 1) * size));
+		}
+		return map;
 	}
 
 	public int getWords() {
@@ -1,8 +1,9 @@
 package base.operators.operator.nlp.word2vec;
 
-import base.operators.example.Attributes;
-import base.operators.example.Example;
+import base.operators.core.concurrency.ConcurrencyContext;
+import base.operators.example.Attribute;
 import base.operators.example.ExampleSet;
+import base.operators.example.utils.ExampleSets;
 import base.operators.operator.Operator;
 import base.operators.operator.OperatorCapability;
 import base.operators.operator.OperatorDescription;
@@ -12,9 +13,11 @@ import base.operators.operator.ports.InputPort;
 import base.operators.operator.ports.OutputPort;
 import base.operators.operator.ports.metadata.AttributeSetPrecondition;
 import base.operators.parameter.*;
+import base.operators.studio.concurrency.internal.BackgroudOperatorConcurrencyContext;
+import base.operators.studio.internal.Resources;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
 
 public class Word2VecLearner extends Operator {
@@ -29,6 +32,7 @@ public class Word2VecLearner extends Operator {
     public static final String WINDOW = "window";
     public static final String ALPHA = "alpha";
     public static final String SAMPLE = "sample";
+    public static final String NEGATIVE = "negative";
 
 
     public Word2VecLearner(OperatorDescription description) {
@@ -48,6 +52,7 @@ public class Word2VecLearner extends Operator {
         int window = 0;
         double alpha = 0.025;
         double sample = 0.001;
+        int negative = 0;
         try {
             doc_attribute_name = getParameterAsString(DOC_ATTRIBUTE_NAME);
             isCbow = getParameterAsBoolean(IS_CBOW);
@@ -55,19 +60,35 @@ public class Word2VecLearner extends Operator {
             window = getParameterAsInt(WINDOW);
             alpha = getParameterAsDouble(ALPHA);
             sample = getParameterAsDouble(SAMPLE);
+            negative = getParameterAsInt(NEGATIVE);
         } catch (UndefinedParameterError undefinedParameterError) {
             undefinedParameterError.printStackTrace();
         }
 
-        Attributes attributes = exampleSet.getAttributes();
-
-        List<String> trainText = new ArrayList<>();
-        for (Example example: exampleSet){
-            trainText.add(example.getValueAsString(attributes.get(doc_attribute_name)));
+        // the sentences are read from the example set when needed
+        final ExampleSet trainSet = exampleSet;
+        final Attribute docAttribute = exampleSet.getAttributes().get(doc_attribute_name);
+        List<String> trainText = new AbstractList<String>() {
+
+            @Override
+            public String get(int index) {
+                return trainSet.getExample(index).getValueAsString(docAttribute);
+            }
+
+            @Override
+            public int size() {
+                return trainSet.size();
+            }
+        };
+        ConcurrencyContext context = null;
+        if (ExampleSets.isThreadSafe(exampleSet)) {
+            context = getProcess() != null ? Resources.getConcurrencyContext(this)
+                    : new BackgroudOperatorConcurrencyContext(this);
         }
         Learn learnModel = new Learn(isCbow, layerSize, window, alpha, sample);
+        learnModel.setNegative(negative);
         try {
-            learnModel.learnFile(trainText);
+            learnModel.learnFile(trainText, context);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -97,6 +118,7 @@ public class Word2VecLearner extends Operator {
         types.add(new ParameterTypeInt(WINDOW, "Sliding window size.", 1, Integer.MAX_VALUE, 5, false));
         types.add(new ParameterTypeDouble(ALPHA, "Start learning rate.", 0, Integer.MAX_VALUE, 0.025, false));
         types.add(new ParameterTypeDouble(SAMPLE, "Threshold of Random Downsampling of High Frequency Words.", 0.00001, 1, 0.001, false));
+        types.add(new ParameterTypeInt(NEGATIVE, "Number of negative samples per word, 0 uses hierarchical softmax.", 0, Integer.MAX_VALUE, 0, false));
 
         return types;
     }
@@ -1,18 +1,28 @@
 package base.operators.operator.nlp.word2vec.core;
 
-import base.operators.operator.nlp.word2vec.core.domain.*;
+import base.operators.core.concurrency.ConcurrencyContext;
 
-import java.io.*;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-
-
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * word2vec训练
+ *
+ * The vocabulary is stored in arrays indexed by word id, sorted by descending frequency. The
+ * vectors of all words are rows of one float matrix. The sentences are split into one shard per
+ * thread and the shards are trained lock-free on the shared matrices (Hogwild).
+ */
 public class Learn {
 
-	public Map<String, Neuron> wordMap = new HashMap<>();
 	/**
 	 * 训练多少个特征
 	 */
@@ -25,18 +35,46 @@ public class Learn {
 
 	private double sample = 1e-3;
 	private double alpha = 0.025;
-	private double startingAlpha = alpha;
+
+	/**
+	 * 负采样个数，0表示使用层次softmax
+	 */
+	private int negative = 0;
 
 	public int EXP_TABLE_SIZE = 1000;
 
 	private Boolean isCbow = false;
 
-	private double[] expTable = new double[EXP_TABLE_SIZE];
+	private float[] expTable = new float[EXP_TABLE_SIZE];
 
-	private int trainWordsCount = 0;
+	private long trainWordsCount = 0;
 
 	private int MAX_EXP = 6;
 
+	private static final int MIN_TABLE_SIZE = 1000000;
+	private static final int MAX_TABLE_SIZE = 100000000;
+
+	// vocabulary, sorted by descending count
+	private String[] vocab = new String[0];
+	private long[] counts = new long[0];
+	private Map<String, Integer> wordIds = new HashMap<>();
+
+	// Huffman codes and inner nodes of word i are at codeOffsets[i] until codeOffsets[i + 1]
+	private byte[] codes;
+	private int[] points;
+	private int[] codeOffsets;
+
+	// input vectors, row i belongs to word i
+	private float[] syn0 = new float[0];
+	// output vectors of the inner nodes (hierarchical softmax) or of the words (negative sampling)
+	private float[] syn1;
+	// unigram distribution to the power of 0.75 for negative sampling
+	private int[] table;
+
+	private final AtomicLong wordCountActual = new AtomicLong();
+
+	private final Random random = new Random();
+
 	public Learn(Boolean isCbow, Integer layerSize, Integer window, Double alpha, Double sample) {
 		createExpTable();
 		if (isCbow != null) {
@@ -59,247 +97,365 @@ public class Learn {
 	/**
 	 * trainModel
 	 * @param trainText
-	 * @throws IOException
+	 * @param context may be null for training on a single thread
 	 */
-	private void trainModel(List<String> trainText) throws IOException {
-		long nextRandom = 5;
-		int wordCount = 0;
-		int lastWordCount = 0;
-		int wordCountActual = 0;
-		for (int i = 0; i < trainText.size(); i++) {
+	private void trainModel(final List<String> trainText, ConcurrencyContext context) {
+		int threads = context != null ? Math.max(1, Math.min(context.getParallelism(), trainText.size())) : 1;
+		if (threads == 1) {
+			trainShard(trainText, 0, trainText.size(), random.nextLong(), true);
+		} else {
+			trainShards(trainText, threads, context);
+		}
+		System.out.println("Vocab size: " + vocab.length);
+		System.out.println("Words in train file: " + trainWordsCount);
+		System.out.println("sucess train over!");
+	}
+
+	/**
+	 * Trains one shard of the sentences per thread.
+	 */
+	private void trainShards(final List<String> trainText, int threads, ConcurrencyContext context) {
+		List<Callable<Void>> tasks = new ArrayList<>(threads);
+		for (int i = 0; i < threads; i++) {
+			final int from = (int) ((long) i * trainText.size() / threads);
+			final int to = (int) ((long) (i + 1) * trainText.size() / threads);
+			final long seed = random.nextLong();
+			final boolean printProgress = i == 0;
+			tasks.add(new Callable<Void>() {
+
+				@Override
+				public Void call() {
+					trainShard(trainText, from, to, seed, printProgress);
+					return null;
+				}
+			});
+		}
+		try {
+			context.call(tasks);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new RuntimeException(cause);
+			}
+		}
+	}
+
+	/**
+	 * Trains the sentences from (inclusive) to (exclusive). The vectors are updated without locks.
+	 */
+	private void trainShard(List<String> trainText, int from, int to, long seed, boolean printProgress) {
+		long nextRandom = seed;
+		double startingAlpha = alpha;
+		double currentAlpha = alpha;
+		long wordCount = 0;
+		long lastWordCount = 0;
+		float[] neu1 = new float[layerSize];
+		float[] neu1e = new float[layerSize];
+		int[] sentence = new int[16];
+		for (int i = from; i < to; i++) {
 			if (wordCount - lastWordCount > 10000) {
-				System.out.println("alpha:" + alpha + "\tProgress: "
-						+ (int) (wordCountActual / (double) (trainWordsCount + 1) * 100) + "%");
-				wordCountActual += wordCount - lastWordCount;
+				long actual = wordCountActual.addAndGet(wordCount - lastWordCount);
 				lastWordCount = wordCount;
-				alpha = startingAlpha * (1 - wordCountActual / (double) (trainWordsCount + 1));
-				if (alpha < startingAlpha * 0.0001) {
-					alpha = startingAlpha * 0.0001;
+				if (printProgress) {
+					System.out.println("alpha:" + currentAlpha + "\tProgress: "
+							+ (int) (actual / (double) (trainWordsCount + 1) * 100) + "%");
+				}
+				currentAlpha = startingAlpha * (1 - actual / (double) (trainWordsCount + 1));
+				if (currentAlpha < startingAlpha * 0.0001) {
+					currentAlpha = startingAlpha * 0.0001;
 				}
 			}
 			String[] strs = trainText.get(i).split(" ");
 			wordCount += strs.length;
-			List<WordNeuron> sentence = new ArrayList<WordNeuron>();
-			for (int j = 0; j < strs.length; j++) {
-				Neuron entry = wordMap.get(strs[j]);
-				if (entry == null) {
+			int length = 0;
+			for (String str : strs) {
+				Integer id = wordIds.get(str);
+				if (id == null) {
 					continue;
 				}
 				// The subsampling randomly discards frequent words while
 				// keeping the
 				// ranking same
 				if (sample > 0) {
-					double ran = (Math.sqrt(entry.freq / (sample * trainWordsCount)) + 1)
-							* (sample * trainWordsCount) / entry.freq;
+					double ran = (Math.sqrt(counts[id] / (sample * trainWordsCount)) + 1)
+							* (sample * trainWordsCount) / counts[id];
 					nextRandom = nextRandom * 25214903917L + 11;
 					if (ran < (nextRandom & 0xFFFF) / (double) 65536) {
 						continue;
 					}
 				}
-				sentence.add((WordNeuron) entry);
+				if (length == sentence.length) {
+					sentence = Arrays.copyOf(sentence, 2 * length);
+				}
+				sentence[length++] = id;
 			}
 
-			for (int index = 0; index < sentence.size(); index++) {
+			for (int index = 0; index < length; index++) {
 				nextRandom = nextRandom * 25214903917L + 11;
+				int b = (int) ((nextRandom >>> 16) % window);
 				if (isCbow) {
-					cbowGram(index, sentence, (int) nextRandom % window);
+					nextRandom = cbowGram(index, sentence, length, b, (float) currentAlpha, neu1, neu1e, nextRandom);
 				} else {
-					skipGram(index, sentence, (int) nextRandom % window);
+					nextRandom = skipGram(index, sentence, length, b, (float) currentAlpha, neu1e, nextRandom);
 				}
 			}
 		}
-		System.out.println("Vocab size: " + wordMap.size());
-		System.out.println("Words in train file: " + trainWordsCount);
-		System.out.println("sucess train over!");
-
-
+		wordCountActual.addAndGet(wordCount - lastWordCount);
 	}
 
 	/**
 	 * skip gram 模型训练
-	 * 
-	 * @param sentence
-	 * @param index
+	 *
+	 * @return the next state of the random generator
 	 */
-	private void skipGram(int index, List<WordNeuron> sentence, int b) {
-		// TODO Auto-generated method stub
-		WordNeuron word = sentence.get(index);
-		int a, c = 0;
-		for (a = b; a < window * 2 + 1 - b; a++) {
+	private long skipGram(int index, int[] sentence, int length, int b, float alpha, float[] neu1e,
+			long nextRandom) {
+		int word = sentence[index];
+		for (int a = b; a < window * 2 + 1 - b; a++) {
 			if (a == window) {
 				continue;
 			}
-			c = index - window + a;
-			if (c < 0 || c >= sentence.size()) {
+			int c = index - window + a;
+			if (c < 0 || c >= length) {
 				continue;
 			}
-
-			double[] neu1e = new double[layerSize];// 误差项
-			// HIERARCHICAL SOFTMAX
-			List<Neuron> neurons = word.neurons;
-			WordNeuron we = sentence.get(c);
-			for (int i = 0; i < neurons.size(); i++) {
-				HiddenNeuron out = (HiddenNeuron) neurons.get(i);
-				double f = 0;
-				// Propagate hidden -> output
-				for (int j = 0; j < layerSize; j++) {
-					f += we.syn0[j] * out.syn1[j];
-				}
-				if (f <= -MAX_EXP || f >= MAX_EXP) {
-					continue;
-				} else {
-					f = (f + MAX_EXP) * (EXP_TABLE_SIZE / MAX_EXP / 2);
-					f = expTable[(int) f];
-				}
-				// 'g' is the gradient multiplied by the learning rate
-				double g = (1 - word.codeArr[i] - f) * alpha;
-				// Propagate errors output -> hidden
-				for (c = 0; c < layerSize; c++) {
-					neu1e[c] += g * out.syn1[c];
-				}
-				// Learn weights hidden -> output
-				for (c = 0; c < layerSize; c++) {
-					out.syn1[c] += g * we.syn0[c];
-				}
-			}
-
+			int l1 = sentence[c] * layerSize;
+			Arrays.fill(neu1e, 0);
+			nextRandom = learnOutput(word, syn0, l1, alpha, neu1e, nextRandom);
 			// Learn weights input -> hidden
 			for (int j = 0; j < layerSize; j++) {
-				we.syn0[j] += neu1e[j];
+				syn0[l1 + j] += neu1e[j];
 			}
 		}
-
+		return nextRandom;
 	}
 
 	/**
 	 * 词袋模型
-	 * 
-	 * @param index
-	 * @param sentence
-	 * @param b
+	 *
+	 * @return the next state of the random generator
 	 */
-	private void cbowGram(int index, List<WordNeuron> sentence, int b) {
-		WordNeuron word = sentence.get(index);
-		int a, c = 0;
+	private long cbowGram(int index, int[] sentence, int length, int b, float alpha, float[] neu1, float[] neu1e,
+			long nextRandom) {
+		int word = sentence[index];
+		Arrays.fill(neu1, 0);
+		Arrays.fill(neu1e, 0);
+		int cw = 0;
+		for (int a = b; a < window * 2 + 1 - b; a++) {
+			if (a != window) {
+				int c = index - window + a;
+				if (c < 0 || c >= length)
+					continue;
+				int l1 = sentence[c] * layerSize;
+				for (int j = 0; j < layerSize; j++)
+					neu1[j] += syn0[l1 + j];
+				cw++;
+			}
+		}
+		if (cw == 0) {
+			return nextRandom;
+		}
+		for (int j = 0; j < layerSize; j++)
+			neu1[j] /= cw;
 
-		List<Neuron> neurons = word.neurons;
-		double[] neu1e = new double[layerSize];// 误差项
-		double[] neu1 = new double[layerSize];// 误差项
-		WordNeuron last_word;
+		nextRandom = learnOutput(word, neu1, 0, alpha, neu1e, nextRandom);
 
-		for (a = b; a < window * 2 + 1 - b; a++)
+		for (int a = b; a < window * 2 + 1 - b; a++) {
 			if (a != window) {
-				c = index - window + a;
-				if (c < 0)
+				int c = index - window + a;
+				if (c < 0 || c >= length)
 					continue;
-				if (c >= sentence.size())
-					continue;
-				last_word = sentence.get(c);
-				if (last_word == null)
-					continue;
-				for (c = 0; c < layerSize; c++)
-					neu1[c] += last_word.syn0[c];
+				int l1 = sentence[c] * layerSize;
+				for (int j = 0; j < layerSize; j++)
+					syn0[l1 + j] += neu1e[j];
 			}
+		}
+		return nextRandom;
+	}
 
-		// HIERARCHICAL SOFTMAX
-		for (int d = 0; d < neurons.size(); d++) {
-			HiddenNeuron out = (HiddenNeuron) neurons.get(d);
-			double f = 0;
-			// Propagate hidden -> output
-			for (c = 0; c < layerSize; c++)
-				f += neu1[c] * out.syn1[c];
-			if (f <= -MAX_EXP)
-				continue;
-			else if (f >= MAX_EXP)
-				continue;
-			else
-				f = expTable[(int) ((f + MAX_EXP) * (EXP_TABLE_SIZE / MAX_EXP / 2))];
-			// 'g' is the gradient multiplied by the learning rate
-			// double g = (1 - word.codeArr[d] - f) * alpha;
-			// double g = f*(1-f)*( word.codeArr[i] - f) * alpha;
-			double g = f * (1 - f) * (word.codeArr[d] - f) * alpha;
-			//
-			for (c = 0; c < layerSize; c++) {
-				neu1e[c] += g * out.syn1[c];
-			}
-			// Learn weights hidden -> output
-			for (c = 0; c < layerSize; c++) {
-				out.syn1[c] += g * neu1[c];
+	/**
+	 * Trains the output vectors for predicting the word from the hidden layer input[offset...]
+	 * and adds the error of the hidden layer to neu1e.
+	 *
+	 * @return the next state of the random generator
+	 */
+	private long learnOutput(int word, float[] input, int offset, float alpha, float[] neu1e, long nextRandom) {
+		if (negative > 0) {
+			// NEGATIVE SAMPLING
+			for (int d = 0; d <= negative; d++) {
+				int target;
+				int label;
+				if (d == 0) {
+					target = word;
+					label = 1;
+				} else {
+					nextRandom = nextRandom * 25214903917L + 11;
+					target = table[(int) ((nextRandom >>> 16) % table.length)];
+					if (target == word)
+						continue;
+					label = 0;
+				}
+				int l2 = target * layerSize;
+				float f = 0;
+				for (int j = 0; j < layerSize; j++)
+					f += input[offset + j] * syn1[l2 + j];
+				float g;
+				if (f > MAX_EXP)
+					g = (label - 1) * alpha;
+				else if (f < -MAX_EXP)
+					g = label * alpha;
+				else
+					g = (label - expTable[(int) ((f + MAX_EXP) * (EXP_TABLE_SIZE / MAX_EXP / 2))]) * alpha;
+				for (int j = 0; j < layerSize; j++)
+					neu1e[j] += g * syn1[l2 + j];
+				for (int j = 0; j < layerSize; j++)
+					syn1[l2 + j] += g * input[offset + j];
 			}
-		}
-		for (a = b; a < window * 2 + 1 - b; a++) {
-			if (a != window) {
-				c = index - window + a;
-				if (c < 0)
-					continue;
-				if (c >= sentence.size())
-					continue;
-				last_word = sentence.get(c);
-				if (last_word == null)
+		} else {
+			// HIERARCHICAL SOFTMAX
+			for (int d = codeOffsets[word]; d < codeOffsets[word + 1]; d++) {
+				int l2 = points[d] * layerSize;
+				float f = 0;
+				// Propagate hidden -> output
+				for (int j = 0; j < layerSize; j++)
+					f += input[offset + j] * syn1[l2 + j];
+				if (f <= -MAX_EXP || f >= MAX_EXP)
 					continue;
-				for (c = 0; c < layerSize; c++)
-					last_word.syn0[c] += neu1e[c];
+				f = expTable[(int) ((f + MAX_EXP) * (EXP_TABLE_SIZE / MAX_EXP / 2))];
+				// 'g' is the gradient multiplied by the learning rate
+				float g = (1 - codes[d] - f) * alpha;
+				// Propagate errors output -> hidden
+				for (int j = 0; j < layerSize; j++)
+					neu1e[j] += g * syn1[l2 + j];
+				// Learn weights hidden -> output
+				for (int j = 0; j < layerSize; j++)
+					syn1[l2 + j] += g * input[offset + j];
 			}
-
 		}
+		return nextRandom;
 	}
 
 	/**
 	 * 统计词频
-	 * 
+	 *
 	 * @param trainText
-	 * @throws IOException
 	 */
-	private void readVocab(List<String> trainText) throws IOException {
-		MapCount<String> mc = new MapCount<>();
+	private void readVocab(List<String> trainText) {
+		Map<String, Integer> ids = new HashMap<>();
+		long[] wordCounts = new long[1024];
 		for (int i = 0; i < trainText.size(); i++) {
 			String[] split = trainText.get(i).split(" ");
 			trainWordsCount += split.length;
 			for (String string : split) {
-				mc.add(string);
+				Integer id = ids.get(string);
+				if (id == null) {
+					id = ids.size();
+					ids.put(string, id);
+					if (id == wordCounts.length) {
+						wordCounts = Arrays.copyOf(wordCounts, 2 * id);
+					}
+				}
+				wordCounts[id]++;
 			}
 		}
-		for (Entry<String, Integer> element : mc.get().entrySet()) {
-			wordMap.put(element.getKey(),
-					new WordNeuron(element.getKey(), (double) element.getValue() / mc.size(), layerSize));
+
+		// sort by descending count
+		final long[] unsortedCounts = wordCounts;
+		Integer[] order = new Integer[ids.size()];
+		String[] words = new String[ids.size()];
+		for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+			order[entry.getValue()] = entry.getValue();
+			words[entry.getValue()] = entry.getKey();
+		}
+		Arrays.sort(order, (x, y) -> Long.compare(unsortedCounts[y], unsortedCounts[x]));
+
+		vocab = new String[order.length];
+		counts = new long[order.length];
+		wordIds = new HashMap<>(2 * order.length);
+		for (int i = 0; i < order.length; i++) {
+			vocab[i] = words[order[i]];
+			counts[i] = unsortedCounts[order[i]];
+			wordIds.put(vocab[i], i);
 		}
 	}
 
 	/**
-	 * 对文本进行预分类
-	 * 
-	 * @param files
-	 * @throws IOException
-	 * @throws FileNotFoundException
+	 * 构建Haffman编码树, the vocabulary has to be sorted by descending count
 	 */
-	private void readVocabWithSupervised(File[] files) throws IOException {
-		for (int category = 0; category < files.length; category++) {
-			// 对多个文件学习
-			MapCount<String> mc = new MapCount<>();
-			try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(files[category])))) {
-				String temp = null;
-				while ((temp = br.readLine()) != null) {
-					String[] split = temp.split(" ");
-					trainWordsCount += split.length;
-					for (String string : split) {
-						mc.add(string);
-					}
-				}
+	private void createBinaryTree() {
+		int vocabSize = vocab.length;
+		long[] count = new long[vocabSize * 2 + 1];
+		byte[] binary = new byte[vocabSize * 2 + 1];
+		int[] parentNode = new int[vocabSize * 2 + 1];
+		for (int a = 0; a < vocabSize; a++)
+			count[a] = counts[a];
+		for (int a = vocabSize; a < vocabSize * 2; a++)
+			count[a] = Long.MAX_VALUE;
+		int pos1 = vocabSize - 1;
+		int pos2 = vocabSize;
+		// the two smallest nodes are merged repeatedly
+		for (int a = 0; a < vocabSize - 1; a++) {
+			int min1i;
+			int min2i;
+			if (pos1 >= 0 && count[pos1] < count[pos2]) {
+				min1i = pos1--;
+			} else {
+				min1i = pos2++;
 			}
-			for (Entry<String, Integer> element : mc.get().entrySet()) {
-				double tarFreq = (double) element.getValue() / mc.size();
-				if (wordMap.get(element.getKey()) != null) {
-					double srcFreq = wordMap.get(element.getKey()).freq;
-					if (srcFreq >= tarFreq) {
-						continue;
-					} else {
-						Neuron wordNeuron = wordMap.get(element.getKey());
-						wordNeuron.category = category;
-						wordNeuron.freq = tarFreq;
-					}
-				} else {
-					wordMap.put(element.getKey(), new WordNeuron(element.getKey(), tarFreq, category, layerSize));
-				}
+			if (pos1 >= 0 && count[pos1] < count[pos2]) {
+				min2i = pos1--;
+			} else {
+				min2i = pos2++;
+			}
+			count[vocabSize + a] = count[min1i] + count[min2i];
+			parentNode[min1i] = vocabSize + a;
+			parentNode[min2i] = vocabSize + a;
+			binary[min2i] = 1;
+		}
+
+		codeOffsets = new int[vocabSize + 1];
+		for (int a = 0; a < vocabSize; a++) {
+			int length = 0;
+			for (int b = a; b != vocabSize * 2 - 2; b = parentNode[b])
+				length++;
+			codeOffsets[a + 1] = codeOffsets[a] + length;
+		}
+		codes = new byte[codeOffsets[vocabSize]];
+		points = new int[codeOffsets[vocabSize]];
+		for (int a = 0; a < vocabSize; a++) {
+			// the path is collected from the leaf, codes and points are stored from the root
+			int i = codeOffsets[a + 1] - 1;
+			int b = a;
+			while (b != vocabSize * 2 - 2) {
+				codes[i] = binary[b];
+				b = parentNode[b];
+				points[i] = b - vocabSize;
+				i--;
+			}
+		}
+	}
+
+	/**
+	 * 负采样的词频表
+	 */
+	private void initUnigramTable() {
+		int tableSize = (int) Math.max(MIN_TABLE_SIZE, Math.min(MAX_TABLE_SIZE, 100L * vocab.length));
+		table = new int[tableSize];
+		double power = 0.75;
+		double trainWordsPow = 0;
+		for (long count : counts)
+			trainWordsPow += Math.pow(count, power);
+		int i = 0;
+		double d1 = Math.pow(counts[i], power) / trainWordsPow;
+		for (int a = 0; a < tableSize; a++) {
+			table[a] = i;
+			if (a / (double) tableSize > d1 && i < vocab.length - 1) {
+				i++;
+				d1 += Math.pow(counts[i], power) / trainWordsPow;
 			}
 		}
 	}
@@ -309,27 +465,69 @@ public class Learn {
 	 */
 	private void createExpTable() {
 		for (int i = 0; i < EXP_TABLE_SIZE; i++) {
-			expTable[i] = Math.exp(((i / (double) EXP_TABLE_SIZE * 2 - 1) * MAX_EXP));
-			expTable[i] = expTable[i] / (expTable[i] + 1);
+			double e = Math.exp(((i / (double) EXP_TABLE_SIZE * 2 - 1) * MAX_EXP));
+			expTable[i] = (float) (e / (e + 1));
 		}
 	}
 
 	/**
 	 * 根据文件学习
-	 * 
+	 *
 	 * @param trainText
 	 * @throws IOException
 	 */
 	public void learnFile(List<String> trainText) throws IOException {
+		learnFile(trainText, null);
+	}
+
+	/**
+	 * 根据文件学习, the sentences are read twice and are not copied
+	 *
+	 * @param trainText
+	 * @param context
+	 *            trains on the threads of the context, may be null for a single thread. The list
+	 *            has to support concurrent reads.
+	 * @throws IOException
+	 */
+	public void learnFile(List<String> trainText, ConcurrencyContext context) throws IOException {
 		readVocab(trainText);
-		new Haffman(layerSize).make(wordMap.values());
 
-		// 查找每个神经元
-		for (Neuron neuron : wordMap.values()) {
-			((WordNeuron) neuron).makeNeurons();
+		syn0 = new float[vocab.length * layerSize];
+		for (int i = 0; i < syn0.length; i++) {
+			syn0[i] = (float) ((random.nextDouble() - 0.5) / layerSize);
 		}
+		if (vocab.length < 2) {
+			return;
+		}
+		if (negative > 0) {
+			syn1 = new float[vocab.length * layerSize];
+			initUnigramTable();
+		} else {
+			syn1 = new float[(vocab.length - 1) * layerSize];
+			createBinaryTree();
+		}
+
+		trainModel(trainText, context);
+
+		syn1 = null;
+		table = null;
+		codes = null;
+		points = null;
+		codeOffsets = null;
+	}
 
-		trainModel(trainText);
+	/**
+	 * @return the words, the vector of word i is row i of {@link #getVectors()}
+	 */
+	public String[] getVocabulary() {
+		return vocab;
+	}
+
+	/**
+	 * @return the vectors of all words, one row of {@link #getLayerSize()} values per word
+	 */
+	public float[] getVectors() {
+		return syn0;
 	}
 
 	public int getLayerSize() {
@@ -362,7 +560,14 @@ public class Learn {
 
 	public void setAlpha(double alpha) {
 		this.alpha = alpha;
-		this.startingAlpha = alpha;
+	}
+
+	public int getNegative() {
+		return negative;
+	}
+
+	public void setNegative(int negative) {
+		this.negative = negative;
 	}
 
 	public Boolean getIsCbow() {
@@ -1,65 +0,0 @@
-package base.operators.operator.nlp.word2vec.core.domain;
-
-import java.io.Serializable;
-import java.security.SecureRandom;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-
-public class WordNeuron extends Neuron implements Serializable {
-  private static final long serialVersionUID = 1L;
-
-  public String name;
-  public double[] syn0 = null; // input->hidden
-  public List<Neuron> neurons = null;// 路径神经元
-  public int[] codeArr = null;
-
-  public List<Neuron> makeNeurons() {
-    if (neurons != null) {
-      return neurons;
-    }
-    Neuron neuron = this;
-    neurons = new LinkedList<>();
-    while ((neuron = neuron.parent) != null) {
-      neurons.add(neuron);
-    }
-    Collections.reverse(neurons);
-    codeArr = new int[neurons.size()];
-
-    for (int i = 1; i < neurons.size(); i++) {
-      codeArr[i - 1] = neurons.get(i).code;
-    }
-    codeArr[codeArr.length - 1] = this.code;
-
-    return neurons;
-  }
-
-  public WordNeuron(String name, double freq, int layerSize) {
-    this.name = name;
-    this.freq = freq;
-    this.syn0 = new double[layerSize];
-    SecureRandom secRandom = new SecureRandom();
-    for (int i = 0; i < syn0.length; i++) {
-      syn0[i] = (secRandom.nextDouble() - 0.5) / layerSize;
-    }
-  }
-
-  /**
-   * 用于有监督的创造hoffman tree
-   * 
-   * @param name
-   * @param freq
-   * @param layerSize
-   */
-  public WordNeuron(String name, double freq, int category, int layerSize) {
-    this.name = name;
-    this.freq = freq;
-    this.syn0 = new double[layerSize];
-    this.category = category;
-    SecureRandom secRandom = new SecureRandom();
-    for (int i = 0; i < syn0.length; i++) {
-      syn0[i] = (secRandom.nextDouble() - 0.5) / layerSize;
-    }
-  }
-
-}
\ No newline at end of file
@@ -243,4 +243,9 @@ public abstract class PreprocessingOperator extends AbstractDataProcessing {
 	public OutputPort getPreprocessingModelOutputPort() {
 		return modelOutput;
 	}
+
+	@Override
+	protected boolean isResultCacheable() {
+		return isRandomSeedFixed();
+	}
 }
@@ -165,4 +165,9 @@ public class ChangeAttributeName extends AbstractDataProcessing {
 		return OperatorResourceConsumptionHandler.getResourceConsumptionEstimator(getInputPort(), ChangeAttributeName.class,
 				null);
 	}
+
+	@Override
+	protected boolean isResultCacheable() {
+		return true;
+	}
 }
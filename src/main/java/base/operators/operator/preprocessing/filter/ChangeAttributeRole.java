@@ -247,4 +247,9 @@ public class ChangeAttributeRole extends AbstractDataProcessing {
 		return OperatorResourceConsumptionHandler.getResourceConsumptionEstimator(getInputPort(), ChangeAttributeRole.class,
 				null);
 	}
+
+	@Override
+	protected boolean isResultCacheable() {
+		return true;
+	}
 }
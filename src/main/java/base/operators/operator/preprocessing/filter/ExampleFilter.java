@@ -228,6 +228,15 @@ public class ExampleFilter extends AbstractDataProcessing {
 			throw new UserError(this, e, 904, className, e.getMessage());
 		}
 		try {
+			if (condition instanceof ExpressionFilter) {
+				// evaluate the expression only once for both outputs
+				boolean[] conditionOk = ((ExpressionFilter) condition).conditionOk(inputSet, this, getProgress());
+				if (unmatchedOutput.isConnected()) {
+					unmatchedOutput.deliver(new ConditionedExampleSet(inputSet, conditionOk,
+							!getParameterAsBoolean(PARAMETER_INVERT_FILTER)));
+				}
+				return new ConditionedExampleSet(inputSet, conditionOk, getParameterAsBoolean(PARAMETER_INVERT_FILTER));
+			}
 			ExampleSet result = new ConditionedExampleSet(inputSet, condition,
 					getParameterAsBoolean(PARAMETER_INVERT_FILTER), getProgress());
 			if (unmatchedOutput.isConnected()) {
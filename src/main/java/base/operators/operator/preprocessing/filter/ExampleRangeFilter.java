@@ -124,4 +124,9 @@ public class ExampleRangeFilter extends AbstractDataProcessing {
 		return OperatorResourceConsumptionHandler.getResourceConsumptionEstimator(getInputPort(), ExampleRangeFilter.class,
 				null);
 	}
+
+	@Override
+	protected boolean isResultCacheable() {
+		return true;
+	}
 }
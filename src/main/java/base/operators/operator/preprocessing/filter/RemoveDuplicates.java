@@ -192,4 +192,9 @@ public class RemoveDuplicates extends AbstractDataProcessing {
 		return OperatorResourceConsumptionHandler.getResourceConsumptionEstimator(getInputPort(), RemoveDuplicates.class,
 				null);
 	}
+
+	@Override
+	protected boolean isResultCacheable() {
+		return true;
+	}
 }
@@ -96,4 +96,9 @@ public class Sorting extends AbstractDataProcessing {
 	public ResourceConsumptionEstimator getResourceConsumptionEstimator() {
 		return OperatorResourceConsumptionHandler.getResourceConsumptionEstimator(getInputPort(), Sorting.class, null);
 	}
+
+	@Override
+	protected boolean isResultCacheable() {
+		return true;
+	}
 }
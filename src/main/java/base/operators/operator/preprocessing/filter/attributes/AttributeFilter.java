@@ -111,4 +111,9 @@ public class AttributeFilter extends AbstractFeatureSelection {
 		return OperatorResourceConsumptionHandler.getResourceConsumptionEstimator(getInputPort(), AttributeFilter.class,
 				attributeSelector);
 	}
+
+	@Override
+	protected boolean isResultCacheable() {
+		return true;
+	}
 }
@@ -58,7 +58,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -85,58 +84,6 @@ public class BeltTableJoin
 
     private static final String FROM_SECOND_SET = "_from_ES2";
 
-    private static class DoubleArrayWrapper
-    {
-        private double[] data;
-
-        private DoubleArrayWrapper(double[] data) { this.data = data; }
-
-        @Override
-        public boolean equals(Object other) { return (other instanceof DoubleArrayWrapper && equals(this.data, ((DoubleArrayWrapper)other).data)); }
-
-        @Override
-        public int hashCode() {
-            if (this.data == null) {
-                return 0;
-            }
-            int result = 1;
-            for (double element : this.data) {
-                long bits = Double.doubleToLongBits(element);
-
-                if (bits != Float.MIN_VALUE) {
-                    result = 31 * result + (int)(bits ^ bits >>> 32);
-                }
-            }
-            return result;
-        }
-
-        @Override
-        public String toString() { return Arrays.toString(this.data); }
-
-        private static boolean equals(double[] a, double[] a2) {
-            if (a == a2) {
-                return true;
-            }
-            if (a == null || a2 == null) {
-                return false;
-            }
-
-            int length = a.length;
-            if (a2.length != length) {
-                return false;
-            }
-
-            for (int i = 0; i < length; i++) {
-                if (a[i] != a2[i]) {
-                    return false;
-                }
-            }
-            return true;
-        }
-    }
-
-    private static final DoubleArrayWrapper NO_MATCH_KEY = new DoubleArrayWrapper(new double[] {0.0D/0.0 });
-
     private static final String LEFT_EXAMPLE_SET_INPUT = "left";
 
     private static final String RIGHT_EXAMPLE_SET_INPUT = "right";
@@ -455,7 +402,7 @@ public class BeltTableJoin
         return null;
     }
 
-    private Table performTableJoin(Table leftTable, Table rightTable, Pair<List<String>, List<String>> keyAttributes, boolean keepBothJoinAttributes, boolean inner, boolean fullOuter, boolean rightFirst) throws UserError {
+    private Table performTableJoin(Table leftTable, Table rightTable, Pair<List<String>, List<String>> keyAttributes, boolean keepBothJoinAttributes, boolean inner, boolean fullOuter, boolean rightFirst) throws OperatorException {
         Pair<int[][], Integer> rowsAndIndex;
         List<String> leftKeyAttributeNames = (List)keyAttributes.getFirst();
         List<String> rightKeyAttributeNames = (List)keyAttributes.getSecond();
@@ -465,19 +412,9 @@ public class BeltTableJoin
 
         Set<Integer> dateTimeColumns = findDateTimeColumns(leftKeyTable);
 
-
-        if (!dateTimeColumns.isEmpty()) {
-
-            Map<DoubleArrayWrapper, List<Integer>> rightKeyMapping = createDateTimeKeyMapping(rightKeyTable, leftKeyTable, dateTimeColumns, fullOuter);
-
-            rowsAndIndex = getRowsWithDateTime(leftKeyTable, rightKeyMapping, dateTimeColumns, inner, fullOuter);
-        }
-        else {
-
-            Map<DoubleArrayWrapper, List<Integer>> rightKeyMapping = createKeyMapping(rightKeyTable, leftKeyTable, fullOuter);
-
-            rowsAndIndex = getRows(leftKeyTable, rightKeyMapping, inner, fullOuter);
-        }
+        HashJoin.Keys rightKeys = createKeys(rightKeyTable, leftKeyTable, dateTimeColumns);
+        HashJoin.Keys leftKeys = createKeys(leftKeyTable, null, dateTimeColumns);
+        rowsAndIndex = HashJoin.join(this, this.context, leftKeys, rightKeys, !inner, fullOuter);
 
         int[][] rows = (int[][])rowsAndIndex.getFirst();
 
@@ -579,96 +516,63 @@ public class BeltTableJoin
                 .toColumn(type);
     }
 
-    private Map<DoubleArrayWrapper, List<Integer>> createKeyMapping(Table keyTable, Table remapKeyTable, boolean fullOuter) {
-        Map<Integer, Map<Integer, Integer>> valueMapping = createCategoricalRemapping(keyTable, remapKeyTable);
-
-        Map<DoubleArrayWrapper, List<Integer>> keyMapping = new HashMap<DoubleArrayWrapper, List<Integer>>();
-
-        boolean hasRemapping = !valueMapping.isEmpty();
-        NumericRowReader rowReader = Readers.numericRowReader(keyTable);
+    /**
+     * Stores the keys of all rows. Date-time values take two key values, the seconds and the nanoseconds.
+     *
+     * @param remapKeyTable if not {@code null}, categorical indices are mapped to the indices of the same
+     *                      categories in this table and rows with categories missing there never match
+     */
+    private HashJoin.Keys createKeys(Table keyTable, Table remapKeyTable, Set<Integer> dateTimeColumns) {
+        int[][] remapping = remapKeyTable != null ? createCategoricalRemapping(keyTable, remapKeyTable) : null;
+        boolean[] isDateTime = new boolean[keyTable.width()];
+        for (int columnIndex : dateTimeColumns) {
+            isDateTime[columnIndex] = true;
+        }
+        int keySize = keyTable.width() + dateTimeColumns.size();
+        HashJoin.Keys keys = new HashJoin.Keys(keyTable.height(), keySize);
+        double[] key = new double[keySize];
         int r = 0;
-        while (rowReader.hasRemaining()) {
-            rowReader.move();
-            double[] key = getAsDoubleArray(rowReader, new double[rowReader.width()]);
-            boolean remapComplete = true;
-            if (hasRemapping) {
-                remapComplete = remap(key, valueMapping);
-            }
-            storeDoubleArray(key, keyMapping, r, fullOuter, remapComplete);
-            r++;
-        }
-
-        return keyMapping;
-    }
-
-    private boolean remap(double[] key, Map<Integer, Map<Integer, Integer>> valueMapping) {
-        boolean remapComplete = true;
-        for (int c = 0; c < key.length; c++) {
-            Map<Integer, Integer> valueMap = (Map)valueMapping.get(Integer.valueOf(c));
-            if (valueMap != null) {
-                Integer remap = (Integer)valueMap.get(Integer.valueOf((int)key[c]));
-                if (remap != null) {
-                    if (remap.intValue() != 0) {
-                        key[c] = remap.intValue();
-                    }
-                } else {
-                    remapComplete = false;
-                    break;
-                }
+        if (dateTimeColumns.isEmpty()) {
+            NumericRowReader rowReader = Readers.numericRowReader(keyTable);
+            while (rowReader.hasRemaining()) {
+                rowReader.move();
+                storeKey(keys, r, getAsDoubleArray(rowReader, key), remapping, isDateTime);
+                r++;
             }
-        }
-        return remapComplete;
-    }
-
-    private Map<DoubleArrayWrapper, List<Integer>> createDateTimeKeyMapping(Table keyTable, Table remapKeyTable, Set<Integer> dateTimeColumns, boolean fullOuter) {
-        Map<Integer, Map<Integer, Integer>> valueMapping = createCategoricalRemapping(keyTable, remapKeyTable);
-
-        Map<DoubleArrayWrapper, List<Integer>> keyMapping = new HashMap<DoubleArrayWrapper, List<Integer>>();
-
-        boolean hasRemapping = !valueMapping.isEmpty();
-
-        int doubledCount = dateTimeColumns.size();
-        int keySize = keyTable.width() + doubledCount;
-        MixedRowReader rowReader = Readers.mixedRowReader(keyTable);
-        int r = 0;
-        while (rowReader.hasRemaining()) {
-            rowReader.move();
-            double[] key = getAsDoubleArray(rowReader, dateTimeColumns, new double[keySize]);
-
-            boolean remapComplete = true;
-            if (hasRemapping) {
-                remapComplete = remapWithDateTime(key, valueMapping, keyTable.width(), dateTimeColumns);
+        } else {
+            MixedRowReader rowReader = Readers.mixedRowReader(keyTable);
+            while (rowReader.hasRemaining()) {
+                rowReader.move();
+                storeKey(keys, r, getAsDoubleArray(rowReader, dateTimeColumns, key), remapping, isDateTime);
+                r++;
             }
-            storeDoubleArray(key, keyMapping, r, fullOuter, remapComplete);
-            r++;
         }
-
-        return keyMapping;
+        return keys;
     }
 
-    private boolean remapWithDateTime(double[] key, Map<Integer, Map<Integer, Integer>> valueMapping, int tableWidth, Set<Integer> dateTimeColumns) {
-        boolean remapComplete = true;
+    private void storeKey(HashJoin.Keys keys, int row, double[] key, int[][] remapping, boolean[] isDateTime) {
         int keyIndex = 0;
-        for (int columnIndex = 0; columnIndex < tableWidth; columnIndex++) {
-            if (dateTimeColumns.contains(Integer.valueOf(columnIndex))) {
+        for (int columnIndex = 0; columnIndex < isDateTime.length; columnIndex++) {
+            if (isDateTime[columnIndex]) {
+                keys.set(row, keyIndex, key[keyIndex]);
+                keys.set(row, keyIndex + 1, key[keyIndex + 1]);
                 keyIndex += 2;
             } else {
-                Map<Integer, Integer> valueMap = (Map)valueMapping.get(Integer.valueOf(columnIndex));
-                if (valueMap != null) {
-                    Integer remap = (Integer)valueMap.get(Integer.valueOf((int)key[keyIndex]));
-                    if (remap != null) {
-                        if (remap.intValue() != 0) {
-                            key[keyIndex] = remap.intValue();
-                        }
-                    } else {
-                        remapComplete = false;
-                        break;
+                double value = key[keyIndex];
+                if (remapping != null && remapping[columnIndex] != null) {
+                    int[] valueMap = remapping[columnIndex];
+                    int index = (int) value;
+                    int remap = index >= 0 && index < valueMap.length ? valueMap[index] : -1;
+                    if (remap < 0) {
+                        keys.setInvalid(row);
+                    } else if (remap != 0) {
+                        value = remap;
                     }
                 }
+                keys.set(row, keyIndex, value);
                 keyIndex++;
             }
         }
-        return remapComplete;
     }
 
     private double[] getAsDoubleArray(MixedRow row, Set<Integer> dateTimeColumns, double[] key) {
@@ -698,28 +602,12 @@ public class BeltTableJoin
         return key;
     }
 
-    private void storeDoubleArray(double[] key, Map<DoubleArrayWrapper, List<Integer>> keyMapping, int row, boolean fullOuter, boolean remapComplete) {
-        if (remapComplete) {
-            DoubleArrayWrapper wrappedKey = new DoubleArrayWrapper(key);
-            List<Integer> indices = (List)keyMapping.get(wrappedKey);
-            if (indices == null) {
-                indices = new ArrayList<Integer>(1);
-                keyMapping.put(wrappedKey, indices);
-            }
-            indices.add(Integer.valueOf(row));
-        } else if (fullOuter) {
-
-            List<Integer> indices = (List)keyMapping.get(NO_MATCH_KEY);
-            if (indices == null) {
-                indices = new ArrayList<Integer>(1);
-                keyMapping.put(NO_MATCH_KEY, indices);
-            }
-            indices.add(Integer.valueOf(row));
-        }
-    }
-
-    private Map<Integer, Map<Integer, Integer>> createCategoricalRemapping(Table keyTable, Table remapKeyTable) {
-        Map<Integer, Map<Integer, Integer>> valueMapping = new HashMap<Integer, Map<Integer, Integer>>();
+    /**
+     * @return for every categorical column the index of each category in the remap key table or -1 if it
+     * does not exist there, {@code null} for other columns
+     */
+    private int[][] createCategoricalRemapping(Table keyTable, Table remapKeyTable) {
+        int[][] valueMapping = new int[keyTable.width()][];
         for (int c = 0; c < keyTable.width(); c++) {
             Column keyColumn = keyTable.column(c);
             Column remapKeyColumn = remapKeyTable.column(c);
@@ -729,169 +617,19 @@ public class BeltTableJoin
 
                 Map<Object, Integer> remapCategoryToIndexMap = remapKeyColumn.getDictionary(Object.class).createInverse();
 
-                Map<Integer, Integer> valueMap = new HashMap<Integer, Integer>();
+                int[] valueMap = new int[indexToCategoryMap.maximalIndex() + 1];
                 for (int j = 0; j <= indexToCategoryMap.maximalIndex(); j++) {
                     Object category = indexToCategoryMap.get(j);
                     Integer remapIndex = (Integer)remapCategoryToIndexMap.get(category);
-                    if (remapIndex != null) {
-                        valueMap.put(Integer.valueOf(j), remapIndex);
-                    }
+                    valueMap[j] = remapIndex != null ? remapIndex.intValue() : -1;
                 }
 
-                valueMapping.put(Integer.valueOf(c), valueMap);
+                valueMapping[c] = valueMap;
             }
         }
         return valueMapping;
     }
 
-    private Pair<int[][], Integer> getRows(Table leftKeyTable, Map<DoubleArrayWrapper, List<Integer>> rightKeyMapping, boolean inner, boolean fullOuter) throws UserError {
-        long matchingRowCount = 0L;
-        int missingLeftCount = 0;
-        List<Integer> missingRightIndices = new ArrayList<Integer>();
-        Map<DoubleArrayWrapper, List<Integer>> rightCopy = null;
-        if (fullOuter) {
-            rightCopy = new HashMap<DoubleArrayWrapper, List<Integer>>(rightKeyMapping);
-        }
-
-        NumericRowReader leftReader = Readers.numericRowReader(leftKeyTable);
-        while (leftReader.hasRemaining()) {
-            leftReader.move();
-            DoubleArrayWrapper wrappedKey = new DoubleArrayWrapper(getAsDoubleArray(leftReader, new double[leftReader.width()]));
-
-            List<Integer> rightIndices = (List)rightKeyMapping.get(wrappedKey);
-            if (fullOuter) {
-                rightCopy.remove(wrappedKey);
-            }
-            if (rightIndices != null) {
-                matchingRowCount += rightIndices.size(); continue;
-            }
-            missingLeftCount++;
-        }
-
-        if (fullOuter) {
-            for (List<Integer> indices : rightCopy.values()) {
-                missingRightIndices.addAll(indices);
-            }
-        }
-
-        long total = matchingRowCount + (long) (fullOuter ? missingRightIndices.size() : 0) + (inner ? 0 : missingLeftCount);
-        if (total > 2147483647L) {
-            throw new UserError(this, "join_too_big");
-        }
-        int[][] rows = new int[2][(int)total];
-
-
-        leftReader.setPosition(-1);
-        int joinIndex = 0;
-        int leftIndex = 0;
-        while (leftReader.hasRemaining()) {
-            leftReader.move();
-            DoubleArrayWrapper wrappedKey = new DoubleArrayWrapper(getAsDoubleArray(leftReader, new double[leftReader.width()]));
-
-            List<Integer> rightIndices = (List)rightKeyMapping.get(wrappedKey);
-            if (rightIndices != null) {
-                for (Iterator iterator = rightIndices.iterator(); iterator.hasNext(); ) { int rightIndex = ((Integer)iterator.next()).intValue();
-                    rows[0][joinIndex] = leftIndex;
-                    rows[1][joinIndex] = rightIndex;
-                    joinIndex++; }
-
-            } else if (!inner) {
-                rows[0][joinIndex] = leftIndex;
-                rows[1][joinIndex] = -1;
-                joinIndex++;
-            }
-            leftIndex++;
-        }
-        int firstFromRight = joinIndex;
-        if (fullOuter) {
-
-            Collections.sort(missingRightIndices);
-            for (Iterator iterator = missingRightIndices.iterator(); iterator.hasNext(); ) { int rightIndex = ((Integer)iterator.next()).intValue();
-                rows[0][joinIndex] = -1;
-                rows[1][joinIndex] = rightIndex;
-                joinIndex++; }
-
-        }
-
-        return new Pair(rows, Integer.valueOf(firstFromRight));
-    }
-
-    private Pair<int[][], Integer> getRowsWithDateTime(Table leftKeyTable, Map<DoubleArrayWrapper, List<Integer>> rightKeyMapping, Set<Integer> dateTimeColumns, boolean inner, boolean fullOuter) throws UserError {
-        long matchingRowCount = 0L;
-        int missingLeftCount = 0;
-        List<Integer> missingRightIndices = new ArrayList<Integer>();
-        Map<DoubleArrayWrapper, List<Integer>> rightCopy = null;
-        if (fullOuter) {
-            rightCopy = new HashMap<DoubleArrayWrapper, List<Integer>>(rightKeyMapping);
-        }
-
-        int doubledCount = dateTimeColumns.size();
-        int keySize = leftKeyTable.width() + doubledCount;
-        MixedRowReader leftReader = Readers.mixedRowReader(leftKeyTable);
-
-        while (leftReader.hasRemaining()) {
-            leftReader.move();
-
-            DoubleArrayWrapper wrappedKey = new DoubleArrayWrapper(getAsDoubleArray(leftReader, dateTimeColumns, new double[keySize]));
-            List<Integer> rightIndices = (List)rightKeyMapping.get(wrappedKey);
-            if (fullOuter) {
-                rightCopy.remove(wrappedKey);
-            }
-            if (rightIndices != null) {
-                matchingRowCount += rightIndices.size(); continue;
-            }
-            missingLeftCount++;
-        }
-
-        if (fullOuter) {
-            for (List<Integer> indices : rightCopy.values()) {
-                missingRightIndices.addAll(indices);
-            }
-        }
-
-        long total = matchingRowCount + (long) (fullOuter ? missingRightIndices.size() : 0) + (inner ? 0 : missingLeftCount);
-        if (total > 2147483647L) {
-            throw new UserError(this, "join_too_big");
-        }
-        int[][] rows = new int[2][(int)total];
-
-
-        leftReader.setPosition(-1);
-        int joinIndex = 0;
-        int leftIndex = 0;
-        while (leftReader.hasRemaining()) {
-            leftReader.move();
-
-            DoubleArrayWrapper wrappedKey = new DoubleArrayWrapper(getAsDoubleArray(leftReader, dateTimeColumns, new double[keySize]));
-
-            List<Integer> rightIndices = (List)rightKeyMapping.get(wrappedKey);
-            if (rightIndices != null) {
-                for (Iterator iterator = rightIndices.iterator(); iterator.hasNext(); ) { int rightIndex = ((Integer)iterator.next()).intValue();
-                    rows[0][joinIndex] = leftIndex;
-                    rows[1][joinIndex] = rightIndex;
-                    joinIndex++; }
-
-            } else if (!inner) {
-                rows[0][joinIndex] = leftIndex;
-                rows[1][joinIndex] = -1;
-                joinIndex++;
-            }
-            leftIndex++;
-        }
-        int firstFromRight = joinIndex;
-        if (fullOuter) {
-
-            Collections.sort(missingRightIndices);
-            for (Iterator iterator = missingRightIndices.iterator(); iterator.hasNext(); ) { int rightIndex = ((Integer)iterator.next()).intValue();
-                rows[0][joinIndex] = -1;
-                rows[1][joinIndex] = rightIndex;
-                joinIndex++; }
-
-        }
-
-        return new Pair(rows, Integer.valueOf(firstFromRight));
-    }
-
     private Pair<List<String>, List<String>> getKeyAttributes(Table leftTable, Table rightTable) throws UserError {
         List<String[]> parKeyAttributes = getParameterList("key_attributes");
         int numKeyAttributes = parKeyAttributes.size();
@@ -20,12 +20,10 @@ package base.operators.operator.preprocessing.join;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import base.operators.operator.annotation.ResourceConsumptionEstimator;
@@ -57,6 +55,7 @@ import base.operators.parameter.ParameterTypeBoolean;
 import base.operators.parameter.ParameterTypeCategory;
 import base.operators.parameter.ParameterTypeList;
 import base.operators.parameter.conditions.BooleanParameterCondition;
+import base.operators.studio.internal.Resources;
 
 
 /**
@@ -214,6 +213,11 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 		Pair<Attribute[], Attribute[]> keyAttributes = getKeyAttributes(leftExampleSet, rightExampleSet);
 		copyMappings(joinType, keyAttributes, unionAttributeList);
 
+		if (!getParameterAsBoolean(PARAMETER_USE_ID)) {
+			return performKeyJoin(joinType, leftExampleSet, rightExampleSet, originalAttributeSources, unionAttributeList,
+					keyAttributes);
+		}
+
 		switch (joinType) {
 			case JOIN_TYPE_INNER:
 				getProgress().setTotal(leftExampleSet.size());
@@ -398,8 +402,8 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 	}
 
 	/**
-	 * Performs an inner join, i.e. the result table contains all examples from the source example
-	 * sets whose key attributes match.
+	 * Performs an inner join on the id attributes, i.e. the result table contains all examples from
+	 * the source example sets whose ids match.
 	 *
 	 */
 	private ExampleSetBuilder performInnerJoin(ExampleSet leftExampleSet, ExampleSet rightExampleSet,
@@ -407,24 +411,11 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 			Pair<Attribute[], Attribute[]> keyAttributes) throws ProcessStoppedException {
 		ExampleSetBuilder builder = ExampleSets.from(unionAttributeList);
 
-		Attribute[] leftKeyAttributes = null;
-		Attribute[] rightKeyAttributes = null;
-		Map<DoubleArrayWrapper, List<Example>> rightKeyMapping = null;
-		boolean useId = getParameterAsBoolean(PARAMETER_USE_ID);
-
-		if (!useId) {
-			// create key mapping for right example set
-			leftKeyAttributes = keyAttributes.getFirst();
-			rightKeyAttributes = keyAttributes.getSecond();
-			rightKeyMapping = createKeyMapping(rightExampleSet, rightKeyAttributes, leftKeyAttributes);
-		}
-
 		int progressCounter = 0;
 		// iterate over all example from left table and search for matching examples in right table:
 		for (Example leftExample : leftExampleSet) {
 
-			List<Example> matchingRightExamples = getMatchingExamples(leftExampleSet, rightExampleSet, leftKeyAttributes,
-					rightKeyMapping, useId, leftExample);
+			List<Example> matchingRightExamples = getMatchingExamples(leftExampleSet, rightExampleSet, leftExample);
 
 			if (matchingRightExamples != null) {
 				for (Example rightExample : matchingRightExamples) {
@@ -443,7 +434,7 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 	}
 
 	/**
-	 * Performs a left join.
+	 * Performs a left join on the id attributes.
 	 *
 	 */
 	private ExampleSetBuilder performLeftJoin(ExampleSet leftExampleSet, ExampleSet rightExampleSet,
@@ -452,23 +443,12 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 					throws ProcessStoppedException {
 		ExampleSetBuilder builder = ExampleSets.from(unionAttributeList);
 
-		Attribute[] leftKeyAttributes = null;
-		Attribute[] rightKeyAttributes = null;
-		Map<DoubleArrayWrapper, List<Example>> rightKeyMapping = null;
-		boolean useId = getParameterAsBoolean(PARAMETER_USE_ID);
-
-		leftKeyAttributes = keyAttributes.getFirst();
-		rightKeyAttributes = keyAttributes.getSecond();
-		if (!useId) {
-			// create key mapping for right example set
-			rightKeyMapping = createKeyMapping(rightExampleSet, rightKeyAttributes, leftKeyAttributes);
-		}
+		Attribute[] rightKeyAttributes = keyAttributes.getSecond();
 
 		int progressCounter = 0;
 		// iterate over all example from left table and search for matching examples in right table:
 		for (Example leftExample : leftExampleSet) {
-			List<Example> matchingRightExamples = getMatchingExamples(leftExampleSet, rightExampleSet, leftKeyAttributes,
-					rightKeyMapping, useId, leftExample);
+			List<Example> matchingRightExamples = getMatchingExamples(leftExampleSet, rightExampleSet, leftExample);
 
 			if (matchingRightExamples != null) {
 				// add combination of left example and all matching right examples
@@ -494,7 +474,7 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 	}
 
 	/**
-	 * Performs a right join.
+	 * Performs a right join on the id attributes.
 	 *
 	 */
 	private ExampleSetBuilder performRightJoin(ExampleSet leftExampleSet, ExampleSet rightExampleSet,
@@ -502,25 +482,9 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 			Pair<Attribute[], Attribute[]> keyAttributes) throws ProcessStoppedException {
 		ExampleSetBuilder builder = ExampleSets.from(unionAttributeList);
 
-		Attribute[] leftKeyAttributes = null;
-		Attribute[] rightKeyAttributes = null;
-		Map<DoubleArrayWrapper, List<Example>> leftKeyMapping = null;
-		boolean useId = getParameterAsBoolean(PARAMETER_USE_ID);
-
-		Attribute leftIdAttribute = null;
-		Attribute rightIdAttribute = null;
-		if (useId) {
-			// needed for getting the right id when adding examples which occur only in right table
-			leftIdAttribute = leftExampleSet.getAttributes().getId();
-			rightIdAttribute = rightExampleSet.getAttributes().getId();
-			leftKeyAttributes = new Attribute[] { leftIdAttribute };
-			rightKeyAttributes = new Attribute[] { rightIdAttribute };
-		} else {
-			// create key mapping for right example set
-			leftKeyAttributes = keyAttributes.getFirst();
-			rightKeyAttributes = keyAttributes.getSecond();
-			leftKeyMapping = createKeyMapping(leftExampleSet, leftKeyAttributes, rightKeyAttributes);
-		}
+		// needed for getting the right id when adding examples which occur only in right table
+		Attribute[] leftKeyAttributes = new Attribute[] { leftExampleSet.getAttributes().getId() };
+		Attribute[] rightKeyAttributes = new Attribute[] { rightExampleSet.getAttributes().getId() };
 
 		boolean keepBoth = getParameterAsBoolean(PARAMETER_KEEP_BOTH_JOIN_ATTRIBUTES);
 		boolean removeDoubleAttributes = getParameterAsBoolean(PARAMETER_REMOVE_DOUBLE_ATTRIBUTES);
@@ -528,8 +492,7 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 		int progressCounter = 0;
 		// iterate over all example from left table and search for matching examples in right table:
 		for (Example rightExample : rightExampleSet) {
-			List<Example> matchingLeftExamples = getMatchingExamples(rightExampleSet, leftExampleSet, rightKeyAttributes,
-					leftKeyMapping, useId, rightExample);
+			List<Example> matchingLeftExamples = getMatchingExamples(rightExampleSet, leftExampleSet, rightExample);
 
 			if (matchingLeftExamples != null) {
 				// add combination of left example and all matching right examples
@@ -551,7 +514,7 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 	}
 
 	/**
-	 * Performs an outer join (not to be confused with a full outer join).
+	 * Performs an outer join (not to be confused with a full outer join) on the id attributes.
 	 *
 	 */
 	private ExampleSetBuilder performOuterJoin(ExampleSet leftExampleSet, ExampleSet rightExampleSet,
@@ -686,121 +649,132 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 	}
 
 	/**
-	 * Maps all values of the keyAttributes which occur in exampleSet to a list of matching
-	 * examples.
+	 * Joins the example sets by the values of the key attributes. The examples are matched by a
+	 * {@link HashJoin} and added in the same order as the joins on the id attributes add them.
+	 */
+	private ExampleSetBuilder performKeyJoin(int joinType, ExampleSet leftExampleSet, ExampleSet rightExampleSet,
+			List<AttributeSource> originalAttributeSources, List<Attribute> unionAttributeList,
+			Pair<Attribute[], Attribute[]> keyAttributes) throws OperatorException {
+		Attribute[] leftKeyAttributes = keyAttributes.getFirst();
+		Attribute[] rightKeyAttributes = keyAttributes.getSecond();
+
+		// a right join iterates over the right examples and maps the left ones
+		boolean rightJoin = joinType == JOIN_TYPE_RIGHT;
+		HashJoin.Keys buildKeys;
+		HashJoin.Keys probeKeys;
+		if (rightJoin) {
+			buildKeys = createKeys(leftExampleSet, leftKeyAttributes, rightKeyAttributes);
+			probeKeys = createKeys(rightExampleSet, rightKeyAttributes, null);
+		} else {
+			buildKeys = createKeys(rightExampleSet, rightKeyAttributes, leftKeyAttributes);
+			probeKeys = createKeys(leftExampleSet, leftKeyAttributes, null);
+		}
+		int[][] rows = HashJoin.join(this, Resources.getConcurrencyContext(this), probeKeys, buildKeys,
+				joinType != JOIN_TYPE_INNER, joinType == JOIN_TYPE_OUTER).getFirst();
+		int[] leftRows = rightJoin ? rows[1] : rows[0];
+		int[] rightRows = rightJoin ? rows[0] : rows[1];
+
+		boolean keepBoth = getParameterAsBoolean(PARAMETER_KEEP_BOTH_JOIN_ATTRIBUTES);
+		boolean removeDoubleAttributes = getParameterAsBoolean(PARAMETER_REMOVE_DOUBLE_ATTRIBUTES);
+		ExampleSetBuilder builder = ExampleSets.from(unionAttributeList).withExpectedSize(leftRows.length);
+		getProgress().setTotal(leftRows.length);
+		int progressCounter = 0;
+		for (int i = 0; i < leftRows.length; i++) {
+			if (rightRows[i] < 0) {
+				addLeftOnlyOccurence(originalAttributeSources, unionAttributeList, builder,
+						leftExampleSet.getExample(leftRows[i]));
+			} else if (leftRows[i] < 0) {
+				addRightOnlyOccurence(originalAttributeSources, unionAttributeList, builder,
+						rightExampleSet.getExample(rightRows[i]), leftKeyAttributes, rightKeyAttributes, keepBoth,
+						removeDoubleAttributes);
+			} else {
+				addCombinedOccurence(originalAttributeSources, unionAttributeList, builder,
+						leftExampleSet.getExample(leftRows[i]), rightExampleSet.getExample(rightRows[i]));
+			}
+			// trigger operator progress every 100 examples
+			++progressCounter;
+			if (progressCounter % 100 == 0) {
+				getProgress().step(100);
+				progressCounter = 0;
+			}
+		}
+		return builder;
+	}
+
+	/**
+	 * Reads the values of the keyAttributes of all examples.
 	 *
 	 * @param exampleSet
-	 *            The example set for whose key attributes the mapping is created
+	 *            The example set whose keys are read
 	 * @param keyAttributes
 	 *            the attributes which resemble the key attributes
 	 * @param matchKeyAttributes
 	 *            if not null, the values of nominal keyAttributes are mapped to match the mapping
-	 *            of these attributes prior to adding them to the map
-	 * @return
+	 *            of these attributes
 	 */
-	private Map<DoubleArrayWrapper, List<Example>> createKeyMapping(ExampleSet exampleSet, Attribute[] keyAttributes,
-			Attribute[] matchKeyAttributes) {
-		Map<DoubleArrayWrapper, List<Example>> keyMapping = new HashMap<>();
-
-		assert keyAttributes.length == matchKeyAttributes.length;
-
+	private HashJoin.Keys createKeys(ExampleSet exampleSet, Attribute[] keyAttributes, Attribute[] matchKeyAttributes) {
 		// create mapping from nominal values of keyAttributes to matchKeyAttributes
-		Map<Attribute, Map<Double, Double>> valueMapping = null;
+		double[][] valueMapping = new double[keyAttributes.length][];
 		if (matchKeyAttributes != null) {
-			valueMapping = new HashMap<>();
 			for (int attributeNumber = 0; attributeNumber < keyAttributes.length; ++attributeNumber) {
-				if (keyAttributes[attributeNumber].isNominal()) {
-					Map<Double, Double> valueMap = new HashMap<>();
-					// TODO: iterate over getMappint().values() rather than relying on the
-					// assumption that values appear in increasing order
-					for (int valueNumber = 0; valueNumber < keyAttributes[attributeNumber].getMapping()
-							.size(); ++valueNumber) {
-						String valueString = keyAttributes[attributeNumber].getMapping().mapIndex(valueNumber);
-						valueMap.put((double) valueNumber,
-								(double) matchKeyAttributes[attributeNumber].getMapping().mapString(valueString));
+				NominalMapping mapping = keyAttributes[attributeNumber].isNominal()
+						? keyAttributes[attributeNumber].getMapping() : null;
+				if (mapping != null) {
+					double[] valueMap = new double[mapping.size()];
+					for (int valueNumber = 0; valueNumber < valueMap.length; ++valueNumber) {
+						valueMap[valueNumber] = matchKeyAttributes[attributeNumber].getMapping()
+								.mapString(mapping.mapIndex(valueNumber));
 					}
-					valueMapping.put(keyAttributes[attributeNumber], valueMap);
+					valueMapping[attributeNumber] = valueMap;
 				}
 			}
 		}
 
-		double[] keyValues;
-
+		HashJoin.Keys keys = new HashJoin.Keys(exampleSet.size(), keyAttributes.length);
+		int row = 0;
 		for (Example example : exampleSet) {
-			boolean continueIteration = false;
-			// fetch key values from example
-			keyValues = getKeyValues(example, keyAttributes);
-			if (valueMapping != null) {
-				// remap keyValues to match values of other attributes:
-				for (int i = 0; i < keyValues.length; ++i) {
-					if (Double.isNaN(keyValues[i])) {
-						continueIteration = true;
-						break;
-					}
-					if (keyAttributes[i].isNominal()) {
-						keyValues[i] = valueMapping.get(keyAttributes[i]).get(keyValues[i]);
-					}
-				}
-				if (continueIteration) {
-					continue;
+			for (int i = 0; i < keyAttributes.length; ++i) {
+				double value = example.getValue(keyAttributes[i]);
+				if (valueMapping[i] != null && !Double.isNaN(value)) {
+					value = valueMapping[i][(int) value];
 				}
-
-			}
-
-			// check if this key is in keyMapping. If not, add:
-			List<Example> keyExamples = keyMapping.get(new DoubleArrayWrapper(keyValues));
-			if (keyExamples != null) {
-				// add current example:
-				keyExamples.add(example);
-			} else {
-				// create set and add to keyMapping:
-				keyExamples = new LinkedList<>();
-				keyExamples.add(example);
-				keyMapping.put(new DoubleArrayWrapper(keyValues), keyExamples);
+				keys.set(row, i, value);
 			}
+			row++;
 		}
-		;
-		return keyMapping;
+		return keys;
 	}
 
 	/**
-	 * Gets examples from secondExampleSet which match the values of the keyAttributes from
-	 * firstExample. If PARAMETER_USE_ID_FOR_JOIN is true, the standard id-mapping of example sets
-	 * is used. If not, secondKeyMapping is used (@see createKeyMapping())
+	 * Gets examples from secondExampleSet whose id matches the id of the referenceExample, using
+	 * the standard id-mapping of example sets.
 	 *
 	 */
 	private List<Example> getMatchingExamples(ExampleSet firstExampleSet, ExampleSet secondExampleSet,
-			Attribute[] firstKeyAttributes, Map<DoubleArrayWrapper, List<Example>> secondKeyMapping, boolean useId,
 			Example referenceExample) {
 		// find right examples matching current left example:
 		List<Example> matchingExamples = null;
-		if (useId) {
-			// use existent id mapping of right example set
-			Attribute firstIdAttribute = firstExampleSet.getAttributes().getId();
-			Attribute secondIdAttribute = secondExampleSet.getAttributes().getId();
-			double firstIdValue = referenceExample.getValue(firstIdAttribute);
-			// firstIdValue is NaN if the first value in the id column is a missing value
-			if (Double.isNaN(firstIdValue)) {
-				return null;
-			}
-			int[] matchingExampleIndices = null;
-			if (firstIdAttribute.isNominal()) {
-				matchingExampleIndices = secondExampleSet.getExampleIndicesFromId(
-						secondIdAttribute.getMapping().getIndex(firstIdAttribute.getMapping().mapIndex((int) firstIdValue)));
-			} else {
-				matchingExampleIndices = secondExampleSet.getExampleIndicesFromId(firstIdValue);
-			}
-			if (matchingExampleIndices != null) {
-				matchingExamples = new LinkedList<>();
-				for (int secondExampleIndex : matchingExampleIndices) {
-					Example matchingExample = secondExampleSet.getExample(secondExampleIndex);
-					matchingExamples.add(matchingExample);
-				}
-			}
+		// use existent id mapping of right example set
+		Attribute firstIdAttribute = firstExampleSet.getAttributes().getId();
+		Attribute secondIdAttribute = secondExampleSet.getAttributes().getId();
+		double firstIdValue = referenceExample.getValue(firstIdAttribute);
+		// firstIdValue is NaN if the first value in the id column is a missing value
+		if (Double.isNaN(firstIdValue)) {
+			return null;
+		}
+		int[] matchingExampleIndices = null;
+		if (firstIdAttribute.isNominal()) {
+			matchingExampleIndices = secondExampleSet.getExampleIndicesFromId(
+					secondIdAttribute.getMapping().getIndex(firstIdAttribute.getMapping().mapIndex((int) firstIdValue)));
 		} else {
-			// use previously created mapping
-			double[] leftKeyValues = getKeyValues(referenceExample, firstKeyAttributes);
-			matchingExamples = secondKeyMapping.get(new DoubleArrayWrapper(leftKeyValues));
+			matchingExampleIndices = secondExampleSet.getExampleIndicesFromId(firstIdValue);
+		}
+		if (matchingExampleIndices != null) {
+			matchingExamples = new LinkedList<>();
+			for (int secondExampleIndex : matchingExampleIndices) {
+				Example matchingExample = secondExampleSet.getExample(secondExampleIndex);
+				matchingExamples.add(matchingExample);
+			}
 		}
 		return matchingExamples;
 	}
@@ -900,4 +874,9 @@ public class ExampleSetJoin extends AbstractExampleSetJoin {
 		return OperatorResourceConsumptionHandler.getResourceConsumptionEstimator(getInputPorts().getPortByIndex(0),
 				ExampleSetJoin.class, null);
 	}
+
+	@Override
+	protected boolean isResultCacheable() {
+		return true;
+	}
 }
@@ -0,0 +1,502 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.operator.preprocessing.join;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import base.operators.core.concurrency.ConcurrencyContext;
+import base.operators.operator.Operator;
+import base.operators.operator.OperatorException;
+import base.operators.operator.UserError;
+import base.operators.tools.container.Pair;
+
+
+/**
+ * Matches the rows of two tables by their key values using primitive arrays only.
+ * <p>
+ * The keys of both sides are stored once in {@link Keys}. If the valid keys of both sides are
+ * already sorted, the rows are matched by merging. Otherwise the rows are partitioned by the high
+ * bits of their key hash and each partition builds a chained hash table of int row indices over
+ * its build rows and probes it with its probe rows. The partitions are processed in parallel.
+ * <p>
+ * Keys are equal if all values have the same bits. Keys containing missing values never match.
+ */
+final class HashJoin {
+
+	/** Key values of the rows of one side of a join. */
+	static final class Keys {
+
+		private final int size;
+		private final int width;
+		private final double[] values;
+
+		/** rows whose keys never match */
+		private final BitSet invalid = new BitSet();
+
+		Keys(int size, int width) {
+			this.size = size;
+			this.width = width;
+			this.values = new double[Math.multiplyExact(size, width)];
+		}
+
+		/**
+		 * Sets a key value. A missing value makes the row invalid.
+		 */
+		void set(int row, int column, double value) {
+			values[row * width + column] = value;
+			if (Double.isNaN(value)) {
+				invalid.set(row);
+			}
+		}
+
+		/**
+		 * Marks the row as never matching, e.g. because a nominal value does not exist on the
+		 * other side.
+		 */
+		void setInvalid(int row) {
+			invalid.set(row);
+		}
+
+		int size() {
+			return size;
+		}
+
+		private boolean isValid(int row) {
+			return !invalid.get(row);
+		}
+
+		private int hash(int row) {
+			long hash = 0;
+			int offset = row * width;
+			for (int i = 0; i < width; i++) {
+				hash = 31 * hash + Double.doubleToLongBits(values[offset + i]);
+			}
+			// finalizer of MurmurHash3 to spread the bits to the high bits used for partitioning
+			hash ^= hash >>> 33;
+			hash *= 0xff51afd7ed558ccdL;
+			hash ^= hash >>> 33;
+			hash *= 0xc4ceb9fe1a85ec53L;
+			hash ^= hash >>> 33;
+			return (int) hash;
+		}
+
+		private int compare(int row, Keys other, int otherRow) {
+			int offset = row * width;
+			int otherOffset = otherRow * width;
+			for (int i = 0; i < width; i++) {
+				int result = Double.compare(values[offset + i], other.values[otherOffset + i]);
+				if (result != 0) {
+					return result;
+				}
+			}
+			return 0;
+		}
+
+		private boolean isSorted() {
+			int previous = -1;
+			for (int row = invalid.nextClearBit(0); row < size; row = invalid.nextClearBit(row + 1)) {
+				if (previous >= 0 && compare(previous, this, row) > 0) {
+					return false;
+				}
+				previous = row;
+			}
+			return true;
+		}
+	}
+
+	/** the minimal number of rows of both sides to join in parallel */
+	private static final int MIN_PARALLEL_SIZE = 100000;
+
+	/** the minimal number of rows per parallel hashing task */
+	private static final int MIN_BLOCK_SIZE = 50000;
+
+	private HashJoin() {}
+
+	/**
+	 * Matches the probe rows with the build rows.
+	 * <p>
+	 * The result contains, for every probe row in order, a pair for each matching build row in
+	 * ascending order. If {@code keepUnmatchedProbe} is set, probe rows without a match are paired
+	 * with {@code -1}. If {@code keepUnmatchedBuild} is set, the build rows that did not match any
+	 * probe row follow in ascending order, paired with {@code -1}.
+	 *
+	 * @return the probe rows and the build rows of all pairs, and the index of the first pair of an
+	 *         unmatched build row
+	 * @throws UserError
+	 *             if the join has more than {@link Integer#MAX_VALUE} rows
+	 */
+	static Pair<int[][], Integer> join(Operator operator, ConcurrencyContext context, Keys probe, Keys build,
+			boolean keepUnmatchedProbe, boolean keepUnmatchedBuild) throws OperatorException {
+		int[] counts = new int[probe.size()];
+		boolean[] matched = new boolean[build.size()];
+		Matcher matcher;
+		if (probe.isSorted() && build.isSorted()) {
+			matcher = new MergeMatcher(probe, build);
+		} else {
+			matcher = new HashMatcher(context, probe, build);
+		}
+		matcher.count(counts, matched);
+
+		long total = 0;
+		for (int count : counts) {
+			total += count == 0 && keepUnmatchedProbe ? 1 : count;
+		}
+		int unmatchedBuild = 0;
+		if (keepUnmatchedBuild) {
+			for (boolean isMatched : matched) {
+				if (!isMatched) {
+					unmatchedBuild++;
+				}
+			}
+		}
+		if (total + unmatchedBuild > Integer.MAX_VALUE) {
+			throw new UserError(operator, "join_too_big");
+		}
+		int[][] rows = new int[2][(int) total + unmatchedBuild];
+
+		// turn the counts into offsets and add the unmatched probe rows
+		int offset = 0;
+		for (int row = 0; row < counts.length; row++) {
+			int count = counts[row];
+			counts[row] = offset;
+			if (count == 0 && keepUnmatchedProbe) {
+				rows[0][offset] = row;
+				rows[1][offset] = -1;
+				offset++;
+			} else {
+				offset += count;
+			}
+		}
+		matcher.fill(counts, rows);
+
+		int firstUnmatchedBuild = offset;
+		if (keepUnmatchedBuild) {
+			for (int row = 0; row < matched.length; row++) {
+				if (!matched[row]) {
+					rows[0][offset] = -1;
+					rows[1][offset] = row;
+					offset++;
+				}
+			}
+		}
+		return new Pair<>(rows, firstUnmatchedBuild);
+	}
+
+	/** Finds the matching build rows of the probe rows. */
+	private interface Matcher {
+
+		/**
+		 * Stores the number of matching build rows of every probe row and marks all build rows
+		 * with a matching probe row.
+		 */
+		void count(int[] counts, boolean[] matched) throws OperatorException;
+
+		/**
+		 * Writes the pairs of every probe row with a match, starting at its offset.
+		 */
+		void fill(int[] offsets, int[][] rows) throws OperatorException;
+	}
+
+	/** Merges two sides whose valid keys are sorted. */
+	private static final class MergeMatcher implements Matcher {
+
+		private final Keys probe;
+		private final Keys build;
+
+		/** the valid build rows in ascending order */
+		private final int[] buildRows;
+
+		private MergeMatcher(Keys probe, Keys build) {
+			this.probe = probe;
+			this.build = build;
+			this.buildRows = new int[build.size() - build.invalid.cardinality()];
+			int i = 0;
+			for (int row = build.invalid.nextClearBit(0); row < build.size(); row = build.invalid.nextClearBit(row + 1)) {
+				buildRows[i++] = row;
+			}
+		}
+
+		@Override
+		public void count(int[] counts, boolean[] matched) {
+			merge(counts, matched, null);
+		}
+
+		@Override
+		public void fill(int[] offsets, int[][] rows) {
+			merge(offsets, null, rows);
+		}
+
+		/**
+		 * Counts the matches if {@code rows} is {@code null}, writes them starting at the given
+		 * offsets otherwise.
+		 */
+		private void merge(int[] countsOrOffsets, boolean[] matched, int[][] rows) {
+			int start = 0;
+			int end = 0;
+			int previous = -1;
+			for (int row = 0; row < probe.size(); row++) {
+				if (!probe.isValid(row)) {
+					continue;
+				}
+				if (previous < 0 || probe.compare(previous, probe, row) != 0) {
+					// the probe keys are sorted, so the new key is greater than all keys before end
+					start = end;
+					while (start < buildRows.length && build.compare(buildRows[start], probe, row) < 0) {
+						start++;
+					}
+					end = start;
+					while (end < buildRows.length && build.compare(buildRows[end], probe, row) == 0) {
+						end++;
+					}
+					if (matched != null) {
+						for (int i = start; i < end; i++) {
+							matched[buildRows[i]] = true;
+						}
+					}
+				}
+				previous = row;
+				if (rows == null) {
+					countsOrOffsets[row] = end - start;
+				} else {
+					int offset = countsOrOffsets[row];
+					for (int i = start; i < end; i++) {
+						rows[0][offset] = row;
+						rows[1][offset] = buildRows[i];
+						offset++;
+					}
+				}
+			}
+		}
+	}
+
+	/** Partitions both sides by hash and matches the partitions in parallel. */
+	private static final class HashMatcher implements Matcher {
+
+		private final ConcurrencyContext context;
+		private final Keys probe;
+		private final Keys build;
+		private final int partitions;
+
+		private int[] probeHashes;
+		private int[] buildHashes;
+		private int[] probePartitionRows;
+		private int[] probePartitionStarts;
+		private int[] buildPartitionRows;
+		private int[] buildPartitionStarts;
+
+		/** the next build row with the same bucket, chains are in ascending order */
+		private int[] next;
+
+		/** the first build row of each bucket, per partition */
+		private int[][] heads;
+
+		private HashMatcher(ConcurrencyContext context, Keys probe, Keys build) {
+			this.context = context;
+			this.probe = probe;
+			this.build = build;
+			int parallelism = context != null ? context.getParallelism() : 1;
+			if (parallelism <= 1 || (long) probe.size() + build.size() < MIN_PARALLEL_SIZE) {
+				partitions = 1;
+			} else {
+				// a power of two with a few partitions per thread to balance skewed keys
+				partitions = Math.min(1 << 10, Integer.highestOneBit(parallelism) << 2);
+			}
+		}
+
+		@Override
+		public void count(int[] counts, boolean[] matched) throws OperatorException {
+			probeHashes = hash(probe);
+			buildHashes = hash(build);
+			int shift = 32 - Integer.numberOfTrailingZeros(partitions);
+			probePartitionStarts = new int[partitions + 1];
+			probePartitionRows = partition(probe, probeHashes, shift, probePartitionStarts);
+			buildPartitionStarts = new int[partitions + 1];
+			buildPartitionRows = partition(build, buildHashes, shift, buildPartitionStarts);
+			next = new int[build.size()];
+			heads = new int[partitions][];
+
+			run(new PartitionTask() {
+
+				@Override
+				public void run(int partition) {
+					int[] head = buildTable(partition);
+					heads[partition] = head;
+					int mask = head.length - 1;
+					for (int i = probePartitionStarts[partition]; i < probePartitionStarts[partition + 1]; i++) {
+						int row = probePartitionRows[i];
+						int hash = probeHashes[row];
+						int count = 0;
+						for (int buildRow = head[hash & mask]; buildRow >= 0; buildRow = next[buildRow]) {
+							if (buildHashes[buildRow] == hash && build.compare(buildRow, probe, row) == 0) {
+								count++;
+								matched[buildRow] = true;
+							}
+						}
+						counts[row] = count;
+					}
+				}
+			});
+		}
+
+		@Override
+		public void fill(int[] offsets, int[][] rows) throws OperatorException {
+			run(new PartitionTask() {
+
+				@Override
+				public void run(int partition) {
+					int[] head = heads[partition];
+					int mask = head.length - 1;
+					for (int i = probePartitionStarts[partition]; i < probePartitionStarts[partition + 1]; i++) {
+						int row = probePartitionRows[i];
+						int hash = probeHashes[row];
+						int offset = offsets[row];
+						for (int buildRow = head[hash & mask]; buildRow >= 0; buildRow = next[buildRow]) {
+							if (buildHashes[buildRow] == hash && build.compare(buildRow, probe, row) == 0) {
+								rows[0][offset] = row;
+								rows[1][offset] = buildRow;
+								offset++;
+							}
+						}
+					}
+				}
+			});
+		}
+
+		/**
+		 * Chains the valid build rows of the partition into buckets by the low bits of their hash.
+		 */
+		private int[] buildTable(int partition) {
+			int from = buildPartitionStarts[partition];
+			int to = buildPartitionStarts[partition + 1];
+			int capacity = Integer.highestOneBit(Math.max(1, 2 * (to - from) - 1)) << 1;
+			int[] head = new int[capacity];
+			Arrays.fill(head, -1);
+			int mask = capacity - 1;
+			// insert in reverse order so that the chains are in ascending order
+			for (int i = to - 1; i >= from; i--) {
+				int row = buildPartitionRows[i];
+				int bucket = buildHashes[row] & mask;
+				next[row] = head[bucket];
+				head[bucket] = row;
+			}
+			return head;
+		}
+
+		/**
+		 * @return the hashes of all rows, computed in parallel blocks
+		 */
+		private int[] hash(Keys keys) throws OperatorException {
+			int size = keys.size();
+			int[] hashes = new int[size];
+			if (partitions == 1) {
+				for (int row = 0; row < size; row++) {
+					hashes[row] = keys.hash(row);
+				}
+				return hashes;
+			}
+			int blockSize = Math.max(MIN_BLOCK_SIZE, size / context.getParallelism() + 1);
+			List<Callable<Void>> tasks = new ArrayList<>();
+			for (int blockStart = 0; blockStart < size; blockStart += blockSize) {
+				final int from = blockStart;
+				final int to = Math.min(size, blockStart + blockSize);
+				tasks.add(() -> {
+					for (int row = from; row < to; row++) {
+						hashes[row] = keys.hash(row);
+					}
+					return null;
+				});
+			}
+			call(tasks);
+			return hashes;
+		}
+
+		/**
+		 * Sorts the valid rows stably by the high bits of their hash.
+		 *
+		 * @return the rows ordered by partition, partition {@code p} starting at {@code starts[p]}
+		 */
+		private int[] partition(Keys keys, int[] hashes, int shift, int[] starts) {
+			int size = keys.size();
+			for (int row = 0; row < size; row++) {
+				if (keys.isValid(row)) {
+					starts[partitionOf(hashes[row], shift) + 1]++;
+				}
+			}
+			for (int p = 0; p < partitions; p++) {
+				starts[p + 1] += starts[p];
+			}
+			int[] rows = new int[starts[partitions]];
+			int[] positions = Arrays.copyOf(starts, partitions);
+			for (int row = 0; row < size; row++) {
+				if (keys.isValid(row)) {
+					rows[positions[partitionOf(hashes[row], shift)]++] = row;
+				}
+			}
+			return rows;
+		}
+
+		private int partitionOf(int hash, int shift) {
+			return partitions == 1 ? 0 : hash >>> shift;
+		}
+
+		private void run(PartitionTask task) throws OperatorException {
+			if (partitions == 1) {
+				task.run(0);
+				return;
+			}
+			List<Callable<Void>> tasks = new ArrayList<>(partitions);
+			for (int p = 0; p < partitions; p++) {
+				final int partition = p;
+				tasks.add(() -> {
+					task.run(partition);
+					return null;
+				});
+			}
+			call(tasks);
+		}
+
+		private void call(List<Callable<Void>> tasks) throws OperatorException {
+			try {
+				context.call(tasks);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				} else if (cause instanceof OperatorException) {
+					throw (OperatorException) cause;
+				} else {
+					throw new OperatorException(cause.getMessage(), cause);
+				}
+			}
+		}
+	}
+
+	/** Processes one partition of a {@link HashMatcher}. */
+	private interface PartitionTask {
+
+		void run(int partition);
+	}
+}
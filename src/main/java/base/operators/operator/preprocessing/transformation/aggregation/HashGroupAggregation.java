@@ -0,0 +1,691 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.operator.preprocessing.transformation.aggregation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import base.operators.core.concurrency.ConcurrencyContext;
+import base.operators.example.Attribute;
+import base.operators.example.Example;
+import base.operators.example.ExampleSet;
+import base.operators.example.table.DataRow;
+import base.operators.example.table.NominalMapping;
+import base.operators.example.utils.ExampleSets;
+import base.operators.operator.Operator;
+import base.operators.operator.OperatorException;
+import base.operators.operator.OperatorProgress;
+import base.operators.operator.UserError;
+import base.operators.studio.internal.Resources;
+import base.operators.tools.Ontology;
+
+
+/**
+ * Groups the examples of an {@link ExampleSet} by hashing primitive keys instead of building a
+ * tree of maps with boxed keys.
+ * <p>
+ * Each value of a group attribute is encoded into an int code: the mapping index for nominal
+ * attributes and the index in a dictionary of distinct values for numerical and date attributes.
+ * The codes of all group attributes are combined level by level into dense group ids, each level
+ * mapping the pair (group id of the previous level, code) packed into a long to a new id with an
+ * open addressing hash table.
+ * <p>
+ * Sums, means, minima, maxima, variances, standard deviations and counts are aggregated in
+ * primitive arrays indexed by the group id. All other functions, and functions counting only
+ * distinct values, use one {@link Aggregator} per group as before, so the semantics of e.g. median
+ * and percentile do not change. The groups are partitioned across threads by their id. Every
+ * partition visits its examples in the order of the example set, so the results are identical to
+ * a sequential run. The groups are returned in the same order as the aggregation tree of the
+ * {@link AggregationOperator} delivers them.
+ */
+final class HashGroupAggregation {
+
+	/** the functions aggregated in primitive arrays */
+	private enum Kind {
+		SUM, MEAN, MIN, MAX, VARIANCE, STANDARD_DEVIATION, COUNT
+	}
+
+	/** the minimal number of examples per partition */
+	private static final int MIN_PARTITION_SIZE = 10000;
+
+	private static final int OPERATOR_PROGRESS_STEPS = 1000;
+
+	private final Operator operator;
+	private final ExampleSet exampleSet;
+	private final Attribute[] groupAttributes;
+	private final Attribute weightAttribute;
+	private final List<AggregationFunction> functions;
+
+	public HashGroupAggregation(Operator operator, ExampleSet exampleSet, Attribute[] groupAttributes,
+			Attribute weightAttribute, List<AggregationFunction> functions) {
+		this.operator = operator;
+		this.exampleSet = exampleSet;
+		this.groupAttributes = groupAttributes;
+		this.weightAttribute = weightAttribute;
+		this.functions = functions;
+	}
+
+	/**
+	 * Aggregates the example set and adds the values of the group attributes and the aggregators
+	 * of each group to the given lists, in the order of the groups.
+	 *
+	 * @param newAttributes
+	 *            the attributes of the result, starting with the group attributes
+	 * @param allGroupCombinations
+	 *            the list to add the values of the group attributes to
+	 * @param allAggregators
+	 *            one list per aggregation function to add the aggregators to
+	 */
+	public void aggregate(Attribute[] newAttributes, List<double[]> allGroupCombinations,
+			List<List<Aggregator>> allAggregators) throws OperatorException {
+		KeyEncoder[] encoders = new KeyEncoder[groupAttributes.length];
+		for (int i = 0; i < groupAttributes.length; i++) {
+			Attribute attribute = groupAttributes[i];
+			if (attribute.isNominal()) {
+				encoders[i] = new NominalKeyEncoder(attribute);
+			} else if (attribute.isNumerical()
+					|| Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.DATE_TIME)) {
+				encoders[i] = new NumericalKeyEncoder();
+			} else {
+				throw new UserError(operator, "aggregation_operator.unsupported_value_type", attribute.getName(),
+						Ontology.ATTRIBUTE_VALUE_TYPE.getNames()[attribute.getValueType()]);
+			}
+		}
+
+		int numberOfFunctions = functions.size();
+		Kind[] kinds = new Kind[numberOfFunctions];
+		int numberOfColumns = 0;
+		boolean hasAggregatorFunctions = false;
+		for (int i = 0; i < numberOfFunctions; i++) {
+			kinds[i] = getKind(functions.get(i));
+			if (kinds[i] != null) {
+				numberOfColumns++;
+			} else {
+				hasAggregatorFunctions = true;
+			}
+		}
+
+		// first pass: group ids, source values of the primitive aggregates and weights
+		int size = exampleSet.size();
+		OperatorProgress progress = operator.getProgress();
+		progress.setTotal(2 * size);
+		DenseLongMap[] levels = new DenseLongMap[groupAttributes.length];
+		for (int i = 0; i < levels.length; i++) {
+			levels[i] = new DenseLongMap();
+		}
+		int[] groupIds = new int[size];
+		double[][] columns = new double[numberOfFunctions][];
+		for (int i = 0; i < numberOfFunctions; i++) {
+			if (kinds[i] != null) {
+				columns[i] = new double[size];
+			}
+		}
+		double[] weights = weightAttribute != null ? new double[size] : null;
+		int row = 0;
+		for (Example example : exampleSet) {
+			int groupId = 0;
+			for (int level = 0; level < levels.length; level++) {
+				int code = encoders[level].encode(example.getValue(groupAttributes[level]));
+				groupId = levels[level].getOrAdd((long) groupId << 32 | code);
+			}
+			groupIds[row] = groupId;
+			if (numberOfColumns > 0) {
+				for (int i = 0; i < numberOfFunctions; i++) {
+					if (columns[i] != null) {
+						columns[i][row] = example.getValue(functions.get(i).getSourceAttribute());
+					}
+				}
+			}
+			if (weights != null) {
+				weights[row] = example.getValue(weightAttribute);
+			}
+			if (++row % 100 == 0) {
+				progress.setCompleted(row);
+			}
+		}
+		progress.setCompleted(size);
+		int numberOfGroups = levels[levels.length - 1].size();
+
+		// second pass: aggregate the partitions of the groups
+		PrimitiveAggregates[] aggregates = new PrimitiveAggregates[numberOfFunctions];
+		Aggregator[][] aggregators = new Aggregator[numberOfFunctions][];
+		for (int i = 0; i < numberOfFunctions; i++) {
+			if (kinds[i] != null) {
+				aggregates[i] = new PrimitiveAggregates(kinds[i], functions.get(i).isIgnoringMissings(),
+						numberOfGroups);
+			} else {
+				aggregators[i] = new Aggregator[numberOfGroups];
+			}
+		}
+		ConcurrencyContext context = Resources.getConcurrencyContext(operator);
+		int partitions = Math.min(context != null ? context.getParallelism() : 1,
+				Math.min(numberOfGroups, size / MIN_PARTITION_SIZE));
+		if (hasAggregatorFunctions && !ExampleSets.isThreadSafe(exampleSet)) {
+			// the aggregators read the examples, which is only safe for thread-safe views
+			partitions = 1;
+		}
+		if (partitions <= 1) {
+			int[] rows = new int[size];
+			for (int i = 0; i < size; i++) {
+				rows[i] = i;
+			}
+			aggregatePartition(rows, 0, size, groupIds, columns, weights, aggregates, aggregators,
+					hasAggregatorFunctions, progress);
+		} else {
+			// stable counting sort of the examples by the partition of their group
+			int[] partitionStarts = new int[partitions + 1];
+			for (int i = 0; i < size; i++) {
+				partitionStarts[groupIds[i] % partitions + 1]++;
+			}
+			for (int p = 0; p < partitions; p++) {
+				partitionStarts[p + 1] += partitionStarts[p];
+			}
+			int[] rows = new int[size];
+			int[] next = Arrays.copyOf(partitionStarts, partitions);
+			for (int i = 0; i < size; i++) {
+				rows[next[groupIds[i] % partitions]++] = i;
+			}
+			List<Callable<Void>> tasks = new ArrayList<>(partitions);
+			for (int p = 0; p < partitions; p++) {
+				final int from = partitionStarts[p];
+				final int to = partitionStarts[p + 1];
+				final boolean withAggregators = hasAggregatorFunctions;
+				tasks.add(new Callable<Void>() {
+
+					@Override
+					public Void call() throws OperatorException {
+						aggregatePartition(rows, from, to, groupIds, columns, weights, aggregates, aggregators,
+								withAggregators, null);
+						synchronized (progress) {
+							progress.step(to - from);
+						}
+						return null;
+					}
+				});
+			}
+			try {
+				context.call(tasks);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				} else if (cause instanceof OperatorException) {
+					throw (OperatorException) cause;
+				} else {
+					throw new OperatorException(cause.getMessage(), cause);
+				}
+			}
+		}
+
+		// deliver the groups in the order of their keys
+		int[] groupOrder = sortGroups(levels, encoders);
+		for (int groupId : groupOrder) {
+			double[] groupValues = new double[groupAttributes.length];
+			int levelId = groupId;
+			for (int level = levels.length - 1; level >= 0; level--) {
+				long key = levels[level].getKey(levelId);
+				groupValues[level] = encoders[level].decode((int) key, newAttributes[level]);
+				levelId = (int) (key >>> 32);
+			}
+			allGroupCombinations.add(groupValues);
+			for (int i = 0; i < numberOfFunctions; i++) {
+				if (aggregates[i] != null) {
+					allAggregators.get(i).add(new GroupAggregator(aggregates[i], groupId,
+							functions.get(i).getSourceAttribute()));
+				} else {
+					allAggregators.get(i).add(aggregators[i][groupId]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Counts the examples {@code rows[from]} to {@code rows[to - 1]}. Different partitions never
+	 * share a group, so they can be counted concurrently.
+	 */
+	private void aggregatePartition(int[] rows, int from, int to, int[] groupIds, double[][] columns,
+			double[] weights, PrimitiveAggregates[] aggregates, Aggregator[][] aggregators,
+			boolean hasAggregatorFunctions, OperatorProgress progress) throws OperatorException {
+		int numberOfFunctions = functions.size();
+		for (int r = from; r < to; r++) {
+			int row = rows[r];
+			int groupId = groupIds[row];
+			Example example = hasAggregatorFunctions ? exampleSet.getExample(row) : null;
+			for (int i = 0; i < numberOfFunctions; i++) {
+				if (aggregates[i] != null) {
+					if (weights == null) {
+						aggregates[i].count(groupId, columns[i][row]);
+					} else {
+						aggregates[i].count(groupId, columns[i][row], weights[row]);
+					}
+				} else {
+					Aggregator aggregator = aggregators[i][groupId];
+					if (aggregator == null) {
+						aggregator = functions.get(i).createAggregator();
+						aggregators[i][groupId] = aggregator;
+					}
+					if (weights == null) {
+						aggregator.count(example);
+					} else {
+						aggregator.count(example, weights[row]);
+					}
+				}
+			}
+			if (progress != null && (r + 1) % OPERATOR_PROGRESS_STEPS == 0) {
+				progress.setCompleted(exampleSet.size() + r + 1);
+			}
+		}
+	}
+
+	/**
+	 * @return the ids of the groups sorted like the nested {@code TreeMap}s of the aggregation
+	 *         tree would order them
+	 */
+	private static int[] sortGroups(DenseLongMap[] levels, KeyEncoder[] encoders) {
+		int[] parentRanks = new int[] { 0 };
+		for (int level = 0; level < levels.length; level++) {
+			DenseLongMap map = levels[level];
+			int[] codeRanks = encoders[level].getRanks();
+			int size = map.size();
+			long[] sortKeys = new long[size];
+			for (int id = 0; id < size; id++) {
+				long key = map.getKey(id);
+				sortKeys[id] = (long) parentRanks[(int) (key >>> 32)] << 32 | codeRanks[(int) key];
+			}
+			long[] sorted = sortKeys.clone();
+			Arrays.sort(sorted);
+			int[] ranks = new int[size];
+			for (int id = 0; id < size; id++) {
+				ranks[id] = Arrays.binarySearch(sorted, sortKeys[id]);
+			}
+			parentRanks = ranks;
+		}
+		int[] order = new int[parentRanks.length];
+		for (int id = 0; id < parentRanks.length; id++) {
+			order[parentRanks[id]] = id;
+		}
+		return order;
+	}
+
+	/**
+	 * @return the kind of primitive aggregate computing the same values as the aggregators of the
+	 *         function, or {@code null} if the function needs its own aggregators
+	 */
+	private static Kind getKind(AggregationFunction function) {
+		if (function.isCountingOnlyDistinct()) {
+			return null;
+		}
+		// subclasses may post-process the aggregators
+		Class<?> functionClass = function.getClass();
+		if (functionClass == SumAggregationFunction.class) {
+			return Kind.SUM;
+		} else if (functionClass == MeanAggregationFunction.class) {
+			return Kind.MEAN;
+		} else if (functionClass == MinAggregationFunction.class) {
+			return Kind.MIN;
+		} else if (functionClass == MaxAggregationFunction.class) {
+			return Kind.MAX;
+		} else if (functionClass == VarianceAggregationFunction.class) {
+			return Kind.VARIANCE;
+		} else if (functionClass == StandardDeviationAggregationFunction.class) {
+			return Kind.STANDARD_DEVIATION;
+		} else if (functionClass == CountAggregationFunction.class) {
+			return Kind.COUNT;
+		}
+		return null;
+	}
+
+	/** Encodes the values of a group attribute into dense int codes. */
+	private interface KeyEncoder {
+
+		int encode(double value);
+
+		/**
+		 * @return the value of the new group attribute for the code
+		 */
+		double decode(int code, Attribute newAttribute);
+
+		/**
+		 * @return the rank of each code in the order of the aggregation tree
+		 */
+		int[] getRanks();
+	}
+
+	/** Uses the mapping index as code. Missing values share the code of the string "?". */
+	private static final class NominalKeyEncoder implements KeyEncoder {
+
+		private final NominalMapping mapping;
+		private final int missingCode;
+
+		private NominalKeyEncoder(Attribute attribute) {
+			this.mapping = attribute.getMapping();
+			int index = mapping.getIndex(Attribute.MISSING_NOMINAL_VALUE);
+			this.missingCode = index >= 0 ? index : mapping.size();
+		}
+
+		@Override
+		public int encode(double value) {
+			return Double.isNaN(value) ? missingCode : (int) value;
+		}
+
+		@Override
+		public double decode(int code, Attribute newAttribute) {
+			return newAttribute.getMapping().mapString(getString(code));
+		}
+
+		@Override
+		public int[] getRanks() {
+			int size = Math.max(mapping.size(), missingCode + 1);
+			Integer[] codes = new Integer[size];
+			for (int i = 0; i < size; i++) {
+				codes[i] = i;
+			}
+			Arrays.sort(codes, Comparator.comparing(this::getString));
+			int[] ranks = new int[size];
+			for (int i = 0; i < size; i++) {
+				ranks[codes[i]] = i;
+			}
+			return ranks;
+		}
+
+		private String getString(int code) {
+			return code == missingCode ? Attribute.MISSING_NOMINAL_VALUE : mapping.mapIndex(code);
+		}
+	}
+
+	/**
+	 * Uses the index in the dictionary of distinct values as code. Values are distinguished by
+	 * their bits like {@link Double#equals(Object)} does.
+	 */
+	private static final class NumericalKeyEncoder implements KeyEncoder {
+
+		private final DenseLongMap dictionary = new DenseLongMap();
+
+		@Override
+		public int encode(double value) {
+			return dictionary.getOrAdd(Double.doubleToLongBits(value));
+		}
+
+		@Override
+		public double decode(int code, Attribute newAttribute) {
+			return Double.longBitsToDouble(dictionary.getKey(code));
+		}
+
+		@Override
+		public int[] getRanks() {
+			int size = dictionary.size();
+			double[] values = new double[size];
+			for (int i = 0; i < size; i++) {
+				values[i] = Double.longBitsToDouble(dictionary.getKey(i));
+			}
+			// same total order as Double#compareTo
+			double[] sorted = values.clone();
+			Arrays.sort(sorted);
+			int[] ranks = new int[size];
+			for (int i = 0; i < size; i++) {
+				ranks[i] = Arrays.binarySearch(sorted, values[i]);
+			}
+			return ranks;
+		}
+	}
+
+	/**
+	 * Open addressing hash table assigning dense ids in insertion order to long keys.
+	 */
+	private static final class DenseLongMap {
+
+		private static final int INITIAL_CAPACITY = 16;
+
+		/** the slots of the hash table, {@code ids[slot] == 0} marks an empty slot */
+		private long[] slotKeys = new long[INITIAL_CAPACITY];
+		private int[] slotIds = new int[INITIAL_CAPACITY];
+
+		/** the key of each id */
+		private long[] keys = new long[INITIAL_CAPACITY];
+		private int size;
+
+		private int getOrAdd(long key) {
+			int mask = slotKeys.length - 1;
+			int slot = hash(key) & mask;
+			while (slotIds[slot] != 0) {
+				if (slotKeys[slot] == key) {
+					return slotIds[slot] - 1;
+				}
+				slot = slot + 1 & mask;
+			}
+			int id = size++;
+			slotKeys[slot] = key;
+			slotIds[slot] = id + 1;
+			if (id == keys.length) {
+				keys = Arrays.copyOf(keys, 2 * keys.length);
+			}
+			keys[id] = key;
+			if (2 * size > slotKeys.length) {
+				rehash(2 * slotKeys.length);
+			}
+			return id;
+		}
+
+		private long getKey(int id) {
+			return keys[id];
+		}
+
+		private int size() {
+			return size;
+		}
+
+		private void rehash(int capacity) {
+			slotKeys = new long[capacity];
+			slotIds = new int[capacity];
+			int mask = capacity - 1;
+			for (int id = 0; id < size; id++) {
+				int slot = hash(keys[id]) & mask;
+				while (slotIds[slot] != 0) {
+					slot = slot + 1 & mask;
+				}
+				slotKeys[slot] = keys[id];
+				slotIds[slot] = id + 1;
+			}
+		}
+
+		private static int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ h >>> 32);
+		}
+	}
+
+	/**
+	 * Column oriented state of one function. The updates replicate the corresponding
+	 * {@link NumericalAggregator}s and the {@link CountAggregator} operation by operation.
+	 */
+	private static final class PrimitiveAggregates {
+
+		private final Kind kind;
+		private final boolean ignoreMissings;
+
+		/** sum, minimum, maximum, count or sum of values */
+		private final double[] values;
+		private final double[] totalWeights;
+		private final double[] squaredValueSums;
+		private final double[] counts;
+		private final boolean[] hasValue;
+		private final boolean[] isMissing;
+
+		private PrimitiveAggregates(Kind kind, boolean ignoreMissings, int numberOfGroups) {
+			this.kind = kind;
+			this.ignoreMissings = ignoreMissings;
+			this.values = new double[numberOfGroups];
+			boolean variance = kind == Kind.VARIANCE || kind == Kind.STANDARD_DEVIATION;
+			this.totalWeights = kind == Kind.MEAN || variance ? new double[numberOfGroups] : null;
+			this.squaredValueSums = variance ? new double[numberOfGroups] : null;
+			this.counts = variance ? new double[numberOfGroups] : null;
+			this.hasValue = kind == Kind.MIN || kind == Kind.MAX ? new boolean[numberOfGroups] : null;
+			this.isMissing = kind != Kind.COUNT ? new boolean[numberOfGroups] : null;
+			if (kind == Kind.MIN) {
+				Arrays.fill(values, Double.POSITIVE_INFINITY);
+			} else if (kind == Kind.MAX) {
+				Arrays.fill(values, Double.NEGATIVE_INFINITY);
+			}
+		}
+
+		private void count(int group, double value) {
+			if (kind == Kind.COUNT) {
+				if (!Double.isNaN(value)) {
+					values[group]++;
+				}
+				return;
+			}
+			if (isMissing[group] && !ignoreMissings) {
+				return;
+			}
+			if (Double.isNaN(value)) {
+				isMissing[group] = true;
+				return;
+			}
+			switch (kind) {
+				case SUM:
+					values[group] += value;
+					break;
+				case MEAN:
+					values[group] += value;
+					totalWeights[group]++;
+					break;
+				case MIN:
+					hasValue[group] = true;
+					if (values[group] > value) {
+						values[group] = value;
+					}
+					break;
+				case MAX:
+					hasValue[group] = true;
+					if (values[group] < value) {
+						values[group] = value;
+					}
+					break;
+				default:
+					values[group] += value;
+					squaredValueSums[group] += value * value;
+					totalWeights[group]++;
+					counts[group]++;
+			}
+		}
+
+		private void count(int group, double value, double weight) {
+			if (kind == Kind.COUNT) {
+				if (!Double.isNaN(value)) {
+					values[group] += weight;
+				} else if (!ignoreMissings) {
+					values[group] = Double.NaN;
+				}
+				return;
+			}
+			if (isMissing[group] && !ignoreMissings) {
+				return;
+			}
+			if (Double.isNaN(value)) {
+				isMissing[group] = true;
+				return;
+			}
+			switch (kind) {
+				case SUM:
+					values[group] += value * weight;
+					break;
+				case MEAN:
+					values[group] += value * weight;
+					totalWeights[group] += weight;
+					break;
+				case MIN:
+				case MAX:
+					count(group, value);
+					break;
+				default:
+					values[group] += weight * value;
+					squaredValueSums[group] += weight * value * value;
+					totalWeights[group] += weight;
+					counts[group]++;
+			}
+		}
+
+		private double getValue(int group) {
+			if (kind == Kind.COUNT) {
+				return values[group];
+			}
+			if (isMissing[group] && !ignoreMissings) {
+				return Double.NaN;
+			}
+			switch (kind) {
+				case SUM:
+					return values[group];
+				case MEAN:
+					return values[group] / totalWeights[group];
+				case MIN:
+				case MAX:
+					return hasValue[group] ? values[group] : Double.NaN;
+				default:
+					double count = counts[group];
+					if (count == 0) {
+						return Double.NaN;
+					}
+					double valueSum = values[group];
+					double totalWeightSum = totalWeights[group];
+					double variance = (squaredValueSums[group] - valueSum * valueSum / totalWeightSum)
+							/ ((count - 1) / count * totalWeightSum);
+					if (kind == Kind.VARIANCE) {
+						return variance;
+					}
+					return variance > 0d ? Math.sqrt(variance) : 0d;
+			}
+		}
+	}
+
+	/** The {@link Aggregator} of one group of the {@link PrimitiveAggregates}. */
+	private static final class GroupAggregator implements Aggregator {
+
+		private final PrimitiveAggregates aggregates;
+		private final int group;
+		private final Attribute sourceAttribute;
+
+		private GroupAggregator(PrimitiveAggregates aggregates, int group, Attribute sourceAttribute) {
+			this.aggregates = aggregates;
+			this.group = group;
+			this.sourceAttribute = sourceAttribute;
+		}
+
+		@Override
+		public void count(Example example) {
+			aggregates.count(group, example.getValue(sourceAttribute));
+		}
+
+		@Override
+		public void count(Example example, double weight) {
+			aggregates.count(group, example.getValue(sourceAttribute), weight);
+		}
+
+		@Override
+		public void set(Attribute attribute, DataRow row) {
+			row.set(attribute, aggregates.getValue(group));
+		}
+	}
+}
@@ -32,7 +32,7 @@ import base.operators.tools.container.Tupel;
 import base.operators.tools.math.LinearRegression;
 import base.operators.tools.math.VectorMath;
 import base.operators.tools.math.container.GeometricDataCollection;
-import base.operators.tools.math.container.LinearList;
+import base.operators.tools.math.container.GeometricDataCollections;
 import base.operators.tools.math.similarity.DistanceMeasure;
 import base.operators.tools.math.similarity.DistanceMeasures;
 import base.operators.tools.math.smoothing.SmoothingKernel;
@@ -153,7 +153,8 @@ public class LocalPolynomialExampleWeightingOperator extends Operator {
 		// start iterating
 		for (int step = 0; step < numberOfSteps; step++) {
 			// building geometric data collection
-			GeometricDataCollection<RegressionData> data = new LinearList<RegressionData>(measure);
+			GeometricDataCollection<RegressionData> data = GeometricDataCollections.create(measure, attributes.size(),
+					exampleSet.size());
 			for (Example example : exampleSet) {
 				double[] values = new double[attributes.size()];
 				double labelValue = example.getValue(label);
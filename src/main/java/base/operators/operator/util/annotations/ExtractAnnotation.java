@@ -125,4 +125,9 @@ public class ExtractAnnotation extends Operator {
 
 		return types;
 	}
+
+	@Override
+	public boolean hasSideEffects() {
+		return true;
+	}
 }
@@ -19,7 +19,7 @@ abstract class AbstractOperatorConcurrencyContext implements ConcurrencyContext
     private final Operator operator;
 
     /** The shared {@link ForkJoinPool} pool wrapper */
-    private final LazyPool.InstanceForOperator pool;
+    private final LazyPool.Instance pool;
 
     /**
      * Creates a new {@link ConcurrencyContext} for the given {@link Operator}.
@@ -38,7 +38,8 @@ abstract class AbstractOperatorConcurrencyContext implements ConcurrencyContext
             throw new IllegalArgumentException("pool must not be null");
         }
         this.operator = operator;
-        this.pool = pool.getInstance(this);
+        this.pool = pool.getInstance(this::getForkJoinPool, this::isPoolOutdated, this::getDesiredParallelismLevel,
+                operator.getProcess());
     }
 
     @Override
@@ -101,7 +102,7 @@ abstract class AbstractOperatorConcurrencyContext implements ConcurrencyContext
         } else {
             final List<Future<T>> futures = new ArrayList<>(callables.size());
             for (Callable<T> callable : callables) {
-                futures.add(forkJoinPool.submit((ForkJoinTask<T>) new AdaptedCallable<>(callable)));
+                futures.add(submitOrRun(forkJoinPool, callable));
             }
             return collectResults(futures);
         }
@@ -133,14 +134,14 @@ abstract class AbstractOperatorConcurrencyContext implements ConcurrencyContext
                 && ((ForkJoinWorkerThread) currentThread).getPool() == forkJoinPool) {
             final List<Future<T>> futures = new ArrayList<>(callables.size());
             for (Callable<T> callable : callables) {
-                futures.add(new FutureWrapper<>(new AdaptedCallable<>(callable).fork()));
+                futures.add(new FutureWrapper<>(new AdaptedCallable<>(callable, null).fork()));
             }
             return futures;
         } else {
-            // submit callables without further checks
+            // submit callables, the process limit might execute some of them right away
             final List<Future<T>> futures = new ArrayList<>(callables.size());
             for (Callable<T> callable : callables) {
-                futures.add(new FutureWrapper<>(forkJoinPool.submit((ForkJoinTask<T>) new AdaptedCallable<>(callable))));
+                futures.add(new FutureWrapper<>(submitOrRun(forkJoinPool, callable)));
             }
             return futures;
         }
@@ -253,6 +254,24 @@ abstract class AbstractOperatorConcurrencyContext implements ConcurrencyContext
     }
 
 
+    /**
+     * Submits the callable to the pool. If the process already uses its share of the pool, the callable is executed
+     * by the calling thread instead.
+     */
+    private <T> ForkJoinTask<T> submitOrRun(ForkJoinPool forkJoinPool, Callable<T> callable) {
+        if (!pool.tryAcquire()) {
+            AdaptedCallable<T> task = new AdaptedCallable<>(callable, null);
+            task.quietlyInvoke();
+            return task;
+        }
+        try {
+            return forkJoinPool.submit((ForkJoinTask<T>) new AdaptedCallable<>(callable, pool::release));
+        } catch (RuntimeException e) {
+            pool.release();
+            throw e;
+        }
+    }
+
     /**
      * Wrapper for {@link Callable}s that is the same as ForkJoinTask#AdaptedCallable but wraps checked exceptions in
      * {@link RecursiveWrapper.WrapperRuntimeException} instead of generic {@link RuntimeException} for easier
@@ -266,13 +285,19 @@ abstract class AbstractOperatorConcurrencyContext implements ConcurrencyContext
         private static final long serialVersionUID = 23654279569L;
 
         private final transient Callable<? extends T> callable;
+        private final transient Runnable onCompletion;
         private transient T result;
 
-        private AdaptedCallable(Callable<? extends T> callable) {
+        /**
+         * @param onCompletion
+         *            executed after the callable has finished, might be {@code null}
+         */
+        private AdaptedCallable(Callable<? extends T> callable, Runnable onCompletion) {
             if (callable == null) {
                 throw new NullPointerException();
             }
             this.callable = callable;
+            this.onCompletion = onCompletion;
         }
 
         @Override
@@ -295,6 +320,10 @@ abstract class AbstractOperatorConcurrencyContext implements ConcurrencyContext
             } catch (Exception ex) {
                 // the following line is the only difference to ForkJoinTask#AdaptedCallable
                 throw new RecursiveWrapper.WrapperRuntimeException(ex);
+            } finally {
+                if (onCompletion != null) {
+                    onCompletion.run();
+                }
             }
         }
 
@@ -1,13 +1,8 @@
 package base.operators.studio.concurrency.internal;
 
-import base.operators.RapidMiner;
 import base.operators.operator.Operator;
 
 public class BackgroudOperatorConcurrencyContext extends AbstractOperatorConcurrencyContext{
-    /**
-     * The pool used by this context
-     */
-    private static final LazyPool BACKGROUND_POOL = new LazyPool(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS_BACKGROUND);
 
     /**
      * Creates a new {@link BackgroundConcurrencyContext} for the given {@link Operator}.
@@ -18,6 +13,6 @@ public class BackgroudOperatorConcurrencyContext extends AbstractOperatorConcurr
      * 		the corresponding operator
      */
     public BackgroudOperatorConcurrencyContext(Operator operator) {
-        super(operator, BACKGROUND_POOL);
+        super(operator, LazyPool.BACKGROUND);
     }
 }
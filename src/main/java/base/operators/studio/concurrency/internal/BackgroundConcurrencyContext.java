@@ -19,7 +19,6 @@
 package base.operators.studio.concurrency.internal;
 
 import base.operators.Process;
-import base.operators.RapidMiner;
 
 /**
  * Simple {@link base.operators.core.concurrency.ConcurrencyContext} to be used with a single {@link Process}.
@@ -31,11 +30,6 @@ import base.operators.RapidMiner;
  */
 public class BackgroundConcurrencyContext extends AbstractConcurrencyContext {
 
-    /**
-     * The pool used by this context
-     */
-    private static final LazyPool BACKGROUND_POOL = new LazyPool(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS_BACKGROUND);
-
     /**
      * Creates a new {@link BackgroundConcurrencyContext} for the given {@link Process}.
      * <p>
@@ -45,7 +39,7 @@ public class BackgroundConcurrencyContext extends AbstractConcurrencyContext {
      * 		the corresponding process
      */
     public BackgroundConcurrencyContext(Process process) {
-        super(process, BACKGROUND_POOL);
+        super(process, LazyPool.BACKGROUND);
     }
 }
 
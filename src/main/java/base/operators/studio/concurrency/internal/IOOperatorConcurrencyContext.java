@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ *
+ * Complete list of developers available at our web site:
+ *
+ * http://rapidminer.com
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+ */
+package base.operators.studio.concurrency.internal;
+
+import base.operators.operator.Operator;
+
+
+/**
+ * {@link base.operators.core.concurrency.ConcurrencyContext} for blocking I/O of an {@link Operator}, e.g.
+ * reading from HDFS or a database. The tasks run in a separate pool, so threads waiting for I/O do not take
+ * threads away from CPU-bound work.
+ *
+ * @see LazyPool#IO
+ */
+public class IOOperatorConcurrencyContext extends AbstractOperatorConcurrencyContext {
+
+	/**
+	 * Creates a new {@link IOOperatorConcurrencyContext} for the given {@link Operator}.
+	 *
+	 * @param operator
+	 * 		the corresponding operator
+	 */
+	public IOOperatorConcurrencyContext(Operator operator) {
+		super(operator, LazyPool.IO);
+	}
+}
@@ -20,19 +20,36 @@ package base.operators.studio.concurrency.internal;
 
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
+import base.operators.RapidMiner;
 import base.operators.tools.I18N;
 import base.operators.tools.LogService;
 import base.operators.studio.internal.ParameterServiceRegistry;
 
 
 /**
- * Supplies a ForkJoinPool if needed Only usable by {@link AbstractConcurrencyContext}
+ * Supplies a ForkJoinPool if needed Only usable by {@link AbstractConcurrencyContext} and
+ * {@link AbstractOperatorConcurrencyContext}.
+ * <p>
+ * The pool is kept in a volatile field and only re-created if the configured parallelism changes,
+ * so looking up the pool does not take a lock. There is one JVM-wide pool per kind of work, see
+ * {@link #FOREGROUND}, {@link #BACKGROUND} and {@link #IO}. The CPU-bound pools limit the number
+ * of tasks each process may have in the pool at the same time to the value of
+ * {@link RapidMiner#PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS_PER_PROCESS}. Tasks above that
+ * limit are executed by the submitting thread, which slows down a single busy process instead of
+ * the other processes sharing the pool.
  *
  * @author Jonas Wilms-Pfau (internals by Gisa Schaefer, Michael Knopf)
  * @see AbstractConcurrencyContext
@@ -46,180 +63,232 @@ class LazyPool {
 	 */
 	private static final int FJPOOL_MAXIMAL_PARALLELISM = 32767;
 
+	/** All pools, used for the statistics */
+	private static final List<LazyPool> POOLS = new CopyOnWriteArrayList<>();
+
+	/** The pool for CPU-bound work of processes executed in the foreground */
+	static final LazyPool FOREGROUND = new LazyPool("foreground",
+			RapidMiner.PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS, 1, true);
+
+	/** The pool for CPU-bound work of operators and processes executed in the background */
+	static final LazyPool BACKGROUND = new LazyPool("background",
+			RapidMiner.PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS_BACKGROUND, 1, true);
+
 	/**
-	 * Locks to handle access from different threads
+	 * The pool for blocking I/O like HDFS and database access. Its threads mostly wait, so it
+	 * defaults to twice the number of processors and is not subject to the process limit.
 	 */
-	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
-	private final Lock readLock = lock.readLock();
-	private final Lock writeLock = lock.writeLock();
+	static final LazyPool IO = new LazyPool("io", RapidMiner.PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS_IO, 2, false);
+
 	/**
-	 * The fork join pool all task are submitted to.
+	 * The fork join pool all task are submitted to. Only replaced while holding the monitor of this
+	 * object.
 	 */
-	private ForkJoinPool pool = null;
+	private volatile ForkJoinPool pool = null;
+
+	/** The last parsed value of the parallelism setting, {@code null} if not parsed yet */
+	private volatile Setting parallelismSetting;
+
+	/** The last parsed value of the process limit setting, {@code null} if not parsed yet */
+	private volatile Setting processLimitSetting;
+
+	/** The number of tasks each process currently has in the pool */
+	private final ConcurrentHashMap<Object, Integer> activeTasks = new ConcurrentHashMap<>();
 
+	private final LongAdder submittedTasks = new LongAdder();
+	private final LongAdder callerRunTasks = new LongAdder();
+
+	private final String name;
 	private final String key;
+	private final int processorFactor;
+	private final boolean limitPerProcess;
 
 	/**
 	 * Creates a new pool from the given settings key
 	 *
+	 * @param name
+	 * 		the name of the pool, used for the worker threads and the statistics
 	 * @param settingsKey
 	 * 		used for logging and the default desired parallelism level
+	 * @param processorFactor
+	 * 		the default parallelism level relative to the number of processors
+	 * @param limitPerProcess
+	 * 		whether the number of tasks per process is limited
 	 */
-	LazyPool(String settingsKey) {
+	private LazyPool(String name, String settingsKey, int processorFactor, boolean limitPerProcess) {
+		Objects.requireNonNull(name);
 		Objects.requireNonNull(settingsKey);
+		this.name = name;
 		this.key = settingsKey;
+		this.processorFactor = processorFactor;
+		this.limitPerProcess = limitPerProcess;
+		POOLS.add(this);
 	}
 
 	/**
-	 * Returns a new instance that for the given context
+	 * Returns a new instance for a context.
 	 *
-	 * @param context
-	 * 		the ConcurrencyContext
+	 * @param contextPool
+	 * 		the pool lookup of the context, might be overridden by the context
+	 * @param poolOutdated
+	 * 		the outdated check of the context
+	 * @param desiredParallelismLevel
+	 * 		the desired parallelism level of the context
+	 * @param owner
+	 * 		the process the tasks of the context belong to, {@code null} if unknown
 	 * @return a context specific instance
 	 */
-	LazyPool.Instance getInstance(AbstractConcurrencyContext context) {
-		return new LazyPool.Instance(context);
+	Instance getInstance(Supplier<ForkJoinPool> contextPool, BooleanSupplier poolOutdated,
+						 IntSupplier desiredParallelismLevel, Object owner) {
+		return new Instance(contextPool, poolOutdated, desiredParallelismLevel, owner);
 	}
 
-	LazyPool.InstanceForOperator getInstance(AbstractOperatorConcurrencyContext context) {
-		return new LazyPool.InstanceForOperator(context);
+	/**
+	 * @return the statistics of all pools
+	 */
+	static List<PoolStatistics> getStatistics() {
+		List<PoolStatistics> statistics = new ArrayList<>(POOLS.size());
+		for (LazyPool lazyPool : POOLS) {
+			statistics.add(lazyPool.createStatistics());
+		}
+		return statistics;
+	}
+
+	private PoolStatistics createStatistics() {
+		ForkJoinPool current = pool;
+		if (current == null) {
+			return new PoolStatistics(name, getConfiguredParallelism(), 0, 0, 0, 0, 0, 0,
+					submittedTasks.sum(), callerRunTasks.sum(), activeTasks.size());
+		}
+		return new PoolStatistics(name, current.getParallelism(), current.getPoolSize(),
+				current.getActiveThreadCount(), current.getRunningThreadCount(), current.getQueuedSubmissionCount(),
+				current.getQueuedTaskCount(), current.getStealCount(), submittedTasks.sum(), callerRunTasks.sum(),
+				activeTasks.size());
 	}
 
 	/**
-	 * Instance of this pool for a specific Context
+	 * Re-creates the pool unless another thread has done so in the meantime.
 	 */
-	final class Instance {
+	private synchronized ForkJoinPool recreatePool(BooleanSupplier poolOutdated, IntSupplier desiredParallelismLevel) {
+		if (!poolOutdated.getAsBoolean()) {
+			// pool has been updated in the meantime
+			// no reason to re-create the pool once again
+			return pool;
+		}
+		if (pool != null) {
+			pool.shutdown();
+		}
+		int desiredLevel = desiredParallelismLevel.getAsInt();
+		ForkJoinPool newPool = new ForkJoinPool(desiredLevel, this::newWorkerThread, null, false);
+		pool = newPool;
+		LogService.getRoot().log(Level.CONFIG,
+				"base.operators.concurrency.concurrency_context.pool_creation",
+				new Object[]{desiredLevel, I18N.getSettingsMessage(key, I18N.SettingsType.TITLE)});
+		return newPool;
+	}
 
-		private final AbstractConcurrencyContext context;
+	private ForkJoinWorkerThread newWorkerThread(ForkJoinPool forkJoinPool) {
+		ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+		thread.setName(name + "-pool-worker-" + thread.getPoolIndex());
+		return thread;
+	}
 
-		/**
-		 * Creates a new Instance for this context
-		 *
-		 * @param context
-		 * 		the context
-		 */
-		private Instance(AbstractConcurrencyContext context) {
-			Objects.requireNonNull(context);
-			this.context = context;
+	/**
+	 * Returns the parallelism level configured by the user, or the default if nothing or an invalid value is
+	 * configured. The setting is only parsed again if it changed.
+	 */
+	private int getConfiguredParallelism() {
+		String numberOfThreads = ParameterServiceRegistry.INSTANCE.getParameterValue(key);
+		Setting setting = parallelismSetting;
+		if (setting == null || !Objects.equals(setting.value, numberOfThreads)) {
+			setting = new Setting(numberOfThreads, parseParallelism(numberOfThreads));
+			parallelismSetting = setting;
 		}
+		return setting.level;
+	}
 
-		/**
-		 * This method verifies and returns a JVM-wide, static FJPool. Override if a different pool behavior is needed.
-		 *
-		 * @return the ForkJoinPool to use for this context instance for execution.
-		 */
-		ForkJoinPool getForkJoinPool() {
-			readLock.lock();
-			try {
-				if (!context.isPoolOutdated()) {
-					// nothing to do
-					return pool;
-				}
-			} finally {
-				readLock.unlock();
-			}
-			writeLock.lock();
+	private int parseParallelism(String numberOfThreads) {
+		int userLevel = 0;
+
+		if (numberOfThreads != null) {
 			try {
-				if (!context.isPoolOutdated()) {
-					// pool has been updated in the meantime
-					// no reason to re-create the pool once again
-					return pool;
-				}
-				if (pool != null) {
-					pool.shutdown();
-				}
-				int desiredParallelismLevel = context.getDesiredParallelismLevel();
-				pool = new ForkJoinPool(desiredParallelismLevel);
-				LogService.getRoot().log(Level.CONFIG,
-						"base.operators.concurrency.concurrency_context.pool_creation",
-						new Object[]{desiredParallelismLevel, I18N.getSettingsMessage(key, I18N.SettingsType.TITLE)});
-				return pool;
-			} finally {
-				writeLock.unlock();
+				userLevel = Integer.parseInt(numberOfThreads);
+				LogService.getRoot().log(Level.FINE, "base.operators.concurrency.concurrency_context.parse_success",
+						new Object[]{userLevel, I18N.getSettingsMessage(key, I18N.SettingsType.TITLE)});
+			} catch (NumberFormatException e) {
+				// ignore and use default value
+				LogService.getRoot().log(Level.FINE, "base.operators.concurrency.concurrency_context.parse_failure",
+						new Object[]{numberOfThreads, I18N.getSettingsMessage(key, I18N.SettingsType.TITLE)});
 			}
 		}
 
-		/**
-		 * Checks if the JVM-wide, static pool needs to be re-created. Override if a different pool behavior is needed.
-		 *
-		 * @return {@code true} if the current pool is {@code null} or the {@link AbstractConcurrencyContext#getDesiredParallelismLevel}
-		 * is not equal to the current {@link #pool} parallelism otherwise {@code false}
-		 */
-		boolean isPoolOutdated() {
-			return pool == null || context.getDesiredParallelismLevel() != pool.getParallelism();
+		if (userLevel <= 0) {
+			int processors = Runtime.getRuntime().availableProcessors();
+			userLevel = processorFactor == 1 ? Math.max(1, processors - 1) : processorFactor * processors;
 		}
 
-		/**
-		 * Returns the targeted parallelism level of this pool.
-		 * <p>
-		 * The targeted parallelism level provides an <em>upper bound</em> for the number of tasks that will be executed
-		 * in parallel by this context. It does not guarantee that this bound will be matched during execution. Note
-		 * that the targeted parallelism level need not match the number of processors available to the Java {@link
-		 * Runtime}.
-		 * <p>
-		 * You can use the targeted parallelism level as an indicator for partitioning your computation. For instance, a
-		 * parallelism level of {@code 8} indicates that should partition your task into
-		 * <em>at least</em> eight tasks to fully utilize the context. A parallelism level of {@code 1}
-		 * indicates a single threaded execution of all submitted tasks.
-		 *
-		 * @return the targeted parallelism level
-		 */
-		int getParallelism() {
-			if (pool != null) {
-				return AccessController.doPrivileged((PrivilegedAction<ForkJoinPool>) context::getForkJoinPool)
-						.getParallelism();
-			} else {
-				return context.getDesiredParallelismLevel();
-			}
+		// should not happen, but we want to avoid any exception during pool creation
+		if (userLevel > FJPOOL_MAXIMAL_PARALLELISM) {
+			userLevel = FJPOOL_MAXIMAL_PARALLELISM;
 		}
+		return userLevel;
+	}
 
-		/**
-		 * Helper method to get the desired parallelism level for the given setting
-		 *
-		 * @return the desired parallelism level
-		 */
-		int getDesiredParallelismLevel() {
-			String numberOfThreads = ParameterServiceRegistry.INSTANCE.getParameterValue(key);
-
-			int userLevel = 0;
-
-			if (numberOfThreads != null) {
+	/**
+	 * @return the maximal number of tasks per process, {@link Integer#MAX_VALUE} if not limited
+	 */
+	private int getProcessLimit() {
+		if (!limitPerProcess) {
+			return Integer.MAX_VALUE;
+		}
+		String limit = ParameterServiceRegistry.INSTANCE
+				.getParameterValue(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS_PER_PROCESS);
+		Setting setting = processLimitSetting;
+		if (setting == null || !Objects.equals(setting.value, limit)) {
+			int parsed = 0;
+			if (limit != null) {
 				try {
-					userLevel = Integer.parseInt(numberOfThreads);
-					LogService.getRoot().log(Level.FINE, "base.operators.concurrency.concurrency_context.parse_success",
-							new Object[]{userLevel, I18N.getSettingsMessage(key, I18N.SettingsType.TITLE)});
+					parsed = Integer.parseInt(limit);
 				} catch (NumberFormatException e) {
-					// ignore and use default value
-					LogService.getRoot().log(Level.FINE, "base.operators.concurrency.concurrency_context.parse_failure",
-							new Object[]{numberOfThreads, I18N.getSettingsMessage(key, I18N.SettingsType.TITLE)});
+					// ignore and do not limit
 				}
 			}
+			setting = new Setting(limit, parsed > 0 ? parsed : Integer.MAX_VALUE);
+			processLimitSetting = setting;
+		}
+		return setting.level;
+	}
 
-			if (userLevel <= 0) {
-				userLevel = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
-			}
+	/**
+	 * A raw setting value and the number parsed from it.
+	 */
+	private static final class Setting {
 
-			// should not happen, but we want to avoid any exception during pool creation
-			if (userLevel > FJPOOL_MAXIMAL_PARALLELISM) {
-				userLevel = FJPOOL_MAXIMAL_PARALLELISM;
-			}
-			return userLevel;
+		private final String value;
+		private final int level;
+
+		private Setting(String value, int level) {
+			this.value = value;
+			this.level = level;
 		}
 	}
 
-	final class InstanceForOperator {
-
-		private final AbstractOperatorConcurrencyContext context;
+	/**
+	 * Instance of this pool for a specific Context
+	 */
+	final class Instance {
 
-		/**
-		 * Creates a new Instance for this context
-		 *
-		 * @param context
-		 * 		the context
-		 */
-		private InstanceForOperator(AbstractOperatorConcurrencyContext context) {
-			Objects.requireNonNull(context);
-			this.context = context;
+		private final Supplier<ForkJoinPool> contextPool;
+		private final BooleanSupplier poolOutdated;
+		private final IntSupplier desiredParallelismLevel;
+		private final Object owner;
+
+		private Instance(Supplier<ForkJoinPool> contextPool, BooleanSupplier poolOutdated,
+						 IntSupplier desiredParallelismLevel, Object owner) {
+			this.contextPool = Objects.requireNonNull(contextPool);
+			this.poolOutdated = Objects.requireNonNull(poolOutdated);
+			this.desiredParallelismLevel = Objects.requireNonNull(desiredParallelismLevel);
+			this.owner = owner;
 		}
 
 		/**
@@ -228,44 +297,23 @@ class LazyPool {
 		 * @return the ForkJoinPool to use for this context instance for execution.
 		 */
 		ForkJoinPool getForkJoinPool() {
-			readLock.lock();
-			try {
-				if (!context.isPoolOutdated()) {
-					// nothing to do
-					return pool;
-				}
-			} finally {
-				readLock.unlock();
-			}
-			writeLock.lock();
-			try {
-				if (!context.isPoolOutdated()) {
-					// pool has been updated in the meantime
-					// no reason to re-create the pool once again
-					return pool;
-				}
-				if (pool != null) {
-					pool.shutdown();
-				}
-				int desiredParallelismLevel = context.getDesiredParallelismLevel();
-				pool = new ForkJoinPool(desiredParallelismLevel);
-				LogService.getRoot().log(Level.CONFIG,
-						"base.operators.concurrency.concurrency_context.pool_creation",
-						new Object[]{desiredParallelismLevel, I18N.getSettingsMessage(key, I18N.SettingsType.TITLE)});
-				return pool;
-			} finally {
-				writeLock.unlock();
+			ForkJoinPool current = pool;
+			if (current != null && !poolOutdated.getAsBoolean()) {
+				// nothing to do
+				return current;
 			}
+			return recreatePool(poolOutdated, desiredParallelismLevel);
 		}
 
 		/**
 		 * Checks if the JVM-wide, static pool needs to be re-created. Override if a different pool behavior is needed.
 		 *
-		 * @return {@code true} if the current pool is {@code null} or the {@link AbstractConcurrencyContext#getDesiredParallelismLevel}
+		 * @return {@code true} if the current pool is {@code null} or the desired parallelism level
 		 * is not equal to the current {@link #pool} parallelism otherwise {@code false}
 		 */
 		boolean isPoolOutdated() {
-			return pool == null || context.getDesiredParallelismLevel() != pool.getParallelism();
+			ForkJoinPool current = pool;
+			return current == null || desiredParallelismLevel.getAsInt() != current.getParallelism();
 		}
 
 		/**
@@ -284,12 +332,14 @@ class LazyPool {
 		 * @return the targeted parallelism level
 		 */
 		int getParallelism() {
+			int parallelism;
 			if (pool != null) {
-				return AccessController.doPrivileged((PrivilegedAction<ForkJoinPool>) context::getForkJoinPool)
+				parallelism = AccessController.doPrivileged((PrivilegedAction<ForkJoinPool>) contextPool::get)
 						.getParallelism();
 			} else {
-				return context.getDesiredParallelismLevel();
+				parallelism = desiredParallelismLevel.getAsInt();
 			}
+			return owner == null ? parallelism : Math.min(parallelism, getProcessLimit());
 		}
 
 		/**
@@ -298,31 +348,47 @@ class LazyPool {
 		 * @return the desired parallelism level
 		 */
 		int getDesiredParallelismLevel() {
-			String numberOfThreads = ParameterServiceRegistry.INSTANCE.getParameterValue(key);
-
-			int userLevel = 0;
+			return getConfiguredParallelism();
+		}
 
-			if (numberOfThreads != null) {
-				try {
-					userLevel = Integer.parseInt(numberOfThreads);
-					LogService.getRoot().log(Level.FINE, "base.operators.concurrency.concurrency_context.parse_success",
-							new Object[]{userLevel, I18N.getSettingsMessage(key, I18N.SettingsType.TITLE)});
-				} catch (NumberFormatException e) {
-					// ignore and use default value
-					LogService.getRoot().log(Level.FINE, "base.operators.concurrency.concurrency_context.parse_failure",
-							new Object[]{numberOfThreads, I18N.getSettingsMessage(key, I18N.SettingsType.TITLE)});
-				}
+		/**
+		 * Reserves a slot for a task submitted from outside the pool. Every successful call must be followed by
+		 * a call to {@link #release()} once the task has finished.
+		 *
+		 * @return {@code false} if the process already uses its share of the pool and the task should be
+		 * executed by the calling thread
+		 */
+		boolean tryAcquire() {
+			submittedTasks.increment();
+			if (owner == null) {
+				return true;
 			}
-
-			if (userLevel <= 0) {
-				userLevel = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+			int limit = getProcessLimit();
+			if (limit == Integer.MAX_VALUE) {
+				return true;
+			}
+			boolean[] acquired = new boolean[1];
+			activeTasks.compute(owner, (process, count) -> {
+				int active = count == null ? 0 : count;
+				if (active >= limit) {
+					return count;
+				}
+				acquired[0] = true;
+				return active + 1;
+			});
+			if (!acquired[0]) {
+				callerRunTasks.increment();
 			}
+			return acquired[0];
+		}
 
-			// should not happen, but we want to avoid any exception during pool creation
-			if (userLevel > FJPOOL_MAXIMAL_PARALLELISM) {
-				userLevel = FJPOOL_MAXIMAL_PARALLELISM;
+		/**
+		 * Releases a slot reserved by {@link #tryAcquire()}.
+		 */
+		void release() {
+			if (owner != null) {
+				activeTasks.computeIfPresent(owner, (process, count) -> count > 1 ? count - 1 : null);
 			}
-			return userLevel;
 		}
 	}
 }
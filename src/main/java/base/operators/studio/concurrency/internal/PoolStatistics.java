@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ *
+ * Complete list of developers available at our web site:
+ *
+ * http://rapidminer.com
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+ */
+package base.operators.studio.concurrency.internal;
+
+import java.util.List;
+
+
+/**
+ * Snapshot of the state of one of the JVM-wide pools used by the concurrency contexts.
+ *
+ * @see #getStatistics()
+ */
+public final class PoolStatistics {
+
+	private final String name;
+	private final int parallelism;
+	private final int poolSize;
+	private final int activeThreadCount;
+	private final int runningThreadCount;
+	private final int queuedSubmissionCount;
+	private final long queuedTaskCount;
+	private final long stealCount;
+	private final long submittedTaskCount;
+	private final long callerRunTaskCount;
+	private final int activeProcessCount;
+
+	PoolStatistics(String name, int parallelism, int poolSize, int activeThreadCount, int runningThreadCount,
+				   int queuedSubmissionCount, long queuedTaskCount, long stealCount, long submittedTaskCount,
+				   long callerRunTaskCount, int activeProcessCount) {
+		this.name = name;
+		this.parallelism = parallelism;
+		this.poolSize = poolSize;
+		this.activeThreadCount = activeThreadCount;
+		this.runningThreadCount = runningThreadCount;
+		this.queuedSubmissionCount = queuedSubmissionCount;
+		this.queuedTaskCount = queuedTaskCount;
+		this.stealCount = stealCount;
+		this.submittedTaskCount = submittedTaskCount;
+		this.callerRunTaskCount = callerRunTaskCount;
+		this.activeProcessCount = activeProcessCount;
+	}
+
+	/**
+	 * @return the statistics of the foreground, background and I/O pool
+	 */
+	public static List<PoolStatistics> getStatistics() {
+		return LazyPool.getStatistics();
+	}
+
+	/**
+	 * @return the name of the pool
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the parallelism level of the pool, or the configured level if the pool has not been created yet
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @return the number of worker threads that have been started but not yet terminated
+	 */
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	/**
+	 * @return the estimated number of threads that are executing or stealing tasks
+	 */
+	public int getActiveThreadCount() {
+		return activeThreadCount;
+	}
+
+	/**
+	 * @return the estimated number of threads that are not blocked waiting to join tasks
+	 */
+	public int getRunningThreadCount() {
+		return runningThreadCount;
+	}
+
+	/**
+	 * @return the estimated number of tasks submitted from outside the pool that have not started yet
+	 */
+	public int getQueuedSubmissionCount() {
+		return queuedSubmissionCount;
+	}
+
+	/**
+	 * @return the estimated number of tasks forked by the worker threads that have not started yet
+	 */
+	public long getQueuedTaskCount() {
+		return queuedTaskCount;
+	}
+
+	/**
+	 * @return the estimated number of tasks stolen from another thread's queue
+	 */
+	public long getStealCount() {
+		return stealCount;
+	}
+
+	/**
+	 * @return the number of tasks submitted from outside the pool since startup
+	 */
+	public long getSubmittedTaskCount() {
+		return submittedTaskCount;
+	}
+
+	/**
+	 * @return the number of submitted tasks that were executed by the submitting thread because the process
+	 * already used its share of the pool
+	 */
+	public long getCallerRunTaskCount() {
+		return callerRunTaskCount;
+	}
+
+	/**
+	 * @return the number of processes that currently have limited tasks in the pool
+	 */
+	public int getActiveProcessCount() {
+		return activeProcessCount;
+	}
+
+	@Override
+	public String toString() {
+		return name + " pool [parallelism=" + parallelism + ", size=" + poolSize + ", active=" + activeThreadCount
+				+ ", running=" + runningThreadCount + ", queuedSubmissions=" + queuedSubmissionCount + ", queuedTasks="
+				+ queuedTaskCount + ", steals=" + stealCount + ", submitted=" + submittedTaskCount + ", callerRuns="
+				+ callerRunTaskCount + ", activeProcesses=" + activeProcessCount + "]";
+	}
+}
@@ -19,7 +19,6 @@
 package base.operators.studio.concurrency.internal;
 
 import base.operators.Process;
-import base.operators.RapidMiner;
 
 /**
  * Simple {@link base.operators.core.concurrency.ConcurrencyContext} to be used with a single {@link Process}.
@@ -31,11 +30,6 @@ import base.operators.RapidMiner;
  */
 public class StudioConcurrencyContext extends AbstractConcurrencyContext {
 
-	/**
-	 * The pool used by this context
-	 */
-	private static final LazyPool FOREGROUND_POOL = new LazyPool(RapidMiner.PROPERTY_RAPIDMINER_GENERAL_NUMBER_OF_THREADS);
-
 	/**
 	 * Creates a new {@link StudioConcurrencyContext} for the given {@link Process}.
 	 * <p>
@@ -45,6 +39,6 @@ public class StudioConcurrencyContext extends AbstractConcurrencyContext {
 	 * 		the corresponding process
 	 */
 	public StudioConcurrencyContext(Process process) {
-		super(process, FOREGROUND_POOL);
+		super(process, LazyPool.FOREGROUND);
 	}
 }
@@ -172,13 +172,13 @@ public class ExampleResolver implements Resolver {
 
 	@Override
 	public double getDoubleValue(String variableName) {
-		if (!(getVariableType(variableName) == ExpressionType.DOUBLE
-		        || getVariableType(variableName) == ExpressionType.INTEGER)) {
+		ExpressionType type = getVariableType(variableName);
+		if (!(type == ExpressionType.DOUBLE || type == ExpressionType.INTEGER)) {
 			throw new IllegalStateException("the variable " + variableName + " does not have a double value");
 		}
 		Example example = getNonNullExample();
 		Attribute attribute = example.getAttributes().get(variableName);
-		if (getVariableType(variableName) == ExpressionType.INTEGER) {
+		if (type == ExpressionType.INTEGER) {
 			return Math.floor(example.getNumericalValue(attribute));
 		} else {
 			return example.getNumericalValue(attribute);
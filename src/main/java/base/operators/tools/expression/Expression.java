@@ -109,4 +109,15 @@ public interface Expression {
 	 *             error cases.
 	 */
 	public Boolean evaluateBoolean() throws ExpressionException;
+
+	/**
+	 * Returns whether the expression can be evaluated for different {@link ExampleResolver}
+	 * bindings in parallel. This is not the case if it contains a {@link Function} whose results
+	 * depend on the order of the evaluations.
+	 *
+	 * @return {@code true} if the expression can be evaluated concurrently
+	 */
+	public default boolean isParallelizable() {
+		return false;
+	}
 }
@@ -54,4 +54,16 @@ public interface Function {
 	 */
 	public ExpressionEvaluator compute(ExpressionEvaluator... inputEvaluators) throws ExpressionParsingException;
 
+	/**
+	 * Returns whether the {@link ExpressionEvaluator}s created by this function can be called for
+	 * different examples in parallel without changing the results. The default is {@code false};
+	 * only functions which are known to be pure, i.e. which neither keep state nor depend on the
+	 * order of the calls, may return {@code true}.
+	 *
+	 * @return {@code true} if the function can be evaluated concurrently
+	 */
+	public default boolean isParallelizable() {
+		return false;
+	}
+
 }
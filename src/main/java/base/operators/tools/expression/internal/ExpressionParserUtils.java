@@ -18,10 +18,15 @@
 */
 package base.operators.tools.expression.internal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
+import base.operators.core.concurrency.ConcurrencyContext;
 import base.operators.example.Attribute;
 import base.operators.example.ExampleSet;
 import base.operators.operator.Operator;
@@ -30,12 +35,15 @@ import base.operators.tools.RandomGenerator;
 import base.operators.example.AttributeRole;
 import base.operators.example.Example;
 import base.operators.example.table.AttributeFactory;
+import base.operators.example.utils.ExampleSets;
+import base.operators.operator.OperatorProgress;
 import base.operators.operator.OperatorVersion;
 import base.operators.operator.ProcessStoppedException;
 import base.operators.operator.UserError;
 import base.operators.operator.ports.metadata.AttributeMetaData;
 import base.operators.operator.ports.metadata.ExampleSetMetaData;
 import base.operators.operator.ports.metadata.SetRelation;
+import base.operators.studio.internal.Resources;
 import base.operators.tools.expression.ExampleResolver;
 import base.operators.tools.expression.Expression;
 import base.operators.tools.expression.ExpressionException;
@@ -56,6 +64,32 @@ import base.operators.tools.expression.MacroResolver;
  */
 public final class ExpressionParserUtils {
 
+	/**
+	 * Evaluation of an {@link Expression} for the example currently bound to an
+	 * {@link ExampleResolver}.
+	 *
+	 * @see ExpressionParserUtils#evaluateAll(ExampleSet, Expression, ExampleResolver, Operator,
+	 *      OperatorProgress, ExampleEvaluation)
+	 */
+	@FunctionalInterface
+	public interface ExampleEvaluation {
+
+		/**
+		 * Evaluates the expression for the bound example.
+		 *
+		 * @param row
+		 *            the index of the bound example in the example set
+		 * @throws ExpressionException
+		 *             if the evaluation fails
+		 */
+		void evaluate(int row) throws ExpressionException;
+	}
+
+	/** the minimal number of examples evaluated by one thread */
+	private static final int MIN_BATCH_SIZE = 10000;
+
+	private static final int OPERATOR_PROGRESS_STEPS = 1000;
+
 	private ExpressionParserUtils() {
 		throw new UnsupportedOperationException("Static utility class");
 	}
@@ -132,7 +166,8 @@ public final class ExpressionParserUtils {
 	 * {@link Ontology#REAL} for reals, {@link Ontology#DATE_TIME} for Dates, and
 	 * {@link Ontology#BINOMINAL} with values &quot;true&quot; and &quot;false&quot; for booleans.
 	 * If the executing operator is defined, there will be a check for stop before the calculation
-	 * of each example.
+	 * of each example and large example sets are evaluated in parallel, see
+	 * {@link #evaluateAll(ExampleSet, Expression, ExampleResolver, Operator, OperatorProgress, ExampleEvaluation)}.
 	 *
 	 * @param exampleSet
 	 *            the example set to which the generated attribute is added
@@ -178,7 +213,35 @@ public final class ExpressionParserUtils {
 			name = name + appendix.toString();
 		}
 
+		// evaluate the expression for all examples before writing the results, this allows to
+		// evaluate it in parallel
 		ExpressionType resultType = parsedExpression.getExpressionType();
+		double[] values = null;
+		String[] nominalValues = null;
+		switch (resultType) {
+			case DOUBLE:
+			case INTEGER:
+				double[] numericalResults = new double[exampleSet.size()];
+				evaluateAll(exampleSet, parsedExpression, resolver, executingOperator, null,
+						row -> numericalResults[row] = parsedExpression.evaluateNumerical());
+				values = numericalResults;
+				break;
+			case DATE:
+				double[] dateResults = new double[exampleSet.size()];
+				evaluateAll(exampleSet, parsedExpression, resolver, executingOperator, null, row -> {
+					Date date = parsedExpression.evaluateDate();
+					dateResults[row] = date == null ? Double.NaN : date.getTime();
+				});
+				values = dateResults;
+				break;
+			default:
+				String[] nominalResults = new String[exampleSet.size()];
+				evaluateAll(exampleSet, parsedExpression, resolver, executingOperator, null,
+						row -> nominalResults[row] = parsedExpression.evaluateNominal());
+				nominalValues = nominalResults;
+				break;
+		}
+
 		int ontology = resultType.getAttributeType();
 		if (ontology == Ontology.BINOMINAL) {
 			newAttribute = AttributeFactory.createAttribute(name, Ontology.BINOMINAL);
@@ -195,35 +258,15 @@ public final class ExpressionParserUtils {
 		exampleSet.getExampleTable().addAttribute(newAttribute);
 		exampleSet.getAttributes().addRegular(newAttribute);
 
-		// create attribute of correct type and all values
+		// write the values in the order of the examples, nominal values are mapped in this order
+		int row = 0;
 		for (Example example : exampleSet) {
-			if (executingOperator != null) {
-				executingOperator.checkForStop();
-			}
-
-			// bind example to resolver
-			resolver.bind(example);
-
-			// calculate result
-			try {
-				switch (resultType) {
-					case DOUBLE:
-					case INTEGER:
-						example.setValue(newAttribute, parsedExpression.evaluateNumerical());
-						break;
-					case DATE:
-						Date date = parsedExpression.evaluateDate();
-						example.setValue(newAttribute, date == null ? Double.NaN : date.getTime());
-						break;
-					default:
-						example.setValue(newAttribute, parsedExpression.evaluateNominal());
-						break;
-				}
-			} finally {
-				// avoid memory leaks
-				resolver.unbind();
+			if (values != null) {
+				example.setValue(newAttribute, values[row]);
+			} else {
+				example.setValue(newAttribute, nominalValues[row]);
 			}
-
+			row++;
 		}
 
 		// remove existing attribute (if necessary)
@@ -244,6 +287,110 @@ public final class ExpressionParserUtils {
 		return newAttribute;
 	}
 
+	/**
+	 * Binds every example of the example set to the resolver and calls the evaluation for it. If
+	 * the expression is {@link Expression#isParallelizable() parallelizable}, the executing operator
+	 * is defined and the example set is {@link ExampleSets#isThreadSafe thread-safe} and large
+	 * enough, consecutive ranges of examples are evaluated in parallel using the
+	 * {@link ConcurrencyContext} of the operator. In this case the evaluation must only store its
+	 * result by row index and must not modify the example set. Otherwise the examples are evaluated
+	 * one after the other in the order of the example set.
+	 *
+	 * @param exampleSet
+	 *            the example set to evaluate
+	 * @param expression
+	 *            the expression used by the evaluation
+	 * @param resolver
+	 *            the example resolver which is used by the parser to resolve example values
+	 * @param executingOperator
+	 *            the operator calling this method. <code>null</code> is allowed. If not null the
+	 *            operator will be used to check for stop and to evaluate in parallel
+	 * @param progress
+	 *            the progress to report the number of evaluated examples to, can be {@code null}
+	 * @param evaluation
+	 *            the evaluation that is called for every row
+	 * @throws ProcessStoppedException
+	 *             in case the process was stopped by the user
+	 * @throws ExpressionException
+	 *             in case the evaluation fails
+	 */
+	public static void evaluateAll(ExampleSet exampleSet, Expression expression, ExampleResolver resolver,
+			Operator executingOperator, OperatorProgress progress, ExampleEvaluation evaluation)
+			throws ProcessStoppedException, ExpressionException {
+		int size = exampleSet.size();
+		ConcurrencyContext context = null;
+		if (executingOperator != null && executingOperator.getProcess() != null && expression.isParallelizable()
+				&& ExampleSets.isThreadSafe(exampleSet)) {
+			context = Resources.getConcurrencyContext(executingOperator);
+		}
+		int batches = context == null ? 1 : Math.min(context.getParallelism(), size / MIN_BATCH_SIZE);
+		if (progress != null) {
+			progress.setTotal(size);
+		}
+
+		if (batches <= 1) {
+			int row = 0;
+			for (Example example : exampleSet) {
+				if (executingOperator != null) {
+					executingOperator.checkForStop();
+				}
+				evaluate(example, row++, resolver, evaluation);
+				if (progress != null && row % OPERATOR_PROGRESS_STEPS == 0) {
+					progress.setCompleted(row);
+				}
+			}
+			return;
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<>(batches);
+		for (int batch = 0; batch < batches; batch++) {
+			final int from = (int) ((long) size * batch / batches);
+			final int to = (int) ((long) size * (batch + 1) / batches);
+			tasks.add(() -> {
+				for (int row = from; row < to; row++) {
+					executingOperator.checkForStop();
+					evaluate(exampleSet.getExample(row), row, resolver, evaluation);
+				}
+				if (progress != null) {
+					synchronized (progress) {
+						progress.step(to - from);
+					}
+				}
+				return null;
+			});
+		}
+		try {
+			context.call(tasks);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else if (cause instanceof ProcessStoppedException) {
+				throw (ProcessStoppedException) cause;
+			} else if (cause instanceof ExpressionException) {
+				throw (ExpressionException) cause;
+			} else {
+				throw new ExpressionException(cause.getLocalizedMessage());
+			}
+		}
+	}
+
+	/**
+	 * Calls the evaluation with the example bound to the resolver.
+	 */
+	private static void evaluate(Example example, int row, ExampleResolver resolver, ExampleEvaluation evaluation)
+			throws ExpressionException {
+		resolver.bind(example);
+		try {
+			evaluation.evaluate(row);
+		} finally {
+			// avoid memory leaks
+			resolver.unbind();
+		}
+	}
+
 	/**
 	 * Adds the {@link ExpressionParserBuilder#OLD_EXPRESSION_PARSER_FUNCTIONS} operator version as
 	 * incompatible version change by increasing the array size by one and adding the
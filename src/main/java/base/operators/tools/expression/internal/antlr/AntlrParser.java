@@ -111,8 +111,10 @@ public class AntlrParser implements ExpressionParser {
 	@Override
 	public Expression parse(String expression) throws ExpressionException {
 		try {
-			ExpressionEvaluator evaluator = parseToEvaluator(expression);
-			return new SimpleExpression(evaluator);
+			ParseTree tree = parseExpression(expression);
+			EvaluatorCreationVisitor visitor = new EvaluatorCreationVisitor(lookup);
+			ExpressionEvaluator evaluator = visitor.visit(tree);
+			return new SimpleExpression(evaluator, visitor.isParallelizable());
 		} catch (ExpressionParsingException e) {
 			throw new ExpressionException(e);
 		}
@@ -47,6 +47,8 @@ class EvaluatorCreationVisitor extends FunctionExpressionParserBaseVisitor<Expre
 
 	private final ExpressionContext lookUp;
 
+	private boolean parallelizable = true;
+
 	/**
 	 * Creates a Visitor that recursively builds an {@link ExpressionEvaluator}.
 	 *
@@ -58,6 +60,13 @@ class EvaluatorCreationVisitor extends FunctionExpressionParserBaseVisitor<Expre
 		this.lookUp = lookUp;
 	}
 
+	/**
+	 * @return whether all functions visited so far can be evaluated concurrently
+	 */
+	boolean isParallelizable() {
+		return parallelizable;
+	}
+
 	@Override
 	public ExpressionEvaluator visitOperationExp(OperationExpContext ctx) {
 		if (ctx.op == null) {
@@ -72,6 +81,7 @@ class EvaluatorCreationVisitor extends FunctionExpressionParserBaseVisitor<Expre
 				if (function == null) {
 					throw new UnknownFunctionException(ctx, "expression_parser.unknown_operator", operatorName);
 				}
+				parallelizable &= function.isParallelizable();
 				return function.compute(right);
 
 			} else {
@@ -83,6 +93,7 @@ class EvaluatorCreationVisitor extends FunctionExpressionParserBaseVisitor<Expre
 				if (function == null) {
 					throw new UnknownFunctionException(ctx, "expression_parser.unknown_operator", operatorName);
 				}
+				parallelizable &= function.isParallelizable();
 				return function.compute(left, right);
 			}
 		}
@@ -107,6 +118,7 @@ class EvaluatorCreationVisitor extends FunctionExpressionParserBaseVisitor<Expre
 		if (function == null) {
 			throw new UnknownFunctionException(ctx, "expression_parser.unknown_function", functionName);
 		}
+		parallelizable &= function.isParallelizable();
 
 		return function.compute(innerEvaluators);
 	}
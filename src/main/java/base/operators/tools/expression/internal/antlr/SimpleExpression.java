@@ -38,6 +38,8 @@ class SimpleExpression implements Expression {
 
 	private ExpressionEvaluator evaluator;
 
+	private boolean parallelizable;
+
 	/**
 	 * Creates a basic expression based on the evaluator.
 	 *
@@ -45,7 +47,25 @@ class SimpleExpression implements Expression {
 	 *            the evaluator to use for evaluating the expression
 	 */
 	SimpleExpression(ExpressionEvaluator evaluator) {
+		this(evaluator, false);
+	}
+
+	/**
+	 * Creates a basic expression based on the evaluator.
+	 *
+	 * @param evaluator
+	 *            the evaluator to use for evaluating the expression
+	 * @param parallelizable
+	 *            whether the evaluator can be called concurrently
+	 */
+	SimpleExpression(ExpressionEvaluator evaluator, boolean parallelizable) {
 		this.evaluator = evaluator;
+		this.parallelizable = parallelizable;
+	}
+
+	@Override
+	public boolean isParallelizable() {
+		return parallelizable;
 	}
 
 	@Override
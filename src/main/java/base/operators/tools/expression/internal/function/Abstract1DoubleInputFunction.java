@@ -124,4 +124,8 @@ public abstract class Abstract1DoubleInputFunction extends AbstractFunction {
 		}
 	}
 
+	@Override
+	public boolean isParallelizable() {
+		return true;
+	}
 }
@@ -156,4 +156,8 @@ public abstract class Abstract2DoubleInputFunction extends AbstractFunction {
 		}
 	}
 
+	@Override
+	public boolean isParallelizable() {
+		return true;
+	}
 }
@@ -134,4 +134,8 @@ public abstract class AbstractArbitraryDoubleInputFunction extends AbstractFunct
 	 */
 	protected abstract double compute(double... values);
 
+	@Override
+	public boolean isParallelizable() {
+		return true;
+	}
 }
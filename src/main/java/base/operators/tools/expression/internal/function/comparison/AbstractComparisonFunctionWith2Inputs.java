@@ -232,4 +232,9 @@ public abstract class AbstractComparisonFunctionWith2Inputs extends AbstractFunc
 		// result is always boolean
 		return ExpressionType.BOOLEAN;
 	}
+
+	@Override
+	public boolean isParallelizable() {
+		return true;
+	}
 }
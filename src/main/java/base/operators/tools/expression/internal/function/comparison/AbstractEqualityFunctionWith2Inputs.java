@@ -916,4 +916,9 @@ public abstract class AbstractEqualityFunctionWith2Inputs extends AbstractFuncti
 		// result is always boolean
 		return ExpressionType.BOOLEAN;
 	}
+
+	@Override
+	public boolean isParallelizable() {
+		return true;
+	}
 }
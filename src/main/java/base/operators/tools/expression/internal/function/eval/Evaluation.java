@@ -127,6 +127,12 @@ public class Evaluation extends AbstractFunction {
 
 	}
 
+	@Override
+	public boolean isParallelizable() {
+		// the functions used by the evaluated subexpressions are not known in advance
+		return false;
+	}
+
 	@Override
 	protected ExpressionType computeType(ExpressionType... inputTypes) {
 		// check if inputs are strings, otherwise throw exception
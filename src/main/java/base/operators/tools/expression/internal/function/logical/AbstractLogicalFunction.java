@@ -69,4 +69,8 @@ public abstract class AbstractLogicalFunction extends AbstractFunction {
 		return ExpressionType.BOOLEAN;
 	}
 
+	@Override
+	public boolean isParallelizable() {
+		return true;
+	}
 }
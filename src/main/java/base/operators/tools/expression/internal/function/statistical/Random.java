@@ -138,4 +138,10 @@ public class Random extends AbstractFunction {
 		return false;
 	}
 
+	@Override
+	public boolean isParallelizable() {
+		// the numbers drawn for a fixed seed depend on the order of the examples
+		return false;
+	}
+
 }
@@ -0,0 +1,454 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.tools.math.container;
+
+import base.operators.tools.container.Tupel;
+import base.operators.tools.math.similarity.DistanceMeasure;
+import base.operators.tools.math.similarity.numerical.ChebychevNumericalDistance;
+import base.operators.tools.math.similarity.numerical.EuclideanDistance;
+import base.operators.tools.math.similarity.numerical.ManhattanDistance;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+
+/**
+ * A KD-Tree whose nodes are stored in flat arrays. In contrast to {@link KDTree} the tree is
+ * balanced: it is built from all points at once, splitting at the median of the dimension with the
+ * largest spread until at most {@value #LEAF_SIZE} points remain in a node. The tree is built
+ * lazily on the first query after points have been added, so adding points one by one stays cheap.
+ * Queries do not modify the tree and may be performed concurrently.
+ * <p>
+ * Subtrees are pruned using the distance between the query point and the bounding box of the
+ * subtree. This is a lower bound for all distances that only grow with the absolute differences of
+ * the single coordinates, see {@link #isSupported(DistanceMeasure)}. Missing values are ignored by
+ * these measures; points with missing values are therefore not indexed but compared with every
+ * query point.
+ *
+ * @param <T>
+ *            This is the type of value with is stored with the points and retrieved on nearest
+ *            neighbour search
+ */
+public class ArrayKDTree<T extends Serializable> implements GeometricDataCollection<T> {
+
+	private static final long serialVersionUID = 4217738519240384112L;
+
+	/** the maximal number of points in a leaf */
+	private static final int LEAF_SIZE = 16;
+
+	private final DistanceMeasure distance;
+	private final ArrayList<double[]> samples = new ArrayList<>();
+	private final ArrayList<T> storedValues = new ArrayList<>();
+
+	/** built on demand and discarded when points are added */
+	private transient volatile Index index;
+
+	public ArrayKDTree(DistanceMeasure distance) {
+		this.distance = distance;
+	}
+
+	/**
+	 * Returns whether the tree returns exact results for the given measure. This is the case for
+	 * measures that are monotone in the absolute differences of the single coordinates.
+	 */
+	public static boolean isSupported(DistanceMeasure distance) {
+		return distance instanceof EuclideanDistance || distance instanceof ManhattanDistance
+				|| distance instanceof ChebychevNumericalDistance;
+	}
+
+	@Override
+	public void add(double[] values, T storeValue) {
+		samples.add(values);
+		storedValues.add(storeValue);
+		index = null;
+	}
+
+	@Override
+	public Collection<T> getNearestValues(int k, double[] values) {
+		Candidates candidates = getIndex().nearest(k, values);
+		Collection<T> result = new ArrayList<>(candidates.size);
+		for (int i = 0; i < candidates.size; i++) {
+			result.add(storedValues.get(candidates.samples[i]));
+		}
+		return result;
+	}
+
+	@Override
+	public Collection<Tupel<Double, T>> getNearestValueDistances(int k, double[] values) {
+		return toTupels(getIndex().nearest(k, values));
+	}
+
+	@Override
+	public Collection<Tupel<Double, T>> getNearestValueDistances(double withinDistance, double[] values) {
+		return toTupels(getIndex().within(withinDistance, false, values));
+	}
+
+	/**
+	 * Returns the indices of all points whose distance to the given point is smaller than the given
+	 * distance. The indices refer to the order in which the points were added and are sorted
+	 * ascending.
+	 */
+	public int[] getIndicesCloserThan(double distance, double[] values) {
+		Candidates candidates = getIndex().within(distance, true, values);
+		int[] indices = Arrays.copyOf(candidates.samples, candidates.size);
+		Arrays.sort(indices);
+		return indices;
+	}
+
+	@Override
+	public Collection<Tupel<Double, T>> getNearestValueDistances(double withinDistance, int butAtLeastK, double[] values) {
+		Collection<Tupel<Double, T>> result = getNearestValueDistances(withinDistance, values);
+		if (result.size() < butAtLeastK) {
+			return getNearestValueDistances(butAtLeastK, values);
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return samples.size();
+	}
+
+	@Override
+	public T get(int index) {
+		return storedValues.get(index);
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return storedValues.iterator();
+	}
+
+	private Collection<Tupel<Double, T>> toTupels(Candidates candidates) {
+		Collection<Tupel<Double, T>> result = new ArrayList<>(candidates.size);
+		for (int i = 0; i < candidates.size; i++) {
+			result.add(new Tupel<Double, T>(candidates.distances[i], storedValues.get(candidates.samples[i])));
+		}
+		return result;
+	}
+
+	private Index getIndex() {
+		Index current = index;
+		if (current == null) {
+			synchronized (this) {
+				current = index;
+				if (current == null) {
+					current = new Index();
+					index = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * The tree over all points without missing values. Node {@code n} covers the points
+	 * {@code order[start[n]]} to {@code order[end[n] - 1]}; inner nodes have the children
+	 * {@code 2n + 1} and {@code 2n + 2}.
+	 */
+	private final class Index {
+
+		private final int dimensions;
+		private final int[] order;
+		private final int[] missing;
+		private final int[] start;
+		private final int[] end;
+		/** the bounding boxes, {@code dimensions} values per node */
+		private final double[] lower;
+		private final double[] upper;
+
+		private Index() {
+			int size = samples.size();
+			dimensions = size == 0 ? 0 : samples.get(0).length;
+			int[] complete = new int[size];
+			int[] incomplete = new int[size];
+			int completeCount = 0;
+			int incompleteCount = 0;
+			for (int i = 0; i < size; i++) {
+				if (hasMissings(samples.get(i))) {
+					incomplete[incompleteCount++] = i;
+				} else {
+					complete[completeCount++] = i;
+				}
+			}
+			order = Arrays.copyOf(complete, completeCount);
+			missing = Arrays.copyOf(incomplete, incompleteCount);
+
+			// a complete binary tree with leaves of at most LEAF_SIZE points
+			int leaves = 1;
+			while ((long) leaves * LEAF_SIZE < completeCount) {
+				leaves <<= 1;
+			}
+			int nodes = 2 * leaves - 1;
+			start = new int[nodes];
+			end = new int[nodes];
+			lower = new double[nodes * dimensions];
+			upper = new double[nodes * dimensions];
+			if (completeCount > 0) {
+				build(0, 0, completeCount);
+			}
+		}
+
+		private boolean hasMissings(double[] point) {
+			for (double value : point) {
+				if (Double.isNaN(value)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void build(int node, int from, int to) {
+			start[node] = from;
+			end[node] = to;
+			int offset = node * dimensions;
+			for (int d = 0; d < dimensions; d++) {
+				lower[offset + d] = Double.POSITIVE_INFINITY;
+				upper[offset + d] = Double.NEGATIVE_INFINITY;
+			}
+			for (int i = from; i < to; i++) {
+				double[] point = samples.get(order[i]);
+				for (int d = 0; d < dimensions; d++) {
+					lower[offset + d] = Math.min(lower[offset + d], point[d]);
+					upper[offset + d] = Math.max(upper[offset + d], point[d]);
+				}
+			}
+			int left = 2 * node + 1;
+			if (left >= start.length) {
+				return;
+			}
+			int splitDimension = 0;
+			double largestSpread = -1;
+			for (int d = 0; d < dimensions; d++) {
+				double spread = upper[offset + d] - lower[offset + d];
+				if (spread > largestSpread) {
+					largestSpread = spread;
+					splitDimension = d;
+				}
+			}
+			int median = (from + to) >>> 1;
+			select(from, to - 1, median, splitDimension);
+			build(left, from, median);
+			build(left + 1, median, to);
+		}
+
+		/** Moves the point with the given rank in the split dimension to position {@code rank}. */
+		private void select(int from, int to, int rank, int dimension) {
+			while (to > from) {
+				double pivot = samples.get(order[(from + to) >>> 1])[dimension];
+				int i = from;
+				int j = to;
+				while (i <= j) {
+					while (samples.get(order[i])[dimension] < pivot) {
+						i++;
+					}
+					while (samples.get(order[j])[dimension] > pivot) {
+						j--;
+					}
+					if (i <= j) {
+						int swap = order[i];
+						order[i] = order[j];
+						order[j] = swap;
+						i++;
+						j--;
+					}
+				}
+				if (rank <= j) {
+					to = j;
+				} else if (rank >= i) {
+					from = i;
+				} else {
+					return;
+				}
+			}
+		}
+
+		private boolean isLeaf(int node) {
+			return 2 * node + 1 >= start.length || end[node] - start[node] <= 0;
+		}
+
+		/** Returns the distance between the point and the bounding box of the node. */
+		private double boxDistance(int node, double[] point, double[] closest) {
+			int offset = node * dimensions;
+			for (int d = 0; d < dimensions; d++) {
+				double value = point[d];
+				// missing values stay missing and are ignored by the measure
+				closest[d] = value < lower[offset + d] ? lower[offset + d] : value > upper[offset + d] ? upper[offset + d]
+						: value;
+			}
+			return distance.calculateDistance(closest, point);
+		}
+
+		private Candidates nearest(int k, double[] point) {
+			Candidates candidates = new Candidates(k);
+			for (int sample : missing) {
+				candidates.offer(distance.calculateDistance(samples.get(sample), point), sample);
+			}
+			if (order.length > 0) {
+				nearest(0, point, new double[dimensions], candidates);
+			}
+			candidates.sort();
+			return candidates;
+		}
+
+		private void nearest(int node, double[] point, double[] closest, Candidates candidates) {
+			if (isLeaf(node)) {
+				for (int i = start[node]; i < end[node]; i++) {
+					candidates.offer(distance.calculateDistance(samples.get(order[i]), point), order[i]);
+				}
+				return;
+			}
+			int left = 2 * node + 1;
+			int right = left + 1;
+			double leftDistance = boxDistance(left, point, closest);
+			double rightDistance = boxDistance(right, point, closest);
+			int near = leftDistance <= rightDistance ? left : right;
+			int far = near == left ? right : left;
+			double farDistance = near == left ? rightDistance : leftDistance;
+			nearest(near, point, closest, candidates);
+			if (!candidates.isFilled() || !(farDistance > candidates.worst())) {
+				nearest(far, point, closest, candidates);
+			}
+		}
+
+		private Candidates within(double withinDistance, boolean strict, double[] point) {
+			Candidates candidates = new Candidates(Integer.MAX_VALUE);
+			for (int sample : missing) {
+				double sampleDistance = distance.calculateDistance(samples.get(sample), point);
+				if (sampleDistance < withinDistance || !strict && sampleDistance == withinDistance) {
+					candidates.add(sampleDistance, sample);
+				}
+			}
+			if (order.length > 0) {
+				within(0, withinDistance, strict, point, new double[dimensions], candidates);
+			}
+			return candidates;
+		}
+
+		private void within(int node, double withinDistance, boolean strict, double[] point, double[] closest,
+				Candidates candidates) {
+			if (boxDistance(node, point, closest) > withinDistance) {
+				return;
+			}
+			if (isLeaf(node)) {
+				for (int i = start[node]; i < end[node]; i++) {
+					double sampleDistance = distance.calculateDistance(samples.get(order[i]), point);
+					if (sampleDistance < withinDistance || !strict && sampleDistance == withinDistance) {
+						candidates.add(sampleDistance, order[i]);
+					}
+				}
+				return;
+			}
+			within(2 * node + 1, withinDistance, strict, point, closest, candidates);
+			within(2 * node + 2, withinDistance, strict, point, closest, candidates);
+		}
+	}
+
+	/**
+	 * The sample indices and distances found by a query. For nearest neighbour queries this is a
+	 * bounded max-heap on the distances.
+	 */
+	private static final class Candidates {
+
+		private final int bound;
+		private double[] distances;
+		private int[] samples;
+		private int size;
+
+		private Candidates(int bound) {
+			this.bound = bound;
+			int capacity = bound == Integer.MAX_VALUE ? 16 : bound;
+			this.distances = new double[capacity];
+			this.samples = new int[capacity];
+		}
+
+		private boolean isFilled() {
+			return size == bound;
+		}
+
+		/** the largest distance in the heap, only valid if {@link #isFilled()} */
+		private double worst() {
+			return distances[0];
+		}
+
+		/** appends without heap order, used for range queries */
+		private void add(double distance, int sample) {
+			if (size == distances.length) {
+				distances = Arrays.copyOf(distances, size * 2);
+				samples = Arrays.copyOf(samples, size * 2);
+			}
+			distances[size] = distance;
+			samples[size] = sample;
+			size++;
+		}
+
+		private void offer(double distance, int sample) {
+			if (size < bound) {
+				int i = size++;
+				while (i > 0) {
+					int parent = (i - 1) >>> 1;
+					if (Double.compare(distances[parent], distance) >= 0) {
+						break;
+					}
+					distances[i] = distances[parent];
+					samples[i] = samples[parent];
+					i = parent;
+				}
+				distances[i] = distance;
+				samples[i] = sample;
+			} else if (Double.compare(distance, distances[0]) < 0) {
+				siftDown(0, distance, sample, size);
+			}
+		}
+
+		private void siftDown(int i, double distance, int sample, int heapSize) {
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= heapSize) {
+					break;
+				}
+				if (child + 1 < heapSize && Double.compare(distances[child + 1], distances[child]) > 0) {
+					child++;
+				}
+				if (Double.compare(distance, distances[child]) >= 0) {
+					break;
+				}
+				distances[i] = distances[child];
+				samples[i] = samples[child];
+				i = child;
+			}
+			distances[i] = distance;
+			samples[i] = sample;
+		}
+
+		/** sorts the heap by ascending distance */
+		private void sort() {
+			for (int last = size - 1; last > 0; last--) {
+				double distance = distances[last];
+				int sample = samples[last];
+				distances[last] = distances[0];
+				samples[last] = samples[0];
+				siftDown(0, distance, sample, last);
+			}
+		}
+	}
+}
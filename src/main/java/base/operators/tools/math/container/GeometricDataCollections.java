@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2001-2019 by RapidMiner and the contributors
+ * 
+ * Complete list of developers available at our web site:
+ * 
+ * http://rapidminer.com
+ * 
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see http://www.gnu.org/licenses/.
+*/
+package base.operators.tools.math.container;
+
+import base.operators.tools.math.similarity.DistanceMeasure;
+
+import java.io.Serializable;
+
+
+/**
+ * Creates {@link GeometricDataCollection}s for nearest neighbour searches.
+ * <p>
+ * The automatic choice uses an {@link ArrayKDTree} if the distance measure supports it, the data
+ * space has at most {@value #MAX_AUTOMATIC_TREE_DIMENSIONS} dimensions and there are enough points
+ * to make up for the construction of the tree. In higher dimensions nearly all leaves of a KD-Tree
+ * have to be visited anyway, so the {@link LinearList} is used.
+ */
+public final class GeometricDataCollections {
+
+	public static final String[] SEARCH_STRUCTURES = { "automatic", "linear search", "kd-tree" };
+
+	public static final int SEARCH_STRUCTURE_AUTOMATIC = 0;
+	public static final int SEARCH_STRUCTURE_LINEAR = 1;
+	public static final int SEARCH_STRUCTURE_KD_TREE = 2;
+
+	private static final int MAX_AUTOMATIC_TREE_DIMENSIONS = 16;
+	private static final int MIN_AUTOMATIC_TREE_SIZE = 256;
+
+	private GeometricDataCollections() {}
+
+	/**
+	 * Creates an empty collection.
+	 *
+	 * @param distance
+	 *            the measure used for the searches
+	 * @param dimensions
+	 *            the number of dimensions of the points
+	 * @param expectedSize
+	 *            the expected number of points
+	 * @param searchStructure
+	 *            one of the {@code SEARCH_STRUCTURE} constants. If a KD-Tree is requested for a
+	 *            measure it does not support, a linear search is used.
+	 */
+	public static <T extends Serializable> GeometricDataCollection<T> create(DistanceMeasure distance, int dimensions,
+			int expectedSize, int searchStructure) {
+		boolean useTree;
+		switch (searchStructure) {
+			case SEARCH_STRUCTURE_KD_TREE:
+				useTree = ArrayKDTree.isSupported(distance);
+				break;
+			case SEARCH_STRUCTURE_LINEAR:
+				useTree = false;
+				break;
+			case SEARCH_STRUCTURE_AUTOMATIC:
+			default:
+				useTree = ArrayKDTree.isSupported(distance) && dimensions <= MAX_AUTOMATIC_TREE_DIMENSIONS
+						&& expectedSize >= MIN_AUTOMATIC_TREE_SIZE;
+				break;
+		}
+		if (useTree) {
+			return new ArrayKDTree<T>(distance);
+		}
+		return new LinearList<T>(distance);
+	}
+
+	/**
+	 * Creates an empty collection, choosing the search structure automatically.
+	 *
+	 * @see #create(DistanceMeasure, int, int, int)
+	 */
+	public static <T extends Serializable> GeometricDataCollection<T> create(DistanceMeasure distance, int dimensions,
+			int expectedSize) {
+		return create(distance, dimensions, expectedSize, SEARCH_STRUCTURE_AUTOMATIC);
+	}
+}
@@ -538,7 +538,14 @@ public abstract class ESOptimization implements Optimization {
 	}
 
 	protected void evaluate(Individual current, Population population) throws OperatorException {
-		PerformanceVector fitness = evaluateIndividual(current);
+		updateFitness(current, evaluateIndividual(current), population);
+	}
+
+	/**
+	 * Sets the fitness of an evaluated individual and updates the best individuals. An individual
+	 * without fitness is removed from the population.
+	 */
+	protected void updateFitness(Individual current, PerformanceVector fitness, Population population) {
 		if (fitness != null) {
 			current.setFitness(fitness);
 			if (currentBest == null
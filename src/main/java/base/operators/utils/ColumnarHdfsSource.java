@@ -0,0 +1,119 @@
+package base.operators.utils;
+
+import base.operators.adaption.belt.IOTable;
+import base.operators.belt.table.BeltConverter;
+import base.operators.example.ExampleSet;
+import base.operators.utils.columnar.ColumnarExampleSetReader;
+import base.operators.utils.columnar.ColumnarExampleSetWriter;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * 以列式二进制格式读写中间结果{@link ExampleSet}
+ *
+ * Stores intermediate {@link ExampleSet}s and Belt {@link IOTable}s in the columnar format of
+ * {@link ColumnarExampleSetWriter} instead of Java serialization.
+ */
+public class ColumnarHdfsSource extends HDFSUtil {
+
+    /** name of the data file inside the base directory */
+    public static final String DATA_FILE = "data.abc";
+
+    /**
+     * 写入ExampleSet，basePath已存在时会被覆盖
+     *
+     * @param exampleSet
+     * @param basePath
+     * @param compress 是否压缩列数据
+     */
+    public static void writeToHDFS(ExampleSet exampleSet, String basePath, boolean compress) throws IOException {
+        try {
+            fs.getStatus();
+        } catch (Exception e){
+            initFileSystem();
+        }
+        Path path = new Path(basePath);
+        if (fs.exists(path)) {
+            fs.delete(path, true);
+        }
+        fs.mkdirs(path);
+        try (FSDataOutputStream outputStream = fs.create(getDataPath(basePath))) {
+            ColumnarExampleSetWriter.write(exampleSet, outputStream, compress);
+        }
+    }
+
+    /**
+     * 写入Belt Table，Table会先被转换为ExampleSet
+     *
+     * @param table
+     * @param basePath
+     * @param compress
+     */
+    public static void writeToHDFS(IOTable table, String basePath, boolean compress) throws IOException {
+        writeToHDFS(BeltConverter.convertSequentially(table), basePath, compress);
+    }
+
+    /**
+     * @param basePath
+     * @return basePath下是否存在列式数据文件
+     */
+    public static boolean exists(String basePath) {
+        try {
+            fs.getStatus();
+        } catch (Exception e){
+            initFileSystem();
+        }
+        try {
+            return fs.exists(getDataPath(basePath));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 读取全部数据
+     *
+     * @param basePath
+     * @return ExampleSet
+     */
+    public static ExampleSet readFromHDFS(String basePath) throws IOException {
+        return readFromHDFS(basePath, null, -1);
+    }
+
+    /**
+     * 读取部分列和前maxRows行数据
+     *
+     * @param basePath
+     * @param columnNames 需要读取的列，null表示全部列
+     * @param maxRows 最大行数，负数表示全部行
+     * @return ExampleSet
+     */
+    public static ExampleSet readFromHDFS(String basePath, Collection<String> columnNames, int maxRows)
+            throws IOException {
+        try (ColumnarExampleSetReader reader = openReader(basePath)) {
+            return reader.read(columnNames, maxRows);
+        }
+    }
+
+    /**
+     * 打开读取器，只读取文件尾部的元数据，调用者负责关闭
+     *
+     * @param basePath
+     * @return ColumnarExampleSetReader
+     */
+    public static ColumnarExampleSetReader openReader(String basePath) throws IOException {
+        try {
+            fs.getStatus();
+        } catch (Exception e){
+            initFileSystem();
+        }
+        return ColumnarExampleSetReader.open(fs, getDataPath(basePath));
+    }
+
+    private static Path getDataPath(String basePath) {
+        return new Path(basePath + Path.SEPARATOR + DATA_FILE);
+    }
+}
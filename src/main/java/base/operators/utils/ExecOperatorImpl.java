@@ -198,7 +198,7 @@ public class ExecOperatorImpl {
                         try {
 
                             System.out.println("out_data:" + ((ExampleSet) object).getAttributes() + "\n" + "examples:" + ((ExampleSet) object).size() + "   " + ((ExampleSet) object).getExample(0));
-                            ParquetExampleSourceUtil.writeToParquet((ExampleSet) object, outputsPath, false);
+                            ColumnarHdfsSource.writeToHDFS((ExampleSet) object, outputsPath, true);
                             //测试时输出，使用时删除
                         } catch (IOException e) {
                             e.printStackTrace();
@@ -215,6 +215,13 @@ public class ExecOperatorImpl {
 
     public static Object readFromRemote(String filePath){
 
+        if (ColumnarHdfsSource.exists(filePath)) {
+            try {
+                return ColumnarHdfsSource.readFromHDFS(filePath);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
         Object result = ObjectHdfsSource.readFromHDFS(filePath);
         if(result == null){
             result = ParquetExampleSourceUtil.readFromParquet(filePath, true, false);
@@ -0,0 +1,354 @@
+package base.operators.utils;
+
+import base.operators.core.concurrency.ConcurrencyContext;
+import base.operators.example.Attribute;
+import base.operators.example.ExampleSet;
+import base.operators.example.table.NominalMapping;
+import base.operators.example.utils.ExampleSetBuilder;
+import base.operators.example.utils.ExampleSets;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.compat.RowGroupFilter;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 按列读取Parquet文件并构造{@link ExampleSet}
+ *
+ * Every row group is decoded by its own task. The values of a column chunk are decoded directly
+ * into one {@code double} array per column, so no objects are created per row. Nominal values are
+ * collected in a dictionary per row group and column; the {@link NominalMapping}s are only touched
+ * once per distinct value when the row groups are merged in file order, which keeps the mapping
+ * indices the same as for a sequential read.
+ *
+ * Only the requested columns are read and row groups whose statistics cannot match the given
+ * filter are skipped.
+ */
+public class ParquetColumnarReader {
+
+    private final Configuration conf;
+    private final Path file;
+    private final ParquetMetadata footer;
+
+    /**
+     * Reads the footer of the given file.
+     *
+     * @param conf
+     * @param file the parquet file
+     */
+    public ParquetColumnarReader(Configuration conf, Path file) throws IOException {
+        this.conf = conf;
+        this.file = file;
+        this.footer = ParquetFileReader.readFooter(conf, file, ParquetMetadataConverter.NO_FILTER);
+    }
+
+    public MessageType getSchema() {
+        return footer.getFileMetaData().getSchema();
+    }
+
+    public long getRecordCount() {
+        long count = 0;
+        for (BlockMetaData block : footer.getBlocks()) {
+            count += block.getRowCount();
+        }
+        return count;
+    }
+
+    /**
+     * 读取指定的列
+     *
+     * @param attributes the attributes to fill, nominal attributes may already contain values
+     * @param columnNames the top level parquet column of every attribute
+     * @param roles the special roles of the attributes
+     * @param filter row groups whose statistics do not match the filter are skipped, use
+     *        {@link FilterCompat#NOOP} to read all row groups. The rows of the remaining row
+     *        groups are not filtered.
+     * @param context used to decode the row groups in parallel, {@code null} to decode them in the
+     *        calling thread
+     * @return ExampleSet
+     */
+    public ExampleSet read(List<Attribute> attributes, List<String> columnNames, Map<Attribute, String> roles,
+                           FilterCompat.Filter filter, ConcurrencyContext context) throws IOException {
+        MessageType schema = getSchema();
+        List<Type> fields = new ArrayList<>(columnNames.size());
+        for (String columnName : columnNames) {
+            if (!schema.containsField(columnName) || !schema.getType(columnName).isPrimitive()) {
+                throw new IOException("Parquet file " + file + " has no primitive column '" + columnName + "'");
+            }
+            fields.add(schema.getType(columnName));
+        }
+        MessageType projection = new MessageType(schema.getName(), fields);
+
+        List<BlockMetaData> blocks = RowGroupFilter.filterRowGroups(filter, footer.getBlocks(), schema);
+        int[] starts = new int[blocks.size() + 1];
+        long rowCount = 0;
+        for (int g = 0; g < blocks.size(); g++) {
+            rowCount += blocks.get(g).getRowCount();
+            if (rowCount > Integer.MAX_VALUE) {
+                throw new IOException("Parquet file " + file + " has too many rows: " + getRecordCount());
+            }
+            starts[g + 1] = (int) rowCount;
+        }
+
+        double[][] values = new double[attributes.size()][starts[blocks.size()]];
+        List<Callable<List<List<String>>>> tasks = new ArrayList<>(blocks.size());
+        for (int g = 0; g < blocks.size(); g++) {
+            BlockMetaData block = blocks.get(g);
+            int offset = starts[g];
+            tasks.add(() -> readRowGroup(block, offset, projection, attributes, values));
+        }
+        List<List<List<String>>> dictionaries = new ArrayList<>(tasks.size());
+        if (context == null || tasks.size() < 2) {
+            for (Callable<List<List<String>>> task : tasks) {
+                try {
+                    dictionaries.add(task.call());
+                } catch (IOException | RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+            }
+        } else {
+            try {
+                dictionaries.addAll(context.call(tasks));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw new IOException(cause.getMessage(), cause);
+                }
+            }
+        }
+
+        // 按文件顺序合并各row group的字典
+        for (int g = 0; g < dictionaries.size(); g++) {
+            List<List<String>> groupDictionaries = dictionaries.get(g);
+            for (int c = 0; c < attributes.size(); c++) {
+                List<String> dictionary = groupDictionaries.get(c);
+                if (dictionary != null) {
+                    remap(attributes.get(c).getMapping(), dictionary, values[c], starts[g], starts[g + 1]);
+                }
+            }
+        }
+
+        ExampleSetBuilder builder = ExampleSets.from(attributes).withBlankSize(starts[blocks.size()]).withRoles(roles);
+        for (int c = 0; c < attributes.size(); c++) {
+            double[] column = values[c];
+            builder.withColumnFiller(attributes.get(c), i -> column[i]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Decodes one row group into the value arrays starting at the given offset.
+     *
+     * @return the local dictionary of every nominal column, {@code null} for other columns
+     */
+    private List<List<String>> readRowGroup(BlockMetaData block, int offset, MessageType projection,
+                                            List<Attribute> attributes, double[][] values) throws IOException {
+        try (ParquetFileReader reader = new ParquetFileReader(conf, footer.getFileMetaData(), file,
+                Collections.singletonList(block), projection.getColumns())) {
+            PageReadStore store = reader.readNextRowGroup();
+            ColumnReadStoreImpl columns = new ColumnReadStoreImpl(store,
+                    new GroupRecordConverter(projection).getRootConverter(), projection,
+                    footer.getFileMetaData().getCreatedBy());
+            int rows = (int) store.getRowCount();
+            List<List<String>> dictionaries = new ArrayList<>(attributes.size());
+            for (int c = 0; c < attributes.size(); c++) {
+                ColumnDescriptor descriptor = projection.getColumns().get(c);
+                ColumnCursor cursor = new ColumnCursor(columns.getColumnReader(descriptor), descriptor);
+                if (attributes.get(c).isNominal()) {
+                    dictionaries.add(readNominal(cursor, rows, values[c], offset));
+                } else {
+                    readNumeric(cursor, rows, values[c], offset);
+                    dictionaries.add(null);
+                }
+            }
+            return dictionaries;
+        }
+    }
+
+    private static void readNumeric(ColumnCursor cursor, int rows, double[] target, int offset) throws IOException {
+        ColumnReader reader = cursor.reader;
+        int end = offset + rows;
+        switch (cursor.type) {
+            case DOUBLE:
+                for (int row = offset; row < end; row++) {
+                    target[row] = cursor.isNull() ? Double.NaN : reader.getDouble();
+                    cursor.nextRow();
+                }
+                break;
+            case FLOAT:
+                for (int row = offset; row < end; row++) {
+                    target[row] = cursor.isNull() ? Double.NaN : reader.getFloat();
+                    cursor.nextRow();
+                }
+                break;
+            case INT64:
+                for (int row = offset; row < end; row++) {
+                    target[row] = cursor.isNull() ? Double.NaN : reader.getLong();
+                    cursor.nextRow();
+                }
+                break;
+            case INT32:
+                for (int row = offset; row < end; row++) {
+                    target[row] = cursor.isNull() ? Double.NaN : reader.getInteger();
+                    cursor.nextRow();
+                }
+                break;
+            case BOOLEAN:
+                for (int row = offset; row < end; row++) {
+                    target[row] = cursor.isNull() ? Double.NaN : reader.getBoolean() ? 1 : 0;
+                    cursor.nextRow();
+                }
+                break;
+            default:
+                throw new IOException("Cannot read parquet column '" + cursor.name + "' of type " + cursor.type
+                        + " as numerical values");
+        }
+    }
+
+    /**
+     * Stores the index of every value in the returned dictionary in the target array.
+     */
+    private static List<String> readNominal(ColumnCursor cursor, int rows, double[] target, int offset) {
+        ColumnReader reader = cursor.reader;
+        List<String> dictionary = new ArrayList<>();
+        int end = offset + rows;
+        if (cursor.type == PrimitiveTypeName.BINARY || cursor.type == PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY) {
+            Map<Binary, Integer> codes = new HashMap<>();
+            for (int row = offset; row < end; row++) {
+                if (cursor.isNull()) {
+                    target[row] = Double.NaN;
+                } else {
+                    Binary value = reader.getBinary();
+                    Integer code = codes.get(value);
+                    if (code == null) {
+                        code = dictionary.size();
+                        // the reader may reuse the bytes of the value
+                        codes.put(value.copy(), code);
+                        dictionary.add(value.toStringUsingUTF8());
+                    }
+                    target[row] = code;
+                }
+                cursor.nextRow();
+            }
+        } else {
+            Map<String, Integer> codes = new HashMap<>();
+            for (int row = offset; row < end; row++) {
+                if (cursor.isNull()) {
+                    target[row] = Double.NaN;
+                } else {
+                    String value = cursor.readAsString();
+                    Integer code = codes.get(value);
+                    if (code == null) {
+                        code = dictionary.size();
+                        codes.put(value, code);
+                        dictionary.add(value);
+                    }
+                    target[row] = code;
+                }
+                cursor.nextRow();
+            }
+        }
+        return dictionary;
+    }
+
+    /**
+     * Replaces the local dictionary indices in the given range by the indices of the mapping.
+     */
+    private static void remap(NominalMapping mapping, List<String> dictionary, double[] values, int from, int to) {
+        int[] indices = new int[dictionary.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = mapping.mapString(dictionary.get(i));
+        }
+        for (int row = from; row < to; row++) {
+            double value = values[row];
+            if (!Double.isNaN(value)) {
+                values[row] = indices[(int) value];
+            }
+        }
+    }
+
+    /**
+     * Walks over the values of one column chunk row by row. Only the first value of repeated fields
+     * is used.
+     */
+    private static final class ColumnCursor {
+
+        private final ColumnReader reader;
+        private final PrimitiveTypeName type;
+        private final String name;
+        private final int maxDefinition;
+        private final int maxRepetition;
+        private long remaining;
+
+        private ColumnCursor(ColumnReader reader, ColumnDescriptor descriptor) {
+            this.reader = reader;
+            this.type = descriptor.getPrimitiveType().getPrimitiveTypeName();
+            this.name = String.join(".", descriptor.getPath());
+            this.maxDefinition = descriptor.getMaxDefinitionLevel();
+            this.maxRepetition = descriptor.getMaxRepetitionLevel();
+            this.remaining = reader.getTotalValueCount();
+        }
+
+        private boolean isNull() {
+            return reader.getCurrentDefinitionLevel() < maxDefinition;
+        }
+
+        private void nextRow() {
+            reader.consume();
+            remaining--;
+            while (maxRepetition > 0 && remaining > 0 && reader.getCurrentRepetitionLevel() > 0) {
+                if (!isNull()) {
+                    reader.skip();
+                }
+                reader.consume();
+                remaining--;
+            }
+        }
+
+        private String readAsString() {
+            switch (type) {
+                case BOOLEAN:
+                    return String.valueOf(reader.getBoolean());
+                case INT32:
+                    return String.valueOf(reader.getInteger());
+                case INT64:
+                    return String.valueOf(reader.getLong());
+                case FLOAT:
+                    return String.valueOf(reader.getFloat());
+                case DOUBLE:
+                    return String.valueOf(reader.getDouble());
+                default:
+                    return reader.getBinary().toStringUsingUTF8();
+            }
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package base.operators.utils;
+
+import base.operators.adaption.belt.IOTable;
+import base.operators.belt.table.BeltConverter;
+import base.operators.core.concurrency.ConcurrencyContext;
+import base.operators.example.Attribute;
+import base.operators.example.AttributeRole;
+import base.operators.example.Example;
+import base.operators.example.ExampleSet;
+import base.operators.example.table.NominalMapping;
+import base.operators.operator.ports.metadata.AttributeMetaData;
+import base.operators.operator.ports.metadata.MDInteger;
+import base.operators.operator.ports.metadata.MDReal;
+import base.operators.operator.ports.metadata.SetRelation;
+import base.operators.tools.Ontology;
+import base.operators.tools.math.container.Range;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * 按列批量写Parquet文件，同时计算metadata
+ *
+ * The example set is read in batches of rows. Every batch is copied into one {@code double} array
+ * per column by its own task, the tasks for the next batches run on the {@link ConcurrencyContext}
+ * while the current batch is encoded by the parquet writer. Nominal values are written as the
+ * {@link Binary} of their {@link NominalMapping} index which is created only once per value, so
+ * the dictionary encoding of the writer never decodes strings.
+ *
+ * The statistics needed for the metadata file are collected per batch while the values are copied
+ * so that the example set is only traversed once.
+ */
+public class ParquetColumnarWriter {
+
+    /** number of rows copied per batch */
+    public static final int DEFAULT_BATCH_SIZE = 1 << 14;
+
+    private static final byte KIND_DOUBLE = 0;
+    private static final byte KIND_LONG = 1;
+    private static final byte KIND_NOMINAL = 2;
+
+    private final Configuration conf;
+    private final Path file;
+    private final int rowGroupSize;
+    private final ConcurrencyContext context;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * @param conf
+     * @param file the parquet file, overwritten if it exists
+     * @param rowGroupSize the size of a row group in bytes
+     * @param context used to copy batches in parallel, {@code null} to copy them in the calling
+     *        thread
+     */
+    public ParquetColumnarWriter(Configuration conf, Path file, int rowGroupSize, ConcurrencyContext context) {
+        this.conf = conf;
+        this.file = file;
+        this.rowGroupSize = rowGroupSize;
+        this.context = context;
+    }
+
+    public ParquetColumnarWriter withBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    /**
+     * 写入Belt Table，Table会先被转换为ExampleSet
+     */
+    public List<AttributeMetaData> write(IOTable table) throws IOException {
+        return write(BeltConverter.convertSequentially(table));
+    }
+
+    /**
+     * Writes all attributes of the example set. The columns are named column_1, column_2, ... in
+     * the order of {@link base.operators.example.Attributes#allAttributeRoles()}.
+     *
+     * @return the meta data of every written attribute in column order
+     */
+    public List<AttributeMetaData> write(ExampleSet exampleSet) throws IOException {
+        List<AttributeRole> roles = new ArrayList<>();
+        Iterator<AttributeRole> roleIterator = exampleSet.getAttributes().allAttributeRoles();
+        while (roleIterator.hasNext()) {
+            roles.add(roleIterator.next());
+        }
+        int columnCount = roles.size();
+        Attribute[] attributes = new Attribute[columnCount];
+        String[] names = new String[columnCount];
+        byte[] kinds = new byte[columnCount];
+        Binary[][] dictionaries = new Binary[columnCount][];
+        List<Type> fields = new ArrayList<>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            Attribute attribute = roles.get(c).getAttribute();
+            attributes[c] = attribute;
+            names[c] = "column_" + (c + 1);
+            if (attribute.isNominal()) {
+                kinds[c] = KIND_NOMINAL;
+                NominalMapping mapping = attribute.getMapping();
+                dictionaries[c] = new Binary[mapping.size()];
+                for (int i = 0; i < mapping.size(); i++) {
+                    dictionaries[c][i] = Binary.fromString(mapping.mapIndex(i));
+                }
+                fields.add(Types.optional(PrimitiveTypeName.BINARY).as(OriginalType.UTF8).named(names[c]));
+            } else if (attribute.getValueType() == Ontology.INTEGER
+                    || Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.DATE_TIME)) {
+                kinds[c] = KIND_LONG;
+                fields.add(Types.optional(PrimitiveTypeName.INT64).named(names[c]));
+            } else {
+                kinds[c] = KIND_DOUBLE;
+                fields.add(Types.optional(PrimitiveTypeName.DOUBLE).named(names[c]));
+            }
+        }
+        MessageType schema = new MessageType("data", fields);
+
+        ColumnStatistics[] statistics = new ColumnStatistics[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            statistics[c] = new ColumnStatistics(attributes[c]);
+        }
+        Batch cursor = new Batch(null, 0);
+        ParquetWriter<Batch> writer = new Builder(file, schema, names, kinds, dictionaries)
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .withRowGroupSize(rowGroupSize)
+                .withPageSize(ParquetWriter.DEFAULT_PAGE_SIZE)
+                .withConf(conf)
+                .withCompressionCodec(CompressionCodecName.SNAPPY)
+                .withValidation(false)
+                .withDictionaryEncoding(true)
+                .build();
+        try {
+            int size = exampleSet.size();
+            int lookahead = context == null ? 0 : Math.max(1, context.getParallelism());
+            Deque<Future<Batch>> pending = new ArrayDeque<>();
+            int nextStart = 0;
+            for (int start = 0; start < size; start += batchSize) {
+                // 提前提交后续批次的复制任务
+                while (nextStart < size && pending.size() < lookahead) {
+                    int from = nextStart;
+                    int to = Math.min(size, from + batchSize);
+                    pending.add(context.submit(Collections.singletonList(
+                            (Callable<Batch>) () -> copyBatch(exampleSet, attributes, from, to))).get(0));
+                    nextStart = to;
+                }
+                Batch batch = pending.isEmpty() ? copyBatch(exampleSet, attributes, start, Math.min(size, start + batchSize))
+                        : collect(pending.poll());
+                for (int c = 0; c < columnCount; c++) {
+                    statistics[c].merge(batch.statistics[c]);
+                }
+                cursor.columns = batch.columns;
+                for (int row = 0; row < batch.rows; row++) {
+                    cursor.row = row;
+                    writer.write(cursor);
+                }
+            }
+        } finally {
+            writer.close();
+        }
+
+        List<AttributeMetaData> metaData = new ArrayList<>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            AttributeRole role = roles.get(c);
+            metaData.add(statistics[c].toMetaData(role.isSpecial() ? role.getSpecialName() : null));
+        }
+        return metaData;
+    }
+
+    private Batch collect(Future<Batch> future) throws IOException {
+        try {
+            return context.collectResults(Collections.singletonList(future)).get(0);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IOException(cause.getMessage(), cause);
+            }
+        }
+    }
+
+    /**
+     * Copies the values of the given rows column by column and collects their statistics.
+     */
+    private static Batch copyBatch(ExampleSet exampleSet, Attribute[] attributes, int from, int to) {
+        Batch batch = new Batch(new double[attributes.length][to - from], to - from);
+        batch.statistics = new ColumnStatistics[attributes.length];
+        for (int row = from; row < to; row++) {
+            Example example = exampleSet.getExample(row);
+            for (int c = 0; c < attributes.length; c++) {
+                batch.columns[c][row - from] = example.getValue(attributes[c]);
+            }
+        }
+        for (int c = 0; c < attributes.length; c++) {
+            ColumnStatistics statistics = new ColumnStatistics(attributes[c]);
+            statistics.count(batch.columns[c], batch.rows);
+            batch.statistics[c] = statistics;
+        }
+        return batch;
+    }
+
+    /**
+     * The copied values of consecutive rows. The writer uses one instance as cursor.
+     */
+    private static final class Batch {
+
+        private double[][] columns;
+        private final int rows;
+        private ColumnStatistics[] statistics;
+        private int row;
+
+        private Batch(double[][] columns, int rows) {
+            this.columns = columns;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * The statistics of {@link AttributeMetaData#AttributeMetaData(AttributeRole, ExampleSet)}
+     * without a separate pass over the data.
+     */
+    private static final class ColumnStatistics {
+
+        private final Attribute attribute;
+        private int missing;
+        private int valueCount;
+        private double sum;
+        private double minimum = Double.POSITIVE_INFINITY;
+        private double maximum = Double.NEGATIVE_INFINITY;
+        private long[] nominalCounts;
+
+        private ColumnStatistics(Attribute attribute) {
+            this.attribute = attribute;
+            this.nominalCounts = attribute.isNominal() ? new long[attribute.getMapping().size()] : null;
+        }
+
+        private void count(double[] values, int rows) {
+            for (int i = 0; i < rows; i++) {
+                double value = values[i];
+                if (Double.isNaN(value)) {
+                    missing++;
+                } else if (nominalCounts != null) {
+                    int index = (int) value;
+                    if (index >= nominalCounts.length) {
+                        long[] counts = new long[index + 1];
+                        System.arraycopy(nominalCounts, 0, counts, 0, nominalCounts.length);
+                        nominalCounts = counts;
+                    }
+                    nominalCounts[index]++;
+                } else {
+                    valueCount++;
+                    sum += value;
+                    if (value < minimum) {
+                        minimum = value;
+                    }
+                    if (value > maximum) {
+                        maximum = value;
+                    }
+                }
+            }
+        }
+
+        private void merge(ColumnStatistics other) {
+            missing += other.missing;
+            valueCount += other.valueCount;
+            sum += other.sum;
+            minimum = Math.min(minimum, other.minimum);
+            maximum = Math.max(maximum, other.maximum);
+            if (nominalCounts != null) {
+                if (other.nominalCounts.length > nominalCounts.length) {
+                    long[] counts = new long[other.nominalCounts.length];
+                    System.arraycopy(nominalCounts, 0, counts, 0, nominalCounts.length);
+                    nominalCounts = counts;
+                }
+                for (int i = 0; i < other.nominalCounts.length; i++) {
+                    nominalCounts[i] += other.nominalCounts[i];
+                }
+            }
+        }
+
+        private AttributeMetaData toMetaData(String role) {
+            AttributeMetaData metaData = new AttributeMetaData(attribute.getName(), attribute.getValueType(), role);
+            metaData.setNumberOfMissingValues(new MDInteger(missing));
+            if (attribute.isNominal()) {
+                TreeSet<String> valueSet = new TreeSet<>();
+                for (String value : attribute.getMapping().getValues()) {
+                    if (value != null) {
+                        valueSet.add(value);
+                    }
+                }
+                metaData.setValueSet(valueSet, SetRelation.EQUAL);
+                int mode = -1;
+                for (int i = 0; i < nominalCounts.length; i++) {
+                    if (nominalCounts[i] > 0 && (mode < 0 || nominalCounts[i] > nominalCounts[mode])) {
+                        mode = i;
+                    }
+                }
+                if (mode >= 0 && mode < attribute.getMapping().size()) {
+                    metaData.setMode(attribute.getMapping().mapIndex(mode));
+                }
+            }
+            if (attribute.isNumerical() || Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.DATE_TIME)) {
+                metaData.setValueRange(new Range(minimum, maximum), SetRelation.EQUAL);
+                metaData.setMean(new MDReal(sum / valueCount));
+            }
+            metaData.getAnnotations().putAll(attribute.getAnnotations());
+            return metaData;
+        }
+    }
+
+    private static final class Builder extends ParquetWriter.Builder<Batch, Builder> {
+
+        private final MessageType schema;
+        private final String[] names;
+        private final byte[] kinds;
+        private final Binary[][] dictionaries;
+
+        private Builder(Path file, MessageType schema, String[] names, byte[] kinds, Binary[][] dictionaries) {
+            super(file);
+            this.schema = schema;
+            this.names = names;
+            this.kinds = kinds;
+            this.dictionaries = dictionaries;
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Batch> getWriteSupport(Configuration conf) {
+            return new BatchWriteSupport(schema, names, kinds, dictionaries);
+        }
+    }
+
+    /**
+     * Writes the current row of a {@link Batch}, missing values are left out.
+     */
+    private static final class BatchWriteSupport extends WriteSupport<Batch> {
+
+        private final MessageType schema;
+        private final String[] names;
+        private final byte[] kinds;
+        private final Binary[][] dictionaries;
+        private RecordConsumer consumer;
+
+        private BatchWriteSupport(MessageType schema, String[] names, byte[] kinds, Binary[][] dictionaries) {
+            this.schema = schema;
+            this.names = names;
+            this.kinds = kinds;
+            this.dictionaries = dictionaries;
+        }
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return new WriteContext(schema, new HashMap<>());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(Batch batch) {
+            consumer.startMessage();
+            for (int c = 0; c < names.length; c++) {
+                double value = batch.columns[c][batch.row];
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                consumer.startField(names[c], c);
+                switch (kinds[c]) {
+                    case KIND_NOMINAL:
+                        consumer.addBinary(dictionaries[c][(int) value]);
+                        break;
+                    case KIND_LONG:
+                        consumer.addLong((long) value);
+                        break;
+                    default:
+                        consumer.addDouble(value);
+                        break;
+                }
+                consumer.endField(names[c], c);
+            }
+            consumer.endMessage();
+        }
+    }
+}
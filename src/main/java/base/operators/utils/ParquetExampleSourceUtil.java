@@ -1,37 +1,22 @@
 package base.operators.utils;
 
+import base.operators.core.concurrency.ConcurrencyContext;
 import base.operators.example.Attribute;
-import base.operators.example.Example;
 import base.operators.example.ExampleSet;
 import base.operators.example.table.AttributeFactory;
 import base.operators.example.table.PolynominalMapping;
-import base.operators.example.utils.ExampleSetBuilder;
-import base.operators.example.utils.ExampleSets;
 import base.operators.operator.ports.metadata.AttributeMetaData;
-import base.operators.operator.ports.metadata.ExampleSetMetaData;
 import base.operators.tools.Ontology;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Iterables;
-import org.apache.avro.Schema;
-import org.apache.avro.generic.GenericData;
 import org.apache.commons.io.FileUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
-import org.apache.parquet.avro.AvroParquetWriter;
 import org.apache.parquet.column.ColumnDescriptor;
-import org.apache.parquet.column.page.PageReadStore;
-import org.apache.parquet.example.data.Group;
-import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
-import org.apache.parquet.hadoop.ParquetFileReader;
-import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.filter2.compat.FilterCompat;
 import org.apache.parquet.hadoop.ParquetWriter;
-import org.apache.parquet.hadoop.metadata.CompressionCodecName;
-import org.apache.parquet.hadoop.metadata.ParquetMetadata;
-import org.apache.parquet.io.ColumnIOFactory;
-import org.apache.parquet.io.MessageColumnIO;
-import org.apache.parquet.io.RecordReader;
 import org.apache.parquet.schema.MessageType;
 import org.apache.parquet.schema.PrimitiveType;
 
@@ -55,9 +40,23 @@ public class ParquetExampleSourceUtil extends HDFSUtil {
      * @throws IOException
      */
     public static void writeToParquet(final ExampleSet exampleSet, String basePath, Boolean toLocal) throws IOException {
+        writeToParquet(exampleSet, basePath, toLocal, ParquetWriter.DEFAULT_BLOCK_SIZE, null);
+    }
+
+    /**
+     * write Table to Parquet file
+     *
+     * @param exampleSet ExampleSet
+     * @param basePath String
+     * @param toLocal Boolean
+     * @param rowGroupSize row group的大小，单位为字节
+     * @param context 用于并行复制数据，null表示在当前线程复制
+     * @throws IOException
+     */
+    public static void writeToParquet(final ExampleSet exampleSet, String basePath, Boolean toLocal, int rowGroupSize,
+                                      ConcurrencyContext context) throws IOException {
 
         String pqFileName;
-        Path parquetPath;
         // 获取HDFS连接的Configuration
         Configuration conf;
         OutputStream outputStream;
@@ -89,94 +88,21 @@ public class ParquetExampleSourceUtil extends HDFSUtil {
             outputStream = fs.create(new Path(basePath + Path.SEPARATOR + "metadata"));
             pqFileName = basePath + Path.SEPARATOR + "data.parquet";
         }
-        // 保存metadata
-        List<Map<String, String>> metaDataMapList = writeMetaData(exampleSet, outputStream);
-
-        if(metaDataMapList.size() == 0){
-            outputStream.close();
+        if (exampleSet.getAttributes().allSize() == 0) {
+            writeMetaData(exampleSet, Collections.emptyList(), outputStream);
             return;
         }
-
-        Map<String, String> attributeNameToColumnNameMap = metaDataMapList.stream().collect(Collectors.toMap(s ->
-                (String) s.get("Attribute_Name"), s -> (String) s.get("Column_Name")));
-
-        // 定义avro schema
-        Map<String, Object> tempAvscMap = new LinkedHashMap<String, Object>();
-        tempAvscMap.put("type", "record");
-        tempAvscMap.put("name", "data");
-
-        List<Map<String, Object>> columnList = metaDataMapList.stream().map(e -> {
-            Map<String, Object> map = new LinkedHashMap<>();
-            map.put("name", e.get("Column_Name").trim());
-            String[] typeArr = {ontologyMap.get(e.get("Attribute_Type")), "null"};
-            map.put("type", typeArr);
-            return map;
-        }).collect(Collectors.toList());
-
-        tempAvscMap.put("fields", columnList);
-
-        ObjectMapper mapper = new ObjectMapper();
-        String avroJson = "";
+        // 写数据，同时计算metadata
+        ParquetColumnarWriter writer = new ParquetColumnarWriter(conf, new Path(pqFileName), rowGroupSize, context);
+        List<AttributeMetaData> attributeMetaData;
         try {
-            avroJson = mapper.writeValueAsString(tempAvscMap);
-        } catch (JsonProcessingException e) {
-            e.printStackTrace();
-        }
-        parquetPath = new Path(pqFileName);
-        // 解析成Parquet schema
-        Schema schema = new Schema.Parser().parse(avroJson);
-        ParquetWriter<GenericData.Record> parquetWriter = AvroParquetWriter.
-                <GenericData.Record>builder(parquetPath)
-                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
-                .withRowGroupSize(ParquetWriter.DEFAULT_BLOCK_SIZE)
-                .withPageSize(ParquetWriter.DEFAULT_PAGE_SIZE)
-                .withSchema(schema)
-                .withConf(conf)
-                .withCompressionCodec(CompressionCodecName.SNAPPY)
-                .withValidation(false)
-                .withDictionaryEncoding(false)
-                .build();
-
-        try {
-            for (Example example : exampleSet) {
-                // 每个Example对应一个Record
-                GenericData.Record record = new GenericData.Record(schema);
-                for (Attribute attribute : (Iterable<Attribute>) () -> exampleSet.getAttributes().allAttributes()) {
-                    if (!Double.isNaN(example.getValue(attribute))) {
-                        if (attribute.isNominal()) {
-                            String stringValue = example.getValueAsString(attribute);
-                            record.put(attributeNameToColumnNameMap.get(attribute.getName()), stringValue);
-                        } else {
-                            Double value = example.getValue(attribute);
-                            if (Ontology.ATTRIBUTE_VALUE_TYPE.isA(attribute.getValueType(), Ontology.DATE_TIME)) {
-                                record.put(attributeNameToColumnNameMap.get(attribute.getName()), value.longValue());
-                                // TODO: infinity values in parquet
-                            } else if (value == Double.POSITIVE_INFINITY) {
-                                record.put(attributeNameToColumnNameMap.get(attribute.getName()), Double.POSITIVE_INFINITY);
-                            } else if (value == Double.NEGATIVE_INFINITY) {
-                                record.put(attributeNameToColumnNameMap.get(attribute.getName()), Double.NEGATIVE_INFINITY);
-                            } else if (attribute.getValueType() == Ontology.INTEGER) {
-                                record.put(attributeNameToColumnNameMap.get(attribute.getName()), value.longValue());
-                            } else {
-                                record.put(attributeNameToColumnNameMap.get(attribute.getName()), value);
-                            }
-                        }
-                    }
-                }
-                // 写record
-                parquetWriter.write(record);
-            }
+            attributeMetaData = writer.write(exampleSet);
         } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            if (parquetWriter != null) {
-                try {
-                    parquetWriter.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
+            outputStream.close();
+            throw e;
         }
+        // 保存metadata
+        writeMetaData(exampleSet, attributeMetaData, outputStream);
     }
 
     /**
@@ -206,14 +132,15 @@ public class ParquetExampleSourceUtil extends HDFSUtil {
      * Save metadata to OutputStream
      *
      * @param exampleSet
+     * @param attributeMetaData 写数据时计算的metadata
      * @param stream
      * @return Map<String, String>
      */
-    private static List<Map<String, String>> writeMetaData(ExampleSet exampleSet, OutputStream stream) {
-        ExampleSetMetaData esmd = new ExampleSetMetaData(exampleSet);
+    private static List<Map<String, String>> writeMetaData(ExampleSet exampleSet, List<AttributeMetaData> attributeMetaData,
+                                                           OutputStream stream) {
         List<Map<String, String>> metaDataList = new LinkedList<>();
         int columnCount = 1;
-        for (AttributeMetaData amd: esmd.getAllAttributes()) {
+        for (AttributeMetaData amd: attributeMetaData) {
             Map<String, String> amdMap = new LinkedHashMap<>();
             amdMap.put("Column_Name", "column_" + String.valueOf(columnCount));
             amdMap.put("Attribute_Name", amd.getName());
@@ -265,6 +192,23 @@ public class ParquetExampleSourceUtil extends HDFSUtil {
      * @return
      */
     public static ExampleSet readFromParquet(String basePath, Boolean inferMetaData, Boolean fromLocal) {
+        return readFromParquet(basePath, inferMetaData, fromLocal, null, FilterCompat.NOOP, null);
+    }
+
+    /**
+     * Read the given attributes from parquet file to {@link ExampleSet}
+     *
+     * @param basePath
+     * @param inferMetaData
+     * @param fromLocal
+     * @param attributeNames 需要读取的属性，null表示全部属性
+     * @param filter 用于跳过row group的过滤条件，列名为parquet文件中的列名
+     * @param context 用于并行读取row group，null表示在当前线程读取
+     * @return
+     */
+    public static ExampleSet readFromParquet(String basePath, Boolean inferMetaData, Boolean fromLocal,
+                                             Collection<String> attributeNames, FilterCompat.Filter filter,
+                                             ConcurrencyContext context) {
         ExampleSet exampleSet = null;
         Configuration conf;
         if (fromLocal) {
@@ -279,11 +223,8 @@ public class ParquetExampleSourceUtil extends HDFSUtil {
         }
         // 从metadata读取数据类型
         if (inferMetaData) {
-            try (ParquetFileReader reader = ParquetFileReader.open(conf, new Path(basePath + Path.SEPARATOR + "data.parquet"))) {
-                ParquetMetadata footer = reader.getFooter();
-                MessageType schema = footer.getFileMetaData().getSchema();
-
-                int size = (int) reader.getRecordCount();
+            try {
+                ParquetColumnarReader reader = new ParquetColumnarReader(conf, new Path(basePath + Path.SEPARATOR + "data.parquet"));
                 String metaDataStr;
                 if (fromLocal) {
                     metaDataStr = FileUtils.readFileToString(new File(basePath + File.separator + "metadata"), StandardCharsets.UTF_8);
@@ -297,11 +238,15 @@ public class ParquetExampleSourceUtil extends HDFSUtil {
                 ObjectMapper mapper = new ObjectMapper();
                 List<Map<String, String>> metaDataMapList = mapper.readValue(metaDataStr, new TypeReference<LinkedList<LinkedHashMap<String, String>>>() {
                 });
-                List<Attribute> listOfAttrs = new LinkedList<>();
+                List<Attribute> listOfAttrs = new ArrayList<>();
+                List<String> columnNames = new ArrayList<>();
                 Map<Attribute, String> specialAttributes = new LinkedHashMap<>();
                 for (Map<String, String> metaDataMap : metaDataMapList) {
                     String columnName = metaDataMap.get("Column_Name");
                     String attributeName = metaDataMap.get("Attribute_Name");
+                    if (attributeNames != null && !attributeNames.contains(attributeName)) {
+                        continue;
+                    }
                     String attributeType = metaDataMap.get("Attribute_Type");
                     String attributeRole = metaDataMap.get("Attribute_Role");
                     String attributeValueSet = metaDataMap.get("Attribute_Value_Set");
@@ -357,86 +302,34 @@ public class ParquetExampleSourceUtil extends HDFSUtil {
                     }
                     attribute.setConstruction(attributeConstruction);
                     listOfAttrs.add(attribute);
+                    columnNames.add(columnName);
                     if (!"attribute".equals(attributeRole)) {
                         specialAttributes.put(attribute, attributeRole);
                     }
                 }
 
-                ExampleSetBuilder builder = ExampleSets.from(listOfAttrs).withExpectedSize(size).withRoles(specialAttributes);
-                PageReadStore store;
-                while ((store = reader.readNextRowGroup()) != null) {
-                    final MessageColumnIO columnIO = new ColumnIOFactory().getColumnIO(schema);
-                    final RecordReader<Group> recordReader = columnIO.getRecordReader(store, new GroupRecordConverter(schema));
-                    for (int i = 0; i < size; i++) {
-                        Group group = recordReader.read();
-                        double[] doubleArray = new double[listOfAttrs.size()];
-                        for (int j = 0; j < listOfAttrs.size(); j++) {
-                            Attribute attribute = listOfAttrs.get(j);
-                            String attributeType = Ontology.ATTRIBUTE_VALUE_TYPE.mapIndex(attribute.getValueType());
-                            int repetitionCount = group.getFieldRepetitionCount(j);
-                            if (repetitionCount == 1) {
-                                switch (attributeType) {
-                                    case "attribute_value":
-                                        doubleArray[j] = attribute.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                    case "nominal":
-                                        doubleArray[j] = attribute.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                    case "numeric":
-                                        doubleArray[j] = group.getDouble(j, 0);
-                                        break;
-                                    case "integer":
-                                        doubleArray[j] = group.getLong(j, 0);
-                                        break;
-                                    case "real":
-                                        doubleArray[j] = group.getDouble(j, 0);
-                                        break;
-                                    case "text":
-                                        doubleArray[j] = attribute.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                    case "binominal":
-                                        doubleArray[j] = attribute.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                    case "polynominal":
-                                        doubleArray[j] = attribute.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                    case "file_path":
-                                        doubleArray[j] = attribute.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                    case "date_time":
-                                    case "time":
-                                    case "date":
-                                        doubleArray[j] = group.getLong(j, 0);
-                                        break;
-                                    default:
-                                        doubleArray[j] = attribute.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                }
-                            } else if (repetitionCount == 0) {
-                                doubleArray[j] = Double.NaN;
-                            }
-                        }
-                        builder.addRow(doubleArray);
-                    }
-                }
-
-                exampleSet = builder.build();
+                exampleSet = reader.read(listOfAttrs, columnNames, specialAttributes, filter, context);
 
             } catch (IOException e) {
                 e.printStackTrace();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
             }
         } else {
-            try (ParquetFileReader reader = ParquetFileReader.open(conf, new Path(basePath + Path.SEPARATOR + "data.parquet"))) {
-                ParquetMetadata footer = reader.getFooter();
-                MessageType schema = footer.getFileMetaData().getSchema();
-                int size = (int) reader.getRecordCount();
+            try {
+                ParquetColumnarReader reader = new ParquetColumnarReader(conf, new Path(basePath + Path.SEPARATOR + "data.parquet"));
+                MessageType schema = reader.getSchema();
 
-                List<Attribute> listOfAttrs = new LinkedList<>();
+                List<Attribute> listOfAttrs = new ArrayList<>();
+                List<String> columnNames = new ArrayList<>();
 
                 for (ColumnDescriptor column : schema.getColumns()) {
-                    String name = String.join(".", column.getPath());
+                    // 只读取顶层的列
+                    if (column.getPath().length != 1) {
+                        continue;
+                    }
+                    String name = column.getPath()[0];
+                    if (attributeNames != null && !attributeNames.contains(name)) {
+                        continue;
+                    }
                     PrimitiveType primitiveType = column.getPrimitiveType();
 
                     Attribute attribute;
@@ -476,67 +369,11 @@ public class ParquetExampleSourceUtil extends HDFSUtil {
                     }
 
                     listOfAttrs.add(attribute);
+                    columnNames.add(name);
                 }
 
-                ExampleSetBuilder builder = ExampleSets.from(listOfAttrs).withExpectedSize(size);
-                PageReadStore store;
-                while ((store = reader.readNextRowGroup()) != null) {
-                    final MessageColumnIO columnIO = new ColumnIOFactory().getColumnIO(schema);
-                    final RecordReader<Group> recordReader = columnIO.getRecordReader(store, new GroupRecordConverter(schema));
-                    for (int i = 0; i < size; i++) {
-                        Group group = recordReader.read();
-                        double[] doubleArray = new double[listOfAttrs.size()];
-                        for (int j = 0; j < listOfAttrs.size(); j++) {
-                            Attribute attr = listOfAttrs.get(j);
-                            String attributeType = Ontology.ATTRIBUTE_VALUE_TYPE.mapIndex(attr.getValueType());
-                            int repetitionCount = group.getFieldRepetitionCount(j);
-                            if (repetitionCount == 1) {
-                                switch (attributeType) {
-                                    case "attribute_value":
-                                        doubleArray[j] = attr.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                    case "nominal":
-                                        doubleArray[j] = attr.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                    case "numeric":
-                                        doubleArray[j] = group.getDouble(j, 0);
-                                        break;
-                                    case "integer":
-                                        doubleArray[j] = group.getLong(j, 0);
-                                        break;
-                                    case "real":
-                                        doubleArray[j] = group.getDouble(j, 0);
-                                        break;
-                                    case "text":
-                                        doubleArray[j] = attr.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                    case "binominal":
-                                        doubleArray[j] = attr.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                    case "polynominal":
-                                        doubleArray[j] = attr.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                    case "file_path":
-                                        doubleArray[j] = attr.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                    case "date_time":
-                                    case "time":
-                                    case "date":
-                                        doubleArray[j] = group.getLong(j, 0);
-                                        break;
-                                    default:
-                                        doubleArray[j] = attr.getMapping().mapString(group.getString(j, 0));
-                                        break;
-                                }
-                            } else if (repetitionCount == 0) {
-                                doubleArray[j] = Double.NaN;
-                            }
-                        }
-                        builder.addRow(doubleArray);
-                    }
-                }
                 // 构造ExampleSet
-                exampleSet = builder.build();
+                exampleSet = reader.read(listOfAttrs, columnNames, Collections.emptyMap(), filter, context);
             } catch (IOException e) {
                 e.printStackTrace();
             }
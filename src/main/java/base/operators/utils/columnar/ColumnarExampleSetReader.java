@@ -0,0 +1,288 @@
+package base.operators.utils.columnar;
+
+import base.operators.example.Attribute;
+import base.operators.example.ExampleSet;
+import base.operators.example.table.AttributeFactory;
+import base.operators.example.table.NominalMapping;
+import base.operators.example.utils.ExampleSetBuilder;
+import base.operators.example.utils.ExampleSets;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+import java.util.zip.Inflater;
+
+/**
+ * Reads files written by {@link ColumnarExampleSetWriter}.
+ *
+ * Only the footer is read when the reader is opened. Column chunks are fetched with positioned
+ * reads when the example set is built, so columns that are not requested are never read and only
+ * one row group per column is decoded at a time.
+ */
+public class ColumnarExampleSetReader implements Closeable {
+
+    private final FSDataInputStream in;
+
+    private final int rowCount;
+    private final String[] names;
+    private final String[] roles;
+    private final int[] valueTypes;
+    private final byte[] encodings;
+    private final List<List<String>> dictionaries;
+
+    /** index of the first row of every row group, with the row count as last entry */
+    private final int[] rowGroupStarts;
+    private final long[][] chunkOffsets;
+    private final int[][] chunkLengths;
+    private final byte[][] chunkCodecs;
+
+    /**
+     * Opens the file and reads its footer.
+     *
+     * @param in
+     *            the stream to read from, closed by {@link #close()}
+     * @param fileLength
+     *            the length of the file
+     */
+    public ColumnarExampleSetReader(FSDataInputStream in, long fileLength) throws IOException {
+        this.in = in;
+        int magicLength = ColumnarFormat.MAGIC.length;
+        if (fileLength < 2 * magicLength + Integer.BYTES) {
+            throw new IOException("Not a columnar example set file, too short");
+        }
+        byte[] trailer = new byte[Integer.BYTES + magicLength];
+        in.readFully(fileLength - trailer.length, trailer, 0, trailer.length);
+        if (!Arrays.equals(Arrays.copyOfRange(trailer, Integer.BYTES, trailer.length), ColumnarFormat.MAGIC)) {
+            throw new IOException("Not a columnar example set file, wrong magic number");
+        }
+        int footerLength = new DataInputStream(new ByteArrayInputStream(trailer)).readInt();
+        byte[] footerBytes = new byte[footerLength];
+        in.readFully(fileLength - trailer.length - footerLength, footerBytes, 0, footerLength);
+
+        DataInputStream footer = new DataInputStream(new ByteArrayInputStream(footerBytes));
+        int version = footer.readInt();
+        if (version > ColumnarFormat.VERSION) {
+            throw new IOException("Unsupported columnar example set version " + version);
+        }
+        rowCount = footer.readInt();
+        int columnCount = footer.readInt();
+        names = new String[columnCount];
+        roles = new String[columnCount];
+        valueTypes = new int[columnCount];
+        encodings = new byte[columnCount];
+        dictionaries = new ArrayList<>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            names[c] = ColumnarFormat.readString(footer);
+            roles[c] = ColumnarFormat.readString(footer);
+            valueTypes[c] = footer.readInt();
+            encodings[c] = footer.readByte();
+            int dictionarySize = footer.readInt();
+            List<String> dictionary = new ArrayList<>(dictionarySize);
+            for (int i = 0; i < dictionarySize; i++) {
+                dictionary.add(ColumnarFormat.readString(footer));
+            }
+            dictionaries.add(dictionary);
+        }
+        int rowGroupCount = footer.readInt();
+        rowGroupStarts = new int[rowGroupCount + 1];
+        chunkOffsets = new long[rowGroupCount][columnCount];
+        chunkLengths = new int[rowGroupCount][columnCount];
+        chunkCodecs = new byte[rowGroupCount][columnCount];
+        for (int g = 0; g < rowGroupCount; g++) {
+            rowGroupStarts[g + 1] = rowGroupStarts[g] + footer.readInt();
+            for (int c = 0; c < columnCount; c++) {
+                chunkOffsets[g][c] = footer.readLong();
+                chunkLengths[g][c] = footer.readInt();
+                chunkCodecs[g][c] = footer.readByte();
+            }
+        }
+    }
+
+    /**
+     * Opens the file at the given path.
+     */
+    public static ColumnarExampleSetReader open(FileSystem fs, Path path) throws IOException {
+        long length = fs.getFileStatus(path).getLen();
+        FSDataInputStream in = fs.open(path);
+        try {
+            return new ColumnarExampleSetReader(in, length);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Reads all rows and columns.
+     */
+    public ExampleSet read() throws IOException {
+        return read(null, -1);
+    }
+
+    /**
+     * Reads the given columns.
+     *
+     * @param columnNames
+     *            the names of the columns to read, {@code null} for all columns. Unknown names are
+     *            ignored.
+     * @param maxRows
+     *            the maximal number of rows to read, negative for all rows
+     */
+    public ExampleSet read(Collection<String> columnNames, int maxRows) throws IOException {
+        int rows = maxRows < 0 ? rowCount : Math.min(maxRows, rowCount);
+        List<Attribute> attributes = new ArrayList<>();
+        List<Integer> columns = new ArrayList<>();
+        for (int c = 0; c < names.length; c++) {
+            if (columnNames == null || columnNames.contains(names[c])) {
+                Attribute attribute = AttributeFactory.createAttribute(names[c], valueTypes[c]);
+                if (encodings[c] == ColumnarFormat.ENCODING_DICTIONARY) {
+                    NominalMapping mapping = attribute.getMapping();
+                    for (String value : dictionaries.get(c)) {
+                        mapping.mapString(value);
+                    }
+                }
+                attributes.add(attribute);
+                columns.add(c);
+            }
+        }
+
+        ExampleSetBuilder builder = ExampleSets.from(attributes).withBlankSize(rows);
+        for (int i = 0; i < attributes.size(); i++) {
+            int column = columns.get(i);
+            builder.withColumnFiller(attributes.get(i), new ChunkFiller(column));
+            if (roles[column] != null) {
+                builder.withRole(attributes.get(i), roles[column]);
+            }
+        }
+        try {
+            return builder.build();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Decodes the row group of one column that contains the requested row. Consecutive rows are
+     * served from the decoded group.
+     */
+    private class ChunkFiller implements IntToDoubleFunction {
+
+        private final int column;
+        private final int width;
+
+        private int group = -1;
+        private int groupStart = 0;
+        private int groupEnd = 0;
+        private double[] values = new double[0];
+        private byte[] raw = new byte[0];
+        private byte[] compressed = new byte[0];
+
+        private ChunkFiller(int column) {
+            this.column = column;
+            this.width = ColumnarFormat.bytesPerValue(encodings[column], dictionaries.get(column).size());
+        }
+
+        @Override
+        public double applyAsDouble(int row) {
+            if (row < groupStart || row >= groupEnd) {
+                try {
+                    load(findGroup(row));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return values[row - groupStart];
+        }
+
+        private int findGroup(int row) {
+            if (group + 1 < chunkOffsets.length && row >= rowGroupStarts[group + 1]
+                    && row < rowGroupStarts[group + 2]) {
+                // sequential access
+                return group + 1;
+            }
+            int index = Arrays.binarySearch(rowGroupStarts, row);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        private void load(int newGroup) throws IOException {
+            int rows = rowGroupStarts[newGroup + 1] - rowGroupStarts[newGroup];
+            int rawLength = rows * width;
+            if (raw.length < rawLength) {
+                raw = new byte[rawLength];
+            }
+            if (values.length < rows) {
+                values = new double[rows];
+            }
+            int length = chunkLengths[newGroup][column];
+            long offset = chunkOffsets[newGroup][column];
+            if (chunkCodecs[newGroup][column] == ColumnarFormat.CODEC_DEFLATE) {
+                if (compressed.length < length) {
+                    compressed = new byte[length];
+                }
+                in.readFully(offset, compressed, 0, length);
+                Inflater inflater = new Inflater();
+                try {
+                    ColumnarFormat.inflate(inflater, compressed, length, raw, rawLength);
+                } finally {
+                    inflater.end();
+                }
+            } else {
+                in.readFully(offset, raw, 0, length);
+            }
+            if (encodings[column] == ColumnarFormat.ENCODING_DICTIONARY) {
+                decodeIndices(rows);
+            } else {
+                decodeDoubles(rows);
+            }
+            group = newGroup;
+            groupStart = rowGroupStarts[newGroup];
+            groupEnd = rowGroupStarts[newGroup + 1];
+        }
+
+        private void decodeDoubles(int rows) {
+            int pos = 0;
+            for (int i = 0; i < rows; i++) {
+                long bits = 0;
+                for (int b = 0; b < Double.BYTES; b++) {
+                    bits = bits << 8 | raw[pos++] & 0xFF;
+                }
+                values[i] = Double.longBitsToDouble(bits);
+            }
+        }
+
+        private void decodeIndices(int rows) {
+            int pos = 0;
+            for (int i = 0; i < rows; i++) {
+                int index = 0;
+                for (int b = 0; b < width; b++) {
+                    index = index << 8 | raw[pos++] & 0xFF;
+                }
+                values[i] = index == 0 ? Double.NaN : index - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package base.operators.utils.columnar;
+
+import base.operators.example.Attribute;
+import base.operators.example.AttributeRole;
+import base.operators.example.Example;
+import base.operators.example.ExampleSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes an {@link ExampleSet} in the columnar format described in {@link ColumnarFormat}.
+ *
+ * The example set is traversed once. Only the values of the current row group are buffered, so the
+ * memory needed for writing does not depend on the size of the example set.
+ *
+ * @see ColumnarExampleSetReader
+ */
+public class ColumnarExampleSetWriter {
+
+    private final OutputStream out;
+    private final boolean compress;
+    private final Deflater deflater;
+
+    private long position;
+
+    private final List<Integer> rowGroupSizes = new ArrayList<>();
+    private final List<long[]> chunkOffsets = new ArrayList<>();
+    private final List<int[]> chunkLengths = new ArrayList<>();
+    private final List<byte[]> chunkCodecs = new ArrayList<>();
+
+    private ColumnarExampleSetWriter(OutputStream out, boolean compress) {
+        this.out = out;
+        this.compress = compress;
+        this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+    }
+
+    /**
+     * Writes the example set to the stream. The stream is not closed.
+     *
+     * @param exampleSet
+     *            the data to write
+     * @param out
+     *            the target stream
+     * @param compress
+     *            whether column chunks should be deflated if that makes them smaller
+     */
+    public static void write(ExampleSet exampleSet, OutputStream out, boolean compress) throws IOException {
+        ColumnarExampleSetWriter writer = new ColumnarExampleSetWriter(out, compress);
+        try {
+            writer.writeExampleSet(exampleSet);
+        } finally {
+            if (writer.deflater != null) {
+                writer.deflater.end();
+            }
+        }
+    }
+
+    private void writeExampleSet(ExampleSet exampleSet) throws IOException {
+        List<Attribute> attributes = new ArrayList<>();
+        List<String> roles = new ArrayList<>();
+        Iterator<AttributeRole> roleIterator = exampleSet.getAttributes().allAttributeRoles();
+        while (roleIterator.hasNext()) {
+            AttributeRole role = roleIterator.next();
+            attributes.add(role.getAttribute());
+            roles.add(role.isSpecial() ? role.getSpecialName() : null);
+        }
+        int columnCount = attributes.size();
+        Attribute[] columns = attributes.toArray(new Attribute[0]);
+        byte[] encodings = new byte[columnCount];
+        List<List<String>> dictionaries = new ArrayList<>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            if (columns[c].isNominal()) {
+                encodings[c] = ColumnarFormat.ENCODING_DICTIONARY;
+                dictionaries.add(new ArrayList<>(columns[c].getMapping().getValues()));
+            } else {
+                encodings[c] = ColumnarFormat.ENCODING_DOUBLE;
+                dictionaries.add(Collections.emptyList());
+            }
+        }
+
+        out.write(ColumnarFormat.MAGIC);
+        position = ColumnarFormat.MAGIC.length;
+
+        int groupSize = ColumnarFormat.rowGroupSize(columnCount);
+        double[][] buffers = new double[columnCount][groupSize];
+        byte[] raw = new byte[groupSize * Double.BYTES];
+        byte[] compressed = compress ? new byte[raw.length] : null;
+        int filled = 0;
+        for (Example example : exampleSet) {
+            for (int c = 0; c < columnCount; c++) {
+                buffers[c][filled] = example.getValue(columns[c]);
+            }
+            if (++filled == groupSize) {
+                writeRowGroup(buffers, filled, encodings, dictionaries, raw, compressed);
+                filled = 0;
+            }
+        }
+        if (filled > 0) {
+            writeRowGroup(buffers, filled, encodings, dictionaries, raw, compressed);
+        }
+
+        writeFooter(exampleSet.size(), columns, roles, encodings, dictionaries);
+        out.flush();
+    }
+
+    private void writeRowGroup(double[][] buffers, int rows, byte[] encodings, List<List<String>> dictionaries,
+            byte[] raw, byte[] compressed) throws IOException {
+        int columnCount = buffers.length;
+        long[] offsets = new long[columnCount];
+        int[] lengths = new int[columnCount];
+        byte[] codecs = new byte[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            int length;
+            if (encodings[c] == ColumnarFormat.ENCODING_DICTIONARY) {
+                length = encodeIndices(buffers[c], rows, ColumnarFormat.dictionaryWidth(dictionaries.get(c).size()), raw);
+            } else {
+                length = encodeDoubles(buffers[c], rows, raw);
+            }
+            offsets[c] = position;
+            int compressedLength = compress ? ColumnarFormat.deflate(deflater, raw, length, compressed) : -1;
+            if (compressedLength > 0) {
+                out.write(compressed, 0, compressedLength);
+                lengths[c] = compressedLength;
+                codecs[c] = ColumnarFormat.CODEC_DEFLATE;
+            } else {
+                out.write(raw, 0, length);
+                lengths[c] = length;
+                codecs[c] = ColumnarFormat.CODEC_NONE;
+            }
+            position += lengths[c];
+        }
+        rowGroupSizes.add(rows);
+        chunkOffsets.add(offsets);
+        chunkLengths.add(lengths);
+        chunkCodecs.add(codecs);
+    }
+
+    private static int encodeDoubles(double[] values, int rows, byte[] target) {
+        int pos = 0;
+        for (int i = 0; i < rows; i++) {
+            long bits = Double.doubleToRawLongBits(values[i]);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                target[pos++] = (byte) (bits >>> shift);
+            }
+        }
+        return pos;
+    }
+
+    private static int encodeIndices(double[] values, int rows, int width, byte[] target) {
+        int pos = 0;
+        for (int i = 0; i < rows; i++) {
+            double value = values[i];
+            int index = Double.isNaN(value) ? 0 : (int) value + 1;
+            for (int shift = (width - 1) * 8; shift >= 0; shift -= 8) {
+                target[pos++] = (byte) (index >>> shift);
+            }
+        }
+        return pos;
+    }
+
+    private void writeFooter(int rowCount, Attribute[] columns, List<String> roles, byte[] encodings,
+            List<List<String>> dictionaries) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream footer = new DataOutputStream(buffer);
+        footer.writeInt(ColumnarFormat.VERSION);
+        footer.writeInt(rowCount);
+        footer.writeInt(columns.length);
+        for (int c = 0; c < columns.length; c++) {
+            ColumnarFormat.writeString(footer, columns[c].getName());
+            ColumnarFormat.writeString(footer, roles.get(c));
+            footer.writeInt(columns[c].getValueType());
+            footer.writeByte(encodings[c]);
+            List<String> dictionary = dictionaries.get(c);
+            footer.writeInt(dictionary.size());
+            for (String value : dictionary) {
+                ColumnarFormat.writeString(footer, value);
+            }
+        }
+        footer.writeInt(rowGroupSizes.size());
+        for (int g = 0; g < rowGroupSizes.size(); g++) {
+            footer.writeInt(rowGroupSizes.get(g));
+            long[] offsets = chunkOffsets.get(g);
+            int[] lengths = chunkLengths.get(g);
+            byte[] codecs = chunkCodecs.get(g);
+            for (int c = 0; c < columns.length; c++) {
+                footer.writeLong(offsets[c]);
+                footer.writeInt(lengths[c]);
+                footer.writeByte(codecs[c]);
+            }
+        }
+        footer.flush();
+
+        buffer.writeTo(out);
+        DataOutputStream trailer = new DataOutputStream(out);
+        trailer.writeInt(buffer.size());
+        trailer.write(ColumnarFormat.MAGIC);
+        trailer.flush();
+    }
+}
@@ -0,0 +1,139 @@
+package base.operators.utils.columnar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Constants and shared helpers of the columnar ExampleSet file format.
+ *
+ * <pre>
+ * MAGIC
+ * row group 0: chunk of column 0, chunk of column 1, ...
+ * row group 1: ...
+ * footer: schema, dictionaries, row group sizes, chunk offsets/lengths/codecs
+ * footer length (int)
+ * MAGIC
+ * </pre>
+ *
+ * Numerical, date and time columns are stored as big endian doubles. Nominal columns are stored
+ * as indices into the dictionary of the column (the values of its {@link
+ * base.operators.example.table.NominalMapping}), shifted by one so that 0 encodes a missing value,
+ * with 1, 2 or 4 bytes per value depending on the dictionary size. Every chunk is deflated
+ * separately if that makes it smaller.
+ */
+final class ColumnarFormat {
+
+    static final byte[] MAGIC = "ABCCOL01".getBytes(StandardCharsets.US_ASCII);
+
+    static final int VERSION = 1;
+
+    static final byte ENCODING_DOUBLE = 0;
+    static final byte ENCODING_DICTIONARY = 1;
+
+    static final byte CODEC_NONE = 0;
+    static final byte CODEC_DEFLATE = 1;
+
+    /** number of cells buffered per row group, bounds the memory needed while writing */
+    private static final int TARGET_ROW_GROUP_CELLS = 1 << 22;
+    private static final int MIN_ROW_GROUP_ROWS = 1 << 10;
+    private static final int MAX_ROW_GROUP_ROWS = 1 << 16;
+
+    private ColumnarFormat() {
+        throw new AssertionError("utility class");
+    }
+
+    /**
+     * @return the number of rows per row group for the given number of columns
+     */
+    static int rowGroupSize(int columnCount) {
+        int rows = TARGET_ROW_GROUP_CELLS / Math.max(1, columnCount);
+        return Math.max(MIN_ROW_GROUP_ROWS, Math.min(MAX_ROW_GROUP_ROWS, rows));
+    }
+
+    /**
+     * @return the number of bytes used per value for a dictionary of the given size
+     */
+    static int dictionaryWidth(int dictionarySize) {
+        // index 0 is reserved for missing values
+        if (dictionarySize < 0xFF) {
+            return 1;
+        } else if (dictionarySize < 0xFFFF) {
+            return 2;
+        }
+        return 4;
+    }
+
+    static int bytesPerValue(byte encoding, int dictionarySize) {
+        return encoding == ENCODING_DOUBLE ? Double.BYTES : dictionaryWidth(dictionarySize);
+    }
+
+    /**
+     * Writes a string of arbitrary length, {@link DataOutput#writeUTF} is limited to 64k bytes.
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Deflates the first {@code length} bytes of {@code raw} into {@code target}.
+     *
+     * @return the compressed length or -1 if the compressed data would not be smaller than the raw
+     *         data
+     */
+    static int deflate(Deflater deflater, byte[] raw, int length, byte[] target) {
+        deflater.reset();
+        deflater.setInput(raw, 0, length);
+        deflater.finish();
+        int limit = Math.min(length, target.length);
+        int written = 0;
+        while (!deflater.finished()) {
+            if (written >= limit) {
+                return -1;
+            }
+            written += deflater.deflate(target, written, limit - written);
+        }
+        return written < length ? written : -1;
+    }
+
+    static void inflate(Inflater inflater, byte[] compressed, int length, byte[] target, int rawLength)
+            throws IOException {
+        inflater.reset();
+        inflater.setInput(compressed, 0, length);
+        try {
+            int read = 0;
+            while (read < rawLength) {
+                int n = inflater.inflate(target, read, rawLength - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != rawLength) {
+                throw new IOException("Corrupt column chunk, expected " + rawLength + " bytes but got " + read);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column chunk", e);
+        }
+    }
+}
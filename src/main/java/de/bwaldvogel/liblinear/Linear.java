@@ -40,11 +40,17 @@ import java.io.PrintStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Formatter;
+import java.util.List;
 import java.util.Locale;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Pattern;
 
+import base.operators.core.concurrency.ConcurrencyContext;
+
 
 /**
  * <h2>Java port of <a href="http://www.csie.ntu.edu.tw/~cjlin/liblinear/">liblinear</a></h2>
@@ -613,7 +619,8 @@ public class Linear {
 	 * See Algorithm 3 of Hsieh et al., ICML 2008
 	 * </pre>
 	 */
-	private static void solve_l2r_l1l2_svc(Problem prob, double[] w, double eps, double Cp, double Cn, SolverType solver_type) {
+	private static void solve_l2r_l1l2_svc(Problem prob, double[] w, double eps, double Cp, double Cn, SolverType solver_type,
+			Random random) {
 		int l = prob.l;
 		int w_size = prob.n;
 		int i, s, iter = 0;
@@ -798,7 +805,7 @@ public class Linear {
 	 *
 	 * See Algorithm 4 of Ho and Lin, 2012
 	 */
-	private static void solve_l2r_l1l2_svr(Problem prob, double[] w, Parameter param) {
+	private static void solve_l2r_l1l2_svr(Problem prob, double[] w, Parameter param, Random random) {
 		int l = prob.l;
 		double C = param.C;
 		double p = param.p;
@@ -998,7 +1005,7 @@ public class Linear {
 	 *
 	 * @since 1.7
 	 */
-	private static void solve_l2r_lr_dual(Problem prob, double w[], double eps, double Cp, double Cn) {
+	private static void solve_l2r_lr_dual(Problem prob, double w[], double eps, double Cp, double Cn, Random random) {
 		int l = prob.l;
 		int w_size = prob.n;
 		int i, s, iter = 0;
@@ -1157,7 +1164,7 @@ public class Linear {
 	 *
 	 * @since 1.5
 	 */
-	private static void solve_l1r_l2_svc(Problem prob_col, double[] w, double eps, double Cp, double Cn) {
+	private static void solve_l1r_l2_svc(Problem prob_col, double[] w, double eps, double Cp, double Cn, Random random) {
 		int l = prob_col.l;
 		int w_size = prob_col.n;
 		int j, s, iter = 0;
@@ -1411,7 +1418,7 @@ public class Linear {
 	 *
 	 * @since 1.5
 	 */
-	private static void solve_l1r_lr(Problem prob_col, double[] w, double eps, double Cp, double Cn) {
+	private static void solve_l1r_lr(Problem prob_col, double[] w, double eps, double Cp, double Cn, Random random) {
 		int l = prob_col.l;
 		int w_size = prob_col.n;
 		int j, s, newton_iter = 0, iter = 0;
@@ -1801,6 +1808,19 @@ public class Linear {
 	 *             if the feature nodes of prob are not sorted in ascending order
 	 */
 	public static Model train(Problem prob, Parameter param) {
+		return train(prob, param, null);
+	}
+
+	/**
+	 * Same as {@link #train(Problem, Parameter)} but trains the one-vs-rest problems of a
+	 * multiclass classification concurrently in the given context.
+	 *
+	 * @param context
+	 *            the context to train the one-vs-rest problems in, can be {@code null}
+	 * @throws IllegalArgumentException
+	 *             if the feature nodes of prob are not sorted in ascending order
+	 */
+	public static Model train(Problem prob, final Parameter param, ConcurrencyContext context) {
 
 		if (prob == null) {
 			throw new IllegalArgumentException("problem must not be null");
@@ -1828,7 +1848,7 @@ public class Linear {
 
 		int l = prob.l;
 		int n = prob.n;
-		int w_size = prob.n;
+		final int w_size = prob.n;
 		Model model = new Model();
 
 		if (prob.bias >= 0) {
@@ -1849,7 +1869,7 @@ public class Linear {
 
 			checkProblemSize(n, model.nr_class);
 
-			train_one(prob, param, model.w, 0, 0);
+			train_one(prob, param, model.w, 0, 0, random);
 		} else {
 			int[] perm = new int[l];
 
@@ -1894,7 +1914,7 @@ public class Linear {
 				x[i] = prob.x[perm[i]];
 			}
 
-			Problem sub_prob = new Problem();
+			final Problem sub_prob = new Problem();
 			sub_prob.l = l;
 			sub_prob.n = n;
 			sub_prob.x = new Feature[sub_prob.l][];
@@ -1928,29 +1948,56 @@ public class Linear {
 						sub_prob.y[k] = -1;
 					}
 
-					train_one(sub_prob, param, model.w, weighted_C[0], weighted_C[1]);
+					train_one(sub_prob, param, model.w, weighted_C[0], weighted_C[1], random);
 				} else {
 					model.w = new double[w_size * nr_class];
-					double[] w = new double[w_size];
+					final double[][] w = new double[nr_class][];
+					// every one-vs-rest problem gets its own generator so that the result does not
+					// depend on the number of problems trained concurrently
+					final long[] seeds = new long[nr_class];
 					for (int i = 0; i < nr_class; i++) {
-						int si = start[i];
-						int ei = si + count[i];
-
-						int k = 0;
-						for (; k < si; k++) {
-							sub_prob.y[k] = -1;
-						}
-						for (; k < ei; k++) {
-							sub_prob.y[k] = +1;
-						}
-						for (; k < sub_prob.l; k++) {
-							sub_prob.y[k] = -1;
-						}
+						seeds[i] = random.nextLong();
+					}
 
-						train_one(sub_prob, param, w, weighted_C[i], param.C);
+					List<Callable<Void>> tasks = new ArrayList<>(nr_class);
+					for (int i = 0; i < nr_class; i++) {
+						final int si = start[i];
+						final int ei = si + count[i];
+						final int classIndex = i;
+						final double Cp = weighted_C[i];
+						tasks.add(new Callable<Void>() {
+
+							@Override
+							public Void call() {
+								// the rows are shared, only the labels differ between the problems
+								Problem one_prob = new Problem();
+								one_prob.l = sub_prob.l;
+								one_prob.n = sub_prob.n;
+								one_prob.x = sub_prob.x;
+								one_prob.y = new double[one_prob.l];
+
+								int k = 0;
+								for (; k < si; k++) {
+									one_prob.y[k] = -1;
+								}
+								for (; k < ei; k++) {
+									one_prob.y[k] = +1;
+								}
+								for (; k < one_prob.l; k++) {
+									one_prob.y[k] = -1;
+								}
+
+								w[classIndex] = new double[w_size];
+								train_one(one_prob, param, w[classIndex], Cp, param.C, new Random(seeds[classIndex]));
+								return null;
+							}
+						});
+					}
+					call(tasks, context);
 
+					for (int i = 0; i < nr_class; i++) {
 						for (int j = 0; j < n; j++) {
-							model.w[j * nr_class + i] = w[j];
+							model.w[j * nr_class + i] = w[i][j];
 						}
 					}
 				}
@@ -1959,6 +2006,37 @@ public class Linear {
 		return model;
 	}
 
+	/**
+	 * Runs the tasks in the context if it allows more than one thread, otherwise in the calling
+	 * thread.
+	 */
+	private static void call(List<Callable<Void>> tasks, ConcurrencyContext context) {
+		if (context == null || context.getParallelism() <= 1 || tasks.size() <= 1) {
+			for (Callable<Void> task : tasks) {
+				try {
+					task.call();
+				} catch (RuntimeException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new IllegalStateException(e.getMessage(), e);
+				}
+			}
+			return;
+		}
+		try {
+			context.call(tasks);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new IllegalStateException(cause.getMessage(), cause);
+			}
+		}
+	}
+
 	/**
 	 * verify the size and throw an exception early if the problem is too large
 	 */
@@ -1969,7 +2047,7 @@ public class Linear {
 		}
 	}
 
-	private static void train_one(Problem prob, Parameter param, double[] w, double Cp, double Cn) {
+	private static void train_one(Problem prob, Parameter param, double[] w, double Cp, double Cn, Random random) {
 		double eps = param.eps;
 		int pos = 0;
 		for (int i = 0; i < prob.l; i++) {
@@ -2012,23 +2090,23 @@ public class Linear {
 				break;
 			}
 			case L2R_L2LOSS_SVC_DUAL:
-				solve_l2r_l1l2_svc(prob, w, eps, Cp, Cn, SolverType.L2R_L2LOSS_SVC_DUAL);
+				solve_l2r_l1l2_svc(prob, w, eps, Cp, Cn, SolverType.L2R_L2LOSS_SVC_DUAL, random);
 				break;
 			case L2R_L1LOSS_SVC_DUAL:
-				solve_l2r_l1l2_svc(prob, w, eps, Cp, Cn, SolverType.L2R_L1LOSS_SVC_DUAL);
+				solve_l2r_l1l2_svc(prob, w, eps, Cp, Cn, SolverType.L2R_L1LOSS_SVC_DUAL, random);
 				break;
 			case L1R_L2LOSS_SVC: {
 				Problem prob_col = transpose(prob);
-				solve_l1r_l2_svc(prob_col, w, primal_solver_tol, Cp, Cn);
+				solve_l1r_l2_svc(prob_col, w, primal_solver_tol, Cp, Cn, random);
 				break;
 			}
 			case L1R_LR: {
 				Problem prob_col = transpose(prob);
-				solve_l1r_lr(prob_col, w, primal_solver_tol, Cp, Cn);
+				solve_l1r_lr(prob_col, w, primal_solver_tol, Cp, Cn, random);
 				break;
 			}
 			case L2R_LR_DUAL:
-				solve_l2r_lr_dual(prob, w, eps, Cp, Cn);
+				solve_l2r_lr_dual(prob, w, eps, Cp, Cn, random);
 				break;
 			case L2R_L2LOSS_SVR: {
 				double[] C = new double[prob.l];
@@ -2043,7 +2121,7 @@ public class Linear {
 			}
 			case L2R_L1LOSS_SVR_DUAL:
 			case L2R_L2LOSS_SVR_DUAL:
-				solve_l2r_l1l2_svr(prob, w, param);
+				solve_l2r_l1l2_svr(prob, w, param, random);
 				break;
 
 			default:
@@ -31,8 +31,13 @@ import java.io.DataOutputStream;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
+import base.operators.core.concurrency.ConcurrencyContext;
 import base.operators.operator.Operator;
 import base.operators.operator.ProcessStoppedException;
 import base.operators.tools.RandomGenerator;
@@ -1523,6 +1528,24 @@ public class Svm {
 		return f;
 	}
 
+	// probability estimates and binary model for one pair of classes
+	private static decision_function svm_train_pair(svm_problem sub_prob, svm_parameter param, double Cp, double Cn,
+			int[] perm, double[] probA, double[] probB, int p, Operator executingOperator)
+			throws ProcessStoppedException {
+		if (param.probability == 1) {
+			double[] probAB = new double[2];
+			svm_binary_svc_probability(sub_prob, param, Cp, Cn, perm, probAB);
+			probA[p] = probAB[0];
+			probB[p] = probAB[1];
+		}
+
+		if (executingOperator != null) {
+			executingOperator.checkForStop();
+		}
+
+		return svm_train_one(sub_prob, param, Cp, Cn, executingOperator);
+	}
+
 	// Platt's binary SVM Probablistic Output: an improvement from Lin et al.
 	private static void sigmoid_train(int l, double[] dec_values, double[] labels, double[] probAB) {
 		double A, B;
@@ -1699,27 +1722,33 @@ public class Svm {
 		}
 	}
 
-	// Cross-validation decision values for probability estimates
-	private static void svm_binary_svc_probability(svm_problem prob, svm_parameter param, double Cp, double Cn,
-			double[] probAB) {
+	// Random shuffle for the cross-validation folds of svm_binary_svc_probability, drawn on the
+	// calling thread so that parallel training uses the same folds as sequential training
+	private static int[] svm_binary_svc_permutation(int l) {
 		int i;
-		int nr_fold = 5;
-		int[] perm = new int[prob.l];
-		double[] dec_values = new double[prob.l];
-
-		// random shuffle
-		for (i = 0; i < prob.l; i++) {
+		int[] perm = new int[l];
+		for (i = 0; i < l; i++) {
 			perm[i] = i;
 		}
 		RandomGenerator randomGenerator = RandomGenerator.getGlobalRandomGenerator();
-		for (i = 0; i < prob.l; i++) {
-			int j = i + (int) (randomGenerator.nextDouble() * (prob.l - i));
+		for (i = 0; i < l; i++) {
+			int j = i + (int) (randomGenerator.nextDouble() * (l - i));
 			do {
 				int _ = perm[i];
 				perm[i] = perm[j];
 				perm[j] = _;
 			} while (false);
 		}
+		return perm;
+	}
+
+	// Cross-validation decision values for probability estimates
+	private static void svm_binary_svc_probability(svm_problem prob, svm_parameter param, double Cp, double Cn,
+			int[] perm, double[] probAB) {
+		int i;
+		int nr_fold = 5;
+		double[] dec_values = new double[prob.l];
+
 		for (i = 0; i < nr_fold; i++) {
 			int begin = i * prob.l / nr_fold;
 			int end = (i + 1) * prob.l / nr_fold;
@@ -1893,6 +1922,21 @@ public class Svm {
 	 */
 	public static svm_model svm_train(svm_problem prob, svm_parameter param, Operator executingOperator)
 			throws ProcessStoppedException {
+		return svm_train(prob, param, executingOperator, null);
+	}
+
+	/**
+	 * Same as {@link #svm_train(svm_problem, svm_parameter, Operator)} but trains the k*(k-1)/2
+	 * binary models of a multiclass classification concurrently if a context with a parallelism
+	 * larger than one is given. The kernel cache size of the parameters is then split between the
+	 * concurrently trained models. The resulting model is the same as the sequentially trained one.
+	 *
+	 * @param context
+	 *            the context to train the binary models in, can be {@code null}
+	 * @throws ProcessStoppedException
+	 */
+	public static svm_model svm_train(svm_problem prob, svm_parameter param, Operator executingOperator,
+			ConcurrencyContext context) throws ProcessStoppedException {
 		svm_model model = new svm_model();
 		model.param = param;
 		if (param.svm_type == svm_parameter.ONE_CLASS || param.svm_type == svm_parameter.EPSILON_SVR
@@ -1990,23 +2034,29 @@ public class Svm {
 
 			// train k*(k-1)/2 models
 
+			int nr_models = nr_class * (nr_class - 1) / 2;
 			boolean[] nonzero = new boolean[l];
 			for (i = 0; i < l; i++) {
 				nonzero[i] = false;
 			}
-			decision_function[] f = new decision_function[nr_class * (nr_class - 1) / 2];
+			final decision_function[] f = new decision_function[nr_models];
 
-			double[] probA = null, probB = null;
+			final double[] probA, probB;
 			if (param.probability == 1) {
-				probA = new double[nr_class * (nr_class - 1) / 2];
-				probB = new double[nr_class * (nr_class - 1) / 2];
+				probA = new double[nr_models];
+				probB = new double[nr_models];
+			} else {
+				probA = null;
+				probB = null;
 			}
 
+			// the sub-problems share the rows of the problem, only the labels are created per pair
+			final svm_problem[] sub_probs = new svm_problem[nr_models];
+			final double[] Cp = new double[nr_models];
+			final double[] Cn = new double[nr_models];
+			final int[][] perms = param.probability == 1 ? new int[nr_models][] : null;
 			int p = 0;
 			for (i = 0; i < nr_class; i++) {
-				if (executingOperator != null) {
-					executingOperator.checkForStop();
-				}
 				for (int j = i + 1; j < nr_class; j++) {
 					svm_problem sub_prob = new svm_problem();
 					int si = start[i], sj = start[j];
@@ -2023,23 +2073,70 @@ public class Svm {
 						sub_prob.x[ci + k] = x[sj + k];
 						sub_prob.y[ci + k] = -1;
 					}
-
-					if (param.probability == 1) {
-						double[] probAB = new double[2];
-						svm_binary_svc_probability(sub_prob, param, weighted_C[i], weighted_C[j], probAB);
-						probA[p] = probAB[0];
-						probB[p] = probAB[1];
+					sub_probs[p] = sub_prob;
+					Cp[p] = weighted_C[i];
+					Cn[p] = weighted_C[j];
+					if (perms != null) {
+						perms[p] = svm_binary_svc_permutation(sub_prob.l);
 					}
+					++p;
+				}
+			}
 
+			int parallelism = context != null ? Math.min(context.getParallelism(), nr_models) : 1;
+			if (parallelism > 1) {
+				// split the kernel cache between the concurrently trained models
+				final svm_parameter worker_param = (svm_parameter) param.clone();
+				worker_param.cache_size = param.cache_size / parallelism;
+				final Operator operator = executingOperator;
+				List<Callable<Void>> tasks = new ArrayList<>(nr_models);
+				for (p = 0; p < nr_models; p++) {
+					final int model_index = p;
+					tasks.add(new Callable<Void>() {
+
+						@Override
+						public Void call() throws ProcessStoppedException {
+							f[model_index] = svm_train_pair(sub_probs[model_index], worker_param, Cp[model_index],
+									Cn[model_index], perms != null ? perms[model_index] : null, probA, probB, model_index,
+									operator);
+							return null;
+						}
+					});
+				}
+				try {
+					context.call(tasks);
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof ProcessStoppedException) {
+						throw (ProcessStoppedException) cause;
+					} else if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					} else if (cause instanceof Error) {
+						throw (Error) cause;
+					} else {
+						throw new RuntimeException(cause.getMessage(), cause);
+					}
+				}
+			} else {
+				for (p = 0; p < nr_models; p++) {
 					if (executingOperator != null) {
 						executingOperator.checkForStop();
 					}
+					f[p] = svm_train_pair(sub_probs[p], param, Cp[p], Cn[p], perms != null ? perms[p] : null, probA,
+							probB, p, executingOperator);
+				}
+			}
 
-					f[p] = svm_train_one(sub_prob, param, weighted_C[i], weighted_C[j], executingOperator);
+			if (executingOperator != null) {
+				executingOperator.checkForStop();
+			}
 
-					if (executingOperator != null) {
-						executingOperator.checkForStop();
-					}
+			p = 0;
+			for (i = 0; i < nr_class; i++) {
+				for (int j = i + 1; j < nr_class; j++) {
+					int si = start[i], sj = start[j];
+					int ci = count[i], cj = count[j];
+					int k;
 					for (k = 0; k < ci; k++) {
 						if (!nonzero[si + k] && Math.abs(f[p].alpha[k]) > 0) {
 							nonzero[si + k] = true;